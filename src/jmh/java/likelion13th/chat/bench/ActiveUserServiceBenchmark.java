@@ -0,0 +1,67 @@
+package likelion13th.chat.bench;
+
+import likelion13th.chat.presence.PresenceTable;
+import likelion13th.chat.presence.TablePresenceRegistry;
+import likelion13th.chat.service.ActiveUserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ActiveUserService 경합 상황: 입장/퇴장 스레드와 접속 여부 조회 스레드가 같은 방 집합을 동시에 사용
+ * (send 한 번마다 isActive 한 번이 호출되므로 조회 쪽 스레드를 더 많이 둠)
+ * 방/사용자는 RoomRegistry가 부여하는 것과 같은 숫자 ID
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActiveUserServiceBenchmark {
+
+    @Param({"100", "10000"})
+    public int rooms;
+
+    private ActiveUserService service;
+    private long[] roomNos;
+    private long[] userNos;
+
+    @State(Scope.Thread)
+    public static class Session {
+        final String sessionId = UUID.randomUUID().toString();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new ActiveUserService(new TablePresenceRegistry(new PresenceTable(), Duration.ofMinutes(5)));
+        roomNos = new long[rooms];
+        userNos = new long[rooms * 2];
+        for (int i = 0; i < rooms; i++) {
+            userNos[i * 2] = i * 2L + 1;
+            userNos[i * 2 + 1] = i * 2L + 2;
+            roomNos[i] = i + 1;
+            // 절반의 방에는 한 명이 이미 접속해 있는 상태
+            if (i % 2 == 0) {
+                service.userJoined(roomNos[i], userNos[i * 2], "seed-" + i);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("presence")
+    @GroupThreads(2)
+    public void joinLeave(Session session) {
+        int room = ThreadLocalRandom.current().nextInt(rooms);
+        service.userJoined(roomNos[room], userNos[room * 2 + 1], session.sessionId);
+        service.sessionClosed(session.sessionId);
+    }
+
+    @Benchmark
+    @Group("presence")
+    @GroupThreads(6)
+    public boolean isActive() {
+        int room = ThreadLocalRandom.current().nextInt(rooms);
+        return service.isActive(roomNos[room], userNos[room * 2]);
+    }
+}
@@ -0,0 +1,40 @@
+package likelion13th.chat.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static likelion13th.chat.dto.event.SampleMessages.sampleResponse;
+
+/**
+ * 브로드캐스트 한 번마다 일어나는 ChatMessageResponse → JSON 변환 비용
+ * ObjectMapper는 STOMP 메시지 컨버터와 같은 방식(Jackson2ObjectMapperBuilder)으로 생성
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatMessageResponseJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ChatMessageResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = sampleResponse();
+    }
+
+    @Benchmark
+    public byte[] toBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public String toStringValue() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(response);
+    }
+}
@@ -0,0 +1,138 @@
+package likelion13th.chat.bench;
+
+import likelion13th.chat.ChatApplication;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.dto.command.EnterRoomCommand;
+import likelion13th.chat.dto.command.SendMessageCommand;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import likelion13th.chat.dto.event.MessagesReadEvent;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
+import likelion13th.chat.repository.UserRepository;
+import likelion13th.chat.service.ChatService;
+import likelion13th.chat.service.RoomRegistry;
+import likelion13th.chat.service.SendResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatService 핫패스: 방 크기(기존 메시지 수)별 send / fetchRecent / enter
+ * 실제 애플리케이션 컨텍스트(H2 인메모리)를 띄우고, 방에는 이미 읽은(READ) 메시지를 미리 채워둠
+ * 마지막 UNREAD개는 alice가 보낸 SENT 메시지: enter(bob)가 매번 실제로 읽음 처리하도록 호출마다 SENT로 되돌림
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatServiceBenchmark {
+
+    private static final int SEED_BATCH = 10_000;
+    /** bob이 아직 읽지 않은 alice의 메시지 수 (방 크기가 더 작으면 방 전체) */
+    private static final int UNREAD = 50;
+
+    @Param({"10", "1000", "100000"})
+    public int roomSize;
+
+    private ConfigurableApplicationContext ctx;
+    private ChatService chatService;
+    private String roomId;
+    private long roomNo;
+    private String alice;
+    private String bob;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = new SpringApplicationBuilder(ChatApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                                + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false",
+                        "logging.level.root=WARN")
+                .run();
+        chatService = ctx.getBean(ChatService.class);
+
+        List<User> users = ctx.getBean(UserRepository.class).findAll();
+        alice = users.get(0).getUid();
+        bob = users.get(1).getUid();
+        roomId = RoomRegistry.canonicalKey(alice, bob);
+        roomNo = ctx.getBean(RoomRegistry.class).resolve(roomId).no();
+
+        jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+        seed(ctx.getBean(ChatMessageJdbcRepository.class));
+    }
+
+    /**
+     * roomSize 만큼 메시지를 배치 INSERT하고, 이후 IDENTITY가 그 다음 값부터 나가도록 재설정
+     * 마지막 UNREAD개는 alice → bob, SENT
+     */
+    private void seed(ChatMessageJdbcRepository jdbcRepository) {
+        Instant now = Instant.now();
+        List<ChatMessage> batch = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= roomSize; id++) {
+            boolean unread = id > unreadFrom();
+            batch.add(ChatMessage.builder()
+                    .id(id)
+                    .roomNo(roomNo)
+                    .senderUid(unread || id % 2 == 0 ? alice : bob)
+                    .content("seed message #" + id)
+                    .status(unread ? MessageStatus.SENT : MessageStatus.READ)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .version(0L)
+                    .build());
+            if (batch.size() == SEED_BATCH) {
+                jdbcRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcRepository.insertAll(batch);
+        }
+        jdbcTemplate.execute("ALTER TABLE chat_message ALTER COLUMN id RESTART WITH " + (roomSize + 1));
+    }
+
+    private long unreadFrom() {
+        return Math.max(0, roomSize - UNREAD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    /** enter 전용: 호출마다 읽지 않은 꼬리를 SENT로 되돌림 (되돌리는 시간은 측정에서 빠짐) */
+    @State(Scope.Thread)
+    public static class UnreadTail {
+
+        @Setup(Level.Invocation)
+        public void reset(ChatServiceBenchmark bench) {
+            bench.jdbcTemplate.update("UPDATE chat_message SET status = 'SENT' WHERE room_no = ? AND id > ?",
+                    bench.roomNo, bench.unreadFrom());
+        }
+    }
+
+    @Benchmark
+    public SendResult send() {
+        return chatService.send(new SendMessageCommand(roomId, alice, "hello", null));
+    }
+
+    @Benchmark
+    public List<ChatMessageResponse> fetchRecent() {
+        return chatService.fetchRecent(roomId, 50);
+    }
+
+    @Benchmark
+    public Optional<MessagesReadEvent> enter(UnreadTail unreadTail) {
+        return chatService.enter(new EnterRoomCommand(roomId, bob));
+    }
+}
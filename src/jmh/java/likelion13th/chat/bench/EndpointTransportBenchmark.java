@@ -0,0 +1,172 @@
+package likelion13th.chat.bench;
+
+import likelion13th.chat.ChatApplication;
+import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.service.RoomBroadcaster;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SockJS(/ws) vs 네이티브 웹소켓(/ws-native): 같은 수의 구독자에게 같은 브로드캐스트를 보냈을 때 전달 하나당 시간
+ * - wireBytes / deliveries (보조 지표): 클라이언트가 받은 웹소켓 메시지 payload 바이트, SockJS는 프레이밍 포함
+ * - 세션당 메모리/CPU는 -prof gc, -prof stack 등 jmh 프로파일러로
+ * permessage-deflate는 payload가 아니라 실제 전송 바이트를 줄이므로 두 엔드포인트 모두 끄고 비교
+ * (SockJS의 xhr-streaming/long-polling 폴백은 다루지 않음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EndpointTransportBenchmark {
+
+    private static final int SESSIONS = 200;
+    private static final int MESSAGES = 200;
+
+    @Param({"sockjs", "websocket"})
+    public String endpoint;
+
+    private ConfigurableApplicationContext node;
+    private WebSocketStompClient client;
+    private RoomBroadcaster broadcaster;
+    private String roomId;
+    private final LongAdder wireBytes = new LongAdder();
+    private final AtomicReference<CountDownLatch> received = new AtomicReference<>(new CountDownLatch(0));
+
+    /** 반복(iteration)마다 합산되는 보조 지표 */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long wireBytes;
+        public long deliveries;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        node = new SpringApplicationBuilder(ChatApplication.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:endpoints-" + UUID.randomUUID()
+                                + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false",
+                        "chat.endpoints.sockjs.per-message-deflate=false",
+                        "chat.endpoints.websocket.per-message-deflate=false")
+                .run();
+        broadcaster = node.getBean(RoomBroadcaster.class);
+        roomId = endpoint + "__" + UUID.randomUUID();
+
+        String baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        String url;
+        if (endpoint.equals("sockjs")) {
+            client = new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(countingClient()))));
+            url = baseUrl + "/ws";
+        } else {
+            client = new WebSocketStompClient(countingClient());
+            url = "ws" + baseUrl.substring("http".length()) + "/ws-native";
+        }
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+
+        CountDownLatch warmedUp = new CountDownLatch(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {})
+                    .get(10, TimeUnit.SECONDS);
+            subscribe(session, warmedUp);
+        }
+        // 구독 등록은 비동기이므로, 모든 구독자가 warmup 이벤트를 받을 때까지 반복 전송
+        while (!warmedUp.await(50, TimeUnit.MILLISECONDS)) {
+            broadcaster.broadcast(roomId, WsEvent.builder().type("warmup").build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.stop();
+        node.close();
+    }
+
+    /** MESSAGES개를 보내고 SESSIONS개 구독자가 전부 받을 때까지 */
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS * MESSAGES)
+    public void broadcastToAllSessions(Wire wire) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(SESSIONS * MESSAGES);
+        received.set(latch);
+        long bytesBefore = wireBytes.sum();
+        for (long i = 0; i < MESSAGES; i++) {
+            broadcaster.broadcast(roomId, WsEvent.deleted(i));
+        }
+        if (!latch.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("broadcast not delivered: " + latch.getCount() + " missing");
+        }
+        wire.wireBytes += wireBytes.sum() - bytesBefore;
+        wire.deliveries += (long) SESSIONS * MESSAGES;
+    }
+
+    private void subscribe(StompSession session, CountDownLatch warmedUp) {
+        CountDownLatch firstWarmup = new CountDownLatch(1);
+        session.subscribe("/topic/rooms/" + roomId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Object.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                // chat.broadcast.coalescing을 켜면 여러 이벤트가 배열 하나로 옴
+                List<?> events = payload instanceof List<?> list ? list : List.of(payload);
+                for (Object event : events) {
+                    if ("warmup".equals(((Map<?, ?>) event).get("type"))) {
+                        if (firstWarmup.getCount() > 0) {
+                            firstWarmup.countDown();
+                            warmedUp.countDown();
+                        }
+                    } else {
+                        received.get().countDown();
+                    }
+                }
+            }
+        });
+    }
+
+    /** 받은 웹소켓 메시지 payload 바이트를 세는 클라이언트 */
+    private WebSocketClient countingClient() {
+        return new StandardWebSocketClient() {
+            @Override
+            public CompletableFuture<WebSocketSession> execute(WebSocketHandler handler,
+                                                               WebSocketHttpHeaders headers, URI uri) {
+                return super.execute(new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                        wireBytes.add(message.getPayloadLength());
+                        super.handleMessage(session, message);
+                    }
+                }, headers, uri);
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package likelion13th.chat.bench;
+
+import likelion13th.chat.ChatApplication;
+import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.service.RoomBroadcaster;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 브로커 모드별 방 브로드캐스트: 한 노드의 RoomBroadcaster로 보낸 이벤트가
+ * (모든 노드에 붙은) STOMP 구독자에게 도착하기까지, 이벤트 하나당 시간
+ * - simple: 단일 노드 기준선
+ * - fanout: 두 노드, InMemoryClusterBus로 전파 (chat.broker.cluster-transport=in-memory, 접속자도 in-memory 테이블 공유)
+ * relay 모드는 외부 STOMP 브로커가 필요하므로 다루지 않음
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoomBroadcastBenchmark {
+
+    private static final int MESSAGES = 500;
+
+    @Param({"simple", "fanout"})
+    public String brokerMode;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<WebSocketStompClient> clients = new ArrayList<>();
+    private final AtomicReference<CountDownLatch> received = new AtomicReference<>(new CountDownLatch(0));
+    private RoomBroadcaster broadcaster;
+    private String roomId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String clusterName = "bench-" + UUID.randomUUID();
+        int nodeCount = brokerMode.equals("fanout") ? 2 : 1;
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new SpringApplicationBuilder(ChatApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                                    + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false",
+                            "logging.level.root=WARN",
+                            "chat.broker.mode=" + brokerMode,
+                            "chat.broker.cluster-name=" + clusterName,
+                            "chat.broker.cluster-transport=in-memory",
+                            "chat.presence.backend=in-memory",
+                            "chat.presence.cluster-name=" + clusterName)
+                    .run());
+        }
+        broadcaster = nodes.get(0).getBean(RoomBroadcaster.class);
+        roomId = "bench__" + UUID.randomUUID();
+
+        CountDownLatch warmedUp = new CountDownLatch(nodes.size());
+        for (ConfigurableApplicationContext node : nodes) {
+            subscribe(node, warmedUp);
+        }
+        // 구독 등록은 비동기이므로, 모든 구독자가 warmup 이벤트를 받을 때까지 반복 전송
+        while (!warmedUp.await(50, TimeUnit.MILLISECONDS)) {
+            broadcaster.broadcast(roomId, WsEvent.builder().type("warmup").build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clients.forEach(WebSocketStompClient::stop);
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    /** MESSAGES개를 보내고 모든 노드의 구독자가 전부 받을 때까지 */
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void broadcastToAllNodes() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(MESSAGES * nodes.size());
+        received.set(latch);
+        for (long i = 0; i < MESSAGES; i++) {
+            broadcaster.broadcast(roomId, WsEvent.deleted(i));
+        }
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("broadcast not delivered: " + latch.getCount() + " missing");
+        }
+    }
+
+    private void subscribe(ConfigurableApplicationContext node, CountDownLatch warmedUp) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        clients.add(client);
+
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        StompSession session = client.connectAsync("http://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+
+        CountDownLatch firstWarmup = new CountDownLatch(1);
+        session.subscribe("/topic/rooms/" + roomId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Object.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                // chat.broadcast.coalescing을 켜면 여러 이벤트가 배열 하나로 옴
+                List<?> events = payload instanceof List<?> list ? list : List.of(payload);
+                for (Object event : events) {
+                    if ("warmup".equals(((Map<?, ?>) event).get("type"))) {
+                        if (firstWarmup.getCount() > 0) {
+                            firstWarmup.countDown();
+                            warmedUp.countDown();
+                        }
+                    } else {
+                        received.get().countDown();
+                    }
+                }
+            }
+        });
+    }
+}
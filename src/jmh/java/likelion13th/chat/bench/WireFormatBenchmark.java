@@ -0,0 +1,63 @@
+package likelion13th.chat.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static likelion13th.chat.dto.event.SampleMessages.sampleResponse;
+
+/**
+ * JSON(기본) vs CBOR(content-type: application/cbor) 인코딩/디코딩 비용
+ * - cborEncode: 객체를 바로 CBOR로 (비교용, 서버는 이 경로를 쓰지 않음)
+ * - cborDecode: CBOR 세션이 받는 프레임(JSON에서 옮긴 CBOR, 날짜는 JSON과 같은 문자열) 기준
+ * - jsonToCbor: 서버가 브로드캐스트 JSON 바이트를 CBOR 세션용으로 옮기는 비용 (프레임당 1회)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WireFormatBenchmark {
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private ChatMessageResponse response;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        response = sampleResponse();
+        json = jsonMapper.writeValueAsBytes(response);
+        cbor = jsonToCbor();
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] cborEncode() throws IOException {
+        return cborMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ChatMessageResponse jsonDecode() throws IOException {
+        return jsonMapper.readValue(json, ChatMessageResponse.class);
+    }
+
+    @Benchmark
+    public ChatMessageResponse cborDecode() throws IOException {
+        return cborMapper.readValue(cbor, ChatMessageResponse.class);
+    }
+
+    @Benchmark
+    public byte[] jsonToCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(jsonMapper.readTree(json));
+    }
+}
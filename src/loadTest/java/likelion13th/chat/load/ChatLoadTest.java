@@ -0,0 +1,123 @@
+package likelion13th.chat.load;
+
+import likelion13th.chat.ChatApplication;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * STOMP 부하 생성기 (load.transport: /ws SockJS 또는 /ws-native 웹소켓)
+ * 1. 내장 서버를 띄우고 사용자 pairs*2명을 만들어 A__B 방으로 짝지음 (load.target 서버면 load.users의 기존 사용자로 짝지음)
+ * 2. 방마다 세션 2개를 열고 /topic/rooms/{roomId} 구독
+ * 3. load.rate(초당) 속도로 임의의 방에 send/edit/delete/enter를 load.mix 비율로 보냄
+ * 4. 명령별 처리량과 왕복 지연시간 백분위를 출력하고 .hgrm 파일로 저장
+ */
+public final class ChatLoadTest {
+
+    private ChatLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions opt = LoadTestOptions.fromSystemProperties();
+
+        ConfigurableApplicationContext server = null;
+        String baseUrl = opt.target();
+        List<String[]> userPairs;
+        if (baseUrl == null) {
+            server = new SpringApplicationBuilder(ChatApplication.class)
+                    .properties("server.port=0", "logging.level.root=WARN")
+                    .run();
+            baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) server).getWebServer().getPort();
+            userPairs = createUsers(server.getBean(UserRepository.class), opt.pairs());
+        } else {
+            userPairs = existingUids(opt.users(), opt.pairs());
+        }
+
+        ThreadPoolTaskScheduler heartbeat = new ThreadPoolTaskScheduler();
+        heartbeat.initialize();
+        boolean nativeWebSocket = "websocket".equals(opt.transport());
+        WebSocketStompClient client = new WebSocketStompClient(nativeWebSocket
+                ? new StandardWebSocketClient()
+                : new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        String wsUrl = nativeWebSocket ? baseUrl.replaceFirst("^http", "ws") + "/ws-native" : baseUrl + "/ws";
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        client.setTaskScheduler(heartbeat);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        List<ChatPair> pairs = new ArrayList<>(userPairs.size());
+        for (String[] uids : userPairs) {
+            ChatPair pair = new ChatPair(uids[0], uids[1], recorder);
+            pair.connect(client, wsUrl);
+            pairs.add(pair);
+        }
+        System.out.printf("target=%s sessions=%d rooms=%d rate=%d/s duration=%s%n",
+                wsUrl, pairs.size() * 2, pairs.size(), opt.rate(), opt.duration());
+
+        double seconds = drive(pairs, opt);
+        // 아직 도착하지 않은 브로드캐스트를 잠시 기다림
+        TimeUnit.SECONDS.sleep(2);
+        recorder.report(seconds, System.out, opt.reportDir());
+
+        pairs.forEach(ChatPair::close);
+        client.stop();
+        heartbeat.shutdown();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /** 고정 속도(open-loop)로 명령을 보냄: 지연이 늘어도 보내는 속도는 줄이지 않음 */
+    private static double drive(List<ChatPair> pairs, LoadTestOptions opt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        long end = start + opt.duration().toNanos();
+        long fired = 0;
+        while (System.nanoTime() < end) {
+            long due = (long) ((System.nanoTime() - start) / 1e9 * opt.rate());
+            for (; fired < due; fired++) {
+                ChatPair pair = pairs.get(random.nextInt(pairs.size()));
+                pair.fire(opt.pick(random.nextInt(opt.totalWeight())));
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static List<String[]> createUsers(UserRepository userRepository, int pairs) {
+        List<String[]> result = new ArrayList<>(pairs);
+        for (int i = 0; i < pairs; i++) {
+            User a = userRepository.save(User.builder().key("load").displayName("load-a-" + i).build());
+            User b = userRepository.save(User.builder().key("load").displayName("load-b-" + i).build());
+            result.add(new String[]{a.getUid(), b.getUid()});
+        }
+        return result;
+    }
+
+    /** 대상 서버의 기존 사용자들을 차례로 둘씩 짝지음 (pairs * 2보다 적으면 돌려가며 재사용) */
+    private static List<String[]> existingUids(List<String> users, int pairs) {
+        if (users.size() < 2) {
+            throw new IllegalArgumentException("load.target을 쓸 때는 load.users에 기존 사용자 uid를 2개 이상 지정해야 합니다.");
+        }
+        List<String[]> result = new ArrayList<>(pairs);
+        for (int i = 0; i < pairs; i++) {
+            String a = users.get((i * 2) % users.size());
+            String b = users.get((i * 2 + 1) % users.size());
+            result.add(new String[]{a, b});
+        }
+        return result;
+    }
+}
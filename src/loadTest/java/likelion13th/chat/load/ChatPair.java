@@ -0,0 +1,151 @@
+package likelion13th.chat.load;
+
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 하나의 방(A__B)과 두 세션
+ * - A: 방에 입장(/app/enter)한 상태로 send/edit/delete/enter 명령을 보내고, 자기 구독으로 왕복 시간을 잼
+ * - B: 구독만 하고 입장하지 않음 → A의 메시지가 SENT로 남아 수정/삭제 대상이 됨 (수신 fan-out은 2명)
+ */
+final class ChatPair {
+
+    private static final String NONCE_PREFIX = "lt:";
+
+    private final String roomId;
+    private final String aUid;
+    private final LatencyRecorder recorder;
+    private StompSession a;
+    private StompSession b;
+
+    /** A가 보낸 메시지 중 아직 SENT 상태라 수정/삭제 가능한 ID */
+    private final ConcurrentLinkedDeque<Long> editable = new ConcurrentLinkedDeque<>();
+    /** 응답을 기다리는 명령: nonce(또는 "delete:{id}") → (종류, 보낸 시각) */
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private record Pending(LoadOp op, long startNanos) {
+    }
+
+    ChatPair(String aUid, String bUid, LatencyRecorder recorder) {
+        // 서버는 정렬된 "A__B"로 방을 통일해서 브로드캐스트하므로 구독도 같은 순서로
+        this.roomId = aUid.compareTo(bUid) <= 0 ? aUid + "__" + bUid : bUid + "__" + aUid;
+        this.aUid = aUid;
+        this.recorder = recorder;
+    }
+
+    void connect(WebSocketStompClient client, String wsUrl) throws Exception {
+        a = client.connectAsync(wsUrl, new StompSessionHandlerAdapter() {}).get(30, TimeUnit.SECONDS);
+        b = client.connectAsync(wsUrl, new StompSessionHandlerAdapter() {}).get(30, TimeUnit.SECONDS);
+        a.subscribe("/topic/rooms/" + roomId, handler(this::onBroadcast));
+        b.subscribe("/topic/rooms/" + roomId, handler(payload -> { }));
+        a.send("/app/enter", Map.of("roomId", roomId, "userUid", aUid));
+    }
+
+    void fire(LoadOp op) {
+        switch (op) {
+            case SEND -> send();
+            case EDIT -> edit();
+            case DELETE -> delete();
+            case ENTER -> enter();
+        }
+    }
+
+    private void send() {
+        String nonce = NONCE_PREFIX + UUID.randomUUID();
+        track(nonce, LoadOp.SEND);
+        a.send("/app/send", Map.of("roomId", roomId, "senderUid", aUid, "content", nonce));
+    }
+
+    /** 수정할 메시지가 아직 없으면 send로 대체 */
+    private void edit() {
+        Long id = editable.pollFirst();
+        if (id == null) {
+            send();
+            return;
+        }
+        String nonce = NONCE_PREFIX + UUID.randomUUID();
+        track(nonce, LoadOp.EDIT);
+        a.send("/app/edit", Map.of("roomId", roomId, "messageId", id, "editorUid", aUid, "newContent", nonce));
+    }
+
+    private void delete() {
+        Long id = editable.pollLast();
+        if (id == null) {
+            send();
+            return;
+        }
+        track("delete:" + id, LoadOp.DELETE);
+        a.send("/app/delete", Map.of("roomId", roomId, "messageId", id, "requesterUid", aUid));
+    }
+
+    /** 변경이 없으면 브로드캐스트가 없으므로 요청 수만 집계 */
+    private void enter() {
+        recorder.issued(LoadOp.ENTER);
+        a.send("/app/enter", Map.of("roomId", roomId, "userUid", aUid));
+    }
+
+    private void track(String key, LoadOp op) {
+        recorder.issued(op);
+        pending.put(key, new Pending(op, System.nanoTime()));
+    }
+
+    private void onBroadcast(Map<?, ?> payload) {
+        Object type = payload.get("type");
+        if ("deleted".equals(type)) {
+            complete("delete:" + payload.get("messageId"));
+            return;
+        }
+        if (type != null) {
+            return; // read 등 기타 이벤트
+        }
+        if (payload.get("content") instanceof String content && content.startsWith(NONCE_PREFIX)) {
+            complete(content);
+            if (aUid.equals(payload.get("senderUid")) && "SENT".equals(payload.get("status"))) {
+                editable.addLast(((Number) payload.get("id")).longValue());
+            }
+        }
+    }
+
+    private void complete(String key) {
+        Pending p = pending.remove(key);
+        if (p != null) {
+            recorder.completed(p.op(), p.startNanos());
+        }
+    }
+
+    void close() {
+        a.disconnect();
+        b.disconnect();
+    }
+
+    private static StompFrameHandler handler(Consumer<Map<?, ?>> consumer) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Object.class;
+            }
+
+            /** 서버가 이벤트를 배열로 묶어 보낼 수 있음 (chat.broadcast.coalescing) */
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                if (payload instanceof List<?> batch) {
+                    batch.forEach(event -> consumer.accept((Map<?, ?>) event));
+                } else {
+                    consumer.accept((Map<?, ?>) payload);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package likelion13th.chat.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 명령 종류별 요청 수 / 왕복 완료 수 / 왕복 지연시간(HDR 히스토그램, 마이크로초)
+ * 왕복 = 클라이언트가 /app/* 로 보낸 시점 ~ 같은 방 구독으로 결과 브로드캐스트를 받은 시점
+ */
+final class LatencyRecorder {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<LoadOp, Histogram> histograms = new EnumMap<>(LoadOp.class);
+    private final Map<LoadOp, LongAdder> issued = new EnumMap<>(LoadOp.class);
+    private final Map<LoadOp, LongAdder> completed = new EnumMap<>(LoadOp.class);
+
+    LatencyRecorder() {
+        for (LoadOp op : LoadOp.values()) {
+            histograms.put(op, new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3));
+            issued.put(op, new LongAdder());
+            completed.put(op, new LongAdder());
+        }
+    }
+
+    void issued(LoadOp op) {
+        issued.get(op).increment();
+    }
+
+    void completed(LoadOp op, long startNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histograms.get(op).recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+        completed.get(op).increment();
+    }
+
+    void report(double seconds, PrintStream out, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        out.printf("%-7s %9s %9s %10s %9s %9s %9s %9s %9s%n",
+                "op", "issued", "done", "ops/s", "p50(ms)", "p90(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (LoadOp op : LoadOp.values()) {
+            Histogram h = histograms.get(op);
+            out.printf("%-7s %9d %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    op, issued.get(op).sum(), completed.get(op).sum(), completed.get(op).sum() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0);
+            // HdrHistogram 표준 백분위 분포(.hgrm, 단위 ms) — HistogramLogAnalyzer 등으로 그래프화 가능
+            try (PrintStream file = new PrintStream(Files.newOutputStream(
+                    reportDir.resolve("latency-" + op.name().toLowerCase() + ".hgrm")))) {
+                h.outputPercentileDistribution(file, 1000.0);
+            }
+        }
+    }
+}
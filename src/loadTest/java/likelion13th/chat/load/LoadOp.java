@@ -0,0 +1,6 @@
+package likelion13th.chat.load;
+
+/** 부하 생성기가 보내는 STOMP 명령 종류 */
+enum LoadOp {
+    SEND, EDIT, DELETE, ENTER
+}
@@ -0,0 +1,54 @@
+package likelion13th.chat.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 부하 테스트 옵션 (-Dload.* 시스템 프로퍼티)
+ * - target: 대상 서버 (없으면 내장 서버를 띄움)
+ * - transport: sockjs(/ws) | websocket(/ws-native, SockJS 프레이밍 없음)
+ * - users: target 서버에 이미 있는 사용자 uid 목록 (쉼표 구분, 방은 같은 서버의 사용자끼리만 만들 수 있음)
+ * - pairs: 방(A__B) 개수, 세션은 pairs * 2개
+ * - rate: 전체 초당 명령 수
+ * - duration: 측정 시간
+ * - mix: send/edit/delete/enter 비율 (예: 70,15,10,5)
+ */
+record LoadTestOptions(String target, String transport, List<String> users, int pairs, int rate, Duration duration,
+                       int sendWeight, int editWeight, int deleteWeight, int enterWeight,
+                       Path reportDir) {
+
+    static LoadTestOptions fromSystemProperties() {
+        String[] mix = System.getProperty("load.mix", "70,15,10,5").split(",");
+        return new LoadTestOptions(
+                System.getProperty("load.target"),
+                System.getProperty("load.transport", "sockjs"),
+                Arrays.stream(System.getProperty("load.users", "").split(","))
+                        .map(String::trim)
+                        .filter(uid -> !uid.isEmpty())
+                        .toList(),
+                Integer.getInteger("load.pairs", 50),
+                Integer.getInteger("load.rate", 500),
+                DurationStyle.detectAndParse(System.getProperty("load.duration", "30s")),
+                Integer.parseInt(mix[0].trim()),
+                Integer.parseInt(mix[1].trim()),
+                Integer.parseInt(mix[2].trim()),
+                Integer.parseInt(mix[3].trim()),
+                Path.of(System.getProperty("load.reportDir", "build/reports/loadtest")));
+    }
+
+    /** 0 ~ (가중치 합 - 1) 범위의 값을 명령 종류로 변환 */
+    LoadOp pick(int roll) {
+        if ((roll -= sendWeight) < 0) return LoadOp.SEND;
+        if ((roll -= editWeight) < 0) return LoadOp.EDIT;
+        if ((roll -= deleteWeight) < 0) return LoadOp.DELETE;
+        return LoadOp.ENTER;
+    }
+
+    int totalWeight() {
+        return sendWeight + editWeight + deleteWeight + enterWeight;
+    }
+}
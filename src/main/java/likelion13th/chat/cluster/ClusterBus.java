@@ -0,0 +1,18 @@
+package likelion13th.chat.cluster;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 노드 간 브로드캐스트 전파 통로 (chat.broker.mode=fanout)
+ * publish()한 메시지는 자기 자신을 제외한 같은 클러스터의 모든 노드 구독자에게 전달됨
+ * payload는 이미 인코딩된 JSON 바이트 (받은 노드는 다시 직렬화하지 않고 그대로 로컬 브로커로 보냄)
+ * 운영에서는 Redis pub/sub 등으로 구현해 빈으로 등록하고, 한 JVM 안의 테스트에서만 InMemoryClusterBus 사용
+ * (ClusterConfig: 빈이 없으면 fanout 모드는 시작하지 않음)
+ */
+public interface ClusterBus {
+
+    void publish(String destination, byte[] payload);
+
+    /** 다른 노드에서 publish된 (destination, payload)를 받을 핸들러 등록 */
+    void subscribe(BiConsumer<String, byte[]> handler);
+}
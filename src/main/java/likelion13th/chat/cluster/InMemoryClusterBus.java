@@ -0,0 +1,57 @@
+package likelion13th.chat.cluster;
+
+import likelion13th.chat.config.BrokerProperties;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 같은 JVM 안의 여러 ApplicationContext(= 노드)를 하나의 클러스터로 묶는 ClusterBus
+ * 실제 메시지 브로커 없이 다중 노드 fan-out을 로컬에서 검증하기 위한 대역(stand-in)
+ * static 맵으로 연결되므로 다른 프로세스의 노드에는 전달되지 않음 (chat.broker.cluster-transport=in-memory일 때만 등록)
+ */
+public class InMemoryClusterBus implements ClusterBus, DisposableBean {
+
+    /** clusterName → 참여 중인 노드 목록 */
+    private static final Map<String, List<InMemoryClusterBus>> CLUSTERS = new ConcurrentHashMap<>();
+
+    private final String clusterName;
+    private final List<BiConsumer<String, byte[]>> handlers = new CopyOnWriteArrayList<>();
+
+    public InMemoryClusterBus(BrokerProperties properties) {
+        this.clusterName = properties.getClusterName();
+        CLUSTERS.computeIfAbsent(clusterName, k -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(String destination, byte[] payload) {
+        for (InMemoryClusterBus node : CLUSTERS.getOrDefault(clusterName, List.of())) {
+            if (node != this) {
+                node.deliver(destination, payload);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, byte[]> handler) {
+        handlers.add(handler);
+    }
+
+    private void deliver(String destination, byte[] payload) {
+        for (BiConsumer<String, byte[]> handler : handlers) {
+            handler.accept(destination, payload);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        CLUSTERS.computeIfPresent(clusterName, (k, nodes) -> {
+            nodes.remove(this);
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+}
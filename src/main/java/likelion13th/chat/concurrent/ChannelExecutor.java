@@ -0,0 +1,126 @@
+package likelion13th.chat.concurrent;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * STOMP 채널용 Executor
+ * - 모든 작업의 대기/실행 시간을 ExecutorStats에 기록
+ * - ordered=true이면 순서 키(방 → 없으면 세션)가 같은 작업은 한 번에 하나씩 도착 순서대로,
+ *   키가 다르면 delegate 위에서 병렬로 실행
+ *   (방 키는 명령이 가리키는 방(CommandRoom), 입장 전이거나 다른 방으로 보낸 명령도 그 방의 순서를 따름)
+ * 키별 대기열은 비는 즉시 제거되므로 방 수만큼 메모리가 쌓이지 않음
+ */
+public class ChannelExecutor implements Executor, DisposableBean {
+
+    private final Executor delegate;
+    private final boolean ordered;
+    private final ExecutorStats stats = new ExecutorStats();
+
+    /** 실행 중인 키 → 그 뒤에 대기 중인 작업들 (키가 있으면 해당 키의 작업이 실행 중) */
+    private final Map<String, ArrayDeque<Runnable>> lanes = new ConcurrentHashMap<>();
+
+    public ChannelExecutor(Executor delegate, boolean ordered) {
+        this.delegate = delegate;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        String key = ordered ? orderingKey(task) : null;
+        Runnable timed = stats.wrap(task);
+        if (key == null) {
+            submit(timed);
+            return;
+        }
+        boolean[] idle = new boolean[1];
+        lanes.compute(key, (k, waiting) -> {
+            if (waiting == null) {
+                idle[0] = true;
+                return new ArrayDeque<>();
+            }
+            waiting.add(timed);
+            return waiting;
+        });
+        if (idle[0]) {
+            submitLane(key, timed);
+        }
+    }
+
+    /** 작업 하나를 실행하고, 같은 키의 다음 작업이 있으면 delegate에 다시 넘김 (한 방이 스레드를 독점하지 않도록) */
+    private void runInLane(String key, Runnable task) {
+        try {
+            task.run();
+        } finally {
+            Runnable[] next = new Runnable[1];
+            lanes.compute(key, (k, waiting) -> {
+                next[0] = waiting.poll();
+                return next[0] == null ? null : waiting;
+            });
+            if (next[0] != null) {
+                submitLane(key, next[0]);
+            }
+        }
+    }
+
+    /** 키 대기열은 이미 점유된 상태이므로 거절되면 호출 스레드에서 직접 실행 (대기열이 멈추지 않게) */
+    private void submitLane(String key, Runnable task) {
+        try {
+            delegate.execute(() -> runInLane(key, task));
+        } catch (RejectedExecutionException e) {
+            runInLane(key, task);
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            delegate.execute(task);
+        } catch (RejectedExecutionException e) {
+            stats.rejected();
+            throw e;
+        }
+    }
+
+    private static String orderingKey(Runnable task) {
+        if (!(task instanceof MessageHandlingRunnable mhr)) {
+            return null;
+        }
+        Message<?> message = mhr.getMessage();
+        String roomId = CommandRoom.of(message);
+        if (roomId != null) {
+            return "room:" + roomId;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? "session:" + sessionId : null;
+    }
+
+    public ExecutorStats getStats() {
+        return stats;
+    }
+
+    public int getActiveLanes() {
+        return lanes.size();
+    }
+
+    public Executor getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (delegate instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+}
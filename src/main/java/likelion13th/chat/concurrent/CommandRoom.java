@@ -0,0 +1,95 @@
+package likelion13th.chat.concurrent;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import likelion13th.chat.service.RoomRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * inbound /app/* 명령이 가리키는 방 (정렬된 "A__B")
+ * - payload 최상위 roomId (JSON, content-type: application/cbor이면 CBOR)
+ *   스트리밍 파서로 roomId 필드까지만 읽음 (본문 변환은 컨트롤러 쪽 converter가 따로 함)
+ * - payload에 roomId가 없는 명령(/app/ephemeral 등)은 /app/enter 때 세션 속성에 저장된 roomId
+ * 세션 속성만 보면 입장 전 명령이나 입장한 방과 다른 방을 가리키는 명령이 엉뚱한 방으로 묶임
+ */
+public final class CommandRoom {
+
+    private static final String APP_PREFIX = "/app/";
+    private static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final CBORFactory CBOR = new CBORFactory();
+
+    private CommandRoom() {
+    }
+
+    /** /app/* 명령이 아니거나 방을 알 수 없으면 null */
+    public static String of(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !destination.startsWith(APP_PREFIX)) {
+            return null;
+        }
+        String roomId = message.getPayload() instanceof byte[] payload ? payloadRoomId(payload, headers) : null;
+        if (roomId == null) {
+            Map<String, Object> attrs = SimpMessageHeaderAccessor.getSessionAttributes(headers);
+            roomId = attrs != null && attrs.get("roomId") instanceof String attr ? attr : null;
+        }
+        return roomId != null ? canonical(roomId) : null;
+    }
+
+    /** 최상위 객체의 "roomId" 문자열 (없거나 형식이 맞지 않으면 null, 검증은 컨트롤러가 함) */
+    private static String payloadRoomId(byte[] payload, MessageHeaders headers) {
+        if (payload.length == 0) {
+            return null;
+        }
+        MimeType contentType = contentTypeOf(headers);
+        JsonFactory factory = contentType != null && APPLICATION_CBOR.equalsTypeAndSubtype(contentType) ? CBOR : JSON;
+        try (JsonParser parser = factory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("roomId".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** "B__A"로 보낸 명령도 "A__B"와 같은 방으로 */
+    private static String canonical(String roomId) {
+        int sep = roomId.indexOf("__");
+        if (sep < 0 || roomId.indexOf("__", sep + 2) >= 0) {
+            return roomId;
+        }
+        return RoomRegistry.canonicalKey(roomId.substring(0, sep), roomId.substring(sep + 2));
+    }
+
+    private static MimeType contentTypeOf(MessageHeaders headers) {
+        Object value = headers.get(MessageHeaders.CONTENT_TYPE);
+        if (value instanceof MimeType mimeType) {
+            return mimeType;
+        }
+        try {
+            return value instanceof String text ? MimeTypeUtils.parseMimeType(text) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package likelion13th.chat.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** 채널 실행기 통계: 대기 중인 작업 수, 대기 시간, 실행 시간 */
+public class ExecutorStats {
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /** 작업을 감싸서 대기/실행 시간을 기록 */
+    Runnable wrap(Runnable task) {
+        long submittedAt = System.nanoTime();
+        queued.incrementAndGet();
+        return () -> {
+            long startedAt = System.nanoTime();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            totalWaitNanos.add(startedAt - submittedAt);
+            maxWaitNanos.accumulate(startedAt - submittedAt);
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+                totalRunNanos.add(System.nanoTime() - startedAt);
+                completed.increment();
+            }
+        };
+    }
+
+    /** 실행기에 넘겨지지 못하고 거절된 작업 */
+    void rejected() {
+        queued.decrementAndGet();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getTotalRunNanos() {
+        return totalRunNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+}
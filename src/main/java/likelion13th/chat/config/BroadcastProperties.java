@@ -0,0 +1,30 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/** 방 브로드캐스트 설정 (chat.broadcast.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.broadcast")
+public class BroadcastProperties {
+
+    private final Coalescing coalescing = new Coalescing();
+
+    /**
+     * 같은 방으로 짧은 시간 안에 나가는 이벤트를 하나의 배열 프레임으로 묶기
+     * 켜면 클라이언트는 단일 객체와 배열 프레임을 모두 처리해야 함 (chat.html은 둘 다 처리)
+     */
+    @Getter
+    @Setter
+    public static class Coalescing {
+        private boolean enabled = false;
+        /** 첫 이벤트 이후 묶음을 기다리는 최대 시간 */
+        private Duration maxDelay = Duration.ofMillis(10);
+        /** 이 개수가 차면 maxDelay를 기다리지 않고 바로 전송 */
+        private int maxBatchSize = 50;
+    }
+}
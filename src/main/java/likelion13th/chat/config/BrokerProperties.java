@@ -0,0 +1,49 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * STOMP 브로커 설정 (chat.broker.*)
+ * - simple: 내장 SimpleBroker, 같은 JVM의 세션에게만 전달 (단일 노드)
+ * - relay:  외부 STOMP 브로커(RabbitMQ/ActiveMQ)로 중계, 모든 노드가 같은 브로커를 구독
+ * - fanout: 각 노드는 SimpleBroker를 쓰고, 브로드캐스트를 ClusterBus로 다른 노드에 전파
+ *           ClusterBus 빈이 없으면 시작 시 실패 (cluster-transport=in-memory는 한 JVM 안의 테스트용)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.broker")
+public class BrokerProperties {
+
+    private Mode mode = Mode.SIMPLE;
+
+    private final Relay relay = new Relay();
+
+    /** fanout 모드에서 같은 이름을 쓰는 노드끼리 하나의 클러스터를 이룸 */
+    private String clusterName = "chat";
+
+    /** fanout 모드에서 ClusterBus 빈을 따로 등록하지 않았을 때 쓸 전송 방식 */
+    private ClusterTransport clusterTransport = ClusterTransport.NONE;
+
+    public enum Mode {
+        SIMPLE, RELAY, FANOUT
+    }
+
+    public enum ClusterTransport {
+        NONE,     // 직접 등록한 ClusterBus 빈 필요 (Redis pub/sub 등)
+        IN_MEMORY // 같은 JVM 안의 ApplicationContext끼리만 전파 (여러 프로세스/서버 사이에서는 동작하지 않음)
+    }
+
+    @Getter
+    @Setter
+    public static class Relay {
+        private String host = "localhost";
+        private int port = 61613;
+        private String clientLogin = "guest";
+        private String clientPasscode = "guest";
+        private String systemLogin = "guest";
+        private String systemPasscode = "guest";
+        private String virtualHost;
+    }
+}
@@ -0,0 +1,43 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * STOMP 채널 실행기 설정 (chat.channels.*)
+ * inbound: 클라이언트 → 서버 (@MessageMapping 핸들러, JPA 작업이 여기서 실행됨)
+ * outbound: 서버 → 클라이언트 (웹소켓 프레임 전송)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.channels")
+public class ChannelProperties {
+
+    private final Inbound inbound = new Inbound();
+    private final Pool outbound = new Pool();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int queueCapacity = 10_000;
+        private int keepAliveSeconds = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class Inbound extends Pool {
+        /** true면 스레드 풀 대신 요청마다 가상 스레드 (블로킹 JPA 호출이 풀을 점유하지 않음) */
+        private boolean virtualThreads = false;
+        /** true면 같은 방의 요청은 도착 순서대로 하나씩, 다른 방끼리는 병렬로 처리 */
+        private boolean perRoomOrdering = true;
+
+        public Inbound() {
+            // 핸들러가 DB 커밋을 기다리므로 outbound보다 넉넉하게
+            setCorePoolSize(Runtime.getRuntime().availableProcessors() * 4);
+            setMaxPoolSize(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package likelion13th.chat.config;
+
+import likelion13th.chat.cluster.ClusterBus;
+import likelion13th.chat.cluster.InMemoryClusterBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "chat.broker", name = "mode", havingValue = "fanout")
+public class ClusterConfig {
+
+    // fanout인데 노드 간 전송이 없으면 브로드캐스트가 조용히 이 노드에만 머무르므로 시작하지 않음
+    @Bean
+    @ConditionalOnMissingBean(ClusterBus.class)
+    public ClusterBus clusterBus(BrokerProperties properties) {
+        if (properties.getClusterTransport() != BrokerProperties.ClusterTransport.IN_MEMORY) {
+            throw new IllegalStateException("chat.broker.mode=fanout에는 노드 간 전송(ClusterBus 빈)이 필요합니다. "
+                    + "Redis pub/sub 등으로 구현한 ClusterBus를 등록하거나, 한 JVM 안의 테스트라면 "
+                    + "chat.broker.cluster-transport=in-memory를 지정하세요.");
+        }
+        log.warn("chat.broker.cluster-transport=in-memory: 같은 JVM 안의 노드끼리만 브로드캐스트가 전파됩니다.");
+        return new InMemoryClusterBus(properties);
+    }
+}
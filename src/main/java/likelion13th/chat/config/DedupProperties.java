@@ -0,0 +1,22 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * send 중복 제거 캐시 설정 (chat.dedup.*)
+ * clientMessageId가 있는 send의 결과를 window 동안 기억해서, 같은 요청이 다시 오면 저장/브로드캐스트 없이 원래 응답을 돌려줌
+ * 캐시에서 밀려난 뒤의 재전송은 DB 유니크 제약(uk_chat_message_client_id)이 막음
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.dedup")
+public class DedupProperties {
+    private boolean enabled = true;
+    private Duration window = Duration.ofMinutes(5);
+    /** 캐시 칸 수 (2의 거듭제곱으로 올림), 넘치면 먼저 만료될 항목부터 덮어씀 */
+    private int capacity = 65_536;
+}
@@ -0,0 +1,35 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * STOMP 엔드포인트 설정 (chat.endpoints.*)
+ * - sockjs: SockJS 폴백(xhr-streaming, long-polling ...)을 지원하는 기존 엔드포인트
+ * - websocket: SockJS 프레이밍 없이 웹소켓 프레임에 STOMP를 바로 싣는 엔드포인트 (최신 브라우저/앱용)
+ * perMessageDeflate: 클라이언트가 요청해도 false면 permessage-deflate 확장을 협상하지 않음
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.endpoints")
+public class EndpointProperties {
+
+    private final Endpoint sockjs = Endpoint.of("/ws", false);
+    private final Endpoint websocket = Endpoint.of("/ws-native", true);
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private boolean enabled = true;
+        private String path;
+        private boolean perMessageDeflate;
+
+        static Endpoint of(String path, boolean perMessageDeflate) {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setPath(path);
+            endpoint.setPerMessageDeflate(perMessageDeflate);
+            return endpoint;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/** 저장하지 않는 방 신호(입력 중, 접속 상태, 보고 있는 위치) 설정 (chat.ephemeral.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.ephemeral")
+public class EphemeralProperties {
+    /** (방, 사용자, 종류)마다 이 간격에 최대 한 번 브로드캐스트 (사이에 온 값은 마지막 것만 간격 끝에 전송) */
+    private Duration minInterval = Duration.ofMillis(300);
+    /** typing=true 이후 이 시간 동안 다시 오지 않으면 서버가 typing=false를 대신 보냄 */
+    private Duration typingTimeout = Duration.ofSeconds(5);
+    /** typing/presence 만료와 오래된 상태 정리 주기 */
+    private Duration sweepInterval = Duration.ofSeconds(1);
+    /** 이 시간 동안 신호가 없던 상태는 메모리에서 버림 (presence=true도 이 시간 동안 갱신이 없으면 false로 바꿈) */
+    private Duration idleTimeout = Duration.ofMinutes(1);
+}
@@ -0,0 +1,32 @@
+package likelion13th.chat.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * 엔드포인트별 permessage-deflate 협상 여부
+ * 서블릿 컨테이너(Tomcat)는 지원하는 확장을 모두 수락하므로, 끈 엔드포인트에서는 요청 목록에서 빼고 협상
+ */
+class ExtensionFilteringHandshakeHandler extends DefaultHandshakeHandler {
+
+    static final String PER_MESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean perMessageDeflate;
+
+    ExtensionFilteringHandshakeHandler(boolean perMessageDeflate) {
+        this.perMessageDeflate = perMessageDeflate;
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                 List<WebSocketExtension> requestedExtensions,
+                                                                 List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> requested = perMessageDeflate ? requestedExtensions : requestedExtensions.stream()
+                .filter(extension -> !PER_MESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+                .toList();
+        return super.filterRequestedExtensions(request, requested, supportedExtensions);
+    }
+}
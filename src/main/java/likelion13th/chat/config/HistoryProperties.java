@@ -0,0 +1,35 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/** 채팅 내역 조회 설정 (chat.history.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.history")
+public class HistoryProperties {
+    /** limit을 주지 않았을 때 한 페이지 크기 */
+    private int defaultLimit = 50;
+    /** 한 번에 가져올 수 있는 최대 개수 (이보다 큰 limit은 잘라냄) */
+    private int maxLimit = 200;
+
+    private final Cache cache = new Cache();
+
+    /**
+     * 방별 최근 메시지 캐시 (RecentMessageCache)
+     * 이 노드에서 일어난 send/edit/delete/읽음 처리만 반영하므로 broker.mode=simple(단일 노드)에서만 동작
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+        private boolean enabled = true;
+        /** 방마다 보관할 최근 메시지 수 (이 범위 안의 내역 조회는 DB를 거치지 않음) */
+        private int windowSize = 100;
+        /** 캐시에 올려둘 최대 방 수 (방 번호로 나눈 구간마다 1/16씩, 넘으면 그 구간에서 가장 오래 안 쓰인 방부터 제거) */
+        private int maxRooms = 10_000;
+        /** 캐시 전체 메모리 상한 (메시지 크기 추정치 기준, 구간마다 1/16씩) */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+}
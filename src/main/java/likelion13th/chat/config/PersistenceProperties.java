@@ -0,0 +1,69 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 메시지 저장 방식 설정 (chat.persistence.*)
+ * mode = sync         → 기존처럼 send 요청마다 즉시 INSERT + 커밋
+ * mode = write-behind → ID를 미리 할당받아 바로 브로드캐스트하고, DB 반영은 큐에 모아서 배치 INSERT
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.persistence")
+public class PersistenceProperties {
+
+    private Mode mode = Mode.SYNC;
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    public enum Mode {
+        SYNC, WRITE_BEHIND
+    }
+
+    /** 큐가 가득 찼을 때의 처리 방식 */
+    public enum Overflow {
+        BLOCK,       // offerTimeout 동안 기다렸다가 그래도 자리가 없으면 예외
+        CALLER_RUNS, // 요청 스레드가 직접 동기 INSERT
+        REJECT       // 즉시 예외
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        /** 메모리에 쌓아둘 수 있는 미반영 메시지 최대 개수 */
+        private int queueCapacity = 10_000;
+        /** 한 번의 배치 INSERT에 담을 최대 메시지 수 */
+        private int maxBatchSize = 200;
+        /** 첫 메시지가 들어온 뒤 배치를 모으기 위해 기다리는 최대 시간 */
+        private Duration maxLinger = Duration.ofMillis(20);
+        private Overflow overflow = Overflow.BLOCK;
+        /** overflow=BLOCK일 때 큐 자리를 기다리는 최대 시간 */
+        private Duration offerTimeout = Duration.ofSeconds(1);
+        /** 조회/수정 전에 미반영 메시지가 DB에 쓰일 때까지 기다리는 최대 시간 */
+        private Duration flushTimeout = Duration.ofSeconds(5);
+        /** 한 번에 예약하는 메시지 ID 블록 크기 */
+        private int idBlockSize = 1_000;
+
+        private final Journal journal = new Journal();
+    }
+
+    /** 아직 DB에 반영되지 않은 메시지를 재시작 후 복구하기 위한 로컬 저널 */
+    @Getter
+    @Setter
+    public static class Journal {
+        /** false면 프로세스가 죽을 때 큐에 남은 메시지는 유실됨 */
+        private boolean enabled = true;
+        /** 노드마다 따로 쓰는 디렉터리 (여러 노드가 공유하면 안 됨) */
+        private Path directory = Path.of("data/write-behind");
+        /** 세그먼트 파일 하나의 최대 크기 (넘으면 새 세그먼트, 모두 반영된 세그먼트는 삭제) */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /** true: write()가 반환되기 전에 fsync (동시에 들어온 요청은 한 번의 fsync로 묶음) */
+        private boolean fsync = true;
+    }
+}
@@ -0,0 +1,46 @@
+package likelion13th.chat.config;
+
+import likelion13th.chat.presence.InMemorySharedPresenceStore;
+import likelion13th.chat.presence.PresenceRegistry;
+import likelion13th.chat.presence.PresenceTable;
+import likelion13th.chat.presence.TablePresenceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class PresenceConfig {
+
+    // chat.presence.backend에 따라 노드 전용 테이블 또는 (같은 JVM 안) 공유 테이블 사용
+    // shared는 공유 저장소 기반 PresenceRegistry 빈을 직접 등록했을 때만 (이 메서드는 건너뜀)
+    // 여러 노드(relay/fanout)에서는 노드 전용 테이블을 쓰지 않음: 다른 노드의 접속자를 못 보면서 방 전체인 척하게 됨
+    // in-memory는 in-memory ClusterBus로 묶인 한 JVM 안의 fanout 노드(테스트/벤치마크)에서만 허용
+    @Bean
+    @ConditionalOnMissingBean(PresenceRegistry.class)
+    public PresenceRegistry presenceRegistry(PresenceProperties properties, BrokerProperties brokerProperties) {
+        PresenceTable table = switch (properties.getBackend()) {
+            case LOCAL -> {
+                if (brokerProperties.getMode() != BrokerProperties.Mode.SIMPLE) {
+                    throw new IllegalStateException("chat.presence.backend=local은 노드 메모리에만 기록하므로 "
+                            + "broker.mode=simple(단일 노드)에서만 쓸 수 있습니다. (현재 " + brokerProperties.getMode() + ") "
+                            + "공유 저장소 기반 PresenceRegistry 빈을 등록하고 chat.presence.backend=shared를 지정하세요.");
+                }
+                yield new PresenceTable();
+            }
+            case IN_MEMORY -> {
+                if (brokerProperties.getMode() == BrokerProperties.Mode.RELAY
+                        || (brokerProperties.getMode() == BrokerProperties.Mode.FANOUT
+                        && brokerProperties.getClusterTransport() != BrokerProperties.ClusterTransport.IN_MEMORY)) {
+                    throw new IllegalStateException("chat.presence.backend=in-memory는 같은 JVM 안에서만 공유되므로 "
+                            + "broker.mode=simple 또는 chat.broker.cluster-transport=in-memory인 fanout(테스트용)에서만 쓸 수 있습니다.");
+                }
+                yield InMemorySharedPresenceStore.table(properties.getClusterName());
+            }
+            case SHARED -> throw new IllegalStateException("chat.presence.backend=shared에는 공유 저장소 기반 "
+                    + "PresenceRegistry 빈이 필요합니다. 한 JVM 안의 테스트라면 chat.presence.backend=in-memory를 지정하세요.");
+        };
+        return new TablePresenceRegistry(table, properties.getTtl());
+    }
+}
@@ -0,0 +1,36 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 접속자(presence) 설정 (chat.presence.*)
+ * - local:     노드 메모리에만 기록 (단일 노드, broker.mode=simple이 아니면 시작 시 실패)
+ * - shared:    모든 노드가 같은 저장소를 봄 → 공유 저장소(Redis 등) 기반 PresenceRegistry 빈을 직접 등록해야 함
+ *              (없으면 시작 시 실패: 노드마다 따로 보면서 클러스터 전체인 척하지 않도록)
+ * - in-memory: 같은 JVM 안의 ApplicationContext끼리만 공유하는 테이블 (다중 노드 테스트용 대역,
+ *              여러 노드에서는 cluster-transport=in-memory인 fanout일 때만 허용)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.presence")
+public class PresenceProperties {
+
+    private Backend backend = Backend.LOCAL;
+
+    /** 이 시간 동안 heartbeat가 없으면 세션을 떠난 것으로 간주 (노드 다운/연결 종료 이벤트 유실 대비) */
+    private Duration ttl = Duration.ofSeconds(90);
+
+    /** 이 노드의 세션들을 갱신하고 만료된 세션을 정리하는 주기 (ttl보다 충분히 짧게) */
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+    /** in-memory 백엔드에서 같은 이름을 쓰는 노드끼리 같은 테이블을 공유 */
+    private String clusterName = "chat";
+
+    public enum Backend {
+        LOCAL, SHARED, IN_MEMORY
+    }
+}
@@ -0,0 +1,57 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * STOMP 명령 유량 제한 설정 (chat.rate-limit.*)
+ * commands의 키는 /app/{command}의 command (send, enter, edit, delete ...), 없는 명령은 제한하지 않음
+ * 한도는 세션 단위(session)와 방 단위(room, 명령 payload의 roomId, 없으면 /app/enter 때 세션에 저장된 방 기준)로 각각 적용
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private Overflow overflow = Overflow.REJECT;
+
+    /** queue: 세션마다 대기시킬 수 있는 최대 명령 수 (넘으면 거절) */
+    private int queueCapacity = 50;
+
+    /** queue: 이보다 오래 기다려야 하는 명령은 거절 */
+    private Duration maxQueueDelay = Duration.ofSeconds(2);
+
+    private Map<String, Command> commands = new LinkedHashMap<>();
+
+    /**
+     * 한도를 넘었을 때
+     * - REJECT: STOMP ERROR 프레임으로 거절 (STOMP 규약상 클라이언트는 연결을 끊음)
+     * - QUEUE: 토큰이 찰 때까지 지연시킨 뒤 처리 (queueCapacity, maxQueueDelay를 넘으면 거절)
+     */
+    public enum Overflow {
+        REJECT, QUEUE
+    }
+
+    @Getter
+    @Setter
+    public static class Command {
+        private Limit session;
+        private Limit room;
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /** 초당 허용 명령 수 */
+        private double rate;
+        /** 순간적으로 몰아서 보낼 수 있는 최대 명령 수 */
+        private int burst = 1;
+    }
+}
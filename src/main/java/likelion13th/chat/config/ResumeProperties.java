@@ -0,0 +1,24 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 재접속 이어받기 설정 (chat.resume.*)
+ * 방 브로드캐스트 프레임마다 방별 순번(seq)을 붙이고 최근 프레임을 메모리에 보관 (RoomEventLog)
+ * 로그 범위를 벗어나면 기존처럼 내역을 다시 불러옴 (DB)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.resume")
+public class ResumeProperties {
+    private boolean enabled = true;
+    /** 방마다 보관할 최근 프레임 수 (이보다 많이 놓쳤으면 내역을 다시 불러옴) */
+    private int framesPerRoom = 256;
+    /** 로그를 보관할 최대 방 수 (넘으면 가장 오래 안 쓰인 방부터 제거) */
+    private int maxRooms = 10_000;
+    /** 로그 전체 메모리 상한 (프레임 JSON 바이트 기준) */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+}
@@ -0,0 +1,30 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 방별 메시지 검색 색인 설정 (chat.search.*)
+ * send/edit/delete 변경은 모아두었다가 refreshInterval마다 색인에 반영 (그 사이에는 검색 결과에 안 보일 수 있음)
+ * 이 노드의 변경만 반영하므로 broker.mode=simple(단일 노드)에서만 동작
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.search")
+public class SearchProperties {
+    private boolean enabled = true;
+    /** 색인 파일 위치 (방마다 하위 디렉터리) */
+    private Path directory = Path.of("data/search");
+    private Duration refreshInterval = Duration.ofSeconds(1);
+    /** 한 번에 합칠 최대 세그먼트 수 (연속된 세그먼트 중 가장 큰 것이 나머지 합 이하일 때만 합침) */
+    private int mergeFactor = 10;
+    /** 열어둘 최대 방 색인 수 (넘으면 가장 오래 안 쓰인 방부터 내림, 파일은 그대로) */
+    private int maxOpenRooms = 1_000;
+    /** limit을 주지 않았을 때 한 페이지 크기 */
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+}
@@ -1,11 +1,13 @@
 package likelion13th.chat.config;
 
+import likelion13th.chat.ephemeral.EphemeralEventService;
 import likelion13th.chat.service.ActiveUserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
 import java.util.Map;
 
 @Component
@@ -13,28 +15,19 @@ import java.util.Map;
 public class StompEventListener {
 
     private final ActiveUserService activeUserService;
+    private final EphemeralEventService ephemeralEventService;
 
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
 
-        /**
-         * StompHeaderAccessor: STOMP 메시지의 헤더를 다루는 도우미 클래스
-         * event 안에는 끊긴 세션의 메시지 정보가 들어있음
-         * wrap()을 통해 그 정보를 STOMP 형태로 쉽게 읽을 수 있도록 감싸주기
-         * */
-        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
-
-        // STOMP 세션에서 roomId와 userUid를 가져옵니다 (연결 시 저장했다고 가정)
+        // 끊긴 세션 ID 기준으로 접속자 정보 정리 (같은 사용자의 다른 탭은 그대로 유지)
+        boolean lastSession = activeUserService.sessionClosed(event.getSessionId());
 
-        Map<String, Object> sessionAttributes = headerAccessor.getSessionAttributes(); //연결 세션에 저장된 속성(Attribute)들을 가져옵
-        //세션이 존재할 때, 저장된 roomId와 userUid를 꺼냄 (어떤 사용자가 어떤 방에서 나갔는지 확인)
-        if (sessionAttributes != null) {
-            String roomId = (String) sessionAttributes.get("roomId");
-            String userUid = (String) sessionAttributes.get("userUid");
-            //두 값이 모두 유효하면 activeUserService의 userLeft() 메서드를 호출
-            if (roomId != null && userUid != null) {
-                activeUserService.userLeft(roomId, userUid);
-            }
+        // 마지막 세션이면 입력 중/접속 상태가 켜진 채로 남지 않게 바로 끔 (/app/enter 때 저장한 방/사용자 기준)
+        // 다른 탭이 남아 있으면 그대로 두고, 그 탭이 갱신을 멈추면 sweep이 timeout 뒤에 끔
+        Map<String, Object> attrs = SimpMessageHeaderAccessor.getSessionAttributes(event.getMessage().getHeaders());
+        if (lastSession && attrs != null) {
+            ephemeralEventService.sessionClosed((String) attrs.get("roomId"), (String) attrs.get("userUid"));
         }
     }
 }
@@ -0,0 +1,50 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 메시지 저장소 분할 설정 (chat.storage.*)
+ * - shards: 추가 샤드 datasource 목록 (비어 있으면 spring.datasource 하나만 사용, 지금과 같음)
+ *   샤드 0 = spring.datasource (사용자, 방, ID 블록 같은 전역 테이블도 여기), 목록의 i번째 = 샤드 i+1
+ *   방(roomNo)의 해시로 샤드가 정해지고, 그 방의 chat_message는 그 샤드에만 있음
+ *   샤드를 추가/제거하면 대부분의 방이 다른 샤드로 가므로 기존 데이터는 직접 옮겨야 함 (ShardRouter 참고)
+ * - archive: 오래된 메시지를 방별 append-only 세그먼트 파일로 옮겨 hot 테이블을 작게 유지
+ *   노드 로컬 디스크에 쓰므로 broker.mode=simple에서만 켤 수 있음
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.storage")
+public class StorageProperties {
+
+    private List<Shard> shards = new ArrayList<>();
+
+    private final Archive archive = new Archive();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    @Getter
+    @Setter
+    public static class Archive {
+        private boolean enabled = false;
+        /** 이보다 오래된(createdAt) 메시지를 cold 세그먼트로 옮김 */
+        private Duration age = Duration.ofDays(30);
+        /** 세그먼트 파일 위치 (방마다 하위 디렉터리) */
+        private Path directory = Path.of("data/archive");
+        private Duration compactInterval = Duration.ofHours(1);
+        /** 세그먼트 하나에 담을 최대 메시지 수 */
+        private int segmentSize = 10_000;
+    }
+}
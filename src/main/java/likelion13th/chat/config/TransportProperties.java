@@ -0,0 +1,45 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 웹소켓 전송 한도 (chat.transport.*)
+ * sendTimeLimit / sendBufferSizeLimit: 세션 하나의 프레임 전송이 이 시간을 넘기거나, 밀린 프레임이 이 크기를 넘으면 세션 종료 (Spring 기본 동작)
+ * messageSizeLimit: 클라이언트가 보내는 STOMP 프레임 하나의 최대 크기
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.transport")
+public class TransportProperties {
+
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+    private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(512);
+    private DataSize messageSizeLimit = DataSize.ofKilobytes(64);
+
+    private final SlowConsumer slowConsumer = new SlowConsumer();
+
+    /**
+     * 느린 구독자 처리 (SlowConsumerGuard)
+     * 세션마다 clientOutboundChannel에 들어왔지만 아직 소켓에 쓰이지 않은 프레임 수를 세고,
+     * maxPendingFrames 이상이면 strategy에 따라 브로드캐스트(MESSAGE) 프레임을 버리거나 세션을 끊음
+     */
+    @Getter
+    @Setter
+    public static class SlowConsumer {
+        private int maxPendingFrames = 1000;
+        private Strategy strategy = Strategy.DROP;
+    }
+
+    /**
+     * - DROP: 밀린 만큼 빠질 때까지 새 브로드캐스트를 그 세션에만 보내지 않음 (클라이언트는 내역 조회로 복구)
+     * - DISCONNECT: 세션을 닫음 (재접속 후 내역 조회로 복구)
+     */
+    public enum Strategy {
+        DROP, DISCONNECT
+    }
+}
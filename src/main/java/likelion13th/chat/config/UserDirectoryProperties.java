@@ -0,0 +1,18 @@
+package likelion13th.chat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/** uid → displayName 캐시 설정 (chat.user-directory.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.user-directory")
+public class UserDirectoryProperties {
+    /** 캐시에 보관할 최대 사용자 수 (넘으면 가장 오래 안 쓰인 항목부터 제거) */
+    private int maxSize = 10_000;
+    /** 없는 uid도 이 시간 동안 캐시 (같은 노드에서 가입하면 바로 갱신, 다른 노드 가입은 최대 이만큼 늦게 보임) */
+    private Duration negativeTtl = Duration.ofMinutes(1);
+}
@@ -1,26 +1,134 @@
 package likelion13th.chat.config;
 
+import likelion13th.chat.concurrent.ChannelExecutor;
+import likelion13th.chat.ratelimit.InboundRateLimiter;
+import likelion13th.chat.transport.SlowConsumerGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final BrokerProperties brokerProperties;
+    private final ChannelProperties channelProperties;
+    private final EndpointProperties endpointProperties;
+    private final WireFormatNegotiator wireFormatNegotiator;
+    private final InboundRateLimiter inboundRateLimiter;
+    private final TransportProperties transportProperties;
+    private final SlowConsumerGuard slowConsumerGuard;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // ✅ SockJS (WebSocket이 지원되지 않는 브라우저(구형 브라우저 포함)를 위한 폴백(fallback) 라이브러리)
-        registry.addEndpoint("/ws")
-                .setAllowedOriginPatterns("*")
-                .withSockJS();
+        EndpointProperties.Endpoint sockjs = endpointProperties.getSockjs();
+        if (sockjs.isEnabled()) {
+            registry.addEndpoint(sockjs.getPath())
+                    .setHandshakeHandler(new ExtensionFilteringHandshakeHandler(sockjs.isPerMessageDeflate()))
+                    .setAllowedOriginPatterns("*")
+                    .withSockJS();
+        }
+        // 네이티브 웹소켓: SockJS 프레이밍(a["..."] 이스케이프)과 폴백 전송의 서블릿 스레드 점유가 없음
+        EndpointProperties.Endpoint websocket = endpointProperties.getWebsocket();
+        if (websocket.isEnabled()) {
+            registry.addEndpoint(websocket.getPath())
+                    .setHandshakeHandler(new ExtensionFilteringHandshakeHandler(websocket.isPerMessageDeflate()))
+                    .addInterceptors(wireFormatNegotiator.nativeWebSocketInterceptor())
+                    .setAllowedOriginPatterns("*");
+        }
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes("/app"); // 클라 → 서버 전송 prefix
-        registry.enableSimpleBroker("/topic");              // 서버 → 클라이언트 브로드캐스트
+
+        // 서버 → 클라이언트 브로드캐스트 (chat.broker.mode)
+        if (brokerProperties.getMode() == BrokerProperties.Mode.RELAY) {
+            // 외부 STOMP 브로커(RabbitMQ/ActiveMQ)가 모든 노드의 구독자에게 전달
+            BrokerProperties.Relay relay = brokerProperties.getRelay();
+            // /queue: 요청한 세션에만 보내는 응답 (/user/queue/errors → /queue/errors-user{세션ID})
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setClientLogin(relay.getClientLogin())
+                    .setClientPasscode(relay.getClientPasscode())
+                    .setSystemLogin(relay.getSystemLogin())
+                    .setSystemPasscode(relay.getSystemPasscode())
+                    .setVirtualHost(relay.getVirtualHost());
+        } else {
+            // simple / fanout: 노드 내부 SimpleBroker (fanout은 RoomBroadcaster가 ClusterBus로 추가 전파)
+            // /queue: 요청한 세션에만 보내는 응답 (/user/queue/errors → /queue/errors-user{세션ID})
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
+    }
+
+    // ===== 채널 실행기: 블로킹 핸들러(inbound)와 프레임 전송(outbound)이 서로 스레드를 뺏지 않도록 분리 =====
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.executor(chatInboundExecutor())
+                .interceptors(wireFormatNegotiator.inboundInterceptor(), inboundRateLimiter);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(chatOutboundExecutor())
+                .interceptors(slowConsumerGuard, wireFormatNegotiator.outboundInterceptor());
+    }
+
+    /** 느린 세션 하나가 프레임을 끝없이 쌓지 않도록 전송 한도 + 세션별 대기 프레임 추적 (chat.transport.*) */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) transportProperties.getSendTimeLimit().toMillis())
+                .setSendBufferSizeLimit((int) transportProperties.getSendBufferSizeLimit().toBytes())
+                .setMessageSizeLimit((int) transportProperties.getMessageSizeLimit().toBytes())
+                .addDecoratorFactory(slowConsumerGuard::decorate);
+    }
+
+    /** content-type: application/cbor 프레임용 컨버터를 앞에 추가 (기본 JSON 컨버터는 그대로 유지) */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(wireFormatNegotiator.cborMessageConverter());
+        return true;
+    }
+
+    @Bean
+    public ChannelExecutor chatInboundExecutor() {
+        ChannelProperties.Inbound inbound = channelProperties.getInbound();
+        Executor delegate = inbound.isVirtualThreads()
+                ? new VirtualThreadTaskExecutor("stomp-in-vt-")
+                : threadPool("stomp-in-", inbound);
+        return new ChannelExecutor(delegate, inbound.isPerRoomOrdering());
+    }
+
+    @Bean
+    public ChannelExecutor chatOutboundExecutor() {
+        return new ChannelExecutor(threadPool("stomp-out-", channelProperties.getOutbound()), false);
+    }
+
+    private static ThreadPoolTaskExecutor threadPool(String prefix, ChannelProperties.Pool pool) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(pool.getCorePoolSize());
+        executor.setMaxPoolSize(pool.getMaxPoolSize());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setKeepAliveSeconds(pool.getKeepAliveSeconds());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return executor;
     }
 }
@@ -0,0 +1,175 @@
+package likelion13th.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * STOMP 프레임 인코딩 협상 (기본 JSON, 선택 CBOR)
+ * - 보낼 때(SEND): 프레임의 content-type이 application/cbor면 CBOR 컨버터로 역직렬화
+ * - 받을 때(MESSAGE): 네이티브 웹소켓 엔드포인트로 붙어서 CONNECT 프레임에 content-type: application/cbor를 실은
+ *   세션에만 방 브로드캐스트 JSON 바이트를 CBOR로 바꿔서 전달
+ *   CBOR 프레임은 content-type: application/octet-stream + chat-format: cbor로 보냄
+ *   (StompSubProtocolHandler는 octet-stream만 바이너리 웹소켓 프레임으로 보내고, 나머지는 텍스트 프레임이라 바이트가 깨짐)
+ *   SockJS는 텍스트 프레임만 있으므로 CBOR를 요청해도 JSON
+ *   BroadcastPayloadEncoder가 프레임마다 붙인 CborSlot(CBOR_SLOT_HEADER)에 처음 변환한 결과를 두고,
+ *   로컬 브로커가 구독자별로 복사한 메시지들이 그 칸을 공유 (전역 맵/잠금 없음)
+ *   칸이 없는 프레임(relay 모드에서 외부 브로커가 보낸 프레임)은 전달마다 변환
+ * JSON 트리를 옮기는 것이라 날짜/uid/본문 문자열은 그대로이고, 줄어드는 것은 따옴표/구분자와 숫자뿐
+ * (대역폭 절감은 작음, 바이너리 파서를 쓰는 클라이언트를 위한 선택 기능)
+ * content-type이 없는 프레임/세션은 지금과 똑같이 JSON
+ */
+@Component
+public class WireFormatNegotiator {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+    /** 브로드캐스트 프레임 하나의 CBOR 변환 결과를 담는 칸 (STOMP로 나가지 않는 내부 헤더) */
+    public static final String CBOR_SLOT_HEADER = "chatCborSlot";
+    /** CBOR로 바꾼 MESSAGE 프레임의 STOMP 헤더 (content-type은 바이너리 전송을 위해 octet-stream) */
+    public static final String FORMAT_HEADER = "chat-format";
+    /** 네이티브 웹소켓 엔드포인트로 붙은 세션 표시 (세션 속성) */
+    static final String NATIVE_WEBSOCKET_ATTRIBUTE = "chatNativeWebSocket";
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    /** CONNECT 때 CBOR를 고른 세션 */
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 프레임 하나의 CBOR 변환 결과 (처음 필요할 때 채움)
+     * 동시에 두 세션이 비어 있는 칸을 보면 둘 다 변환할 수 있지만 결과가 같으므로 잠그지 않음
+     */
+    public static final class CborSlot {
+        private volatile byte[] cbor;
+    }
+
+    public WireFormatNegotiator(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    }
+
+    /** content-type: application/cbor 인 SEND 프레임 전용 (content-type 없는 프레임은 JSON 컨버터로 넘김) */
+    public MessageConverter cborMessageConverter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(APPLICATION_CBOR);
+        converter.setObjectMapper(cborMapper);
+        converter.setStrictContentTypeMatch(true);
+        return converter;
+    }
+
+    /** 네이티브 웹소켓 엔드포인트에만 등록: 바이너리 프레임을 보낼 수 있는 세션만 CBOR를 고를 수 있음 */
+    public HandshakeInterceptor nativeWebSocketInterceptor() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(NATIVE_WEBSOCKET_ATTRIBUTE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    /** clientInboundChannel: CONNECT의 content-type으로 세션 인코딩 결정, DISCONNECT에서 정리 */
+    public ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                MessageHeaders headers = message.getHeaders();
+                SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+                if (sessionId == null) {
+                    return message;
+                }
+                if (type == SimpMessageType.CONNECT && APPLICATION_CBOR.equalsTypeAndSubtype(contentTypeOf(headers))
+                        && isNativeWebSocket(headers)) {
+                    cborSessions.add(sessionId);
+                } else if (type == SimpMessageType.DISCONNECT) {
+                    cborSessions.remove(sessionId);
+                }
+                return message;
+            }
+        };
+    }
+
+    /** clientOutboundChannel: CBOR 세션으로 가는 JSON MESSAGE 프레임만 변환 */
+    public ChannelInterceptor outboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                MessageHeaders headers = message.getHeaders();
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+                if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                        || sessionId == null || !cborSessions.contains(sessionId)
+                        || !(message.getPayload() instanceof byte[] json)
+                        || !MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(contentTypeOf(headers))) {
+                    return message;
+                }
+                byte[] cbor = headers.get(CBOR_SLOT_HEADER) instanceof CborSlot slot ? cborOf(slot, json) : toCbor(json);
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+                accessor.setNativeHeader(FORMAT_HEADER, "cbor");
+                return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+            }
+        };
+    }
+
+    /**
+     * JSON 트리를 그대로 CBOR로 옮김 (필드 구조/숫자는 바이너리로, 문자열은 그대로)
+     * fanout 모드에서 다른 노드가 보낸 바이트도 같은 경로로 처리됨
+     */
+    byte[] toCbor(byte[] json) {
+        try {
+            return cborMapper.writeValueAsBytes(jsonMapper.readTree(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException("브로드캐스트 payload CBOR 변환 실패", e);
+        }
+    }
+
+    private byte[] cborOf(CborSlot slot, byte[] json) {
+        byte[] cbor = slot.cbor;
+        if (cbor == null) {
+            cbor = toCbor(json);
+            slot.cbor = cbor;
+        }
+        return cbor;
+    }
+
+    private static boolean isNativeWebSocket(MessageHeaders headers) {
+        Map<String, Object> attrs = SimpMessageHeaderAccessor.getSessionAttributes(headers);
+        return attrs != null && Boolean.TRUE.equals(attrs.get(NATIVE_WEBSOCKET_ATTRIBUTE));
+    }
+
+    private static MimeType contentTypeOf(MessageHeaders headers) {
+        Object value = headers.get(MessageHeaders.CONTENT_TYPE);
+        if (value instanceof MimeType mimeType) {
+            return mimeType;
+        }
+        return value instanceof String text ? MimeTypeUtils.parseMimeType(text) : null;
+    }
+}
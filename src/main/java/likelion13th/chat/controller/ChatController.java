@@ -4,35 +4,103 @@ import jakarta.validation.Valid;
 import likelion13th.chat.dto.command.*;
 import likelion13th.chat.dto.event.ChatMessageResponse;
 import likelion13th.chat.dto.event.DeletedMessageEvent;
+import likelion13th.chat.dto.event.ResumeResponse;
+import likelion13th.chat.dto.event.SearchResponse;
 import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.ephemeral.EphemeralEventService;
+import likelion13th.chat.search.MessageSearchService;
 import likelion13th.chat.service.ActiveUserService;
+import likelion13th.chat.service.ChatExportService;
 import likelion13th.chat.service.ChatService;
+import likelion13th.chat.service.DeliveryReceiptService;
+import likelion13th.chat.service.MessageConflictException;
+import likelion13th.chat.service.RoomBroadcaster;
+import likelion13th.chat.service.RoomEventLog;
+import likelion13th.chat.service.RoomRef;
+import likelion13th.chat.service.RoomRegistry;
+import likelion13th.chat.service.SendResult;
+import likelion13th.chat.service.UnsavedMessageEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class ChatController {
 
     private final ChatService service;
-    //STOMP 브로커를 통해 서버 → 클라이언트로 메시지 브로드캐스트할 때 사용하는 객체
-    private final SimpMessagingTemplate broker;
+    private final ChatExportService exportService;
+    //STOMP 브로커(+ fanout 모드에서는 다른 노드)로 서버 → 클라이언트 메시지를 브로드캐스트할 때 사용하는 객체
+    private final RoomBroadcaster broadcaster;
     private final ActiveUserService activeUserService;
+    private final RoomRegistry roomRegistry;
+    private final DeliveryReceiptService deliveryReceiptService;
+    private final MessageSearchService searchService;
+    private final EphemeralEventService ephemeralEventService;
+    private final RoomEventLog eventLog;
 
     // ===== REST: 채팅 내역 조회 =====
+    /**
+     * 커서 기반 페이지네이션 (결과는 id 오름차순)
+     * - before: 이 ID보다 오래된 메시지 (위로 스크롤 시 현재 가장 오래된 메시지 ID를 전달)
+     * - after: 이 ID 이후 메시지 (재접속 후 빠진 메시지 따라잡기)
+     * - limit: 최대 chat.history.max-limit 까지
+     */
     @GetMapping("/api/rooms/{roomId}/messages")
     public List<ChatMessageResponse> history(
             @PathVariable String roomId,
-            @RequestParam(defaultValue = "50") int limit
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "${chat.history.default-limit:50}") int limit
+    ) {
+        return service.fetchHistory(roomId, before, after, limit);
+    }
+
+    // ===== REST: 방 전체 내역 내보내기 (NDJSON 스트리밍) =====
+    @GetMapping(value = "/api/rooms/{roomId}/messages/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String roomId) {
+        // 방 확인은 응답 상태를 보내기 전에 (본문 스트리밍 중에 실패하면 이미 200이 나간 뒤라 잘린 파일이 됨)
+        ChatExportService.RoomExport export;
+        try {
+            export = exportService.prepare(roomId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+        StreamingResponseBody body = export::writeTo;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + roomId + ".ndjson\"")
+                .body(body);
+    }
+
+    // ===== REST: 방 안 메시지 검색 =====
+    /**
+     * q의 단어를 모두 포함하는 메시지를 최신순으로 (방별 색인, DB를 읽지 않음)
+     * - before: 이전 페이지 응답의 nextBefore (다음 페이지)
+     * - limit: 최대 chat.search.max-limit 까지
+     * 방금 보낸/수정한 메시지는 chat.search.refresh-interval 이후에 검색됨
+     */
+    @GetMapping("/api/rooms/{roomId}/search")
+    public SearchResponse search(
+            @PathVariable String roomId,
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "${chat.search.default-limit:20}") int limit
     ) {
-        return service.fetchRecent(roomId, limit);
+        return searchService.search(roomId, query, before, limit);
     }
 
     // ===== STOMP: 실시간 채팅의 핵심 송신 엔드포인트 =====
@@ -41,11 +109,29 @@ public class ChatController {
      * 2. ChatService.send() 호출 → DB에 메시지 저장, 상태(SENT/READ) 결정
      * 3. 반환된 ChatMessageResponse를 브로커로 전송
      * 4. 해당 방을 구독 중인 모든 사용자에게 메시지를 브로드캐스트
+     * 같은 clientMessageId로 다시 보낸 요청(재접속/재시도)이면 저장/브로드캐스트 없이
+     * 원래 응답을 보낸 세션에만 돌려줌 (/user/queue/sent, 새로 저장된 경우는 null이라 보내지 않음)
      * */
     @MessageMapping("/send")
-    public void send(@Valid SendMessageCommand cmd) {
-        ChatMessageResponse res = service.send(cmd);
-        broker.convertAndSend("/topic/rooms/" + res.getRoomId(), res);
+    @SendToUser(destinations = "/queue/sent", broadcast = false)
+    public ChatMessageResponse send(@Valid SendMessageCommand cmd) {
+        SendResult result = service.send(cmd);
+        if (result.duplicate()) {
+            return result.message();
+        }
+        broadcaster.broadcast(result.message().getRoomId(), result.message());
+        return null;
+    }
+
+    // ===== 저장하지 못한 메시지 되돌리기 =====
+    /**
+     * write-behind가 INSERT에 실패해 버린 메시지는 이미 방에 브로드캐스트됐으므로
+     * 캐시/색인에서 빼고 방에 deleted 이벤트를 보내 클라이언트 화면(과 이벤트 로그)에서도 지움
+     * */
+    @EventListener
+    public void unsaved(UnsavedMessageEvent event) {
+        DeletedMessageEvent ev = service.unsaved(event.message());
+        broadcaster.broadcast(ev.getRoomId(), WsEvent.deleted(ev.getMessageId()));
     }
 
     // ===== STOMP: 실시간으로 “메시지 수정됨” 상태를 방 전체에 반영=====
@@ -57,7 +143,18 @@ public class ChatController {
     @MessageMapping("/edit")
     public void edit(@Valid EditMessageCommand cmd) {
         ChatMessageResponse res = service.edit(cmd);
-        broker.convertAndSend("/topic/rooms/" + res.getRoomId(), res);
+        broadcaster.broadcast(res.getRoomId(), res);
+    }
+
+    // ===== STOMP: 수정/삭제 실패 =====
+    /**
+     * 조건부 수정/삭제가 거절된 경우 방 전체가 아니라 요청한 세션에만 error 이벤트 전달
+     * (클라이언트는 /user/queue/errors 구독, 로그인 사용자가 없으므로 세션 ID로 구분됨)
+     * */
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public WsEvent conflict(MessageConflictException e) {
+        return WsEvent.error(e.getReason().name(), e.getMessageId(), e.getMessage());
     }
 
     // ===== STOMP: 삭제 =====
@@ -70,28 +167,77 @@ public class ChatController {
     @MessageMapping("/delete")
     public void delete(@Valid DeleteMessageCommand cmd) {
         DeletedMessageEvent ev = service.delete(cmd);
-        broker.convertAndSend("/topic/rooms/" + ev.getRoomId(), WsEvent.deleted(ev.getMessageId()));
+        broadcaster.broadcast(ev.getRoomId(), WsEvent.deleted(ev.getMessageId()));
     }
 
     // ===== STOMP: 방 입장 (사용자가 채팅방에 입장했을 때 호출되어 읽음 처리 및 접속 등록을 수행) =====
     /**
-     * 1. 누가 어떤 방에 들어왔는지 STOMP 세션에 저장(이 정보는 나중에 StompEventListener에서 연결 종료 시 퇴장 처리할 때 사용)
-     * 2. ActiveUserService에 현재 접속자 정보 등록(이후 상대방이 메시지를 보낼 때 “상대가 접속 중인지” 판별할 수 있음)
+     * 1. 누가 어떤 방에 들어왔는지 STOMP 세션에 저장(이후 같은 세션의 다른 요청에서 방/사용자를 확인할 때 사용)
+     * 2. ActiveUserService에 현재 접속자 정보를 세션 단위로 등록(이후 상대방이 메시지를 보낼 때 “상대가 접속 중인지” 판별할 수 있음)
      * 3. 방 입장 시, 나 아닌 사용자가 보낸 읽지 않은 메시지들을 모두 READ 상태로 변경
-     * 4. 변경된 메시지들의 상태(READ)를 방 안의 모든 구독자에게 브로드캐스트
+     * 4. 메시지별로 재전송하지 않고 "readerUid가 N번까지 읽음" 이벤트 하나만 방 안의 모든 구독자에게 브로드캐스트
      * */
     @MessageMapping("/enter")
     public void enter(@Valid EnterRoomCommand cmd, SimpMessageHeaderAccessor headerAccessor) {
+        join(cmd.getRoomId(), cmd.getUserUid(), headerAccessor);
+        markRead(cmd);
+    }
 
-        headerAccessor.getSessionAttributes().put("roomId", cmd.getRoomId());
-        headerAccessor.getSessionAttributes().put("userUid", cmd.getUserUid());
+    // ===== STOMP: 재접속 이어받기 =====
+    /**
+     * 1. 클라이언트가 방 구독 후 마지막으로 받은 방 프레임의 epoch/seq로 /app/resume 전송 (처음이면 비움)
+     * 2. 세션/접속자 등록은 /app/enter와 같음
+     * 3. RoomEventLog에 그 이후 프레임이 모두 남아 있으면 놓친 프레임만 응답 (DB 조회 없음)
+     *    놓친 것 중 상대가 보낸 메시지가 있을 때만 읽음 처리 (ChatService.enter)
+     * 4. 남아 있지 않으면 /app/enter와 같은 입장 처리 후 resumed=false → 클라이언트가 내역을 다시 불러옴
+     * */
+    @MessageMapping("/resume")
+    @SendToUser(destinations = "/queue/resume", broadcast = false)
+    public ResumeResponse resume(@Valid ResumeCommand cmd, SimpMessageHeaderAccessor headerAccessor) {
+        RoomRef room = join(cmd.getRoomId(), cmd.getUserUid(), headerAccessor);
+        // 읽음 이벤트보다 먼저 순번을 읽어야 그 이벤트가 응답 이후 실시간으로 전달됨
+        RoomEventLog.Replay replay = eventLog.since(room.key(), cmd.getEpoch(), cmd.getSeq(), cmd.getUserUid());
+        if (replay.unreadMessages()) {
+            markRead(EnterRoomCommand.builder().roomId(room.key()).userUid(cmd.getUserUid()).build());
+        }
+        return replay.response();
+    }
 
-        activeUserService.userJoined(cmd.getRoomId(), cmd.getUserUid());
+    /** /app/enter, /app/resume 공통: 세션에 방/사용자 저장 + 접속자 등록 (위 enter 설명 1, 2) */
+    private RoomRef join(String roomId, String userUid, SimpMessageHeaderAccessor headerAccessor) {
+        RoomRef room = roomRegistry.resolve(roomId);
+        headerAccessor.getSessionAttributes().put("roomId", room.key());
+        headerAccessor.getSessionAttributes().put("userUid", userUid);
 
-        List<ChatMessageResponse> changed = service.enter(cmd);
+        activeUserService.userJoined(room.no(), room.userNoOf(userUid), headerAccessor.getSessionId());
+        return room;
+    }
 
-        for (ChatMessageResponse res : changed) {
-            broker.convertAndSend("/topic/rooms/" + res.getRoomId(), res);
-        }
+    private void markRead(EnterRoomCommand cmd) {
+        service.enter(cmd).ifPresent(ev -> broadcaster.broadcast(ev.getRoomId(),
+                WsEvent.read(ev.getReaderUid(), ev.getLastReadMessageId())));
+    }
+
+    // ===== STOMP: 수신 확인 =====
+    /**
+     * 1. 클라이언트가 받은 메시지 중 가장 큰 ID를 /app/ack로 보냄 (메시지마다 보낼 필요 없음)
+     * 2. DeliveryReceiptService가 (방, 수신자)별로 모아두었다가 주기적으로 한 번에 DELIVERED 처리
+     * 3. 바뀐 게 있으면 "recipientUid가 N번까지 받음" 이벤트를 방에 브로드캐스트 (여기서는 바로 보내지 않음)
+     * */
+    @MessageMapping("/ack")
+    public void ack(@Valid AckCommand cmd) {
+        deliveryReceiptService.acknowledge(cmd);
+    }
+
+    // ===== STOMP: 저장하지 않는 신호 (입력 중, 접속 상태, 보고 있는 위치) =====
+    /**
+     * 1. 클라이언트가 /app/ephemeral로 { type: typing|presence|cursor, active | messageId } 전송
+     * 2. ChatService/DB를 거치지 않고 EphemeralEventService가 메모리에서만 처리 (방/사용자는 /app/enter 때 세션에 저장한 값)
+     * 3. (방, 사용자, 종류)마다 일정 간격에 한 번, 그 사이 값은 마지막 것만 방에 브로드캐스트
+     * */
+    @MessageMapping("/ephemeral")
+    public void ephemeral(@Valid EphemeralCommand cmd, SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> attrs = headerAccessor.getSessionAttributes();
+        ephemeralEventService.signal((String) attrs.get("roomId"), (String) attrs.get("userUid"), cmd);
     }
-}
\ No newline at end of file
+}
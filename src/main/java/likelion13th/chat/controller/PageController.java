@@ -1,7 +1,11 @@
 package likelion13th.chat.controller;
 
+import likelion13th.chat.config.EndpointProperties;
 import likelion13th.chat.domain.User;
 import likelion13th.chat.repository.UserRepository;
+import likelion13th.chat.service.RoomRef;
+import likelion13th.chat.service.RoomRegistry;
+import likelion13th.chat.service.UserDirectory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,6 +17,9 @@ import java.util.*;
 public class PageController {
 
     private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
+    private final RoomRegistry roomRegistry;
+    private final EndpointProperties endpointProperties;
     /**
      * 인덱스 페이지: 사용자 선택
      * 사용자 목록을 불러와 index.html에 전달
@@ -31,28 +38,26 @@ public class PageController {
                        @RequestParam("room") String roomUidPair,
                        Model model) {
 
-        // URL 파라미터로 들어온 userUid를 기반으로 현재 로그인 사용자를 조회
-        User me = userRepository.findByUid(userUid)
-                .orElseThrow(() -> new IllegalArgumentException("user not found: " + userUid));
-
-        // roomUidPair 파싱
+        // roomUidPair 파싱 + 방 등록 (RoomRegistry: 형식/사용자 검증, 정렬된 "A__B"로 통일)
         // 예: "115f20f9-ef52-44a0-827c-2388a00605e2__aa8c1ac7-2e76-4950-a8ba-37c5d683b907"
-        String[] uids = roomUidPair.split("__");
-        if (uids.length != 2)
-            throw new IllegalArgumentException("invalid room format: " + roomUidPair);
+        RoomRef room = roomRegistry.resolve(roomUidPair);
 
-        // 두 UID를 실제 사용자 이름으로 변환하고, "room: A ↔ B" 형태의 방 제목(roomLabel)을 만들기
-        User userA = userRepository.findByUid(uids[0])
-                .orElseThrow(() -> new IllegalArgumentException("user not found: " + uids[0]));
-        User userB = userRepository.findByUid(uids[1])
-                .orElseThrow(() -> new IllegalArgumentException("user not found: " + uids[1]));
-        String roomLabel = "room: " + userA.getDisplayName() + " ↔ " + userB.getDisplayName();
+        // 현재 사용자와 방의 두 UID를 한 번에 이름으로 변환 (UserDirectory 캐시, 미스가 있어도 쿼리 한 번)
+        Map<String, String> names = userDirectory.resolveNames(List.of(userUid, room.firstUid(), room.secondUid()));
+        if (!names.containsKey(userUid))
+            throw new IllegalArgumentException("user not found: " + userUid);
+        // "room: A ↔ B" 형태의 방 제목(roomLabel)을 만들기
+        String roomLabel = "room: " + names.get(room.firstUid()) + " ↔ " + names.get(room.secondUid());
 
         // 모델 속성(용자 정보, 방 정보, 방 제목)을 전달 후 뷰 렌더링
-        model.addAttribute("userUid", me.getUid());
-        model.addAttribute("displayName", me.getDisplayName());
-        model.addAttribute("room", roomUidPair);
+        model.addAttribute("userUid", userUid);
+        model.addAttribute("displayName", names.get(userUid));
+        model.addAttribute("room", room.key());
         model.addAttribute("roomLabel", roomLabel);
+        // 접속 경로: 네이티브 웹소켓 우선, 꺼져 있거나 연결이 안 되면 SockJS
+        EndpointProperties.Endpoint websocket = endpointProperties.getWebsocket();
+        model.addAttribute("wsNativePath", websocket.isEnabled() ? websocket.getPath() : null);
+        model.addAttribute("sockJsPath", endpointProperties.getSockjs().getPath());
         return "chat";
     }
 }
@@ -8,19 +8,30 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "chat_message")
+@Table(name = "chat_message", indexes = {
+        // 내역 조회(keyset 페이지네이션: roomNo = ? and id < ? order by id desc)용
+        @Index(name = "idx_chat_message_room_id", columnList = "roomNo, id"),
+        // 방 입장 시 읽음 처리(roomNo + 미확인 status + id 범위) 조회/갱신용
+        @Index(name = "idx_chat_message_room_status_id", columnList = "roomNo, status, id"),
+}, uniqueConstraints = {
+        // 재전송된 send 중복 방지: 같은 방, 같은 보낸 사람의 clientMessageId는 한 번만 (null은 제약 없음)
+        @UniqueConstraint(name = ChatMessage.CLIENT_ID_CONSTRAINT, columnNames = {"roomNo", "senderUid", "clientMessageId"}),
+})
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
 public class ChatMessage {
 
+    /** 재전송 중복을 막는 유니크 제약 이름 (다른 무결성 오류와 구분할 때 사용) */
+    public static final String CLIENT_ID_CONSTRAINT = "uk_chat_message_client_id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(nullable = false)
-    private String roomId;   // 채팅방 구분 식별자
+    private Long roomNo;   // 채팅방 구분 식별자 (chat_room.id, 문자열 roomId는 RoomRegistry로 변환)
 
     @Column(nullable = false)
     private String senderUid; // 송신자의 고유 식별자
@@ -28,6 +39,9 @@ public class ChatMessage {
     @Column(nullable = false)
     private String content; // 메시지 본문
 
+    @Column(length = 64)
+    private String clientMessageId; // 클라이언트가 붙인 메시지 ID (재전송 중복 제거용, 없으면 null)
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MessageStatus status; //메시지의 상태 (SENT, DELIVERED, READ)
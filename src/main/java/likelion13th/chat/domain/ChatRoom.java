@@ -0,0 +1,39 @@
+package likelion13th.chat.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 1:1 채팅방 등록부
+ * roomKey는 두 uid를 정렬해서 이은 "A__B" (B__A로 들어와도 같은 방)
+ * id는 chat_message.room_no 등에 들어가는 짧은 숫자 방 ID
+ * 두 참여자의 users.id도 함께 저장해서, 접속 여부 판단 같은 핫패스가 숫자 키만으로 동작하게 함
+ */
+@Entity
+@Table(name = "chat_room", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_room_key", columnNames = "room_key"),
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatRoom {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "room_key", nullable = false, length = 80)
+    private String roomKey;
+
+    @Column(name = "first_uid", nullable = false, length = 36)
+    private String firstUid;
+
+    @Column(name = "first_user_id", nullable = false)
+    private Long firstUserId;
+
+    @Column(name = "second_uid", nullable = false, length = 36)
+    private String secondUid;
+
+    @Column(name = "second_user_id", nullable = false)
+    private Long secondUserId;
+}
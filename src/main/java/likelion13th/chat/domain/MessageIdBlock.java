@@ -0,0 +1,28 @@
+package likelion13th.chat.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * write-behind 모드에서 메시지 ID를 블록 단위로 예약하기 위한 카운터 테이블
+ * next_val 이상인 ID는 아직 아무 노드에도 할당되지 않은 값
+ */
+@Entity
+@Table(name = "message_id_block")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageIdBlock {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "next_val", nullable = false)
+    private Long nextVal;
+}
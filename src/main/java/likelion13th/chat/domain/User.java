@@ -1,10 +1,12 @@
 package likelion13th.chat.domain;
 
+import likelion13th.chat.service.UserChangeListener;
 import lombok.*;
 import jakarta.persistence.*;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(UserChangeListener.class)
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(name = "uk_user_uid", columnNames = "uid"),
 })
@@ -0,0 +1,22 @@
+package likelion13th.chat.dto.command;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** 수신 확인: userUid가 이 방에서 messageId 이하의 메시지를 받았음 (메시지마다가 아니라 누적 위치) */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AckCommand {
+    @NotBlank
+    private String roomId;
+    @NotBlank
+    private String userUid;
+    @NotNull
+    private Long messageId;
+}
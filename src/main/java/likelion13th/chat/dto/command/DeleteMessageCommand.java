@@ -16,4 +16,6 @@ public class DeleteMessageCommand {
     private Long messageId;
     @NotBlank
     private String requesterUid;
+    /** 메시지가 있는 방 (주면 조건부 DELETE 한 번, 없으면 샤드를 돌며 메시지를 먼저 조회) */
+    private String roomId;
 }
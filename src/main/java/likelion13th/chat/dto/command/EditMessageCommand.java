@@ -18,4 +18,9 @@ public class EditMessageCommand {
     private String editorUid;
     @NotBlank
     private String newContent;
+    /**
+     * 메시지가 있는 방 (없으면 샤드를 돌며 메시지를 먼저 조회)
+     * 주면 조건부 UPDATE 한 번, 응답이 최근 메시지 캐시에 없을 때만 UPDATE 뒤에 다시 조회
+     */
+    private String roomId;
 }
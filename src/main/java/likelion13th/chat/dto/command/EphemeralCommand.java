@@ -0,0 +1,27 @@
+package likelion13th.chat.dto.command;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 저장하지 않는 방 신호 (/app/ephemeral)
+ * 방/사용자는 /app/enter(/app/resume) 때 세션에 저장된 값을 쓰므로 보내지 않음
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EphemeralCommand {
+    /** typing: 입력 중 여부, presence: 화면을 보고 있는지, cursor: 지금 보고 있는 위치 */
+    @NotBlank
+    @Pattern(regexp = "typing|presence|cursor")
+    private String type;
+    /** typing, presence에서 사용 */
+    private Boolean active;
+    /** cursor에서 사용 (읽음 처리와는 별개, 저장하지 않음) */
+    private Long messageId;
+}
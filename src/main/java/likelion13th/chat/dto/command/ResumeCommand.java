@@ -0,0 +1,24 @@
+package likelion13th.chat.dto.command;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * (재)접속 후 방 이어받기: epoch/seq는 마지막으로 받은 방 프레임의 값
+ * 처음 접속이면 둘 다 비움 (입장 처리 + 내역을 다시 불러오라는 응답)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumeCommand {
+    @NotBlank
+    private String roomId;
+    @NotBlank
+    private String userUid;
+    private String epoch;
+    private Long seq;
+}
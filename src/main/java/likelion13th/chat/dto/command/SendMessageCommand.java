@@ -1,6 +1,7 @@
 package likelion13th.chat.dto.command;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -17,5 +18,8 @@ public class SendMessageCommand {
     private String senderUid;
     @NotBlank
     private String content;
+    /** 클라이언트가 메시지마다 만드는 ID (재전송돼도 같은 값), 있으면 같은 방/보낸 사람 안에서 한 번만 저장 */
+    @Size(max = 64)
+    private String clientMessageId;
 }
 
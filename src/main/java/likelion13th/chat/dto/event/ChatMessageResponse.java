@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class ChatMessageResponse {
@@ -23,10 +23,11 @@ public class ChatMessageResponse {
     private Instant createdAt;
     private Instant updatedAt;
 
-    public static ChatMessageResponse from(ChatMessage entity) {
+    /** roomId: 엔티티의 숫자 방 ID에 해당하는 "A__B" 문자열 (RoomRef.key) */
+    public static ChatMessageResponse from(ChatMessage entity, String roomId) {
         return ChatMessageResponse.builder()
                 .id(entity.getId())
-                .roomId(entity.getRoomId())
+                .roomId(roomId)
                 .senderUid(entity.getSenderUid())
                 .content(entity.getContent())
                 .status(entity.getStatus())
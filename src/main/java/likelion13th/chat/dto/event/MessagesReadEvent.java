@@ -0,0 +1,14 @@
+package likelion13th.chat.dto.event;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/** 방 입장 시 읽음 처리 결과: readerUid가 lastReadMessageId 이하의 메시지를 모두 읽음 */
+@Getter
+@Builder
+public class MessagesReadEvent {
+    private final String roomId;
+    private final String readerUid;
+    private final Long lastReadMessageId;
+    private final int updatedCount;
+}
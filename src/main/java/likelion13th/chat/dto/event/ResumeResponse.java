@@ -0,0 +1,31 @@
+package likelion13th.chat.dto.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** /app/resume 응답 (/user/queue/resume, 요청한 세션에만) */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResumeResponse {
+    /** true: frames만 적용하면 됨, false: 내역을 다시 불러와야 함 (seq 이후 프레임은 실시간으로 옴) */
+    private boolean resumed;
+    /** 순번을 매긴 노드/프로세스 (바뀌면 이전 seq로는 이어받을 수 없음) */
+    private String epoch;
+    /** 응답 시점의 방 순번 */
+    private long seq;
+    /** 놓친 방 프레임 (seq 오름차순, resumed일 때만) */
+    private List<Frame> frames;
+
+    /** payload는 /topic/rooms/{roomId}로 보냈던 JSON 그대로 (단일 이벤트 또는 배열) */
+    public record Frame(long seq, @JsonRawValue String payload) {
+    }
+}
@@ -0,0 +1,17 @@
+package likelion13th.chat.dto.event;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/** 검색 결과 한 건 (색인에 저장된 본문 기준, 상태 같은 바뀌는 값은 담지 않음) */
+@Getter
+@Builder
+public class SearchHit {
+    private final Long id;
+    private final String senderUid;
+    private final String senderName;
+    private final String content;
+    private final Instant createdAt;
+}
@@ -0,0 +1,16 @@
+package likelion13th.chat.dto.event;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/** 검색 결과 한 페이지 (최신순), 다음 페이지는 before=nextBefore로 요청 (없으면 마지막 페이지) */
+@Getter
+@Builder
+public class SearchResponse {
+    private final String roomId;
+    private final String query;
+    private final List<SearchHit> hits;
+    private final Long nextBefore;
+}
@@ -9,16 +9,58 @@ import lombok.*;
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class WsEvent {
-    /** 예: "deleted", "read", "typing" 등 */
+    /** 예: "deleted", "read", "delivered", "error", "typing", "presence", "cursor" */
     private String type;
-    /** 대상 메시지 ID (삭제/수정 등에서 사용) */
+    /** 대상 메시지 ID (삭제/수정 등에서 사용, read에서는 "이 ID 이하까지 읽음") */
     private Long messageId;
 
     private String senderUid;
 
+    /** read 이벤트에서 메시지를 읽은 사용자 */
+    private String readerUid;
+
+    /** error 이벤트의 원인 (예: NOT_FOUND, NOT_OWNER, ALREADY_READ) */
+    private String code;
+
+    /** error 이벤트의 설명 */
+    private String detail;
+
+    /** delivered 이벤트에서 메시지를 받은 사용자 ("이 ID 이하까지 받음") */
+    private String recipientUid;
+
+    /** typing(입력 중), presence(화면을 보고 있음) 이벤트의 상태 */
+    private Boolean active;
+
     // 편의 팩토리
     public static WsEvent deleted(Long messageId) {
         return WsEvent.builder().type("deleted").messageId(messageId).build();
     }
-}
 
+    public static WsEvent read(String readerUid, Long lastReadMessageId) {
+        return WsEvent.builder().type("read").readerUid(readerUid).messageId(lastReadMessageId).build();
+    }
+
+    /** 요청한 세션에만 보내는 실패 알림 (/user/queue/errors) */
+    public static WsEvent error(String code, Long messageId, String detail) {
+        return WsEvent.builder().type("error").code(code).messageId(messageId).detail(detail).build();
+    }
+
+    public static WsEvent delivered(String recipientUid, Long lastDeliveredMessageId) {
+        return WsEvent.builder().type("delivered").recipientUid(recipientUid).messageId(lastDeliveredMessageId).build();
+    }
+
+    // 저장하지 않는 신호 (EphemeralEventService), 보낸 사람은 senderUid
+
+    public static WsEvent typing(String uid, Boolean active) {
+        return WsEvent.builder().type("typing").senderUid(uid).active(active).build();
+    }
+
+    public static WsEvent presence(String uid, Boolean active) {
+        return WsEvent.builder().type("presence").senderUid(uid).active(active).build();
+    }
+
+    /** uid가 지금 보고 있는 위치 (읽음 처리와 별개) */
+    public static WsEvent cursor(String uid, Long messageId) {
+        return WsEvent.builder().type("cursor").senderUid(uid).messageId(messageId).build();
+    }
+}
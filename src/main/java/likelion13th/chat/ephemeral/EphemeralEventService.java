@@ -0,0 +1,177 @@
+package likelion13th.chat.ephemeral;
+
+import likelion13th.chat.config.EphemeralProperties;
+import likelion13th.chat.dto.command.EphemeralCommand;
+import likelion13th.chat.service.RoomBroadcaster;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 저장하지 않는 방 신호 (입력 중, 접속 상태, 보고 있는 위치)
+ * - JPA/트랜잭션/ChatService를 거치지 않음: 방/사용자는 /app/enter 때 세션에 저장한 값, 상태는 메모리에만
+ * - (방, 사용자, 종류)마다 chat.ephemeral.min-interval에 최대 한 번 브로드캐스트, 그 사이 값은 마지막 것만 (SignalSlot)
+ * - typing=true가 typing-timeout 동안 갱신되지 않거나 세션이 끊기면 서버가 typing=false를 대신 보냄
+ *   presence=true는 idle-timeout 동안 갱신이 없으면 presence=false
+ * 같은 키의 반영/전송은 슬롯 단위로 잠가서 순서를 지킴 (맵의 compute 안에서 보내지 않음: 다른 키까지 막지 않도록)
+ * 방 이벤트와 섞이지 않게 /topic/rooms/{roomId}/signals로 전송 (RoomBroadcaster.signal: 순번/보관 없음)
+ * 노드마다 따로 관리하지만 전송은 RoomBroadcaster를 거치므로 fanout/relay 모드에서도 모든 노드로 전달됨
+ */
+@Service
+public class EphemeralEventService implements DisposableBean {
+
+    private final RoomBroadcaster broadcaster;
+    private final long minIntervalNanos;
+    private final long typingTimeoutNanos;
+    private final long idleTimeoutNanos;
+
+    private final Map<Key, SignalSlot> slots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ephemeral-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+
+    public EphemeralEventService(RoomBroadcaster broadcaster, EphemeralProperties properties) {
+        this.broadcaster = broadcaster;
+        this.minIntervalNanos = properties.getMinInterval().toNanos();
+        this.typingTimeoutNanos = properties.getTypingTimeout().toNanos();
+        this.idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+    }
+
+    /** roomId/userUid가 없으면(아직 /app/enter 전) 조용히 버림 */
+    public void signal(String roomId, String userUid, EphemeralCommand cmd) {
+        received.increment();
+        if (roomId == null || userUid == null) {
+            return;
+        }
+        EphemeralType type = EphemeralType.of(cmd.getType());
+        SignalSlot.Signal signal = switch (type) {
+            case TYPING, PRESENCE -> {
+                if (cmd.getActive() == null)
+                    throw new IllegalArgumentException(cmd.getType() + " requires active");
+                yield new SignalSlot.Signal(cmd.getActive(), null);
+            }
+            case CURSOR -> {
+                if (cmd.getMessageId() == null)
+                    throw new IllegalArgumentException("cursor requires messageId");
+                yield new SignalSlot.Signal(null, cmd.getMessageId());
+            }
+        };
+
+        Key key = new Key(roomId, userUid, type);
+        while (true) {
+            SignalSlot slot = slots.computeIfAbsent(key, k -> new SignalSlot());
+            // 슬롯 잠금: 같은 (방, 사용자, 종류)의 반영/전송 순서가 섞이지 않음
+            synchronized (slot) {
+                if (slots.get(key) != slot) {
+                    continue; // 그 사이 sweep이 버린 슬롯
+                }
+                long wait = slot.offer(signal, System.nanoTime(), minIntervalNanos);
+                if (wait == SignalSlot.SEND_NOW) {
+                    send(key, signal);
+                } else if (wait > 0) {
+                    scheduler.schedule(() -> flush(key), wait, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 사용자의 마지막 세션이 끊김: 입력 중/접속 상태를 바로 끔
+     * 같은 사용자의 다른 세션이 방에 남아 있으면 호출하지 않음 (ActiveUserService.sessionClosed 결과로 판단)
+     */
+    public void sessionClosed(String roomId, String userUid) {
+        if (roomId == null || userUid == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (EphemeralType type : new EphemeralType[]{EphemeralType.TYPING, EphemeralType.PRESENCE}) {
+            Key key = new Key(roomId, userUid, type);
+            SignalSlot slot = slots.get(key);
+            if (slot == null) {
+                continue;
+            }
+            synchronized (slot) {
+                SignalSlot.Signal expired = slot.expire(now, 0);
+                if (expired != null) {
+                    send(key, expired);
+                }
+            }
+        }
+    }
+
+    private void flush(Key key) {
+        SignalSlot slot = slots.get(key);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot) {
+            SignalSlot.Signal latest = slot.flush(System.nanoTime());
+            if (latest != null) {
+                send(key, latest);
+            }
+        }
+    }
+
+    /** 갱신이 끊긴 typing/presence를 끄고, 오래 조용한 상태는 버림 */
+    @Scheduled(fixedDelayString = "${chat.ephemeral.sweep-interval:1s}")
+    public void sweep() {
+        long now = System.nanoTime();
+        slots.forEach((key, slot) -> {
+            long timeout = switch (key.type()) {
+                case TYPING -> typingTimeoutNanos;
+                case PRESENCE -> idleTimeoutNanos;
+                case CURSOR -> Long.MAX_VALUE;
+            };
+            synchronized (slot) {
+                SignalSlot.Signal expired = slot.expire(now, timeout);
+                if (expired != null) {
+                    send(key, expired);
+                }
+                if (slot.isIdle(now, idleTimeoutNanos)) {
+                    // 슬롯 잠금 안에서 지우므로 signal은 지워진 슬롯에 쓰지 않고 새 슬롯을 만듦
+                    slots.remove(key, slot);
+                }
+            }
+        });
+    }
+
+    private void send(Key key, SignalSlot.Signal signal) {
+        broadcaster.signal(key.roomId(), key.type().toEvent(key.uid(), signal));
+        broadcasts.increment();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    // ===== 지표 =====
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    public int getActiveSlots() {
+        return slots.size();
+    }
+
+    private record Key(String roomId, String uid, EphemeralType type) {
+    }
+}
@@ -0,0 +1,22 @@
+package likelion13th.chat.ephemeral;
+
+import likelion13th.chat.dto.event.WsEvent;
+
+import java.util.Locale;
+
+/** 저장하지 않는 방 신호의 종류 (WsEvent.type으로 그대로 나감) */
+public enum EphemeralType {
+    TYPING, PRESENCE, CURSOR;
+
+    public static EphemeralType of(String type) {
+        return valueOf(type.toUpperCase(Locale.ROOT));
+    }
+
+    WsEvent toEvent(String uid, SignalSlot.Signal signal) {
+        return switch (this) {
+            case TYPING -> WsEvent.typing(uid, signal.active());
+            case PRESENCE -> WsEvent.presence(uid, signal.active());
+            case CURSOR -> WsEvent.cursor(uid, signal.messageId());
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package likelion13th.chat.ephemeral;
+
+/**
+ * (방, 사용자, 종류) 하나의 마지막 값과 마지막 전송 시각 (시각은 System.nanoTime 기준)
+ * - 간격이 지났으면 바로 전송 (첫 신호가 늦지 않게)
+ * - 간격 안에 온 값은 한 번만 예약하고, 예약 시점에 그때까지의 마지막 값만 전송 (last-value-wins)
+ * - 이미 보낸 값과 같은 값은 버림 (입력 중 keepalive, true → false → true 같은 왕복)
+ * 스레드 안전하지 않음: EphemeralEventService가 키 단위로 직렬화해서 호출
+ */
+final class SignalSlot {
+
+    static final long SEND_NOW = 0;
+    static final long DROP = -1;
+
+    private Signal latest;
+    private Signal sent;
+    private long sentAt;
+    private long touchedAt;
+    private boolean deferred;
+
+    /**
+     * 새 값 반영
+     * @return SEND_NOW(0): 지금 latest 전송, 양수: 그만큼(ns) 뒤에 flush 예약, DROP(-1): 보낼 것 없음
+     */
+    long offer(Signal value, long now, long minIntervalNanos) {
+        latest = value;
+        touchedAt = now;
+        if (deferred) {
+            // 이미 예약된 flush가 마지막 값을 가져감
+            return DROP;
+        }
+        if (value.equals(sent)) {
+            return DROP;
+        }
+        long wait = sent == null ? 0 : sentAt + minIntervalNanos - now;
+        if (wait <= 0) {
+            markSent(now);
+            return SEND_NOW;
+        }
+        deferred = true;
+        return wait;
+    }
+
+    /** 예약 시점: 그 사이 값이 바뀌었으면 마지막 값을 돌려줌 (보낼 것 없으면 null) */
+    Signal flush(long now) {
+        deferred = false;
+        if (latest.equals(sent)) {
+            return null;
+        }
+        markSent(now);
+        return latest;
+    }
+
+    /**
+     * active=true가 timeout 동안 갱신되지 않았으면 active=false로 바꿈 (간격 제한 없이 바로)
+     * @return 지금 보낼 값 (예약된 flush가 있으면 그쪽이 보내므로 null)
+     */
+    Signal expire(long now, long timeoutNanos) {
+        if (latest == null || !Boolean.TRUE.equals(latest.active()) || now - touchedAt < timeoutNanos) {
+            return null;
+        }
+        latest = Signal.INACTIVE;
+        if (deferred || latest.equals(sent)) {
+            return null;
+        }
+        markSent(now);
+        return latest;
+    }
+
+    /** 예약도 없고, 켜진 상태(active=true)도 아니고, idle 동안 신호가 없었음 */
+    boolean isIdle(long now, long idleNanos) {
+        return !deferred && (latest == null || !Boolean.TRUE.equals(latest.active())) && now - touchedAt >= idleNanos;
+    }
+
+    private void markSent(long now) {
+        sent = latest;
+        sentAt = now;
+    }
+
+    /** typing/presence는 active, cursor는 messageId만 사용 */
+    record Signal(Boolean active, Long messageId) {
+        static final Signal INACTIVE = new Signal(false, null);
+    }
+}
@@ -0,0 +1,178 @@
+package likelion13th.chat.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import likelion13th.chat.concurrent.ChannelExecutor;
+import likelion13th.chat.concurrent.ExecutorStats;
+import likelion13th.chat.ephemeral.EphemeralEventService;
+import likelion13th.chat.search.MessageSearchService;
+import likelion13th.chat.service.ActiveUserService;
+import likelion13th.chat.service.DeliveryReceiptService;
+import likelion13th.chat.service.RecentMessageCache;
+import likelion13th.chat.service.RoomEventLog;
+import likelion13th.chat.service.SendDeduplicator;
+import likelion13th.chat.transport.SlowConsumerGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포화 상태를 보기 위한 게이지
+ * - chat.presence.sessions / chat.presence.rooms: 현재 접속 세션 수, 접속자가 있는 방 수
+ * - chat.channel.*: STOMP inbound/outbound 실행기의 대기열 깊이, 실행 중 작업, 대기/실행 시간 (tag: channel)
+ * - chat.history.cache.*: 최근 메시지 캐시 적중/미스(tag: result), 제거 수, 캐시된 방 수, 추정 메모리
+ * - chat.delivery.*: 받은 ack 수, 실행한 UPDATE 수, DELIVERED로 바뀐 메시지 수, 반영 대기 중인 (방, 수신자) 수
+ * - chat.outbound.*: 세션별 아직 소켓에 쓰이지 않은 프레임 (합계/최댓값), 한도를 넘은 세션 수, 버린 프레임/끊은 세션 수
+ * - chat.send.duplicates: clientMessageId가 같은 재전송을 걸러낸 수 (tag source: cache | database)
+ * - chat.search.*: 검색 요청 수, 색인 반영(방 단위) 수, 반영 대기 중인 변경 수, 메모리에 열린 방 색인 수
+ * - chat.resume.*: 이어받기 요청 수 (tag outcome: resumed | reset), 다시 보낸 프레임 수, 로그를 가진 방 수, 추정 메모리, 제거 수
+ * - chat.ephemeral.*: 받은 신호 수, 실제로 브로드캐스트한 수 (차이만큼 합쳐지거나 버려짐), 메모리에 있는 (방, 사용자, 종류) 상태 수
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMeterBinder implements MeterBinder {
+
+    private final ActiveUserService activeUserService;
+    private final RecentMessageCache recentMessageCache;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final DeliveryReceiptService deliveryReceiptService;
+    private final MessageSearchService searchService;
+    private final SendDeduplicator sendDeduplicator;
+    private final EphemeralEventService ephemeralEventService;
+    private final RoomEventLog roomEventLog;
+    /** 빈 이름(chatInboundExecutor, chatOutboundExecutor) → 실행기 */
+    private final Map<String, ChannelExecutor> channelExecutors;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("chat.presence.sessions", activeUserService, ActiveUserService::activeSessionCount)
+                .description("STOMP sessions currently present in a room")
+                .register(registry);
+        Gauge.builder("chat.presence.rooms", activeUserService, ActiveUserService::activeRoomCount)
+                .description("rooms with at least one present session")
+                .register(registry);
+
+        channelExecutors.forEach((beanName, executor) -> bindChannel(registry, channelName(beanName), executor));
+        bindHistoryCache(registry);
+        bindOutbound(registry);
+        bindDelivery(registry);
+        bindSearch(registry);
+        bindEphemeral(registry);
+        bindResume(registry);
+        FunctionCounter.builder("chat.send.duplicates", sendDeduplicator, SendDeduplicator::getCacheHits)
+                .tag("source", "cache").description("resent messages answered from the dedup cache").register(registry);
+        FunctionCounter.builder("chat.send.duplicates", sendDeduplicator, SendDeduplicator::getDatabaseHits)
+                .tag("source", "database").description("resent messages caught by the unique constraint").register(registry);
+    }
+
+    private void bindResume(MeterRegistry registry) {
+        FunctionCounter.builder("chat.resume.requests", roomEventLog, RoomEventLog::getResumed)
+                .tag("outcome", "resumed").description("reconnects served from the room event log").register(registry);
+        FunctionCounter.builder("chat.resume.requests", roomEventLog, RoomEventLog::getResets)
+                .tag("outcome", "reset").description("reconnects that had to reload history").register(registry);
+        FunctionCounter.builder("chat.resume.frames", roomEventLog, RoomEventLog::getReplayedFrames)
+                .description("room frames replayed to resuming sessions").register(registry);
+        FunctionCounter.builder("chat.resume.evictions", roomEventLog, RoomEventLog::getEvictions)
+                .description("room logs evicted (LRU)").register(registry);
+        Gauge.builder("chat.resume.rooms", roomEventLog, RoomEventLog::getRoomCount)
+                .description("rooms with an event log in memory").register(registry);
+        Gauge.builder("chat.resume.bytes", roomEventLog, RoomEventLog::getEstimatedBytes)
+                .description("estimated memory held by room event logs").baseUnit("bytes").register(registry);
+    }
+
+    private void bindEphemeral(MeterRegistry registry) {
+        FunctionCounter.builder("chat.ephemeral.received", ephemeralEventService, EphemeralEventService::getReceived)
+                .description("typing/presence/cursor signals received").register(registry);
+        FunctionCounter.builder("chat.ephemeral.broadcasts", ephemeralEventService, EphemeralEventService::getBroadcasts)
+                .description("signals broadcast after throttling and coalescing").register(registry);
+        Gauge.builder("chat.ephemeral.slots", ephemeralEventService, EphemeralEventService::getActiveSlots)
+                .description("(room, user, type) signal states held in memory").register(registry);
+    }
+
+    private void bindSearch(MeterRegistry registry) {
+        FunctionCounter.builder("chat.search.queries", searchService, MessageSearchService::getQueries)
+                .description("search requests").register(registry);
+        FunctionCounter.builder("chat.search.refreshes", searchService, MessageSearchService::getRefreshedRooms)
+                .description("room index refreshes (one new segment each)").register(registry);
+        Gauge.builder("chat.search.pending", searchService, MessageSearchService::getPendingChanges)
+                .description("message changes waiting for the next index refresh").register(registry);
+        Gauge.builder("chat.search.rooms.open", searchService, MessageSearchService::getOpenRooms)
+                .description("room indexes loaded in memory").register(registry);
+    }
+
+    private void bindDelivery(MeterRegistry registry) {
+        FunctionCounter.builder("chat.delivery.acks", deliveryReceiptService, DeliveryReceiptService::getAcks)
+                .description("delivery acknowledgements received").register(registry);
+        FunctionCounter.builder("chat.delivery.updates", deliveryReceiptService, DeliveryReceiptService::getUpdates)
+                .description("batched DELIVERED update statements").register(registry);
+        FunctionCounter.builder("chat.delivery.messages", deliveryReceiptService, DeliveryReceiptService::getDelivered)
+                .description("messages moved from SENT to DELIVERED").register(registry);
+        Gauge.builder("chat.delivery.pending", deliveryReceiptService, DeliveryReceiptService::getPendingRecipients)
+                .description("room/recipient pairs with acks waiting for the next flush").register(registry);
+    }
+
+    private void bindOutbound(MeterRegistry registry) {
+        Gauge.builder("chat.outbound.sessions", slowConsumerGuard, SlowConsumerGuard::getSessionCount)
+                .description("open websocket sessions").register(registry);
+        Gauge.builder("chat.outbound.pending", slowConsumerGuard, SlowConsumerGuard::getTotalPending)
+                .description("frames accepted for delivery but not yet written, all sessions").register(registry);
+        Gauge.builder("chat.outbound.pending.max", slowConsumerGuard, SlowConsumerGuard::getMaxPending)
+                .description("largest per-session backlog of unwritten frames").register(registry);
+        Gauge.builder("chat.outbound.slow.sessions", slowConsumerGuard, SlowConsumerGuard::getSlowSessionCount)
+                .description("sessions at or over max-pending-frames").register(registry);
+        FunctionCounter.builder("chat.outbound.dropped", slowConsumerGuard, SlowConsumerGuard::getDropped)
+                .description("broadcast frames not sent to slow consumers").register(registry);
+        FunctionCounter.builder("chat.outbound.disconnected", slowConsumerGuard, SlowConsumerGuard::getDisconnected)
+                .description("sessions closed as slow consumers").register(registry);
+    }
+
+    private void bindHistoryCache(MeterRegistry registry) {
+        FunctionCounter.builder("chat.history.cache.requests", recentMessageCache, RecentMessageCache::getHits)
+                .tag("result", "hit").description("history requests served from memory").register(registry);
+        FunctionCounter.builder("chat.history.cache.requests", recentMessageCache, RecentMessageCache::getMisses)
+                .tag("result", "miss").description("history requests that went to the database").register(registry);
+        FunctionCounter.builder("chat.history.cache.evictions", recentMessageCache, RecentMessageCache::getEvictions)
+                .description("rooms dropped by LRU / memory cap").register(registry);
+        Gauge.builder("chat.history.cache.rooms", recentMessageCache, RecentMessageCache::getRoomCount)
+                .register(registry);
+        Gauge.builder("chat.history.cache.size", recentMessageCache, RecentMessageCache::getEstimatedBytes)
+                .baseUnit("bytes").description("estimated memory held by cached messages").register(registry);
+    }
+
+    private void bindChannel(MeterRegistry registry, String channel, ChannelExecutor executor) {
+        ExecutorStats stats = executor.getStats();
+        Gauge.builder("chat.channel.queued", stats, ExecutorStats::getQueued)
+                .tag("channel", channel).description("tasks waiting to run").register(registry);
+        Gauge.builder("chat.channel.active", stats, ExecutorStats::getActive)
+                .tag("channel", channel).description("tasks currently running").register(registry);
+        Gauge.builder("chat.channel.ordering.lanes", executor, ChannelExecutor::getActiveLanes)
+                .tag("channel", channel).description("ordering keys (rooms/sessions) with queued work").register(registry);
+        FunctionCounter.builder("chat.channel.completed", stats, ExecutorStats::getCompleted)
+                .tag("channel", channel).register(registry);
+        FunctionTimer.builder("chat.channel.wait", stats,
+                        ExecutorStats::getCompleted, ExecutorStats::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                .tag("channel", channel).description("time from submit to start").register(registry);
+        FunctionTimer.builder("chat.channel.run", stats,
+                        ExecutorStats::getCompleted, ExecutorStats::getTotalRunNanos, TimeUnit.NANOSECONDS)
+                .tag("channel", channel).description("task execution time").register(registry);
+        Gauge.builder("chat.channel.wait.max", stats, s -> s.getMaxWaitNanos() / 1e6)
+                .tag("channel", channel).baseUnit("milliseconds").register(registry);
+
+        if (executor.getDelegate() instanceof ThreadPoolTaskExecutor pool) {
+            Gauge.builder("chat.channel.pool.size", pool, ThreadPoolTaskExecutor::getPoolSize)
+                    .tag("channel", channel).register(registry);
+            Gauge.builder("chat.channel.pool.queue", pool, p -> p.getThreadPoolExecutor().getQueue().size())
+                    .tag("channel", channel).register(registry);
+        }
+    }
+
+    private static String channelName(String beanName) {
+        return beanName.replace("chat", "").replace("Executor", "").toLowerCase();
+    }
+}
@@ -0,0 +1,62 @@
+package likelion13th.chat.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메시징/저장 경로 타이머 (operation = 메서드 이름, outcome = success/error, exception = 예외 클래스)
+ * - chat.stomp.handler: ChatController의 @MessageMapping 핸들러 전체
+ * - chat.service: ChatService 공개 메서드
+ * - chat.repository.jdbc: JPA를 거치지 않는 배치 저장
+ * - chat.broker.send: 방 브로드캐스트 (브로커 convertAndSend + 클러스터 전파)
+ * Spring Data 리포지토리 호출은 Actuator가 spring.data.repository.invocations로 따로 기록
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ChatMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("@annotation(org.springframework.messaging.handler.annotation.MessageMapping)")
+    public Object timeHandler(ProceedingJoinPoint pjp) throws Throwable {
+        return time("chat.stomp.handler", pjp);
+    }
+
+    @Around("execution(public * likelion13th.chat.service.ChatService.*(..))")
+    public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+        return time("chat.service", pjp);
+    }
+
+    @Around("execution(public * likelion13th.chat.repository.ChatMessageJdbcRepository.*(..))")
+    public Object timeJdbcRepository(ProceedingJoinPoint pjp) throws Throwable {
+        return time("chat.repository.jdbc", pjp);
+    }
+
+    @Around("execution(public * likelion13th.chat.service.RoomBroadcaster.broadcast(..))")
+    public Object timeBroadcast(ProceedingJoinPoint pjp) throws Throwable {
+        return time("chat.broker.send", pjp);
+    }
+
+    private Object time(String name, ProceedingJoinPoint pjp) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return pjp.proceed();
+        } catch (Throwable t) {
+            exception = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("operation", pjp.getSignature().getName())
+                    .tag("outcome", "none".equals(exception) ? "success" : "error")
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package likelion13th.chat.presence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * in-memory 백엔드: 같은 JVM 안에서 clusterName이 같은 노드들이 하나의 PresenceTable을 공유
+ * static 맵이므로 다른 프로세스의 노드와는 공유되지 않음 (운영의 shared는 Redis 등 기반 PresenceRegistry 빈)
+ */
+public final class InMemorySharedPresenceStore {
+
+    private static final Map<String, PresenceTable> TABLES = new ConcurrentHashMap<>();
+
+    private InMemorySharedPresenceStore() {
+    }
+
+    public static PresenceTable table(String clusterName) {
+        return TABLES.computeIfAbsent(clusterName, k -> new PresenceTable());
+    }
+}
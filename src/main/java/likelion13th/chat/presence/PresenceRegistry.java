@@ -0,0 +1,30 @@
+package likelion13th.chat.presence;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+/**
+ * 방별 접속자 저장소
+ * 같은 사용자가 여러 탭(세션)으로 들어올 수 있으므로 (roomNo, userNo, sessionId) 단위로 기록하고,
+ * 해당 사용자의 살아있는 세션이 하나라도 있으면 접속 중으로 판단
+ * 방/사용자는 RoomRegistry의 숫자 ID로 식별 (UUID 문자열 대신 primitive 키)
+ */
+public interface PresenceRegistry {
+
+    void join(long roomNo, long userNo, String sessionId);
+
+    void leave(long roomNo, long userNo, String sessionId);
+
+    /** 세션이 아직 살아있음을 알림 (만료 시각 연장, 이미 떠난 세션은 되살리지 않음) */
+    void heartbeat(long roomNo, long userNo, String sessionId);
+
+    boolean isPresent(long roomNo, long userNo);
+
+    LongSet usersIn(long roomNo);
+
+    /** 만료된 세션과 비어 있는 사용자/방 항목 정리 */
+    void expireStale();
+
+    int roomCount();
+
+    int sessionCount();
+}
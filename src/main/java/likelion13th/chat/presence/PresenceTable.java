@@ -0,0 +1,174 @@
+package likelion13th.chat.presence;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * roomNo → userNo → sessionId → 만료 시각(epoch ms)
+ * 방/사용자 키는 RoomRegistry가 부여한 숫자 ID라서 primitive 맵(fastutil)으로 박싱 없이 조회
+ * 방 번호로 나눈 stripe 단위로 잠그므로 같은 방에 대한 join/leave가 원자적이고,
+ * 마지막 세션이 빠지면 사용자 항목과 방 항목까지 함께 제거되어 메모리가 계속 늘지 않음
+ */
+public class PresenceTable {
+
+    private static final int STRIPES = 64;
+
+    /** stripe마다 방 번호 → (userNo → sessionId → 만료 시각), 해당 stripe 객체로 동기화 */
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private static final class Stripe {
+        final Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>>> rooms =
+                new Long2ObjectOpenHashMap<>();
+    }
+
+    public PresenceTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void put(long roomNo, long userNo, String sessionId, long expiresAt) {
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>> users = stripe.rooms.get(roomNo);
+            if (users == null) {
+                users = new Long2ObjectOpenHashMap<>(2);
+                stripe.rooms.put(roomNo, users);
+            }
+            Object2LongOpenHashMap<String> sessions = users.get(userNo);
+            if (sessions == null) {
+                sessions = new Object2LongOpenHashMap<>(2);
+                users.put(userNo, sessions);
+            }
+            sessions.put(sessionId, expiresAt);
+        }
+    }
+
+    public void refresh(long roomNo, long userNo, String sessionId, long expiresAt) {
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            Object2LongOpenHashMap<String> sessions = sessionsOf(stripe, roomNo, userNo);
+            if (sessions != null && sessions.containsKey(sessionId)) {
+                sessions.put(sessionId, Math.max(sessions.getLong(sessionId), expiresAt));
+            }
+        }
+    }
+
+    public void remove(long roomNo, long userNo, String sessionId) {
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>> users = stripe.rooms.get(roomNo);
+            if (users == null) {
+                return;
+            }
+            Object2LongOpenHashMap<String> sessions = users.get(userNo);
+            if (sessions != null) {
+                sessions.removeLong(sessionId);
+                if (sessions.isEmpty()) {
+                    users.remove(userNo);
+                }
+            }
+            if (users.isEmpty()) {
+                stripe.rooms.remove(roomNo);
+            }
+        }
+    }
+
+    public boolean contains(long roomNo, long userNo, long now) {
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            Object2LongOpenHashMap<String> sessions = sessionsOf(stripe, roomNo, userNo);
+            return sessions != null && isAlive(sessions, now);
+        }
+    }
+
+    public LongSet users(long roomNo, long now) {
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>> users = stripe.rooms.get(roomNo);
+            if (users == null) {
+                return LongSets.EMPTY_SET;
+            }
+            LongSet alive = new LongOpenHashSet(users.size());
+            for (Long2ObjectMap.Entry<Object2LongOpenHashMap<String>> e : users.long2ObjectEntrySet()) {
+                if (isAlive(e.getValue(), now)) {
+                    alive.add(e.getLongKey());
+                }
+            }
+            return LongSets.unmodifiable(alive);
+        }
+    }
+
+    public void expire(long now) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                ObjectIterator<Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>>> rooms = stripe.rooms.values().iterator();
+                while (rooms.hasNext()) {
+                    Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>> users = rooms.next();
+                    ObjectIterator<Object2LongOpenHashMap<String>> it = users.values().iterator();
+                    while (it.hasNext()) {
+                        Object2LongOpenHashMap<String> sessions = it.next();
+                        sessions.object2LongEntrySet().removeIf(s -> s.getLongValue() <= now);
+                        if (sessions.isEmpty()) {
+                            it.remove();
+                        }
+                    }
+                    if (users.isEmpty()) {
+                        rooms.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    public int roomCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.rooms.size();
+            }
+        }
+        return count;
+    }
+
+    public int sessionCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>> users : stripe.rooms.values()) {
+                    for (Object2LongOpenHashMap<String> sessions : users.values()) {
+                        count += sessions.size();
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private Stripe stripeOf(long roomNo) {
+        return stripes[(int) HashCommon.mix(roomNo) & (STRIPES - 1)];
+    }
+
+    private static Object2LongOpenHashMap<String> sessionsOf(Stripe stripe, long roomNo, long userNo) {
+        Long2ObjectOpenHashMap<Object2LongOpenHashMap<String>> users = stripe.rooms.get(roomNo);
+        return users == null ? null : users.get(userNo);
+    }
+
+    private static boolean isAlive(Object2LongMap<String> sessions, long now) {
+        LongIterator it = sessions.values().iterator();
+        while (it.hasNext()) {
+            if (it.nextLong() > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package likelion13th.chat.presence;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/** PresenceTable 위에 TTL을 얹은 PresenceRegistry (local/in-memory 백엔드 공통 구현) */
+public class TablePresenceRegistry implements PresenceRegistry {
+
+    private final PresenceTable table;
+    private final long ttlMillis;
+    /** 현재 시각(epoch ms), 테스트에서 교체 */
+    private final LongSupplier clock;
+
+    public TablePresenceRegistry(PresenceTable table, Duration ttl) {
+        this(table, ttl, System::currentTimeMillis);
+    }
+
+    TablePresenceRegistry(PresenceTable table, Duration ttl, LongSupplier clock) {
+        this.table = table;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void join(long roomNo, long userNo, String sessionId) {
+        table.put(roomNo, userNo, sessionId, clock.getAsLong() + ttlMillis);
+    }
+
+    @Override
+    public void leave(long roomNo, long userNo, String sessionId) {
+        table.remove(roomNo, userNo, sessionId);
+    }
+
+    @Override
+    public void heartbeat(long roomNo, long userNo, String sessionId) {
+        table.refresh(roomNo, userNo, sessionId, clock.getAsLong() + ttlMillis);
+    }
+
+    @Override
+    public boolean isPresent(long roomNo, long userNo) {
+        return table.contains(roomNo, userNo, clock.getAsLong());
+    }
+
+    @Override
+    public LongSet usersIn(long roomNo) {
+        return table.users(roomNo, clock.getAsLong());
+    }
+
+    @Override
+    public void expireStale() {
+        table.expire(clock.getAsLong());
+    }
+
+    @Override
+    public int roomCount() {
+        return table.roomCount();
+    }
+
+    @Override
+    public int sessionCount() {
+        return table.sessionCount();
+    }
+}
@@ -0,0 +1,192 @@
+package likelion13th.chat.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import likelion13th.chat.concurrent.CommandRoom;
+import likelion13th.chat.config.RateLimitProperties;
+import likelion13th.chat.service.RoomRef;
+import likelion13th.chat.service.RoomRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * clientInboundChannel 유량 제한 (chat.rate-limit.*)
+ * - 실행기로 넘어가기 전(WebSocket I/O 스레드)에서 판단하므로, 넘치는 명령이 inbound 대기열/DB를 차지하지 않음
+ * - /app/{command}마다 세션 버킷과 방 버킷(명령이 가리키는 방, CommandRoom)을 둘 다 통과해야 처리
+ *   방 버킷은 RoomRegistry에 이미 등록된 방의 숫자 ID로만 만듦 (client가 보낸 임의의 roomId로 맵이 불어나지 않도록,
+ *   처음 보는 방은 세션 버킷만 적용하고 컨트롤러에서 방을 확인/등록한 뒤부터 방 버킷 적용)
+ * - 한도 초과
+ *   REJECT: MessageDeliveryException → StompSubProtocolHandler가 ERROR 프레임으로 응답 (STOMP 규약상 클라이언트는 연결을 끊음)
+ *   QUEUE: 토큰이 찰 시점에 다시 채널로 보냄 (세션당 queueCapacity, 최대 maxQueueDelay, 넘으면 REJECT와 같음)
+ * - 세션 상태는 DISCONNECT에서, 가득 찬(쉬고 있는) 방 버킷은 주기적으로 정리
+ * 지표: chat.ratelimit.throttled (tag: command, scope=session|room, outcome=rejected|queued), chat.ratelimit.queued
+ */
+@Slf4j
+@Component
+public class InboundRateLimiter implements ChannelInterceptor, DisposableBean {
+
+    /** 대기열에서 다시 보낸 메시지 표시 (이미 토큰을 받았으므로 다시 검사하지 않음) */
+    static final String ADMITTED_HEADER = "chatRateLimitAdmitted";
+
+    private static final String APP_PREFIX = "/app/";
+
+    private final RateLimitProperties props;
+    private final MeterRegistry registry;
+    private final RoomRegistry roomRegistry;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    /** (command, 방 번호) → 방 버킷 */
+    private final Map<RoomCommand, TokenBucket> roomBuckets = new ConcurrentHashMap<>();
+    /** QUEUE 모드에서 지연 중인 명령 수 (전체) */
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stomp-ratelimit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InboundRateLimiter(RateLimitProperties props, MeterRegistry registry, RoomRegistry roomRegistry) {
+        this.props = props;
+        this.registry = registry;
+        this.roomRegistry = roomRegistry;
+        Gauge.builder("chat.ratelimit.queued", queued, AtomicInteger::get)
+                .description("inbound commands delayed by the rate limiter")
+                .register(registry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (sessionId == null) {
+            return message;
+        }
+        if (type == SimpMessageType.DISCONNECT) {
+            sessions.remove(sessionId);
+            return message;
+        }
+        if (!props.isEnabled() || type != SimpMessageType.MESSAGE || headers.containsKey(ADMITTED_HEADER)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !destination.startsWith(APP_PREFIX)) {
+            return message;
+        }
+        String command = destination.substring(APP_PREFIX.length());
+        RateLimitProperties.Command limits = props.getCommands().get(command);
+        if (limits == null) {
+            return message;
+        }
+        return admit(message, channel, sessionId, command, limits);
+    }
+
+    private Message<?> admit(Message<?> message, MessageChannel channel, String sessionId,
+                             String command, RateLimitProperties.Command limits) {
+        boolean queueing = props.getOverflow() == RateLimitProperties.Overflow.QUEUE;
+        long maxWait = queueing ? props.getMaxQueueDelay().toNanos() : 0;
+        long now = System.nanoTime();
+
+        SessionState state = sessions.computeIfAbsent(sessionId, id -> new SessionState());
+        TokenBucket sessionBucket = bucket(state.buckets, command, limits.getSession(), now);
+        long sessionWait = sessionBucket == null ? 0 : sessionBucket.acquire(now, maxWait);
+        if (sessionWait < 0) {
+            throw throttled(message, command, "session");
+        }
+
+        String roomId = CommandRoom.of(message);
+        RoomRef room = roomId == null ? null : roomRegistry.find(roomId).orElse(null);
+        TokenBucket roomBucket = room == null ? null
+                : bucket(roomBuckets, new RoomCommand(command, room.no()), limits.getRoom(), now);
+        long roomWait = roomBucket == null ? 0 : roomBucket.acquire(now, maxWait);
+        if (roomWait < 0) {
+            refund(sessionBucket);
+            throw throttled(message, command, "room");
+        }
+
+        long wait = Math.max(sessionWait, roomWait);
+        if (wait == 0) {
+            return message;
+        }
+        if (state.queued.incrementAndGet() > props.getQueueCapacity()) {
+            state.queued.decrementAndGet();
+            refund(sessionBucket);
+            refund(roomBucket);
+            throw throttled(message, command, sessionWait >= roomWait ? "session" : "room");
+        }
+        registry.counter("chat.ratelimit.throttled", "command", command,
+                "scope", sessionWait >= roomWait ? "session" : "room", "outcome", "queued").increment();
+        queued.incrementAndGet();
+        Message<?> admitted = MessageBuilder.fromMessage(message).setHeader(ADMITTED_HEADER, Boolean.TRUE).build();
+        scheduler.schedule(() -> {
+            try {
+                channel.send(admitted);
+            } catch (RuntimeException e) {
+                log.warn("지연된 STOMP 명령 처리 실패 (session={}, command={})", sessionId, command, e);
+            } finally {
+                state.queued.decrementAndGet();
+                queued.decrementAndGet();
+            }
+        }, wait, TimeUnit.NANOSECONDS);
+        // null을 반환하면 이번 send는 조용히 버려지고, 예약된 재전송이 실제 처리
+        return null;
+    }
+
+    private MessageDeliveryException throttled(Message<?> message, String command, String scope) {
+        registry.counter("chat.ratelimit.throttled", "command", command,
+                "scope", scope, "outcome", "rejected").increment();
+        return new MessageDeliveryException(message, "rate limit exceeded: " + APP_PREFIX + command + " (" + scope + ")");
+    }
+
+    private static <K> TokenBucket bucket(Map<K, TokenBucket> buckets, K key,
+                                      RateLimitProperties.Limit limit, long now) {
+        if (limit == null) {
+            return null;
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getRate(), limit.getBurst(), now));
+    }
+
+    private static void refund(TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    /** 가득 찬 방 버킷은 새로 만든 것과 같으므로 버림 (방 수만큼 쌓이지 않도록) */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        roomBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private record RoomCommand(String command, long roomNo) {
+    }
+
+    private static final class SessionState {
+        /** command → 세션 버킷 */
+        final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        final AtomicInteger queued = new AtomicInteger();
+    }
+}
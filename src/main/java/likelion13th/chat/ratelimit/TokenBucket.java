@@ -0,0 +1,54 @@
+package likelion13th.chat.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 락 없는 토큰 버킷 (GCRA: 상태는 "다음 토큰이 비는 이론상 시각" long 하나, CAS로만 갱신)
+ * - rate: 초당 토큰 수, burst: 한 번에 몰아서 쓸 수 있는 최대 토큰 수
+ * - 시각은 System.nanoTime() 기준
+ */
+public final class TokenBucket {
+
+    /** 토큰 하나가 다시 차는 데 걸리는 시간 */
+    private final long intervalNanos;
+    /** burst만큼 미리 당겨 쓸 수 있는 허용치 */
+    private final long toleranceNanos;
+    /** theoretical arrival time: 이 시각 이전에는 버킷이 (일부) 비어 있음 */
+    private final AtomicLong tat;
+
+    public TokenBucket(double ratePerSecond, int burst, long now) {
+        if (ratePerSecond <= 0)
+            throw new IllegalArgumentException("rate는 0보다 커야 합니다: " + ratePerSecond);
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.tat = new AtomicLong(now);
+    }
+
+    /**
+     * 토큰 하나를 가져감
+     * @return 0: 바로 사용 가능, 양수: 그만큼 기다린 뒤 사용(토큰은 이미 예약됨), -1: maxWaitNanos 안에 불가능(상태 변경 없음)
+     */
+    public long acquire(long now, long maxWaitNanos) {
+        while (true) {
+            long current = tat.get();
+            long wait = Math.max(0, current - toleranceNanos - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            long next = Math.max(current, now) + intervalNanos;
+            if (tat.compareAndSet(current, next)) {
+                return wait;
+            }
+        }
+    }
+
+    /** acquire로 가져간 토큰 하나를 되돌림 (다른 단계에서 거절된 경우) */
+    public void refund() {
+        tat.addAndGet(-intervalNanos);
+    }
+
+    /** 버킷이 가득 찬 상태 (새로 만든 버킷과 같으므로 버려도 됨) */
+    public boolean isIdle(long now) {
+        return tat.get() <= now;
+    }
+}
@@ -0,0 +1,68 @@
+package likelion13th.chat.repository;
+
+import likelion13th.chat.domain.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JPA를 거치지 않는 chat_message 배치 INSERT
+ * ID가 이미 할당된 메시지들을 한 번의 트랜잭션, 한 번의 JDBC batch로 저장
+ * (호출한 쪽 트랜잭션이 롤백돼도 배치가 같이 사라지지 않도록 항상 별도 트랜잭션)
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageJdbcRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO chat_message (id, room_no, sender_uid, content, client_message_id, status, created_at, updated_at, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertAll(List<ChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, m) -> {
+            ps.setLong(1, m.getId());
+            ps.setLong(2, m.getRoomNo());
+            ps.setString(3, m.getSenderUid());
+            ps.setString(4, m.getContent());
+            ps.setString(5, m.getClientMessageId());
+            ps.setString(6, m.getStatus().name());
+            ps.setTimestamp(7, Timestamp.from(m.getCreatedAt()));
+            ps.setTimestamp(8, Timestamp.from(m.getUpdatedAt()));
+            ps.setLong(9, m.getVersion());
+        });
+    }
+
+    /** ids 중 이미 저장된 것 (write-behind 저널 복구 시 중복 INSERT 방지) */
+    public List<Long> findExistingIds(List<Long> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.queryForList("SELECT id FROM chat_message WHERE id IN (" + placeholders + ")",
+                Long.class, ids.toArray());
+    }
+
+    /** 같은 (방, 보낸 사람, clientMessageId) 메시지가 이미 저장됐는지 (write-behind가 재전송을 큐에 넣기 전에 확인) */
+    public boolean existsByClientMessageId(long roomNo, String senderUid, String clientMessageId) {
+        Integer found = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM chat_message WHERE room_no = ? AND sender_uid = ? AND client_message_id = ?",
+                Integer.class, roomNo, senderUid, clientMessageId);
+        return found != null && found > 0;
+    }
+
+    /** uk_chat_message_client_id 위반(재전송 중복)인지: 길이 초과, NOT NULL 등 다른 무결성 오류와 구분 */
+    public static boolean isClientMessageIdConflict(DataIntegrityViolationException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(ChatMessage.CLIENT_ID_CONSTRAINT);
+    }
+}
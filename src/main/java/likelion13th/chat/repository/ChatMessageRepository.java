@@ -1,10 +1,129 @@
 package likelion13th.chat.repository;
 
 import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.MessageStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findTop50ByRoomIdOrderByIdDesc(String roomId);
-    List<ChatMessage> findByRoomId(String roomId);
+
+    // ===== keyset 페이지네이션 (인덱스: roomNo, id) =====
+    /** 가장 최근 limit개 (내림차순) */
+    List<ChatMessage> findByRoomNoOrderByIdDesc(Long roomNo, Limit limit);
+    /** before보다 오래된 limit개 (내림차순) */
+    List<ChatMessage> findByRoomNoAndIdLessThanOrderByIdDesc(Long roomNo, Long before, Limit limit);
+    /** after보다 새로운 limit개 (오름차순) */
+    List<ChatMessage> findByRoomNoAndIdGreaterThanOrderByIdAsc(Long roomNo, Long after, Limit limit);
+
+    /** createdAt이 cutoff보다 오래된 메시지가 있는 방 (cold 압축 대상) */
+    @Query("select distinct m.roomNo from ChatMessage m where m.createdAt < :cutoff")
+    List<Long> findRoomNosWithMessagesBefore(@Param("cutoff") Instant cutoff, Limit limit);
+
+    /** 방에서 createdAt이 cutoff보다 오래된 limit개 (id 오름차순, cold 압축 대상) */
+    List<ChatMessage> findByRoomNoAndCreatedAtBeforeOrderByIdAsc(Long roomNo, Instant cutoff, Limit limit);
+
+    /** 방에서 upToId 이하의 hot 메시지 ID (cold 구간과 겹치는 행, 내보내기에서 중복 제거용) */
+    @Query("select m.id from ChatMessage m where m.roomNo = :roomNo and m.id <= :upToId")
+    List<Long> findIdsByRoomNoUpTo(@Param("roomNo") Long roomNo, @Param("upToId") long upToId);
+
+    /**
+     * cold 세그먼트에 쓴 메시지만 hot 테이블에서 제거
+     * ID 구간(id <= N)으로 지우지 않음: ID는 커밋 순서대로가 아니라서 (노드별 ID 블록, write-behind 지연)
+     * 나중에 들어온 더 작은 ID가 세그먼트에 들어가지 않은 채 지워질 수 있음
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ChatMessage m where m.roomNo = :roomNo and m.id in :ids")
+    int deleteArchived(@Param("roomNo") Long roomNo, @Param("ids") Collection<Long> ids);
+
+    /** 재전송 중복 확인 (uk_chat_message_client_id) */
+    Optional<ChatMessage> findByRoomNoAndSenderUidAndClientMessageId(Long roomNo, String senderUid, String clientMessageId);
+
+    /** 방의 가장 최근 메시지 ID (메시지가 없으면 null) */
+    @Query("select max(m.id) from ChatMessage m where m.roomNo = :roomNo")
+    Long findMaxIdByRoomNo(@Param("roomNo") Long roomNo);
+
+    /**
+     * 같은 방, 보낸 사람 본인이고 아직 READ가 아닐 때만 내용 수정 + SENT로 되돌림 (조회 없이 UPDATE 한 번)
+     * 0이면 조건 불일치 (없음/다른 사람/이미 READ), 같은 메시지의 markRead와 경쟁해도 DB가 한쪽으로 판정
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update ChatMessage m
+               set m.content = :content, m.status = :sent, m.version = m.version + 1, m.updatedAt = :now
+             where m.id = :id
+               and m.roomNo = :roomNo
+               and m.senderUid = :senderUid
+               and m.status <> :read
+            """)
+    int editIfUnread(@Param("id") Long id,
+                     @Param("roomNo") Long roomNo,
+                     @Param("senderUid") String senderUid,
+                     @Param("content") String content,
+                     @Param("sent") MessageStatus sent,
+                     @Param("read") MessageStatus read,
+                     @Param("now") Instant now);
+
+    /** 같은 방, 보낸 사람 본인, 아직 READ가 아닐 때만 삭제 (조회 없이 DELETE 한 번) */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            delete from ChatMessage m
+             where m.id = :id
+               and m.roomNo = :roomNo
+               and m.senderUid = :senderUid
+               and m.status <> :read
+            """)
+    int deleteIfUnread(@Param("id") Long id,
+                       @Param("roomNo") Long roomNo,
+                       @Param("senderUid") String senderUid,
+                       @Param("read") MessageStatus read);
+
+    /**
+     * upToId 이하에서 reader가 아닌 사람이 보낸 미확인 메시지를 한 번의 UPDATE로 READ 처리 (인덱스: roomNo, status, id)
+     * 하한을 두지 않음: write-behind/여러 노드에서는 ID 블록이 노드마다 달라서
+     * 이미 읽음 처리한 ID보다 작은 ID의 메시지가 나중에 저장될 수 있음 (미확인 status 조건이 이미 훑는 범위를 좁힘)
+     * 벌크 UPDATE는 @Version/@UpdateTimestamp를 거치지 않으므로 직접 갱신
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update ChatMessage m
+               set m.status = :read, m.version = m.version + 1, m.updatedAt = :now
+             where m.roomNo = :roomNo
+               and m.status in :unread
+               and m.id <= :upToId
+               and m.senderUid <> :readerUid
+            """)
+    int markRead(@Param("roomNo") Long roomNo,
+                 @Param("readerUid") String readerUid,
+                 @Param("upToId") long upToId,
+                 @Param("unread") Collection<MessageStatus> unread,
+                 @Param("read") MessageStatus read,
+                 @Param("now") Instant now);
+
+    /**
+     * upToId 이하에서 recipient가 아닌 사람이 보낸 SENT 메시지를 DELIVERED 처리 (인덱스: roomNo, status, id)
+     * 이미 DELIVERED/READ인 메시지는 건드리지 않으므로 같은 ack가 반복돼도 결과는 같음
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update ChatMessage m
+               set m.status = :delivered, m.version = m.version + 1, m.updatedAt = :now
+             where m.roomNo = :roomNo
+               and m.status = :sent
+               and m.id <= :upToId
+               and m.senderUid <> :recipientUid
+            """)
+    int markDelivered(@Param("roomNo") Long roomNo,
+                      @Param("recipientUid") String recipientUid,
+                      @Param("upToId") long upToId,
+                      @Param("sent") MessageStatus sent,
+                      @Param("delivered") MessageStatus delivered,
+                      @Param("now") Instant now);
 }
@@ -0,0 +1,10 @@
+package likelion13th.chat.repository;
+
+import likelion13th.chat.domain.ChatRoom;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
+    Optional<ChatRoom> findByRoomKey(String roomKey);
+}
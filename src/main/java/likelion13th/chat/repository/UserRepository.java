@@ -3,8 +3,11 @@ package likelion13th.chat.repository;
 import likelion13th.chat.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUid(String uid);
+    List<User> findByUidIn(Collection<String> uids);
 }
@@ -0,0 +1,524 @@
+package likelion13th.chat.search;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * 색인 세그먼트 하나 (한 번 쓰면 바뀌지 않는 파일, 읽을 때는 mmap)
+ * - 메시지는 ID 오름차순, ordinal(0..docCount-1)로 가리킴
+ * - 단어 사전: UTF-8 바이트 순으로 정렬된 단어 (파일에서 이진 탐색)
+ * - postings: 단어마다 그 단어가 든 메시지 ordinal 오름차순
+ * - 저장 필드(보낸 사람, 본문, 시각)와 이전 세그먼트에서 지운 메시지 ID
+ * 힙에는 헤더와 deleted(이후 세그먼트가 고치거나 지운 ordinal)만 두고, 본문/postings는 검색할 때 파일에서 읽음
+ * fromGeneration~toGeneration: 이 세그먼트가 담은 반영 묶음 구간 (병합 결과는 여러 generation)
+ */
+final class IndexSegment {
+
+    private static final int MAGIC = 0x43485358; // "CHSX"
+    private static final int FORMAT = 2;
+    private static final int HEADER_SIZE = 56;
+    /** mmap을 GC 전에 해제하는 데만 씀 (못 얻으면 해제는 GC에 맡김) */
+    private static final sun.misc.Unsafe UNSAFE = unsafe();
+
+    // ===== 파일 형식 (정수는 big-endian, 오프셋은 파일 처음부터) =====
+    // 헤더: MAGIC, FORMAT, fromGeneration, toGeneration, docCount, deleteCount, termCount,
+    //       idsOffset, storedIndexOffset, deletesOffset, termIndexOffset, (예약 int)
+    // ids: long[docCount]
+    // 저장 필드: (createdAt 초 long, 나노 int, senderUid, content)*  (문자열 = 길이 int + UTF-8)
+    // 저장 필드 위치: int[docCount]
+    // deletes: long[deleteCount]
+    // 단어: (단어 길이 int + UTF-8, postingCount int, ordinal int[postingCount])*
+    // 단어 위치: int[termCount]
+
+    final long fromGeneration;
+    final long toGeneration;
+    final Path file;
+    private final ByteBuffer buffer;
+    private final int docCount;
+    private final int deleteCount;
+    private final int termCount;
+    private final int idsOffset;
+    private final int storedIndexOffset;
+    private final int deletesOffset;
+    private final int termIndexOffset;
+
+    /** 이후 세그먼트에서 새 버전이 들어왔거나 지워진 ordinal (RoomSearchIndex의 쓰기 잠금 안에서만 바뀜) */
+    final BitSet deleted = new BitSet();
+
+    private IndexSegment(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new IOException("색인 세그먼트 형식이 아닙니다: " + file);
+        }
+        this.fromGeneration = buffer.getLong(8);
+        this.toGeneration = buffer.getLong(16);
+        this.docCount = buffer.getInt(24);
+        this.deleteCount = buffer.getInt(28);
+        this.termCount = buffer.getInt(32);
+        this.idsOffset = buffer.getInt(36);
+        this.storedIndexOffset = buffer.getInt(40);
+        this.deletesOffset = buffer.getInt(44);
+        this.termIndexOffset = buffer.getInt(48);
+    }
+
+    static IndexSegment open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return new IndexSegment(file, mapped);
+        } catch (IOException e) {
+            unmap(mapped);
+            throw e;
+        }
+    }
+
+    /**
+     * mmap 해제 (파일 핸들은 열 때 이미 닫힘)
+     * 이 세그먼트를 읽는 검색이 없을 때만: RoomSearchIndex가 쓰기 잠금 안에서 목록에서 뺀 뒤, 또는 열다가 실패했을 때
+     */
+    void close() {
+        unmap(buffer);
+    }
+
+    private static void unmap(ByteBuffer buffer) {
+        if (UNSAFE != null && buffer.isDirect()) {
+            UNSAFE.invokeCleaner(buffer);
+        }
+    }
+
+    private static sun.misc.Unsafe unsafe() {
+        try {
+            Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (sun.misc.Unsafe) field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int liveCount() {
+        return docCount - deleted.cardinality();
+    }
+
+    long idAt(int ordinal) {
+        return buffer.getLong(idsOffset + 8 * ordinal);
+    }
+
+    long minId() {
+        return docCount == 0 ? Long.MAX_VALUE : idAt(0);
+    }
+
+    long maxId() {
+        return docCount == 0 ? Long.MIN_VALUE : idAt(docCount - 1);
+    }
+
+    long deleteAt(int i) {
+        return buffer.getLong(deletesOffset + 8 * i);
+    }
+
+    int deleteCount() {
+        return deleteCount;
+    }
+
+    long fileSize() {
+        return buffer.capacity();
+    }
+
+    /** id의 ordinal (없으면 -1) */
+    int ordinalOf(long id) {
+        int found = lowerBound(id);
+        return found < docCount && idAt(found) == id ? found : -1;
+    }
+
+    /** id보다 작은 메시지 수 = id 이상인 첫 ordinal */
+    int lowerBound(long id) {
+        int low = 0;
+        int high = docCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (idAt(mid) < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    boolean isLive(int ordinal) {
+        return !deleted.get(ordinal);
+    }
+
+    StoredDoc doc(int ordinal) {
+        int position = buffer.getInt(storedIndexOffset + 4 * ordinal);
+        long seconds = buffer.getLong(position);
+        int nanos = buffer.getInt(position + 8);
+        position += 12;
+        int uidLength = buffer.getInt(position);
+        String senderUid = string(position + 4, uidLength);
+        position += 4 + uidLength;
+        String content = string(position + 4, buffer.getInt(position));
+        Instant createdAt = seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, nanos);
+        return new StoredDoc(idAt(ordinal), senderUid, content, createdAt);
+    }
+
+    /** 단어가 든 메시지 ordinal (오름차순, 없으면 null) */
+    Postings postings(String term) {
+        byte[] target = term.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = buffer.getInt(termIndexOffset + 4 * mid);
+            int cmp = compareTerm(entry, target);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int length = buffer.getInt(entry);
+                int countAt = entry + 4 + length;
+                return new Postings(buffer, countAt + 4, buffer.getInt(countAt));
+            }
+        }
+        return null;
+    }
+
+    private int compareTerm(int entry, byte[] target) {
+        int length = buffer.getInt(entry);
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(entry + 4 + i), target[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, target.length);
+    }
+
+    private String string(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** 파일 안의 ordinal 배열 (복사하지 않고 그대로 읽음) */
+    record Postings(ByteBuffer buffer, int offset, int length) {
+        int get(int i) {
+            return buffer.getInt(offset + 4 * i);
+        }
+
+        boolean contains(int ordinal) {
+            int low = 0;
+            int high = length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = get(mid);
+                if (value < ordinal) {
+                    low = mid + 1;
+                } else if (value > ordinal) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** ordinal보다 작은 마지막 위치 (없으면 -1) */
+        int lastBelow(int ordinal) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (get(mid) < ordinal) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+
+    // ===== 쓰기 =====
+
+    /** 반영 묶음 하나로 새 세그먼트 (docs는 ID가 겹치지 않음) */
+    static IndexSegment write(Path file, long generation, List<StoredDoc> docs, long[] deletes) throws IOException {
+        List<StoredDoc> sorted = new ArrayList<>(docs);
+        sorted.sort((a, b) -> Long.compare(a.id(), b.id()));
+        Map<byte[], IntArrayList> byTerm = new TreeMap<>(Arrays::compareUnsigned);
+        for (int ordinal = 0; ordinal < sorted.size(); ordinal++) {
+            for (String term : SearchTokenizer.indexTerms(sorted.get(ordinal).content())) {
+                byTerm.computeIfAbsent(term.getBytes(StandardCharsets.UTF_8), t -> new IntArrayList()).add(ordinal);
+            }
+        }
+        Writer writer = new Writer(file, generation, generation);
+        try {
+            writer.ids(sorted.stream().mapToLong(StoredDoc::id).toArray());
+            for (StoredDoc doc : sorted) {
+                writer.storedDoc(doc);
+            }
+            writer.deletes(deletes);
+            for (Map.Entry<byte[], IntArrayList> entry : byTerm.entrySet()) {
+                writer.term(entry.getKey(), entry.getValue());
+            }
+            return writer.finish();
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * 연속된 세그먼트들의 살아 있는 메시지만 하나로 (저장 필드는 바이트 그대로 복사, postings는 단어 순으로 합침)
+     * keepDeletes: 병합 구간보다 오래된 세그먼트가 남아 있으면 그쪽에 적용할 삭제 ID도 이어받음
+     */
+    static IndexSegment merge(Path file, List<IndexSegment> sources, boolean keepDeletes) throws IOException {
+        // 새 ordinal: 살아 있는 메시지를 ID 순으로 (한 ID는 최대 한 세그먼트에서만 살아 있음)
+        int[][] docMap = new int[sources.size()][];
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+                (a, b) -> Long.compare(sources.get(a[0]).idAt(a[1]), sources.get(b[0]).idAt(b[1])));
+        for (int s = 0; s < sources.size(); s++) {
+            docMap[s] = new int[sources.get(s).docCount];
+            Arrays.fill(docMap[s], -1);
+            int first = sources.get(s).deleted.nextClearBit(0);
+            if (first < sources.get(s).docCount) {
+                heads.add(new int[]{s, first});
+            }
+        }
+        List<int[]> order = new ArrayList<>();
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            docMap[head[0]][head[1]] = order.size();
+            order.add(new int[]{head[0], head[1]});
+            int next = sources.get(head[0]).deleted.nextClearBit(head[1] + 1);
+            if (next < sources.get(head[0]).docCount) {
+                heads.add(new int[]{head[0], next});
+            }
+        }
+
+        Writer writer = new Writer(file, sources.get(0).fromGeneration, sources.get(sources.size() - 1).toGeneration);
+        try {
+            long[] ids = new long[order.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = sources.get(order.get(i)[0]).idAt(order.get(i)[1]);
+            }
+            writer.ids(ids);
+            for (int[] doc : order) {
+                writer.copyStoredDoc(sources.get(doc[0]), doc[1]);
+            }
+            if (keepDeletes) {
+                List<Long> deletes = new ArrayList<>();
+                for (IndexSegment source : sources) {
+                    for (int i = 0; i < source.deleteCount; i++) {
+                        deletes.add(source.deleteAt(i));
+                    }
+                }
+                writer.deletes(deletes.stream().mapToLong(Long::longValue).distinct().toArray());
+            } else {
+                writer.deletes(new long[0]);
+            }
+            mergeTerms(writer, sources, docMap);
+            return writer.finish();
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+
+    /** 세그먼트마다 단어 사전을 앞에서부터 읽으며 같은 단어끼리 postings를 합침 */
+    private static void mergeTerms(Writer writer, List<IndexSegment> sources, int[][] docMap) throws IOException {
+        int[] positions = new int[sources.size()];
+        byte[][] current = new byte[sources.size()][];
+        PriorityQueue<Integer> heads = new PriorityQueue<>((a, b) -> Arrays.compareUnsigned(current[a], current[b]));
+        for (int s = 0; s < sources.size(); s++) {
+            if (sources.get(s).termCount > 0) {
+                current[s] = sources.get(s).termAt(0);
+                heads.add(s);
+            }
+        }
+        IntArrayList merged = new IntArrayList();
+        while (!heads.isEmpty()) {
+            byte[] term = current[heads.peek()];
+            merged.clear();
+            while (!heads.isEmpty() && Arrays.equals(current[heads.peek()], term)) {
+                int s = heads.poll();
+                Postings postings = sources.get(s).postingsAt(positions[s]);
+                for (int i = 0; i < postings.length(); i++) {
+                    int mapped = docMap[s][postings.get(i)];
+                    if (mapped >= 0) {
+                        merged.add(mapped);
+                    }
+                }
+                if (++positions[s] < sources.get(s).termCount) {
+                    current[s] = sources.get(s).termAt(positions[s]);
+                    heads.add(s);
+                }
+            }
+            if (!merged.isEmpty()) {
+                Arrays.sort(merged.elements(), 0, merged.size());
+                writer.term(term, merged);
+            }
+        }
+    }
+
+    private byte[] termAt(int index) {
+        int entry = buffer.getInt(termIndexOffset + 4 * index);
+        byte[] bytes = new byte[buffer.getInt(entry)];
+        buffer.get(entry + 4, bytes);
+        return bytes;
+    }
+
+    private Postings postingsAt(int index) {
+        int entry = buffer.getInt(termIndexOffset + 4 * index);
+        int countAt = entry + 4 + buffer.getInt(entry);
+        return new Postings(buffer, countAt + 4, buffer.getInt(countAt));
+    }
+
+    /** 임시 파일에 섹션 순서대로 쓰고, 끝에서 헤더를 채운 뒤 원자적으로 이름 변경 */
+    private static final class Writer {
+        private final Path file;
+        private final Path tmp;
+        private final DataOutputStream out;
+        private final long fromGeneration;
+        private final long toGeneration;
+        private final IntArrayList storedPositions = new IntArrayList();
+        private final IntArrayList termPositions = new IntArrayList();
+        private int docCount;
+        private int deleteCount;
+        private int idsOffset;
+        private int storedIndexOffset;
+        private int deletesOffset;
+
+        Writer(Path file, long fromGeneration, long toGeneration) throws IOException {
+            this.file = file;
+            this.fromGeneration = fromGeneration;
+            this.toGeneration = toGeneration;
+            this.tmp = Files.createTempFile(file.getParent(), "segment-", ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)));
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        void ids(long[] ids) throws IOException {
+            idsOffset = position();
+            docCount = ids.length;
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+        }
+
+        void storedDoc(StoredDoc doc) throws IOException {
+            storedPositions.add(position());
+            out.writeLong(doc.createdAt() == null ? Long.MIN_VALUE : doc.createdAt().getEpochSecond());
+            out.writeInt(doc.createdAt() == null ? 0 : doc.createdAt().getNano());
+            writeString(doc.senderUid());
+            writeString(doc.content());
+        }
+
+        void copyStoredDoc(IndexSegment source, int ordinal) throws IOException {
+            storedPositions.add(position());
+            int from = source.buffer.getInt(source.storedIndexOffset + 4 * ordinal);
+            int uidLength = source.buffer.getInt(from + 12);
+            int contentLength = source.buffer.getInt(from + 16 + uidLength);
+            byte[] bytes = new byte[20 + uidLength + contentLength];
+            source.buffer.get(from, bytes);
+            out.write(bytes);
+        }
+
+        /** 저장 필드가 끝났으므로 그 위치 표를 쓰고 이어서 삭제 목록 */
+        void deletes(long[] ids) throws IOException {
+            storedIndexOffset = position();
+            for (int i = 0; i < storedPositions.size(); i++) {
+                out.writeInt(storedPositions.getInt(i));
+            }
+            deletesOffset = position();
+            deleteCount = ids.length;
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+        }
+
+        void term(byte[] term, IntArrayList ordinals) throws IOException {
+            termPositions.add(position());
+            out.writeInt(term.length);
+            out.write(term);
+            out.writeInt(ordinals.size());
+            for (int i = 0; i < ordinals.size(); i++) {
+                out.writeInt(ordinals.getInt(i));
+            }
+        }
+
+        IndexSegment finish() throws IOException {
+            int termIndexOffset = position();
+            for (int i = 0; i < termPositions.size(); i++) {
+                out.writeInt(termPositions.getInt(i));
+            }
+            out.close();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(FORMAT)
+                    .putLong(fromGeneration).putLong(toGeneration)
+                    .putInt(docCount).putInt(deleteCount).putInt(termPositions.size())
+                    .putInt(idsOffset).putInt(storedIndexOffset).putInt(deletesOffset).putInt(termIndexOffset)
+                    .putInt(0)
+                    .flip();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            return open(file);
+        }
+
+        void abort() {
+            try {
+                out.close();
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                // 임시 파일은 다음에 열 때 무시됨
+            }
+        }
+
+        private int position() throws IOException {
+            // DataOutputStream.size()는 넘치면 Integer.MAX_VALUE에 멈춤
+            int size = out.size();
+            if (size == Integer.MAX_VALUE) {
+                throw new IOException("색인 세그먼트가 너무 큽니다: " + file);
+            }
+            return size;
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package likelion13th.chat.search;
+
+import likelion13th.chat.config.BrokerProperties;
+import likelion13th.chat.config.SearchProperties;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import likelion13th.chat.dto.event.SearchHit;
+import likelion13th.chat.dto.event.SearchResponse;
+import likelion13th.chat.service.RoomRef;
+import likelion13th.chat.service.RoomRegistry;
+import likelion13th.chat.service.UserDirectory;
+import likelion13th.chat.storage.TieredHistoryStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 방별 메시지 검색 (chat.search.*)
+ * - ChatService의 send/edit/delete는 변경을 방별 대기 목록에 넣기만 함 (핫패스에서 디스크/색인 작업 없음)
+ * - refreshInterval마다 방별로 모인 변경을 세그먼트 하나로 색인에 반영 → 검색 결과는 최대 그만큼 늦음
+ * - 방 색인은 처음 쓰일 때 디스크에서 열고(방마다 따로 잠금, 다른 방의 검색/반영은 기다리지 않음),
+ *   색인에 없는 더 새로운 메시지를 내역 저장소에서 따라잡음 (빈 색인이면 방 전체를 다시 색인)
+ * - 검색 결과는 색인에 저장된 본문으로 만들므로 DB를 읽지 않음 (보낸 사람 이름만 UserDirectory 캐시)
+ * 따라잡기는 ID로만 하므로 수정/삭제는 이 노드의 ChatService를 거친 것만 반영됨
+ * → broker.mode=simple(단일 노드)에서만 켜고, 정상 종료 표시가 없으면(반영 못 한 변경이 있었을 수 있음) 시작할 때 비움
+ * 색인은 DB에서 다시 만들 수 있는 데이터라, ddl-auto가 create/create-drop이면(스키마를 새로 만들면) 시작할 때 비움
+ */
+@Slf4j
+@Service
+public class MessageSearchService implements DisposableBean {
+
+    /** 따라잡기 때 한 번에 읽는 메시지 수 */
+    private static final int CATCH_UP_BATCH = 5_000;
+    /** 방 색인 열기/내리기 잠금 (roomNo 해시로 나눔) */
+    private static final int LOCK_STRIPES = 64;
+    /** 색인 디렉터리에 정상 종료 때만 남기는 파일 */
+    private static final String CLEAN_SHUTDOWN = "clean-shutdown";
+
+    private final SearchProperties properties;
+    private final boolean enabled;
+    private final RoomRegistry roomRegistry;
+    private final UserDirectory userDirectory;
+    private final TieredHistoryStore historyStore;
+
+    /** 방 → 아직 색인에 반영하지 않은 변경 (도착 순서) */
+    private final Map<Long, List<RoomSearchIndex.Change>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingChanges = new AtomicLong();
+
+    /** 열린 방 색인, 넘치면 마지막 사용 순번이 가장 작은 방부터 내림 (파일은 그대로) */
+    private final Map<Long, OpenIndex> open = new ConcurrentHashMap<>();
+    private final Object[] roomLocks = new Object[LOCK_STRIPES];
+    private final AtomicLong useClock = new AtomicLong();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder refreshedRooms = new LongAdder();
+
+    public MessageSearchService(SearchProperties properties,
+                                RoomRegistry roomRegistry,
+                                UserDirectory userDirectory,
+                                TieredHistoryStore historyStore,
+                                HibernateProperties hibernateProperties,
+                                BrokerProperties brokerProperties) {
+        this.properties = properties;
+        this.enabled = properties.isEnabled() && brokerProperties.getMode() == BrokerProperties.Mode.SIMPLE;
+        this.roomRegistry = roomRegistry;
+        this.userDirectory = userDirectory;
+        this.historyStore = historyStore;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            roomLocks[i] = new Object();
+        }
+        if (properties.isEnabled() && !enabled) {
+            log.info("broker.mode={}: 다른 노드의 수정/삭제를 색인에 반영할 수 없으므로 검색을 끔", brokerProperties.getMode());
+        }
+        if (enabled) {
+            prepareDirectory(hibernateProperties.getDdlAuto());
+        }
+    }
+
+    /** 스키마를 새로 만들었거나 이전 실행이 정상 종료되지 않았으면 비움, 이번 실행이 끝날 때까지는 정상 종료 표시를 지움 */
+    private void prepareDirectory(String ddlAuto) {
+        Path directory = properties.getDirectory();
+        Path marker = directory.resolve(CLEAN_SHUTDOWN);
+        boolean recreated = "create".equals(ddlAuto) || "create-drop".equals(ddlAuto);
+        try {
+            if (recreated || (Files.isDirectory(directory) && !Files.exists(marker))) {
+                if (!recreated) {
+                    log.info("검색 색인이 정상 종료되지 않아 비움 (방마다 처음 쓰일 때 DB에서 다시 색인): {}", directory);
+                }
+                FileSystemUtils.deleteRecursively(directory);
+            }
+            Files.createDirectories(directory);
+            Files.deleteIfExists(marker);
+        } catch (IOException e) {
+            throw new UncheckedIOException("검색 색인 초기화 실패: " + directory, e);
+        }
+    }
+
+    // ===== 변경 (ChatService) =====
+
+    public void added(long roomNo, ChatMessageResponse message) {
+        enqueue(roomNo, new RoomSearchIndex.Change(message.getId(), message.getSenderUid(), message.getContent(),
+                message.getCreatedAt()));
+    }
+
+    public void edited(long roomNo, ChatMessageResponse message) {
+        added(roomNo, message);
+    }
+
+    public void deleted(long roomNo, long messageId) {
+        enqueue(roomNo, new RoomSearchIndex.Change(messageId, null, null, null));
+    }
+
+    private void enqueue(long roomNo, RoomSearchIndex.Change change) {
+        if (!enabled) {
+            return;
+        }
+        pending.compute(roomNo, (k, changes) -> {
+            List<RoomSearchIndex.Change> list = changes != null ? changes : new ArrayList<>();
+            list.add(change);
+            return list;
+        });
+        pendingChanges.incrementAndGet();
+    }
+
+    // ===== 반영 =====
+
+    @Scheduled(fixedDelayString = "${chat.search.refresh-interval:1s}")
+    public void refresh() {
+        for (Long roomNo : pending.keySet()) {
+            List<RoomSearchIndex.Change> changes = pending.remove(roomNo);
+            if (changes == null) {
+                continue;
+            }
+            try {
+                // 그 사이 색인이 내려가(닫혀) 있으면 apply가 실패하고 다음 주기에 새로 열어서 반영
+                indexOf(roomNo).apply(changes);
+                refreshedRooms.increment();
+                pendingChanges.addAndGet(-changes.size());
+            } catch (RuntimeException e) {
+                // 다음 주기에 다시 시도 (그 사이 들어온 변경보다 앞에 둠)
+                log.warn("검색 색인 반영 실패 (roomNo={}, changes={}), 다음 주기에 재시도", roomNo, changes.size(), e);
+                pending.merge(roomNo, changes, (newer, failed) -> {
+                    List<RoomSearchIndex.Change> merged = new ArrayList<>(failed);
+                    merged.addAll(newer);
+                    return merged;
+                });
+            }
+        }
+    }
+
+    /** 종료 전에 남은 변경 반영, 모두 반영됐을 때만 정상 종료 표시 */
+    @Override
+    public void destroy() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        open.values().forEach(entry -> entry.index.close());
+        if (pending.isEmpty()) {
+            try {
+                Files.createFile(properties.getDirectory().resolve(CLEAN_SHUTDOWN));
+            } catch (IOException e) {
+                log.warn("검색 색인 정상 종료 표시 실패, 다음 시작 때 다시 색인함", e);
+            }
+        }
+    }
+
+    // ===== 검색 =====
+
+    /**
+     * query의 단어를 모두 포함하는 메시지를 최신순으로 limit개 (before가 있으면 그보다 오래된 것만)
+     * limit은 1 ~ chat.search.max-limit 범위로 보정
+     */
+    public SearchResponse search(String roomId, String query, Long before, int limit) {
+        if (!enabled)
+            throw new IllegalStateException("검색이 꺼져 있습니다 (chat.search.enabled=false 또는 broker.mode가 simple이 아님)");
+        Set<String> terms = SearchTokenizer.queryTerms(query == null ? "" : query);
+        if (terms.isEmpty())
+            throw new IllegalArgumentException("검색어에 글자나 숫자가 없습니다.");
+        int clamped = Math.max(1, Math.min(limit, properties.getMaxLimit()));
+        RoomRef room = roomRegistry.resolve(roomId);
+        queries.increment();
+
+        List<String> runs = SearchTokenizer.queryRuns(query);
+        Predicate<StoredDoc> verify = doc -> SearchTokenizer.matches(doc.content(), runs);
+        long upTo = before != null ? before : Long.MAX_VALUE;
+        List<StoredDoc> docs;
+        try {
+            docs = indexOf(room.no()).search(terms, verify, upTo, clamped);
+        } catch (IllegalStateException closed) {
+            // 꺼낸 색인이 검색 전에 내려가 닫힘: 다시 열어서 한 번 더
+            docs = indexOf(room.no()).search(terms, verify, upTo, clamped);
+        }
+
+        Map<String, String> names = userDirectory.resolveNames(
+                docs.stream().map(StoredDoc::senderUid).collect(Collectors.toSet()));
+        List<SearchHit> hits = docs.stream()
+                .map(doc -> SearchHit.builder()
+                        .id(doc.id())
+                        .senderUid(doc.senderUid())
+                        .senderName(names.getOrDefault(doc.senderUid(), UserDirectory.UNKNOWN))
+                        .content(doc.content())
+                        .createdAt(doc.createdAt())
+                        .build())
+                .toList();
+        return SearchResponse.builder()
+                .roomId(room.key())
+                .query(query)
+                .hits(hits)
+                .nextBefore(hits.size() == clamped ? hits.get(hits.size() - 1).getId() : null)
+                .build();
+    }
+
+    /** 열린 방 색인 + 마지막 사용 순번 */
+    private static final class OpenIndex {
+        private final RoomSearchIndex index;
+        private volatile long lastUsed;
+
+        private OpenIndex(RoomSearchIndex index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * 방 색인 (열려 있지 않으면 디스크에서 열고 새 메시지를 따라잡음)
+     * 열기/따라잡기는 그 방의 잠금 stripe 안에서만 (열려 있는 방의 검색/반영은 잠그지 않음)
+     */
+    private RoomSearchIndex indexOf(long roomNo) {
+        OpenIndex entry = open.get(roomNo);
+        if (entry == null) {
+            synchronized (lockOf(roomNo)) {
+                entry = open.get(roomNo);
+                if (entry == null) {
+                    RoomSearchIndex index = RoomSearchIndex.open(roomDir(roomNo), properties.getMergeFactor());
+                    catchUp(roomNo, index);
+                    entry = new OpenIndex(index);
+                    open.put(roomNo, entry);
+                }
+            }
+            evictIfNeeded();
+        }
+        entry.lastUsed = useClock.incrementAndGet();
+        return entry.index;
+    }
+
+    /**
+     * 열린 방이 maxOpenRooms를 넘으면 가장 오래 안 쓰인 방부터 내림
+     * 그 방의 잠금 안에서 닫으므로(진행 중인 반영이 끝날 때까지 기다림) 같은 디렉터리를 새로 여는 것은 닫힌 뒤에만 가능
+     * 다른 stripe 잠금을 쥔 채로 부르지 않음
+     */
+    private void evictIfNeeded() {
+        while (open.size() > properties.getMaxOpenRooms()) {
+            Map.Entry<Long, OpenIndex> eldest = open.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastUsed))
+                    .orElse(null);
+            if (eldest == null) {
+                return;
+            }
+            synchronized (lockOf(eldest.getKey())) {
+                if (open.remove(eldest.getKey(), eldest.getValue())) {
+                    eldest.getValue().index.close();
+                }
+            }
+        }
+    }
+
+    private Object lockOf(long roomNo) {
+        return roomLocks[Math.floorMod(Long.hashCode(roomNo), LOCK_STRIPES)];
+    }
+
+    private void catchUp(long roomNo, RoomSearchIndex index) {
+        long after = index.maxId();
+        while (true) {
+            List<ChatMessage> batch = historyStore.after(roomNo, after, CATCH_UP_BATCH);
+            if (batch.isEmpty()) {
+                return;
+            }
+            index.apply(batch.stream()
+                    .map(m -> new RoomSearchIndex.Change(m.getId(), m.getSenderUid(), m.getContent(), m.getCreatedAt()))
+                    .toList());
+            after = batch.get(batch.size() - 1).getId();
+            if (batch.size() < CATCH_UP_BATCH) {
+                return;
+            }
+        }
+    }
+
+    private Path roomDir(long roomNo) {
+        return properties.getDirectory().resolve("room-" + roomNo);
+    }
+
+    // ===== 지표 =====
+
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    public long getRefreshedRooms() {
+        return refreshedRooms.sum();
+    }
+
+    public long getPendingChanges() {
+        return pendingChanges.get();
+    }
+
+    public int getOpenRooms() {
+        return open.size();
+    }
+}
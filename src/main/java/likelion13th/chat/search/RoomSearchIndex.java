@@ -0,0 +1,424 @@
+package likelion13th.chat.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 방 하나의 검색 색인: generation 순서의 세그먼트 목록
+ * - 변경 묶음(apply)마다 새 세그먼트 하나를 파일로 쓰고 붙임 (수정 = 새 버전 추가, 삭제 = ID만 기록)
+ * - 새 세그먼트의 ID(추가/삭제 모두)는 이전 세그먼트의 같은 ID를 deleted로 표시 → 검색 중에 걸러짐
+ * - 계층 병합: 연속된 세그먼트 2~mergeFactor개 중 가장 큰 것(살아 있는 메시지 수)이 나머지 합보다 크지 않을 때만 합침
+ *   → 병합될 때마다 메시지가 든 세그먼트가 두 배 이상 커지므로 메시지 하나가 다시 쓰이는 횟수는 log2(방 크기) 이하,
+ *     작은 세그먼트가 쌓여도 큰 세그먼트는 비슷한 크기가 모일 때까지 다시 쓰지 않음
+ * - 병합 결과 파일은 원본들의 generation 구간을 이름에 가짐: 원본을 지우기 전에 멈췄으면 다음에 열 때 원본을 버림
+ * 본문/postings는 세그먼트 파일(mmap)에서 읽고, 힙에는 세그먼트마다 deleted 비트만 둠
+ * 검색은 읽기 잠금, 세그먼트 목록/deleted 변경은 쓰기 잠금 (병합 파일을 쓰는 동안에는 잠그지 않음)
+ */
+final class RoomSearchIndex {
+
+    private static final String SUFFIX = ".seg";
+    private static final String TMP_SUFFIX = ".tmp";
+    /** 병합 결과가 이보다 커지면 병합하지 않음 (세그먼트 하나를 int 오프셋, mmap 하나로 읽음) */
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final int mergeFactor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** 반영/병합/닫기는 한 번에 하나 (deleted는 이 안에서만 바뀜) */
+    private final Object writeMonitor = new Object();
+
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private long nextGeneration = 1;
+    private long maxId;
+    private boolean closed;
+
+    private RoomSearchIndex(Path directory, int mergeFactor) {
+        this.directory = directory;
+        this.mergeFactor = Math.max(2, mergeFactor);
+    }
+
+    /** 변경 한 건: content가 null이면 삭제 */
+    record Change(long id, String senderUid, String content, Instant createdAt) {
+        boolean isDelete() {
+            return content == null;
+        }
+    }
+
+    /**
+     * 디렉터리의 세그먼트를 generation 순서로 다시 적용
+     * 읽을 수 없는 파일(이전 형식 등)이 있으면 디렉터리를 비우고 빈 색인으로 시작 (호출한 쪽이 DB에서 다시 채움)
+     */
+    static RoomSearchIndex open(Path directory, int mergeFactor) {
+        RoomSearchIndex index = new RoomSearchIndex(directory, mergeFactor);
+        if (!Files.isDirectory(directory)) {
+            return index;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<IndexSegment> found = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(TMP_SUFFIX)) {
+                deleteQuietly(file); // 쓰다 멈춘 세그먼트
+                continue;
+            }
+            if (!name.endsWith(SUFFIX)) {
+                continue;
+            }
+            try {
+                found.add(IndexSegment.open(file));
+            } catch (IOException e) {
+                // 이미 연 세그먼트의 mmap을 풀고 나서 비움
+                found.forEach(IndexSegment::close);
+                index.reset();
+                return index;
+            }
+        }
+        for (IndexSegment segment : withoutMergedSources(found)) {
+            index.replay(segment);
+        }
+        return index;
+    }
+
+    /** 다른 세그먼트의 generation 구간 안에 든 세그먼트(이미 병합된 원본)는 지우고 나머지를 generation 순으로 */
+    private static List<IndexSegment> withoutMergedSources(List<IndexSegment> found) {
+        List<IndexSegment> kept = new ArrayList<>();
+        for (IndexSegment candidate : found) {
+            boolean merged = found.stream().anyMatch(other -> other != candidate
+                    && other.fromGeneration <= candidate.fromGeneration
+                    && candidate.toGeneration <= other.toGeneration
+                    && (other.fromGeneration != candidate.fromGeneration || other.toGeneration != candidate.toGeneration));
+            if (merged) {
+                candidate.close();
+                deleteQuietly(candidate.file);
+            } else {
+                kept.add(candidate);
+            }
+        }
+        kept.sort(Comparator.comparingLong(segment -> segment.toGeneration));
+        return kept;
+    }
+
+    private void replay(IndexSegment segment) {
+        markSuperseded(segment);
+        segments.add(segment);
+        nextGeneration = Math.max(nextGeneration, segment.toGeneration + 1);
+        maxId = Math.max(maxId, segment.maxId());
+    }
+
+    private void reset() {
+        try (Stream<Path> list = Files.list(directory)) {
+            list.forEach(RoomSearchIndex::deleteQuietly);
+        } catch (IOException e) {
+            throw new UncheckedIOException("검색 색인 초기화 실패: " + directory, e);
+        }
+    }
+
+    /** 색인에 들어온 적 있는 가장 큰 메시지 ID (이후 메시지는 따라잡기 대상) */
+    long maxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int liveCount() {
+        lock.readLock().lock();
+        try {
+            return segments.stream().mapToInt(IndexSegment::liveCount).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 이후 반영/검색을 막고 세그먼트 mmap을 풂
+     * (같은 디렉터리를 새로 연 색인과 파일 이름이 겹치지 않도록, 진행 중인 반영/검색은 끝난 뒤에)
+     */
+    void close() {
+        synchronized (writeMonitor) {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                segments.forEach(IndexSegment::close);
+                segments.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** 변경 묶음을 새 세그먼트로 (같은 ID는 마지막 변경만 반영), 이어서 필요하면 병합 */
+    void apply(List<Change> changes) {
+        Map<Long, Change> latest = new LinkedHashMap<>();
+        for (Change change : changes) {
+            latest.put(change.id(), change);
+        }
+        synchronized (writeMonitor) {
+            if (closed) {
+                throw new IllegalStateException("닫힌 검색 색인입니다: " + directory);
+            }
+            List<StoredDoc> added = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            for (Change change : latest.values()) {
+                if (change.isDelete()) {
+                    deleted.add(change.id());
+                } else {
+                    added.add(new StoredDoc(change.id(), change.senderUid(), change.content(), change.createdAt()));
+                }
+            }
+            long generation = nextGeneration;
+            IndexSegment segment;
+            try {
+                Files.createDirectories(directory);
+                segment = IndexSegment.write(fileOf(generation, generation), generation, added,
+                        deleted.stream().mapToLong(Long::longValue).toArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException("색인 세그먼트 쓰기 실패: " + directory, e);
+            }
+            nextGeneration++;
+
+            lock.writeLock().lock();
+            try {
+                markSuperseded(segment);
+                segments.add(segment);
+                maxId = Math.max(maxId, segment.maxId());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                mergeTiers();
+            } catch (UncheckedIOException e) {
+                // 반영은 이미 끝났으므로 병합만 다음 반영 때 다시 시도
+            }
+        }
+    }
+
+    /** 새 세그먼트의 ID(추가/삭제)를 이전 세그먼트들에서 deleted로 (세그먼트 ID 범위 밖이면 찾지 않음) */
+    private void markSuperseded(IndexSegment newer) {
+        for (IndexSegment older : segments) {
+            if (older.docCount() == 0) {
+                continue;
+            }
+            for (int i = 0; i < newer.docCount(); i++) {
+                mark(older, newer.idAt(i));
+            }
+            for (int i = 0; i < newer.deleteCount(); i++) {
+                mark(older, newer.deleteAt(i));
+            }
+        }
+    }
+
+    private static void mark(IndexSegment older, long id) {
+        if (id < older.minId() || id > older.maxId()) {
+            return;
+        }
+        int ordinal = older.ordinalOf(id);
+        if (ordinal >= 0) {
+            older.deleted.set(ordinal);
+        }
+    }
+
+    /**
+     * 균형 잡힌 연속 구간을 하나로, 더 없을 때까지 (writeMonitor 안에서)
+     * 병합 파일은 잠금 없이 쓰고(그동안 검색 가능), 목록 교체만 쓰기 잠금
+     * 가장 오래된 세그먼트부터의 병합이면 삭제 ID는 적용할 대상이 없으므로 버림
+     */
+    private void mergeTiers() {
+        while (true) {
+            int[] range = mergeWindow();
+            if (range == null) {
+                return;
+            }
+            int start = range[0];
+            int end = range[1];
+            List<IndexSegment> window = new ArrayList<>(segments.subList(start, end));
+            IndexSegment merged;
+            try {
+                merged = IndexSegment.merge(fileOf(window.get(0).fromGeneration, window.get(window.size() - 1).toGeneration),
+                        window, start > 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("색인 병합 실패: " + directory, e);
+            }
+            lock.writeLock().lock();
+            try {
+                segments.subList(start, end).clear();
+                segments.add(start, merged);
+                // 목록에서 빠졌으므로 읽는 검색이 없음
+                window.forEach(IndexSegment::close);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 지우지 못하고 남아도 다음에 열 때 병합 결과에 포함돼 버려짐
+            window.forEach(segment -> deleteQuietly(segment.file));
+        }
+    }
+
+    /**
+     * 병합할 구간 [start, end) (없으면 null)
+     * 가장 큰 세그먼트가 나머지 합 이하인 구간 중 살아 있는 메시지가 가장 적은 것 (같으면 더 긴 것 → 세그먼트 수가 더 줄어듦)
+     */
+    private int[] mergeWindow() {
+        int[] best = null;
+        long bestTotal = Long.MAX_VALUE;
+        for (int start = 0; start < segments.size(); start++) {
+            long largest = 0;
+            long total = 0;
+            long bytes = 0;
+            for (int end = start + 1; end <= Math.min(segments.size(), start + mergeFactor); end++) {
+                IndexSegment segment = segments.get(end - 1);
+                largest = Math.max(largest, segment.liveCount());
+                total += segment.liveCount();
+                bytes += segment.fileSize();
+                if (bytes > MAX_SEGMENT_BYTES) {
+                    break;
+                }
+                if (end - start >= 2 && largest <= total - largest
+                        && (total < bestTotal || (total == bestTotal && end - start > best[1] - best[0]))) {
+                    best = new int[]{start, end};
+                    bestTotal = total;
+                }
+            }
+        }
+        return best;
+    }
+
+    private Path fileOf(long fromGeneration, long toGeneration) {
+        return directory.resolve(String.format("%020d-%020d%s", fromGeneration, toGeneration, SUFFIX));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // 다음에 열 때 다시 정리
+        }
+    }
+
+    /**
+     * terms를 모두 포함하고 verify를 통과하는 메시지 중 before보다 작은 ID를 최신순으로 limit개
+     * 세그먼트마다 가장 짧은 postings를 뒤에서부터 훑으며 나머지 postings에 있는지 이진 탐색,
+     * 세그먼트들의 결과는 ID 내림차순으로 합쳐서 limit개를 채우면 멈춤 (방 전체 결과를 모으지 않음)
+     * 본문은 살아 있는 후보만 파일에서 읽음
+     */
+    List<StoredDoc> search(Set<String> terms, Predicate<StoredDoc> verify, long before, int limit) {
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("닫힌 검색 색인입니다: " + directory);
+            }
+            PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparingLong(Cursor::current).reversed());
+            for (IndexSegment segment : segments) {
+                Cursor cursor = Cursor.of(segment, terms, before);
+                if (cursor != null && cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            List<StoredDoc> hits = new ArrayList<>(limit);
+            while (!queue.isEmpty() && hits.size() < limit) {
+                Cursor cursor = queue.poll();
+                if (cursor.segment.isLive(cursor.ordinal)) {
+                    StoredDoc doc = cursor.segment.doc(cursor.ordinal);
+                    if (verify.test(doc)) {
+                        hits.add(doc);
+                    }
+                }
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 세그먼트 하나에서 모든 단어를 포함하는 ordinal을 내림차순으로 */
+    private static final class Cursor {
+        private final IndexSegment segment;
+        private final IndexSegment.Postings driver;
+        private final IndexSegment.Postings[] others;
+        private int position;
+        private int ordinal;
+
+        private Cursor(IndexSegment segment, IndexSegment.Postings driver, IndexSegment.Postings[] others, int position) {
+            this.segment = segment;
+            this.driver = driver;
+            this.others = others;
+            this.position = position;
+        }
+
+        static Cursor of(IndexSegment segment, Set<String> terms, long before) {
+            IndexSegment.Postings[] lists = new IndexSegment.Postings[terms.size()];
+            int i = 0;
+            for (String term : terms) {
+                IndexSegment.Postings postings = segment.postings(term);
+                if (postings == null) {
+                    return null;
+                }
+                lists[i++] = postings;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(IndexSegment.Postings::length));
+            // ordinal은 ID 순이므로 before보다 작은 ID = lowerBound(before)보다 작은 ordinal
+            int start = lists[0].lastBelow(segment.lowerBound(before));
+            return new Cursor(segment, lists[0], Arrays.copyOfRange(lists, 1, lists.length), start);
+        }
+
+        long current() {
+            return segment.idAt(ordinal);
+        }
+
+        boolean advance() {
+            while (position >= 0) {
+                int candidate = driver.get(position--);
+                if (containsAll(candidate)) {
+                    ordinal = candidate;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean containsAll(int candidate) {
+            for (IndexSegment.Postings postings : others) {
+                if (!postings.contains(candidate)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
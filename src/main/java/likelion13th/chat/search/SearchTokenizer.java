@@ -0,0 +1,122 @@
+package likelion13th.chat.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 검색어/본문 → 색인 단어
+ * - NFKC 정규화 + 소문자, 글자/숫자가 아닌 문자는 구분자
+ * - 라틴 문자/숫자 묶음은 단어 하나
+ * - 한글/한자/가나 묶음은 띄어쓰기 없이 붙여 쓰고 조사가 붙으므로 글자 하나(unigram) + 두 글자씩(bigram) 모두 색인
+ *   검색어 쪽은 두 글자 이상이면 bigram만, 한 글자면 그 글자로 찾음
+ * bigram을 AND로 찾으면 떨어져 있는 두 bigram도 맞을 수 있으므로, 최종 판단은 matches()로 본문을 다시 확인
+ */
+final class SearchTokenizer {
+
+    /** 이보다 긴 라틴 단어는 색인하지 않음 (URL, 붙여넣은 토큰 등) */
+    private static final int MAX_WORD_LENGTH = 64;
+
+    private SearchTokenizer() {
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /** 본문의 색인 단어 (중복 없음) */
+    static Set<String> indexTerms(String content) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Run run : runs(normalize(content))) {
+            if (!run.cjk()) {
+                if (run.text().length() <= MAX_WORD_LENGTH) {
+                    terms.add(run.text());
+                }
+                continue;
+            }
+            int[] cps = run.text().codePoints().toArray();
+            for (int i = 0; i < cps.length; i++) {
+                terms.add(new String(cps, i, 1));
+                if (i + 1 < cps.length) {
+                    terms.add(new String(cps, i, 2));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /** 검색어의 단어 (모두 포함하는 메시지만 찾음) */
+    static Set<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Run run : runs(normalize(query))) {
+            int[] cps = run.text().codePoints().toArray();
+            if (!run.cjk() || cps.length == 1) {
+                terms.add(run.text());
+                continue;
+            }
+            for (int i = 0; i + 1 < cps.length; i++) {
+                terms.add(new String(cps, i, 2));
+            }
+        }
+        return terms;
+    }
+
+    /** 검색어의 글자/숫자 묶음이 모두 본문에 그대로 들어 있는지 (bigram 오탐 제거) */
+    static boolean matches(String content, List<String> queryRuns) {
+        String normalized = normalize(content);
+        for (String run : queryRuns) {
+            if (!normalized.contains(run)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> queryRuns(String query) {
+        return runs(normalize(query)).stream().map(Run::text).toList();
+    }
+
+    private record Run(String text, boolean cjk) {
+    }
+
+    /** 정규화된 문자열을 같은 종류(라틴/CJK)의 글자/숫자 묶음으로 나눔 */
+    private static List<Run> runs(String normalized) {
+        List<Run> runs = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            if (!Character.isLetterOrDigit(cp)) {
+                flush(runs, current, currentCjk);
+                continue;
+            }
+            boolean cjk = isCjk(cp);
+            if (current.length() > 0 && cjk != currentCjk) {
+                flush(runs, current, currentCjk);
+            }
+            currentCjk = cjk;
+            current.appendCodePoint(cp);
+        }
+        flush(runs, current, currentCjk);
+        return runs;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder current, boolean cjk) {
+        if (current.length() > 0) {
+            runs.add(new Run(current.toString(), cjk));
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HANGUL
+                || script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,7 @@
+package likelion13th.chat.search;
+
+import java.time.Instant;
+
+/** 색인에 저장된 메시지 (검색 결과를 DB 없이 만들기 위해 본문도 보관, 검색에 걸린 것만 세그먼트 파일에서 읽음) */
+record StoredDoc(long id, String senderUid, String content, Instant createdAt) {
+}
@@ -1,42 +1,89 @@
 package likelion13th.chat.service;
 
+import it.unimi.dsi.fastutil.longs.LongSet;
+import likelion13th.chat.presence.PresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import java.util.Set;
+
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@RequiredArgsConstructor
 public class ActiveUserService {
+
     /**
-     * 채팅방별 접속자 목록을 저장하는 메모리 기반 자료구조
-     * Key (String) → roomId (채팅방 ID)
-     * Value (Set<String>) → 해당 방에 접속 중인 사용자들의 UID 집합
+     * 방별 접속자 저장소 (chat.presence.backend: local이면 이 노드만, shared/in-memory면 여러 노드)
+     * 방/사용자는 RoomRegistry가 부여한 숫자 ID (roomId 문자열 → RoomRef 변환은 호출하는 쪽에서 한 번)
      */
-    private final ConcurrentHashMap<String, Set<String>> activeUsersByRoom = new ConcurrentHashMap<>();
+    private final PresenceRegistry presenceRegistry;
+
+    /**
+     * 이 노드에 붙어 있는 STOMP 세션 → 입장한 방/사용자
+     * 주기적인 heartbeat 갱신과 연결 종료 시 정리에 사용
+     */
+    private final Map<String, RoomMember> localSessions = new ConcurrentHashMap<>();
+
+    private record RoomMember(long roomNo, long userNo) {
+    }
 
     /**
      * 사용자가 채팅방에 입장할 때 호출되는 메서드
-     * 해당 roomId의 Set(접속자 목록)에 userUid를 추가
-     * 없으면 새로운 Set을 생성해서 추가
+     * 같은 세션이 다른 방에 있었다면 그 방에서는 빠지고, 새 방에 (방, 사용자, 세션)으로 등록
      */
-    public void userJoined(String roomId, String userUid) {
-        activeUsersByRoom.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(userUid);
+    public void userJoined(long roomNo, long userNo, String sessionId) {
+        RoomMember member = new RoomMember(roomNo, userNo);
+        RoomMember previous = localSessions.put(sessionId, member);
+        if (previous != null && !previous.equals(member)) {
+            presenceRegistry.leave(previous.roomNo(), previous.userNo(), sessionId);
+        }
+        presenceRegistry.join(roomNo, userNo, sessionId);
     }
 
     /**
-     * 사용자가 채팅방에서 나갈 때 호출
-     * 해당 roomId의 Set에서 userUid를 제거
+     * 세션 연결이 끊겼을 때 호출
+     * 해당 세션만 제거하므로, 같은 사용자의 다른 탭이 남아 있으면 계속 접속 중으로 유지
+     * @return 그 방에 같은 사용자의 세션이 더 남아 있지 않은지 (입력 중/접속 상태를 끌지 판단)
      */
-    public void userLeft(String roomId, String userUid) {
-        if (activeUsersByRoom.containsKey(roomId)) {
-            activeUsersByRoom.get(roomId).remove(userUid);
+    public boolean sessionClosed(String sessionId) {
+        RoomMember member = localSessions.remove(sessionId);
+        if (member == null) {
+            return true;
         }
+        presenceRegistry.leave(member.roomNo(), member.userNo(), sessionId);
+        return !presenceRegistry.isPresent(member.roomNo(), member.userNo());
+    }
+
+    /** 특정 사용자가 채팅방에 접속 중인지 (세션 하나라도 살아있으면 true) */
+    public boolean isActive(long roomNo, long userNo) {
+        return presenceRegistry.isPresent(roomNo, userNo);
     }
 
     /**
-     * 특정 채팅방에 현재 접속 중인 사용자 목록을 반환
+     * 특정 채팅방에 현재 접속 중인 사용자 번호 목록을 반환
      * 방이 없으면 빈 Set(비어 있는 목록)을 반환
      * */
-    public Set<String> getUsersInRoom(String roomId) {
-        return activeUsersByRoom.getOrDefault(roomId, ConcurrentHashMap.newKeySet());
+    public LongSet getUsersInRoom(long roomNo) {
+        return presenceRegistry.usersIn(roomNo);
+    }
+
+    /** 접속 중인 세션 수 (모니터링용) */
+    public int activeSessionCount() {
+        return presenceRegistry.sessionCount();
+    }
+
+    /** 접속자가 있는 방 수 (모니터링용) */
+    public int activeRoomCount() {
+        return presenceRegistry.roomCount();
+    }
+
+    /**
+     * 이 노드의 세션들이 살아있음을 저장소에 알리고, TTL이 지난 세션(다른 노드가 죽은 경우 등)을 정리
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat-interval:30s}")
+    public void heartbeat() {
+        localSessions.forEach((sessionId, m) -> presenceRegistry.heartbeat(m.roomNo(), m.userNo(), sessionId));
+        presenceRegistry.expireStale();
     }
 }
@@ -0,0 +1,57 @@
+package likelion13th.chat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import likelion13th.chat.config.WireFormatNegotiator;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * 브로드캐스트 이벤트를 JSON 바이트로 한 번만 인코딩
+ * - String을 거치지 않고 바로 UTF-8 byte[]로 씀 (Jackson 내부 버퍼는 BufferRecycler 풀에서 재사용)
+ * - 결과 byte[]는 불변으로 취급: SimpleBroker가 구독자마다 같은 배열을 공유하고,
+ *   fanout 모드에서는 같은 바이트가 그대로 다른 노드로 전파되어 재인코딩하지 않음
+ * - 감싼 메시지마다 빈 CborSlot을 붙여서, CBOR 세션이 여럿이어도 프레임당 한 번만 변환 (WireFormatNegotiator)
+ */
+@Component
+public class BroadcastPayloadEncoder {
+
+    private final ObjectWriter writer;
+
+    public BroadcastPayloadEncoder(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer();
+    }
+
+    public byte[] encode(Object payload) {
+        try {
+            return writer.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("브로드캐스트 payload 직렬화 실패: " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    /** 이미 인코딩된 JSON을 브로커로 보낼 메시지로 감쌈 (메시지 컨버터를 다시 거치지 않음) */
+    public Message<byte[]> toMessage(byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(WireFormatNegotiator.CBOR_SLOT_HEADER, new WireFormatNegotiator.CborSlot());
+        accessor.setLeaveMutable(true);
+        MessageHeaders headers = accessor.getMessageHeaders();
+        return MessageBuilder.createMessage(json, headers);
+    }
+
+    /** 방 순번(RoomEventLog.SEQ_HEADER)을 STOMP 헤더로 붙여서 감쌈 */
+    public Message<byte[]> toMessage(byte[] json, long seq) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setNativeHeader(RoomEventLog.SEQ_HEADER, Long.toString(seq));
+        accessor.setHeader(WireFormatNegotiator.CBOR_SLOT_HEADER, new WireFormatNegotiator.CborSlot());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+}
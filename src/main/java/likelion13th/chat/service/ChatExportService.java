@@ -0,0 +1,125 @@
+package likelion13th.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import likelion13th.chat.repository.ChatMessageRepository;
+import likelion13th.chat.storage.MessageArchive;
+import likelion13th.chat.storage.ShardRouter;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 방 전체 내역 내보내기 (NDJSON: 한 줄에 ChatMessageResponse JSON 하나)
+ * cold 세그먼트를 먼저, 이어서 방 샤드의 hot 행을 id keyset 페이지(PAGE_SIZE개)로 읽어서 바로 씀
+ * → 방 크기와 관계없이 힙 사용량은 페이지 하나(또는 세그먼트 하나) 정도로 일정
+ *   (JDBC 드라이버의 fetch size 지원 여부와 무관하고, 느린 클라이언트가 DB 연결/트랜잭션을 붙잡지 않음)
+ * 방 조회와 이름 조회는 prepare()에서 응답을 시작하기 전에 끝냄 (없는 방이면 200 대신 오류 응답)
+ * 1:1 방이라 보낸 사람 이름은 두 참여자 것만 미리 조회 (전역 테이블이라 방 샤드 트랜잭션 밖에서)
+ */
+@Service
+public class ChatExportService {
+
+    private static final byte NEWLINE = '\n';
+    private static final int PAGE_SIZE = 500;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final UserDirectory userDirectory;
+    private final RoomRegistry roomRegistry;
+    private final ShardRouter shardRouter;
+    private final MessageArchive archive;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+
+    public ChatExportService(ChatMessageRepository chatMessageRepository,
+                             ChatMessageWriter chatMessageWriter,
+                             UserDirectory userDirectory,
+                             RoomRegistry roomRegistry,
+                             ShardRouter shardRouter,
+                             MessageArchive archive,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageWriter = chatMessageWriter;
+        this.userDirectory = userDirectory;
+        this.roomRegistry = roomRegistry;
+        this.shardRouter = shardRouter;
+        this.archive = archive;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /** 응답을 시작하기 전에 방을 확인 (없는 방/잘못된 roomId면 IllegalArgumentException) */
+    public RoomExport prepare(String roomId) {
+        chatMessageWriter.awaitFlushed();
+        RoomRef room = roomRegistry.resolve(roomId);
+        Map<String, String> names = userDirectory.resolveNames(List.of(room.firstUid(), room.secondUid()));
+        return new RoomExport(room, names);
+    }
+
+    /** prepare()로 확인한 방의 내보내기 (응답 본문을 쓰는 스레드에서 writeTo 호출) */
+    public final class RoomExport {
+
+        private final RoomRef room;
+        private final Map<String, String> names;
+
+        private RoomExport(RoomRef room, Map<String, String> names) {
+            this.room = room;
+            this.names = names;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            // hot에 남아 있는 cold 구간의 ID (압축 도중이거나 늦게 커밋된 행, 보통 없음): cold 쪽을 건너뜀
+            Set<Long> inHot = new HashSet<>(inRoom(() ->
+                    chatMessageRepository.findIdsByRoomNoUpTo(room.no(), archive.lastArchivedId(room.no()))));
+            archive.forEach(room.no(), m -> {
+                if (!inHot.contains(m.getId())) {
+                    write(out, m, room, names);
+                }
+            });
+            long after = 0;
+            while (true) {
+                long from = after;
+                List<ChatMessage> page = inRoom(() ->
+                        chatMessageRepository.findByRoomNoAndIdGreaterThanOrderByIdAsc(room.no(), from, Limit.of(PAGE_SIZE)));
+                for (ChatMessage m : page) {
+                    write(out, m, room, names);
+                }
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                after = page.get(page.size() - 1).getId();
+            }
+            out.flush();
+        }
+
+        /** 페이지마다 짧은 읽기 전용 트랜잭션 (방 샤드) */
+        private <T> T inRoom(Supplier<T> query) {
+            return shardRouter.inRoom(room.no(), () -> readOnly.execute(status -> query.get()));
+        }
+    }
+
+    private void write(OutputStream out, ChatMessage m, RoomRef room, Map<String, String> names) {
+        ChatMessageResponse res = ChatMessageResponse.from(m, room.key())
+                .withSenderName(names.getOrDefault(m.getSenderUid(), UserDirectory.UNKNOWN));
+        try {
+            out.write(objectMapper.writeValueAsBytes(res));
+            out.write(NEWLINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
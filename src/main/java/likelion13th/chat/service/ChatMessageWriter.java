@@ -0,0 +1,20 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.domain.ChatMessage;
+
+/**
+ * 새 메시지를 저장하는 방식 (chat.persistence.mode)
+ * - SyncChatMessageWriter: 바로 INSERT 후 커밋
+ * - WriteBehindChatMessageWriter: ID만 할당해서 돌려주고 INSERT는 백그라운드 배치로
+ */
+public interface ChatMessageWriter {
+
+    /** 저장(또는 저장 예약)된 메시지를 반환. 반환값에는 항상 id와 createdAt이 채워져 있음 */
+    ChatMessage write(ChatMessage message);
+
+    /** 지금까지 write()된 메시지가 DB에 반영될 때까지 대기 (조회 전에 호출) */
+    void awaitFlushed();
+
+    /** 이 메시지가 아직 반영 전이면 반영될 때까지 대기 (수정/삭제 전에 호출) */
+    void awaitFlushed(long messageId);
+}
@@ -1,6 +1,6 @@
 package likelion13th.chat.service;
 
-import jakarta.transaction.Transactional;
+import likelion13th.chat.config.HistoryProperties;
 import likelion13th.chat.domain.ChatMessage;
 import likelion13th.chat.domain.MessageStatus;
 import likelion13th.chat.dto.command.EditMessageCommand;
@@ -9,13 +9,22 @@ import likelion13th.chat.dto.command.SendMessageCommand;
 import likelion13th.chat.dto.command.DeleteMessageCommand;
 import likelion13th.chat.dto.event.ChatMessageResponse;
 import likelion13th.chat.dto.event.DeletedMessageEvent;
+import likelion13th.chat.dto.event.MessagesReadEvent;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
 import likelion13th.chat.repository.ChatMessageRepository;
-import likelion13th.chat.repository.UserRepository;
+import likelion13th.chat.search.MessageSearchService;
+import likelion13th.chat.storage.ShardRouter;
+import likelion13th.chat.storage.TieredHistoryStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Comparator;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,115 +32,270 @@ import java.util.stream.Collectors;
 public class ChatService {
 
     private final ChatMessageRepository chatMessageRepository;
-    private final UserRepository userRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final UserDirectory userDirectory;
     private final ActiveUserService activeUserService;
+    private final RoomRegistry roomRegistry;
+    private final RecentMessageCache recentMessageCache;
+    private final HistoryProperties historyProperties;
+    private final ShardRouter shardRouter;
+    private final TieredHistoryStore historyStore;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageSearchService searchService;
+    private final SendDeduplicator sendDeduplicator;
+
+    private static final List<MessageStatus> UNREAD_STATUSES = List.of(MessageStatus.SENT, MessageStatus.DELIVERED);
     /**
-     * ChatMessage 엔티티에서 senderUid를 이용해 사용자 이름(displayName) 을 조회
+     * ChatMessage 엔티티에서 senderUid를 이용해 사용자 이름(displayName) 을 조회 (UserDirectory 캐시)
      * 이름이 존재하지 않으면 "Unknown"으로 처리
      * DTO(ChatMessageResponse)로 변환 후 senderName까지 채워서 반환
      * */
-    private ChatMessageResponse toResponseWithName(ChatMessage m) {
-        String name = userRepository.findByUid(m.getSenderUid())
-                .map(u -> u.getDisplayName())
-                .orElse("Unknown");
-        return ChatMessageResponse.from(m).withSenderName(name);
+    private ChatMessageResponse toResponseWithName(ChatMessage m, RoomRef room) {
+        return ChatMessageResponse.from(m, room.key()).withSenderName(userDirectory.displayNameOf(m.getSenderUid()));
+    }
+    /** 여러 메시지를 한 번에 변환: 보낸 사람 이름은 캐시 미스가 있어도 쿼리 한 번으로 해결 */
+    private List<ChatMessageResponse> toResponsesWithName(List<ChatMessage> messages, RoomRef room) {
+        Map<String, String> names = userDirectory.resolveNames(
+                messages.stream().map(ChatMessage::getSenderUid).collect(Collectors.toSet()));
+        return messages.stream()
+                .map(m -> ChatMessageResponse.from(m, room.key())
+                        .withSenderName(names.getOrDefault(m.getSenderUid(), UserDirectory.UNKNOWN)))
+                .collect(Collectors.toList());
     }
-    /** ✅메시지 전송 (상대방 접속 여부에 따라 READ 처리) */
-    @Transactional
-    public ChatMessageResponse send(SendMessageCommand cmd) {
-        // 상대방 UID 찾기 (A__B 형식의 roomId 가정)
-        String[] uids = cmd.getRoomId().split("__");
+    /**
+     * ✅메시지 전송 (상대방 접속 여부에 따라 READ 처리)
+     * 저장은 ChatMessageWriter에 위임 (sync: 즉시 커밋 / write-behind: 배치 저장 예약)
+     * 트랜잭션은 writer 내부에서 필요한 만큼만 열림
+     * clientMessageId가 있으면 재전송 중복 제거: 캐시(SendDeduplicator) → DB 유니크 제약 순으로 확인하고,
+     * 중복이면 저장/캐시 갱신 없이 원래 응답을 duplicate로 반환
+     */
+    public SendResult send(SendMessageCommand cmd) {
+        // roomId → 숫자 방 ID/참여자 (처음 한 번 이후에는 맵 조회만, 문자열 split 없음)
+        RoomRef room = roomRegistry.resolve(cmd.getRoomId());
         String senderUid = cmd.getSenderUid();
-        String receiverUid = uids[0].equals(senderUid) ? uids[1] : uids[0];
+        long receiverNo = room.otherUserNo(room.userNoOf(senderUid));
+        String clientMessageId = cmd.getClientMessageId();
+
+        if (clientMessageId != null) {
+            Optional<ChatMessageResponse> original = sendDeduplicator.find(room.no(), senderUid, clientMessageId);
+            if (original.isPresent()) {
+                return new SendResult(original.get(), true);
+            }
+        }
 
         // 상대방이 현재 접속 중인지 확인
-        boolean isReceiverActive = activeUserService.getUsersInRoom(cmd.getRoomId()).contains(receiverUid);
+        boolean isReceiverActive = activeUserService.isActive(room.no(), receiverNo);
 
         // 접속 중이면 READ, 아니면 SENT
         MessageStatus status = isReceiverActive ? MessageStatus.READ : MessageStatus.SENT;
 
-        //메시지를 DB에 저장 후 ChatMessageResponse로 변환하여 반환
-        ChatMessage saved = chatMessageRepository.save(ChatMessage.builder()
-                .roomId(cmd.getRoomId())
-                .senderUid(senderUid)
-                .content(cmd.getContent())
-                .status(status) // ✅ 동적으로 상태 결정
-                .build());
-        return toResponseWithName(saved);
+        //메시지를 DB에 저장(또는 저장 예약) 후 ChatMessageResponse로 변환하여 반환
+        ChatMessage saved;
+        try {
+            saved = chatMessageWriter.write(ChatMessage.builder()
+                    .roomNo(room.no())
+                    .senderUid(senderUid)
+                    .content(cmd.getContent())
+                    .clientMessageId(clientMessageId)
+                    .status(status) // ✅ 동적으로 상태 결정
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            if (clientMessageId == null || !ChatMessageJdbcRepository.isClientMessageIdConflict(e)) {
+                throw e;
+            }
+            // 캐시에서 밀려났거나 다른 노드가 먼저 저장한 재전송 (write-behind면 원래 메시지가 아직 큐에 있을 수 있음)
+            chatMessageWriter.awaitFlushed();
+            ChatMessage existing = shardRouter.inRoom(room.no(), () -> chatMessageRepository
+                    .findByRoomNoAndSenderUidAndClientMessageId(room.no(), senderUid, clientMessageId))
+                    .orElseThrow(() -> e);
+            sendDeduplicator.countDatabaseHit();
+            ChatMessageResponse res = toResponseWithName(existing, room);
+            sendDeduplicator.remember(room.no(), senderUid, clientMessageId, res);
+            return new SendResult(res, true);
+        }
+        ChatMessageResponse res = toResponseWithName(saved, room);
+        if (clientMessageId != null) {
+            sendDeduplicator.remember(room.no(), senderUid, clientMessageId, res);
+        }
+        recentMessageCache.added(room.no(), res);
+        searchService.added(room.no(), res);
+        return new SendResult(res, false);
     }
-    /** ✅ 메시지 수정: 아직 읽히지 않은 메시지만 수정 가능하게 제한 */
-    @Transactional
+    /**
+     * ✅ 메시지 수정: 아직 읽히지 않은 메시지만 수정 가능하게 제한
+     * 조회 후 검사/저장 대신 조건부 UPDATE (WHERE id, roomNo, senderUid, status <> READ)
+     * - 성공: 응답은 최근 메시지 캐시에 있으면 거기서 만들고, 없으면 UPDATE 뒤에 한 번 더 조회
+     *   (캐시가 꺼지는 relay/fanout 모드에서는 항상 UPDATE + 조회 두 번)
+     * - 0건: 원인을 조회해서 MessageConflictException (입장의 READ 처리와 경쟁해도 DB가 한쪽으로 판정)
+     * 방/사용자 조회(전역 테이블)는 방 샤드 밖에서, 메시지 UPDATE는 방 샤드의 트랜잭션 안에서
+     */
     public ChatMessageResponse edit(EditMessageCommand cmd) {
+        chatMessageWriter.awaitFlushed(cmd.getMessageId());
+        RoomRef room = roomOf(cmd.getRoomId(), cmd.getMessageId());
+        Instant now = Instant.now();
+        int updated = shardRouter.inRoom(room.no(), () -> transactionTemplate.execute(status ->
+                chatMessageRepository.editIfUnread(cmd.getMessageId(), room.no(), cmd.getEditorUid(),
+                        cmd.getNewContent(), MessageStatus.SENT, MessageStatus.READ, now)));
+        if (updated == 0) {
+            throw conflictOf(cmd.getMessageId(), cmd.getEditorUid(), room.no(), "수정");
+        }
 
-        //messageId로 DB에서 원본 메시지 조회
-        ChatMessage origin = chatMessageRepository.findById(cmd.getMessageId())
-                .orElseThrow(() -> new IllegalArgumentException("message not found"));
-        //보낸 사람 UID와 편집자 UID가 다르면 → 수정 불가
-        if (!origin.getSenderUid().equals(cmd.getEditorUid()))
-            throw new IllegalStateException("다른 사용자의 메시지는 수정할 수 없습니다.");
-        //이미 READ 상태라면 → 수정 불가
-        if (origin.getStatus() == MessageStatus.READ)
-            throw new IllegalStateException("이미 READ된 메시지는 수정할 수 없습니다.");
-        //조건 통과 시 content를 새 내용으로 변경, status를 다시 SENT로 초기화
-        ChatMessage updated = origin.toBuilder()
-                .content(cmd.getNewContent())
-                .status(MessageStatus.SENT)
-                .build();
-        // 변경 후 저장 및 ChatMessageResponse로 반환
-        ChatMessage saved = chatMessageRepository.save(updated);
-        return toResponseWithName(saved);
+        ChatMessageResponse res = recentMessageCache.get(room.no(), cmd.getMessageId())
+                .map(cached -> cached.toBuilder()
+                        .content(cmd.getNewContent())
+                        .status(MessageStatus.SENT)
+                        .updatedAt(now)
+                        .build())
+                .orElseGet(() -> {
+                    ChatMessage saved = shardRouter.inRoom(room.no(), () ->
+                            chatMessageRepository.findById(cmd.getMessageId()))
+                            .orElseThrow(() -> new IllegalStateException("message not found after update"));
+                    return toResponseWithName(saved, room);
+                });
+        recentMessageCache.replaced(room.no(), res);
+        searchService.edited(room.no(), res);
+        return res;
     }
-    /** ✅ 메시지 삭제 (DeletedMessageEvent 반환) */
-    @Transactional
+    /**
+     * ✅ 메시지 삭제 (DeletedMessageEvent 반환)
+     * 조건부 DELETE 한 번 (WHERE id, roomNo, senderUid, status <> READ)
+     */
     public DeletedMessageEvent delete(DeleteMessageCommand cmd) {
-        // messageId로 메시지 조회
-        ChatMessage m = chatMessageRepository.findById(cmd.getMessageId())
-                .orElseThrow(() -> new IllegalArgumentException("message not found"));
-        // 보낸 사람만 삭제 가능 (requesterUid 검증)
-        if (!m.getSenderUid().equals(cmd.getRequesterUid()))
-            throw new IllegalStateException("다른 사용자의 메시지는 삭제할 수 없습니다.");
-        //이미 읽힌(READ) 메시지는 삭제 불가
-        if (m.getStatus() == MessageStatus.READ)
-            throw new IllegalStateException("이미 READ된 메시지는 삭제할 수 없습니다.");
-        //Repository에서 삭제
-        chatMessageRepository.delete(m);
+        chatMessageWriter.awaitFlushed(cmd.getMessageId());
+        RoomRef room = roomOf(cmd.getRoomId(), cmd.getMessageId());
+        int deleted = shardRouter.inRoom(room.no(), () -> transactionTemplate.execute(status ->
+                chatMessageRepository.deleteIfUnread(cmd.getMessageId(), room.no(), cmd.getRequesterUid(),
+                        MessageStatus.READ)));
+        if (deleted == 0) {
+            throw conflictOf(cmd.getMessageId(), cmd.getRequesterUid(), room.no(), "삭제");
+        }
+        recentMessageCache.removed(room.no(), cmd.getMessageId());
+        searchService.deleted(room.no(), cmd.getMessageId());
         //삭제 후, DeletedMessageEvent(messageId, roomId)를 만들어 반환
         return DeletedMessageEvent.builder()
-                .messageId(m.getId())
-                .roomId(m.getRoomId())
+                .messageId(cmd.getMessageId())
+                .roomId(room.key())
                 .build();
     }
-    /** ✅ 방 입장 시 상대 메시지들 READ로 변경 (변경된 목록 반환): 입장과 동시에 “안 읽은 메시지들”이 자동으로 읽음 처리 */
-    @Transactional
-    public List<ChatMessageResponse> enter(EnterRoomCommand cmd) {
-        //사용자가 방에 입장했을 때 실행
-        String me = cmd.getUserUid();
-        //DB에서 해당 roomId의 메시지를 가져온 뒤, 내가 보낸 게 아닌 메시지(senderUid != me) 중
-        //아직 SENT 또는 DELIVERED 상태인 메시지를 → READ 상태로 변경
-        List<ChatMessage> toUpdate = chatMessageRepository.findByRoomId(cmd.getRoomId()).stream()
-                .filter(m -> !m.getSenderUid().equals(me))
-                .filter(m -> m.getStatus() == MessageStatus.SENT || m.getStatus() == MessageStatus.DELIVERED)
-                .map(m -> m.toBuilder().status(MessageStatus.READ).build())
-                .toList();
-        //수정된 메시지들을 saveAll()로 DB에 반영
-        List<ChatMessage> saved = chatMessageRepository.saveAll(toUpdate);
-        // 읽음 처리된 메시지들을 DTO로 변환하여 반환
-        return saved.stream()
-                .map(this::toResponseWithName)
-                .collect(Collectors.toList());
+    /**
+     * write-behind가 저장하지 못하고 버린 메시지(UnsavedMessageEvent): 이미 캐시/색인에 들어갔으므로 삭제처럼 빼고,
+     * 중복 제거 캐시가 이 메시지를 원래 응답으로 기억하고 있으면 잊음 (다음 재전송은 DB에서 실제로 저장된 메시지를 찾음)
+     */
+    public DeletedMessageEvent unsaved(ChatMessage message) {
+        RoomRef room = roomRegistry.byNo(message.getRoomNo());
+        recentMessageCache.removed(room.no(), message.getId());
+        searchService.deleted(room.no(), message.getId());
+        if (message.getClientMessageId() != null) {
+            sendDeduplicator.forget(room.no(), message.getSenderUid(), message.getClientMessageId(), message.getId());
+        }
+        return DeletedMessageEvent.builder()
+                .messageId(message.getId())
+                .roomId(room.key())
+                .build();
     }
     /**
-     * ✅ 최근 메시지 50개 불러오기
-     * DB에서 findTop50ByRoomIdOrderByIdDesc()로 최신 50개 메시지를 가져옴 (내림차순)
-     * 가져온 목록을 오름차순(.sorted(Comparator.comparing(ChatMessage::getId)))으로 다시 정렬
-     * 요청한 개수(limit)까지만 잘라서 반환
+     * 수정/삭제 대상 방: roomId가 있으면 그대로, 없는 (이전 클라이언트) 요청은 샤드를 차례로 조회해서 찾음
+     * cold로 옮겨진 메시지는 읽기 전용이라 여기서도 찾지 않음 (NOT_FOUND)
      */
-    @Transactional
+    private RoomRef roomOf(String roomId, Long messageId) {
+        if (roomId != null) {
+            return roomRegistry.resolve(roomId);
+        }
+        return shardRouter.findInAnyShard(shard -> chatMessageRepository.findById(messageId))
+                .map(m -> roomRegistry.byNo(m.getRoomNo()))
+                .orElseThrow(() -> new MessageConflictException(MessageConflictException.Reason.NOT_FOUND, messageId,
+                        "message not found"));
+    }
+    /** 조건부 수정/삭제가 0건일 때만 실행되는 조회: 왜 안 됐는지 구분 (그 방의 메시지여야 함) */
+    private MessageConflictException conflictOf(Long messageId, String requesterUid, long roomNo, String action) {
+        Optional<ChatMessage> current = shardRouter.inRoom(roomNo, () -> chatMessageRepository.findById(messageId))
+                .filter(m -> m.getRoomNo() == roomNo);
+        if (current.isEmpty())
+            return new MessageConflictException(MessageConflictException.Reason.NOT_FOUND, messageId,
+                    "message not found");
+        if (!current.get().getSenderUid().equals(requesterUid))
+            return new MessageConflictException(MessageConflictException.Reason.NOT_OWNER, messageId,
+                    "다른 사용자의 메시지는 " + action + "할 수 없습니다.");
+        return new MessageConflictException(MessageConflictException.Reason.ALREADY_READ, messageId,
+                "이미 READ된 메시지는 " + action + "할 수 없습니다.");
+    }
+    /**
+     * ✅ 방 입장 시 상대 메시지들 READ로 변경: 입장과 동시에 “안 읽은 메시지들”이 자동으로 읽음 처리
+     * 방 전체를 읽어오지 않고, 방의 최신 메시지 ID 이하의 미확인 메시지만 한 번의 UPDATE로 처리
+     * 변경된 메시지 목록 대신 "readerUid가 N번까지 읽음" 하나만 반환 (변경이 없으면 empty)
+     */
+    public Optional<MessagesReadEvent> enter(EnterRoomCommand cmd) {
+        //사용자가 방에 입장했을 때 실행 (아직 DB에 반영되지 않은 메시지가 있으면 먼저 반영)
+        chatMessageWriter.awaitFlushed();
+        RoomRef room = roomRegistry.resolve(cmd.getRoomId());
+        // 메시지는 방 샤드에 있으므로 트랜잭션도 그 샤드에서 시작
+        return shardRouter.inRoom(room.no(), () ->
+                transactionTemplate.execute(status -> markRoomRead(room, cmd.getUserUid())));
+    }
+
+    private Optional<MessagesReadEvent> markRoomRead(RoomRef room, String me) {
+        Long latestId = chatMessageRepository.findMaxIdByRoomNo(room.no());
+        if (latestId == null) {
+            return Optional.empty();
+        }
+
+        // 내가 보낸 게 아닌 SENT/DELIVERED 메시지를 READ로 (인덱스: roomNo, status, id)
+        // 이전 입장 위치를 하한으로 쓰지 않음: 그보다 작은 ID가 다른 노드에서 늦게 저장됐을 수 있음
+        Instant now = Instant.now();
+        int updated = chatMessageRepository.markRead(room.no(), me, latestId,
+                UNREAD_STATUSES, MessageStatus.READ, now);
+        recentMessageCache.markedRead(room.no(), me, latestId, now);
+
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(MessagesReadEvent.builder()
+                .roomId(room.key())
+                .readerUid(me)
+                .lastReadMessageId(latestId)
+                .updatedCount(updated)
+                .build());
+    }
+    /** ✅ 최근 메시지 limit개 불러오기 (오름차순) */
     public List<ChatMessageResponse> fetchRecent(String roomId, int limit) {
-        return chatMessageRepository.findTop50ByRoomIdOrderByIdDesc(roomId).stream()
-                .sorted(Comparator.comparing(ChatMessage::getId))
-                .limit(limit)
-                .map(this::toResponseWithName)
-                .collect(Collectors.toList());
+        return fetchHistory(roomId, null, null, limit);
+    }
+    /**
+     * ✅ 커서 기반(keyset) 내역 조회, 결과는 항상 id 오름차순
+     * - before만 있으면: before보다 오래된 메시지 중 최신 limit개 (위로 무한 스크롤)
+     * - after만 있으면: after 이후 메시지 limit개 (재접속 후 따라잡기)
+     * - 둘 다 없으면: 가장 최근 limit개
+     * limit은 1 ~ chat.history.max-limit 범위로 보정, OFFSET 없이 (roomNo, id) 인덱스만 탐색
+     * 최근 메시지 캐시(RecentMessageCache) 범위 안의 요청은 DB 없이 응답 (트랜잭션도 열지 않음)
+     */
+    public List<ChatMessageResponse> fetchHistory(String roomId, Long before, Long after, int limit) {
+        int clamped = Math.max(1, Math.min(limit, historyProperties.getMaxLimit()));
+        RoomRef room = roomRegistry.resolve(roomId);
+
+        Optional<List<ChatMessageResponse>> cached = recentMessageCache.find(room.no(), before, after, clamped);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        // 세대 번호는 flush 대기/조회 전에 읽어야 그 사이의 변경을 놓치지 않음
+        long generation = recentMessageCache.generation(room.no());
+        chatMessageWriter.awaitFlushed();
+
+        if (before == null && after == null && recentMessageCache.isEnabled()
+                && clamped <= recentMessageCache.getWindowSize()) {
+            // 최근 조회 미스: 창 크기만큼 읽어서 캐시를 채우고 그중 limit개 응답
+            // (창보다 적게 나와도 cold 세그먼트가 있으면 방 전체가 창 안에 있는 것은 아님)
+            int windowSize = recentMessageCache.getWindowSize();
+            List<ChatMessage> asc = historyStore.recent(room.no(), windowSize);
+            List<ChatMessageResponse> window = toResponsesWithName(asc, room);
+            recentMessageCache.load(room.no(), generation, window,
+                    asc.size() < windowSize && !historyStore.hasArchived(room.no()));
+            return new ArrayList<>(window.subList(Math.max(0, window.size() - clamped), window.size()));
+        }
+
+        // hot(방 샤드)에서 먼저 찾고, 모자라거나 cold 구간이면 세그먼트에서 이어서 읽음
+        List<ChatMessage> messages = after != null
+                ? historyStore.after(room.no(), after, clamped)
+                : historyStore.before(room.no(), before, clamped);
+        return toResponsesWithName(messages, room);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.dto.command.AckCommand;
+import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.repository.ChatMessageRepository;
+import likelion13th.chat.storage.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 수신 확인(/app/ack) → DELIVERED
+ * - ack는 바로 저장하지 않고 (방, 수신자)마다 "여기까지 받음" 최댓값만 메모리에 모음
+ * - chat.delivery.flush-interval마다 모인 것을 (방 샤드마다) 한 트랜잭션에서 (방, 수신자)당 UPDATE 한 번으로 반영
+ *   (수신자가 아닌 사람이 보낸 SENT 메시지만 대상, 이미 READ면 그대로)
+ *   ack ID는 방의 가장 큰 메시지 ID로 자름 (있지도 않은 ID를 보내서 이후 메시지까지 DELIVERED로 만들지 않도록)
+ * - 실제로 바뀐 행이 있으면 방마다 "recipientUid가 N번까지 받음" 이벤트 하나만 브로드캐스트
+ * 같은 구간의 ack가 여러 번 와도 UPDATE/이벤트 수는 늘지 않음
+ */
+@Slf4j
+@Service
+public class DeliveryReceiptService implements DisposableBean {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final RoomRegistry roomRegistry;
+    private final RoomBroadcaster broadcaster;
+    private final RecentMessageCache recentMessageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    /** (방, 수신자) → 받았다고 알려온 가장 큰 메시지 ID (아직 반영 전) */
+    private final Map<Recipient, Long> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder acks = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    public DeliveryReceiptService(ChatMessageRepository chatMessageRepository,
+                                  ChatMessageWriter chatMessageWriter,
+                                  RoomRegistry roomRegistry,
+                                  RoomBroadcaster broadcaster,
+                                  RecentMessageCache recentMessageCache,
+                                  PlatformTransactionManager transactionManager,
+                                  ShardRouter shardRouter) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageWriter = chatMessageWriter;
+        this.roomRegistry = roomRegistry;
+        this.broadcaster = broadcaster;
+        this.recentMessageCache = recentMessageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    public void acknowledge(AckCommand cmd) {
+        RoomRef room = roomRegistry.resolve(cmd.getRoomId());
+        room.userNoOf(cmd.getUserUid()); // 방 참여자가 아니면 IllegalArgumentException
+        pending.merge(new Recipient(room.no(), cmd.getUserUid()), cmd.getMessageId(), Math::max);
+        acks.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.delivery.flush-interval:200ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Recipient, Long> batch = new HashMap<>();
+        for (Recipient recipient : pending.keySet()) {
+            Long upTo = pending.remove(recipient);
+            if (upTo != null) {
+                batch.put(recipient, upTo);
+            }
+        }
+
+        // write-behind 모드에서 ack가 아직 INSERT되지 않은 메시지를 가리킬 수 있으므로 먼저 반영
+        chatMessageWriter.awaitFlushed();
+        // 방 샤드별로 트랜잭션 하나씩 (한 샤드가 실패해도 다른 샤드의 반영은 그대로)
+        Map<Integer, Map<Recipient, Long>> byShard = new HashMap<>();
+        batch.forEach((recipient, upTo) -> byShard
+                .computeIfAbsent(shardRouter.shardOf(recipient.roomNo()), shard -> new HashMap<>())
+                .put(recipient, upTo));
+
+        List<Map.Entry<Recipient, Long>> changed = new ArrayList<>();
+        Instant now = Instant.now();
+        byShard.forEach((shard, recipients) -> {
+            List<Map.Entry<Recipient, Long>> shardChanged = new ArrayList<>();
+            try {
+                shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                    Map<Long, Long> maxIds = new HashMap<>();
+                    recipients.forEach((recipient, acked) -> {
+                        Long maxId = maxIds.computeIfAbsent(recipient.roomNo(), chatMessageRepository::findMaxIdByRoomNo);
+                        if (maxId == null) {
+                            return;
+                        }
+                        long upTo = Math.min(acked, maxId);
+                        int updated = chatMessageRepository.markDelivered(recipient.roomNo(), recipient.uid(), upTo,
+                                MessageStatus.SENT, MessageStatus.DELIVERED, now);
+                        updates.increment();
+                        if (updated > 0) {
+                            delivered.add(updated);
+                            shardChanged.add(Map.entry(recipient, upTo));
+                        }
+                    });
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                // 다음 주기에 다시 시도 (그 사이 들어온 더 큰 ack와 합쳐짐)
+                log.warn("DELIVERED 반영 실패 (shard={}, recipients={}), 다음 주기에 재시도", shard, recipients.size(), e);
+                recipients.forEach((recipient, upTo) -> pending.merge(recipient, upTo, Math::max));
+                return;
+            }
+            for (Map.Entry<Recipient, Long> entry : shardChanged) {
+                recentMessageCache.markedDelivered(entry.getKey().roomNo(), entry.getKey().uid(), entry.getValue(), now);
+            }
+            changed.addAll(shardChanged);
+        });
+
+        for (Map.Entry<Recipient, Long> entry : changed) {
+            Recipient recipient = entry.getKey();
+            broadcaster.broadcast(roomRegistry.byNo(recipient.roomNo()).key(),
+                    WsEvent.delivered(recipient.uid(), entry.getValue()));
+        }
+    }
+
+    /** 종료 전에 남은 ack 반영 */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    // ===== 지표 =====
+
+    public long getAcks() {
+        return acks.sum();
+    }
+
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public int getPendingRecipients() {
+        return pending.size();
+    }
+
+    private record Recipient(long roomNo, String uid) {
+    }
+}
@@ -0,0 +1,26 @@
+package likelion13th.chat.service;
+
+import lombok.Getter;
+
+/**
+ * 조건부 수정/삭제가 0건일 때 그 이유 (ChatController가 요청한 세션에만 error 이벤트로 전달)
+ * - NOT_FOUND: 없는 메시지 (이미 삭제됐거나 다른 방의 메시지)
+ * - NOT_OWNER: 다른 사용자가 보낸 메시지
+ * - ALREADY_READ: 상대가 이미 읽은 메시지 (입장과 경쟁해서 진 경우 포함)
+ */
+@Getter
+public class MessageConflictException extends IllegalStateException {
+
+    public enum Reason {
+        NOT_FOUND, NOT_OWNER, ALREADY_READ
+    }
+
+    private final Reason reason;
+    private final Long messageId;
+
+    public MessageConflictException(Reason reason, Long messageId, String message) {
+        super(message);
+        this.reason = reason;
+        this.messageId = messageId;
+    }
+}
@@ -0,0 +1,94 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.PersistenceProperties;
+import likelion13th.chat.storage.MessageArchive;
+import likelion13th.chat.storage.ShardRouter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 메시지 ID 할당기 (write-behind 모드, 샤드가 여러 개인 sync 모드)
+ * message_id_block 테이블에서 idBlockSize 만큼의 구간을 한 번에 예약하고,
+ * 그 구간을 다 쓸 때까지는 DB 왕복 없이 메모리에서 ID를 나눠줌
+ * (여러 노드가 같은 테이블을 쓰더라도 UPDATE 행 잠금 덕분에 구간이 겹치지 않음)
+ * 샤드별 IDENTITY 대신 이 카운터(샤드 0)를 쓰기 때문에 메시지 ID는 모든 샤드를 통틀어 유일하고 증가함
+ */
+@Component
+public class MessageIdAllocator {
+
+    private static final String BLOCK_NAME = "chat_message";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ShardRouter shardRouter;
+    private final MessageArchive archive;
+    private final int blockSize;
+
+    private boolean recovered;
+    private long next;  // 다음에 나눠줄 ID
+    private long limit; // 현재 블록의 끝 (exclusive)
+
+    public MessageIdAllocator(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ShardRouter shardRouter,
+                              MessageArchive archive,
+                              PersistenceProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+        this.archive = archive;
+        this.blockSize = properties.getWriteBehind().getIdBlockSize();
+    }
+
+    /** 처음 호출될 때 복구 (이 할당기를 쓰지 않는 구성에서는 카운터 테이블을 건드리지 않음) */
+    public synchronized long nextId() {
+        if (!recovered) {
+            recover();
+            recovered = true;
+        }
+        if (next >= limit) {
+            reserveBlock();
+        }
+        return next++;
+    }
+
+    /**
+     * 재시작 시 복구: 카운터 행이 없으면 만들고, 이미 저장된 메시지의 최대 ID보다 작으면 끌어올림
+     * 최대 ID는 모든 샤드와 cold 세그먼트를 통틀어 계산
+     * (이전 실행에서 예약만 하고 쓰지 않은 구간은 버려지므로 ID가 겹칠 일은 없음)
+     */
+    private void recover() {
+        long max = archive.maxArchivedId();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            Long shardMax = shardRouter.onShard(shard, () -> tx.execute(status -> jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM chat_message", Long.class)));
+            max = Math.max(max, shardMax);
+        }
+        long floor = max + 1;
+        shardRouter.global(() -> tx.execute(status -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE message_id_block SET next_val = GREATEST(next_val, ?) WHERE name = ?",
+                    floor, BLOCK_NAME);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO message_id_block (name, next_val) VALUES (?, ?)",
+                        BLOCK_NAME, floor);
+            }
+            return null;
+        }));
+    }
+
+    private void reserveBlock() {
+        Long end = shardRouter.global(() -> tx.execute(status -> {
+            jdbcTemplate.update("UPDATE message_id_block SET next_val = next_val + ? WHERE name = ?",
+                    blockSize, BLOCK_NAME);
+            return jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM message_id_block WHERE name = ?", Long.class, BLOCK_NAME);
+        }));
+        this.limit = end;
+        this.next = end - blockSize;
+    }
+}
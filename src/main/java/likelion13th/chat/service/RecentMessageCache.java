@@ -0,0 +1,420 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.BrokerProperties;
+import likelion13th.chat.config.HistoryProperties;
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 방별 최근 메시지 캐시 (roomNo → 최근 windowSize개의 ChatMessageResponse, id 오름차순 링 버퍼)
+ * - 창(window)은 항상 "방의 가장 최근 메시지들 전체"를 담음: 창의 가장 오래된 id 이후 메시지는 빠짐없이 들어 있음
+ *   → 최근 N개, 창 안쪽 before/after 조회는 DB 없이 응답
+ * - ChatService의 send/edit/delete/읽음 처리에서 창을 갱신 (트랜잭션 안이면 커밋 후에 반영)
+ * - roomNo로 나눈 STRIPES개 구간마다 방 단위 LRU + 메모리 상한(maxRooms/maxSize를 구간 수로 나눈 몫):
+ *   넘으면 그 구간에서 가장 오래 안 쓰인 방부터 제거. 잠금도 구간별이라 다른 구간의 방끼리는 경쟁하지 않음
+ * - DB에서 창을 채우는 동안 같은 방에 변경이 생기면(세대 번호가 바뀌면) 채운 결과를 버림
+ */
+@Slf4j
+@Component
+public class RecentMessageCache {
+
+    /** 메시지 한 건의 고정 비용 추정치 (객체 헤더, 필드, uid/Instant 등) */
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final int STRIPES = 16;
+    private static final int GENERATION_STRIPES = 1024;
+    private static final List<MessageStatus> UNREAD_STATUSES = List.of(MessageStatus.SENT, MessageStatus.DELIVERED);
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int maxRoomsPerStripe;
+    private final long maxBytesPerStripe;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /** 방 변경 세대 번호 (roomNo 해시로 나눈 stripe 단위), 창을 채우는 도중의 변경 감지용 */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentMessageCache(HistoryProperties historyProperties, BrokerProperties brokerProperties) {
+        HistoryProperties.Cache props = historyProperties.getCache();
+        this.enabled = props.isEnabled() && brokerProperties.getMode() == BrokerProperties.Mode.SIMPLE;
+        this.windowSize = props.getWindowSize();
+        this.maxRoomsPerStripe = Math.max(1, props.getMaxRooms() / STRIPES);
+        this.maxBytesPerStripe = Math.max(1, props.getMaxSize().toBytes() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        if (props.isEnabled() && !enabled) {
+            log.info("broker.mode={}: 다른 노드의 변경을 알 수 없으므로 최근 메시지 캐시를 끔", brokerProperties.getMode());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    // ===== 조회 =====
+
+    /**
+     * 캐시로 응답할 수 있으면 결과(id 오름차순), 아니면 empty
+     * - 최근 limit개: 창에 limit개 이상 있거나 방 전체가 창 안에 있을 때
+     * - before: 창 안에 before보다 오래된 메시지가 limit개 이상 있거나 방 전체가 창 안에 있을 때
+     * - after: after가 창의 가장 오래된 id 이상이거나 방 전체가 창 안에 있을 때
+     */
+    public Optional<List<ChatMessageResponse>> find(long roomNo, Long before, Long after, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        List<ChatMessageResponse> result;
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            RoomWindow window = stripe.windows.get(roomNo);
+            result = window == null ? null : window.find(before, after, limit);
+        }
+        (result == null ? misses : hits).increment();
+        return Optional.ofNullable(result);
+    }
+
+    /** 창 안에 있는 메시지 하나 (적중/미스 지표에는 넣지 않음) */
+    public Optional<ChatMessageResponse> get(long roomNo, long messageId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            RoomWindow window = stripe.windows.get(roomNo);
+            int index = window == null ? -1 : window.indexOf(messageId);
+            return index < 0 ? Optional.empty() : Optional.of(window.get(index));
+        }
+    }
+
+    /** DB에서 창을 채우기 전에 읽어두는 세대 번호 (load에 그대로 넘김) */
+    public long generation(long roomNo) {
+        return generations.get(generationStripe(roomNo));
+    }
+
+    /**
+     * DB에서 읽은 방의 최근 메시지(id 오름차순, 최대 windowSize개)로 창을 채움
+     * wholeRoom: 방의 메시지가 이게 전부인지 (windowSize보다 적게 읽힌 경우)
+     * 읽는 사이에 같은 stripe에 변경이 있었으면(세대 번호가 다르면) 버림
+     */
+    public void load(long roomNo, long generation, List<ChatMessageResponse> recent, boolean wholeRoom) {
+        if (!enabled) {
+            return;
+        }
+        RoomWindow window = new RoomWindow(windowSize, wholeRoom);
+        recent.forEach(window::add);
+        Stripe stripe = stripeOf(roomNo);
+        synchronized (stripe) {
+            if (generations.get(generationStripe(roomNo)) != generation) {
+                return;
+            }
+            // 삭제 등으로 줄어든 기존 창이 있으면 새로 읽은 창으로 교체
+            RoomWindow previous = stripe.windows.put(roomNo, window);
+            stripe.bytes += window.bytes - (previous == null ? 0 : previous.bytes);
+            evictIfNeeded(stripe);
+        }
+    }
+
+    // ===== 변경 반영 (모두 멱등: 창을 채운 DB 결과에 이미 들어 있어도 안전) =====
+
+    /** 새 메시지 (send) */
+    public void added(long roomNo, ChatMessageResponse message) {
+        update(roomNo, window -> window.add(message));
+    }
+
+    /** 내용/상태가 바뀐 메시지 (edit) */
+    public void replaced(long roomNo, ChatMessageResponse message) {
+        update(roomNo, window -> window.replace(message));
+    }
+
+    /** 삭제된 메시지 */
+    public void removed(long roomNo, long messageId) {
+        update(roomNo, window -> window.remove(messageId));
+    }
+
+    /** ChatMessageRepository.markRead와 같은 조건으로 창 안의 메시지를 READ로 */
+    public void markedRead(long roomNo, String readerUid, long upToId, Instant now) {
+        update(roomNo, window -> window.markRead(readerUid, upToId, now));
+    }
+
+    public void markedDelivered(long roomNo, String recipientUid, long upToId, Instant now) {
+        update(roomNo, window -> window.markDelivered(recipientUid, upToId, now));
+    }
+
+    private void update(long roomNo, Consumer<RoomWindow> change) {
+        if (!enabled) {
+            return;
+        }
+        // 현재 트랜잭션이 있으면 커밋된 뒤에만 반영 (롤백된 변경이 캐시에 남지 않도록)
+        afterCommit(() -> {
+            generations.incrementAndGet(generationStripe(roomNo));
+            Stripe stripe = stripeOf(roomNo);
+            synchronized (stripe) {
+                RoomWindow window = stripe.windows.get(roomNo);
+                if (window == null) {
+                    return;
+                }
+                long before = window.bytes;
+                change.accept(window);
+                stripe.bytes += window.bytes - before;
+                evictIfNeeded(stripe);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** stripe 잠금 안에서 호출 */
+    private void evictIfNeeded(Stripe stripe) {
+        Iterator<Map.Entry<Long, RoomWindow>> it = stripe.windows.entrySet().iterator();
+        while ((stripe.windows.size() > maxRoomsPerStripe || stripe.bytes > maxBytesPerStripe) && it.hasNext()) {
+            stripe.bytes -= it.next().getValue().bytes;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private Stripe stripeOf(long roomNo) {
+        return stripes[hash(roomNo) & (STRIPES - 1)];
+    }
+
+    private static int generationStripe(long roomNo) {
+        return hash(roomNo) & (GENERATION_STRIPES - 1);
+    }
+
+    private static int hash(long roomNo) {
+        return (int) (roomNo ^ (roomNo >>> 32));
+    }
+
+    /** 구간 하나: accessOrder=true → 조회/갱신할 때마다 뒤로 이동, 가장 앞의 방이 LRU (이 객체로 동기화) */
+    private static final class Stripe {
+        final LinkedHashMap<Long, RoomWindow> windows = new LinkedHashMap<>(16, 0.75f, true);
+        long bytes;
+    }
+
+    // ===== 모니터링 =====
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getRoomCount() {
+        int rooms = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                rooms += stripe.windows.size();
+            }
+        }
+        return rooms;
+    }
+
+    public long getEstimatedBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 한 방의 링 버퍼: ring[(head + i) % capacity]가 i번째로 오래된 메시지 (id 오름차순)
+     * 대부분의 추가는 맨 뒤(가장 새 id)라서 O(1), 가득 차면 가장 오래된 메시지를 덮어씀
+     */
+    static final class RoomWindow {
+
+        private final ChatMessageResponse[] ring;
+        private int head;
+        private int size;
+        /** 방의 메시지가 전부 창 안에 있음 (창보다 오래된 메시지가 없음) */
+        private boolean wholeRoom;
+        private long bytes;
+
+        RoomWindow(int capacity, boolean wholeRoom) {
+            this.ring = new ChatMessageResponse[capacity];
+            this.wholeRoom = wholeRoom;
+        }
+
+        List<ChatMessageResponse> find(Long before, Long after, int limit) {
+            if (after != null) {
+                if (!wholeRoom && (size == 0 || after < get(0).getId())) {
+                    return null;
+                }
+                int from = firstIndexAbove(after);
+                return slice(from, Math.min(size, from + limit));
+            }
+            int to = before != null ? firstIndexAtOrAbove(before) : size;
+            if (to < limit && !wholeRoom) {
+                return null;
+            }
+            return slice(Math.max(0, to - limit), to);
+        }
+
+        void add(ChatMessageResponse message) {
+            long id = message.getId();
+            int index = firstIndexAtOrAbove(id);
+            if (index < size && get(index).getId() == id) {
+                set(index, message);
+                return;
+            }
+            if (index == 0 && size > 0 && !wholeRoom) {
+                // 창보다 오래된 메시지: 창과 이어진다는 보장이 없으므로 넣지 않음
+                return;
+            }
+            if (size == ring.length) {
+                if (index == 0) {
+                    return;
+                }
+                dropOldest();
+                index--;
+            }
+            for (int i = size; i > index; i--) {
+                ring[slot(i)] = ring[slot(i - 1)];
+            }
+            ring[slot(index)] = message;
+            size++;
+            bytes += estimate(message);
+        }
+
+        void replace(ChatMessageResponse message) {
+            int index = indexOf(message.getId());
+            if (index >= 0) {
+                set(index, message);
+            }
+        }
+
+        void remove(long messageId) {
+            int index = indexOf(messageId);
+            if (index < 0) {
+                return;
+            }
+            bytes -= estimate(get(index));
+            for (int i = index; i < size - 1; i++) {
+                ring[slot(i)] = ring[slot(i + 1)];
+            }
+            ring[slot(size - 1)] = null;
+            size--;
+        }
+
+        void markRead(String readerUid, long upToId, Instant now) {
+            for (int i = 0; i < size && get(i).getId() <= upToId; i++) {
+                ChatMessageResponse m = get(i);
+                if (UNREAD_STATUSES.contains(m.getStatus()) && !m.getSenderUid().equals(readerUid)) {
+                    // 브로드캐스트 중인 객체일 수 있으므로 고치지 않고 새 객체로 교체
+                    ring[slot(i)] = m.toBuilder().status(MessageStatus.READ).updatedAt(now).build();
+                }
+            }
+        }
+
+        void markDelivered(String recipientUid, long upToId, Instant now) {
+            for (int i = 0; i < size && get(i).getId() <= upToId; i++) {
+                ChatMessageResponse m = get(i);
+                if (m.getStatus() == MessageStatus.SENT && !m.getSenderUid().equals(recipientUid)) {
+                    ring[slot(i)] = m.toBuilder().status(MessageStatus.DELIVERED).updatedAt(now).build();
+                }
+            }
+        }
+
+        private void dropOldest() {
+            bytes -= estimate(ring[head]);
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            wholeRoom = false;
+        }
+
+        private void set(int index, ChatMessageResponse message) {
+            bytes += estimate(message) - estimate(get(index));
+            ring[slot(index)] = message;
+        }
+
+        private List<ChatMessageResponse> slice(int from, int to) {
+            List<ChatMessageResponse> result = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                result.add(get(i));
+            }
+            return result;
+        }
+
+        private int indexOf(long id) {
+            int index = firstIndexAtOrAbove(id);
+            return index < size && get(index).getId() == id ? index : -1;
+        }
+
+        /** id 이상인 첫 위치 (이진 탐색) */
+        private int firstIndexAtOrAbove(long id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (get(mid).getId() < id) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int firstIndexAbove(long id) {
+            return id == Long.MAX_VALUE ? size : firstIndexAtOrAbove(id + 1);
+        }
+
+        private ChatMessageResponse get(int index) {
+            return ring[slot(index)];
+        }
+
+        private int slot(int index) {
+            return (head + index) % ring.length;
+        }
+
+        private static long estimate(ChatMessageResponse m) {
+            int chars = (m.getContent() == null ? 0 : m.getContent().length())
+                    + (m.getSenderName() == null ? 0 : m.getSenderName().length());
+            return ENTRY_OVERHEAD_BYTES + 2L * chars;
+        }
+    }
+}
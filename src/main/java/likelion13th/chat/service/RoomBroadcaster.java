@@ -0,0 +1,229 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.cluster.ClusterBus;
+import likelion13th.chat.config.BroadcastProperties;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /topic/rooms/{roomId} 브로드캐스트의 단일 출구
+ * 브로커 모드와 관계없이 컨트롤러는 broadcast()만 호출
+ * - simple/relay: 브로커로 바로 전송 (relay면 외부 브로커가 모든 노드로 전달)
+ * - fanout: 로컬 브로커로 전송 + ClusterBus로 다른 노드에 전파 (받은 노드는 자기 로컬 브로커로만 전송)
+ * chat.broadcast.coalescing.enabled이면 같은 방 이벤트를 maxDelay 동안 모아서
+ * 배열 하나(= 직렬화 한 번, 웹소켓 프레임 하나)로 전송. 묶음 교체만 방 키 잠금 안에서 하고,
+ * 인코딩/전송은 잠금 밖에서 방마다 한 스레드가 차례로 하므로 순서가 유지됨
+ * 이벤트는 BroadcastPayloadEncoder로 한 번만 JSON 바이트로 만들고, 그 바이트를 모든 구독자/노드가 공유
+ * 방 프레임은 로컬 브로커로 보낼 때 RoomEventLog가 방별 순번(STOMP 헤더 seq)을 매기고 보관 (재접속 이어받기)
+ * 저장하지 않는 신호(입력 중 등)는 signal()로 /topic/rooms/{roomId}/signals에 바로 전송 (묶음/순번/보관 없음)
+ */
+@Slf4j
+@Component
+public class RoomBroadcaster implements DisposableBean {
+
+    public static final String ROOM_TOPIC_PREFIX = "/topic/rooms/";
+    public static final String SIGNALS_SUFFIX = "/signals";
+
+    private static final String[] NO_SENDERS = new String[0];
+    private static final long ANY_GENERATION = -1;
+
+    private final SimpMessagingTemplate broker;
+    private final BroadcastPayloadEncoder encoder;
+    private final ClusterBus clusterBus;
+    private final RoomEventLog eventLog;
+    private final BroadcastProperties.Coalescing coalescing;
+
+    /** 방별로 아직 나가지 않은 이벤트 (pendingByRoom.compute 안에서만 바꿈, 할 일이 없으면 키를 지움) */
+    private final Map<String, RoomBatch> pendingByRoom = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public RoomBroadcaster(SimpMessagingTemplate broker, BroadcastPayloadEncoder encoder,
+                           ObjectProvider<ClusterBus> clusterBus, BroadcastProperties properties,
+                           RoomEventLog eventLog) {
+        this.broker = broker;
+        this.encoder = encoder;
+        this.clusterBus = clusterBus.getIfAvailable();
+        this.eventLog = eventLog;
+        this.coalescing = properties.getCoalescing();
+        this.flusher = coalescing.isEnabled()
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "room-broadcast-coalescer");
+                    t.setDaemon(true);
+                    return t;
+                })
+                : null;
+        if (this.clusterBus != null) {
+            this.clusterBus.subscribe(this::deliverFromCluster);
+        }
+    }
+
+    public void broadcast(String roomId, Object payload) {
+        if (flusher == null) {
+            send(roomId, payload);
+            return;
+        }
+        // compute 안에서는 적재/묶음 교체만, 인코딩과 전송은 잠금 밖에서 (drain)
+        boolean[] drain = new boolean[1];
+        pendingByRoom.compute(roomId, (k, batch) -> {
+            if (batch == null) {
+                batch = new RoomBatch();
+            }
+            if (batch.pending == null) {
+                batch.pending = new ArrayList<>();
+                long generation = ++batch.generation;
+                flusher.schedule(() -> flush(roomId, generation), coalescing.getMaxDelay().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            batch.pending.add(payload);
+            if (batch.pending.size() >= coalescing.getMaxBatchSize()) {
+                drain[0] = batch.seal();
+            }
+            return batch;
+        });
+        if (drain[0]) {
+            drain(roomId);
+        }
+    }
+
+    /** 저장하지 않는 신호: 묶지 않고 순번/보관 없이 바로 전송 (보내는 쪽에서 이미 간격 제한) */
+    public void signal(String roomId, Object payload) {
+        String destination = ROOM_TOPIC_PREFIX + roomId + SIGNALS_SUFFIX;
+        byte[] json = encoder.encode(payload);
+        broker.send(destination, encoder.toMessage(json));
+        if (clusterBus != null) {
+            clusterBus.publish(destination, json);
+        }
+    }
+
+    /**
+     * maxDelay 예약: 예약을 건 묶음(generation)이 아직 모으는 중일 때만 내보냄
+     * (그 묶음이 maxBatchSize로 먼저 나갔으면, 남은 예약이 다음 묶음을 일찍 내보내지 않도록 무시)
+     */
+    private void flush(String roomId, long generation) {
+        boolean[] drain = new boolean[1];
+        pendingByRoom.computeIfPresent(roomId, (k, batch) -> {
+            if (batch.pending != null && (generation == ANY_GENERATION || batch.generation == generation)) {
+                drain[0] = batch.seal();
+            }
+            return batch;
+        });
+        if (drain[0]) {
+            drain(roomId);
+        }
+    }
+
+    /** 봉인된 묶음을 순서대로 전송 (방마다 한 스레드만 drain하므로 순서가 유지됨) */
+    private void drain(String roomId) {
+        while (true) {
+            Object[] next = new Object[1];
+            pendingByRoom.computeIfPresent(roomId, (k, batch) -> {
+                List<Object> sealed = batch.ready.poll();
+                if (sealed == null) {
+                    batch.draining = false;
+                    return batch.pending == null ? null : batch;
+                }
+                next[0] = frame(sealed);
+                return batch;
+            });
+            if (next[0] == null) {
+                return;
+            }
+            try {
+                send(roomId, next[0]);
+            } catch (RuntimeException e) {
+                // 한 묶음이 실패해도 뒤의 묶음은 계속 (draining이 풀리지 않으면 방 전체가 멈춤)
+                log.warn("room broadcast failed: roomId={}", roomId, e);
+            }
+        }
+    }
+
+    /** 한 건이면 기존과 같은 단일 객체, 여러 건이면 배열 (봉인된 묶음은 더 바뀌지 않으므로 그대로) */
+    private static Object frame(List<Object> sealed) {
+        return sealed.size() == 1 ? sealed.get(0) : Collections.unmodifiableList(sealed);
+    }
+
+    private void send(String roomId, Object payload) {
+        String destination = ROOM_TOPIC_PREFIX + roomId;
+        byte[] json = encoder.encode(payload);
+        deliver(destination, roomId, json, sendersOf(payload));
+        if (clusterBus != null) {
+            clusterBus.publish(destination, json);
+        }
+    }
+
+    /** 다른 노드에서 온 프레임: 방 프레임이면 이 노드의 순번을 매겨서 (안의 메시지는 알 수 없으므로 senders=null) */
+    private void deliverFromCluster(String destination, byte[] json) {
+        String roomId = destination.startsWith(ROOM_TOPIC_PREFIX) ? destination.substring(ROOM_TOPIC_PREFIX.length()) : null;
+        if (roomId == null || roomId.indexOf('/') >= 0) {
+            broker.send(destination, encoder.toMessage(json));
+            return;
+        }
+        deliver(destination, roomId, json, null);
+    }
+
+    private void deliver(String destination, String roomId, byte[] json, String[] senders) {
+        if (!eventLog.isEnabled()) {
+            broker.send(destination, encoder.toMessage(json));
+            return;
+        }
+        eventLog.append(roomId, json, senders, seq -> broker.send(destination, encoder.toMessage(json, seq)));
+    }
+
+    /** 프레임 안의 메시지(send/edit) 보낸 사람들 (이어받을 때 읽음 처리가 필요한지 판단) */
+    private static String[] sendersOf(Object payload) {
+        if (payload instanceof ChatMessageResponse message) {
+            return new String[]{message.getSenderUid()};
+        }
+        if (payload instanceof List<?> events) {
+            return events.stream()
+                    .filter(ChatMessageResponse.class::isInstance)
+                    .map(event -> ((ChatMessageResponse) event).getSenderUid())
+                    .toArray(String[]::new);
+        }
+        return NO_SENDERS;
+    }
+
+    private static final class RoomBatch {
+        /** 모으는 중인 묶음 (null이면 flush 예약 없음) */
+        List<Object> pending;
+        /** 모으는 중인 묶음의 번호 (예약된 flush가 자기 묶음인지 확인) */
+        long generation;
+        /** 봉인되어 전송을 기다리는 묶음들 */
+        final ArrayDeque<List<Object>> ready = new ArrayDeque<>();
+        /** 어떤 스레드가 ready를 보내는 중 */
+        boolean draining;
+
+        /** 모으던 묶음을 ready로 넘김. 호출한 쪽이 drain해야 하면 true */
+        boolean seal() {
+            ready.add(pending);
+            pending = null;
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+    }
+
+    /** 종료 시 남은 묶음을 모두 내보냄 */
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            pendingByRoom.keySet().forEach(roomId -> flush(roomId, ANY_GENERATION));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.BrokerProperties;
+import likelion13th.chat.config.ResumeProperties;
+import likelion13th.chat.dto.event.ResumeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * 방 브로드캐스트 프레임의 방별 순번(seq)과 최근 프레임 로그 (재접속 이어받기용)
+ * - RoomBroadcaster가 /topic/rooms/{roomId}로 보내는 프레임(send/edit/delete/read/delivered)마다 seq를 매기고,
+ *   같은 방 잠금 안에서 로컬 브로커로 전송 → 구독자는 seq 순서대로 받음 (STOMP 헤더 seq)
+ * - 방마다 최근 framesPerRoom개의 JSON 바이트를 링 버퍼로 보관, 방 단위 LRU + 전체 메모리 상한
+ * - since(): 클라이언트가 마지막으로 받은 seq 이후 프레임만 돌려줌
+ *   epoch가 다르거나(다른 노드/재시작), 이미 밀려난 구간이면 resumed=false → 클라이언트가 내역을 다시 불러옴
+ * - 제거된 방의 로그를 다시 만들면 그동안 쓴 가장 큰 seq 다음부터 매김 (방별 seq는 줄어들지 않음)
+ * 순번은 이 노드의 로컬 브로커로 들어가는 프레임 기준 (fanout은 다른 노드에서 온 프레임도 여기서 매김)
+ * relay 모드는 외부 브로커가 구독자에게 직접 보내므로 끔
+ */
+@Slf4j
+@Component
+public class RoomEventLog {
+
+    /** 방 프레임에 붙는 STOMP 헤더 */
+    public static final String SEQ_HEADER = "seq";
+
+    /** 프레임 한 건의 고정 비용 추정치 (배열/엔트리 헤더 등) */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final boolean enabled;
+    private final String epoch = UUID.randomUUID().toString();
+    private final int framesPerRoom;
+    private final int maxRooms;
+    private final long maxBytes;
+
+    /** accessOrder=true → 가장 앞의 방이 LRU (이 맵으로 동기화, 방 잠금을 잡은 채로 이 맵을 잠그지 않음) */
+    private final LinkedHashMap<String, RoomLog> logs = new LinkedHashMap<>(16, 0.75f, true);
+    /** 제거된 방 로그들이 매긴 가장 큰 seq (logs로 동기화) */
+    private long evictedHighWater;
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder replayedFrames = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RoomEventLog(ResumeProperties props, BrokerProperties brokerProperties) {
+        this.enabled = props.isEnabled() && brokerProperties.getMode() != BrokerProperties.Mode.RELAY;
+        this.framesPerRoom = props.getFramesPerRoom();
+        this.maxRooms = props.getMaxRooms();
+        this.maxBytes = props.getMaxSize().toBytes();
+        if (props.isEnabled() && !enabled) {
+            log.info("broker.mode={}: 외부 브로커가 구독자에게 직접 전달하므로 방 순번/이어받기를 끔", brokerProperties.getMode());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 방 프레임에 다음 seq를 매겨 보관하고, 같은 방 잠금 안에서 send(seq)로 실제 전송
+     * senders: 프레임에 들어 있는 메시지(send/edit)의 보낸 사람들, 알 수 없으면(다른 노드에서 온 프레임) null
+     */
+    public void append(String roomId, byte[] json, String[] senders, LongConsumer send) {
+        while (true) {
+            RoomLog room = roomLog(roomId);
+            synchronized (room) {
+                if (room.evicted) {
+                    // 방금 제거된 로그: 새 로그에서 다시 (seq는 제거된 로그의 마지막 값 다음부터)
+                    continue;
+                }
+                long seq = room.append(json, senders, totalBytes);
+                send.accept(seq);
+            }
+            break;
+        }
+        if (totalBytes.get() > maxBytes) {
+            synchronized (logs) {
+                evictIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * readerUid가 seq(epoch 기준)까지 받은 상태에서 놓친 프레임
+     * 응답의 seq는 지금 방 순번 (resumed=false일 때 클라이언트는 여기서부터 이어 받고 내역을 다시 불러옴)
+     */
+    public Replay since(String roomId, String epoch, Long seq, String readerUid) {
+        if (!enabled) {
+            resets.increment();
+            return new Replay(ResumeResponse.builder().resumed(false).seq(0).build(), true);
+        }
+        RoomLog room = roomLog(roomId);
+        List<RoomLog.Entry> missed;
+        long head;
+        synchronized (room) {
+            head = room.seq;
+            missed = seq != null && this.epoch.equals(epoch) && seq >= room.floor && seq <= head
+                    ? room.after(seq) : null;
+        }
+        if (missed == null) {
+            resets.increment();
+            return new Replay(ResumeResponse.builder().resumed(false).epoch(this.epoch).seq(head).build(), true);
+        }
+
+        List<ResumeResponse.Frame> frames = new ArrayList<>(missed.size());
+        boolean unread = false;
+        for (RoomLog.Entry entry : missed) {
+            frames.add(new ResumeResponse.Frame(entry.seq(), new String(entry.json(), StandardCharsets.UTF_8)));
+            unread |= entry.hasMessageFromOtherThan(readerUid);
+        }
+        resumed.increment();
+        replayedFrames.add(frames.size());
+        return new Replay(ResumeResponse.builder().resumed(true).epoch(this.epoch).seq(head).frames(frames).build(),
+                unread);
+    }
+
+    private RoomLog roomLog(String roomId) {
+        synchronized (logs) {
+            RoomLog room = logs.get(roomId);
+            if (room == null) {
+                room = new RoomLog(framesPerRoom, evictedHighWater);
+                logs.put(roomId, room);
+                evictIfNeeded();
+            }
+            return room;
+        }
+    }
+
+    /** logs 잠금 안에서 호출 */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, RoomLog>> it = logs.entrySet().iterator();
+        while ((logs.size() > maxRooms || totalBytes.get() > maxBytes) && logs.size() > 1 && it.hasNext()) {
+            RoomLog room = it.next().getValue();
+            synchronized (room) {
+                room.evicted = true;
+                evictedHighWater = Math.max(evictedHighWater, room.seq);
+                totalBytes.addAndGet(-room.bytes);
+            }
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * resume 결과
+     * unreadMessages: 놓친 프레임 중 다른 사람이 보낸 메시지가 있음 (읽음 처리를 다시 해야 함)
+     */
+    public record Replay(ResumeResponse response, boolean unreadMessages) {
+    }
+
+    // ===== 모니터링 =====
+
+    public long getResumed() {
+        return resumed.sum();
+    }
+
+    public long getResets() {
+        return resets.sum();
+    }
+
+    public long getReplayedFrames() {
+        return replayedFrames.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getRoomCount() {
+        synchronized (logs) {
+            return logs.size();
+        }
+    }
+
+    public long getEstimatedBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * 한 방의 링 버퍼: ring[(start + i) % capacity]가 i번째로 오래된 프레임
+     * floor 이후의 seq는 빠짐없이 들어 있음 (가장 오래된 프레임을 덮어쓰면 floor가 그 seq로 올라감)
+     */
+    static final class RoomLog {
+
+        private final Entry[] ring;
+        private int start;
+        private int size;
+        long seq;
+        long floor;
+        long bytes;
+        boolean evicted;
+
+        RoomLog(int capacity, long base) {
+            this.ring = new Entry[capacity];
+            this.seq = base;
+            this.floor = base;
+        }
+
+        long append(byte[] json, String[] senders, AtomicLong totalBytes) {
+            Entry entry = new Entry(++seq, json, senders);
+            long added = json.length + ENTRY_OVERHEAD_BYTES;
+            if (size == ring.length) {
+                Entry oldest = ring[start];
+                floor = oldest.seq();
+                added -= oldest.json().length + ENTRY_OVERHEAD_BYTES;
+                ring[start] = entry;
+                start = (start + 1) % ring.length;
+            } else {
+                ring[(start + size) % ring.length] = entry;
+                size++;
+            }
+            bytes += added;
+            totalBytes.addAndGet(added);
+            return entry.seq();
+        }
+
+        /** after보다 큰 seq의 프레임 (오름차순) */
+        List<Entry> after(long after) {
+            List<Entry> result = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Entry entry = ring[(start + i) % ring.length];
+                if (entry.seq() > after) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        record Entry(long seq, byte[] json, String[] senders) {
+
+            boolean hasMessageFromOtherThan(String uid) {
+                if (senders == null) {
+                    return true;
+                }
+                for (String sender : senders) {
+                    if (!sender.equals(uid)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+}
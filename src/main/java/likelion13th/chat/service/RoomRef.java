@@ -0,0 +1,36 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.domain.ChatRoom;
+
+/**
+ * 메모리에 올라간 방 정보 (RoomRegistry가 방마다 하나만 만들어 공유)
+ * - no: 숫자 방 ID (DB 인덱스/접속 여부 키)
+ * - key: 정렬된 "A__B" 문자열 (외부 API, STOMP 목적지)
+ * - 두 참여자의 uid와 숫자 사용자 ID (users.id)
+ */
+public record RoomRef(long no, String key,
+                      String firstUid, long firstUserNo,
+                      String secondUid, long secondUserNo) {
+
+    static RoomRef of(ChatRoom room) {
+        return new RoomRef(room.getId(), room.getRoomKey(),
+                room.getFirstUid(), room.getFirstUserId(),
+                room.getSecondUid(), room.getSecondUserId());
+    }
+
+    /** 참여자의 숫자 ID (참여자가 아니면 예외) */
+    public long userNoOf(String uid) {
+        if (firstUid.equals(uid)) {
+            return firstUserNo;
+        }
+        if (secondUid.equals(uid)) {
+            return secondUserNo;
+        }
+        throw new IllegalArgumentException("방 참여자가 아닙니다: " + uid);
+    }
+
+    /** 상대방 숫자 ID */
+    public long otherUserNo(long userNo) {
+        return userNo == firstUserNo ? secondUserNo : firstUserNo;
+    }
+}
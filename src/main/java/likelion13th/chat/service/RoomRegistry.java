@@ -0,0 +1,126 @@
+package likelion13th.chat.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import likelion13th.chat.domain.ChatRoom;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.repository.ChatRoomRepository;
+import likelion13th.chat.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * roomId 문자열("A__B") ↔ 숫자 방 ID(RoomRef) 변환
+ * - 외부 API/STOMP는 여전히 문자열 roomId를 받고, 내부 핫패스(접속 여부, 수신자 판단, DB 인덱스)는 숫자 ID를 씀
+ * - 두 uid를 정렬해서 키를 만들기 때문에 A__B와 B__A는 같은 방
+ * - 한 번 조회한 방은 메모리에 남아 이후에는 split/DB 조회 없이 맵 조회 한 번
+ * - 처음 보는 방은 chat_room에 등록 (동시에 여러 곳에서 등록해도 유니크 제약으로 하나만 남음)
+ */
+@Component
+public class RoomRegistry {
+
+    public static final String SEPARATOR = "__";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate requiresNew;
+
+    /** 요청으로 들어온 roomId 문자열(정렬/역순 모두) → RoomRef */
+    private final Map<String, RoomRef> byKey = new ConcurrentHashMap<>();
+    /** 숫자 방 ID → RoomRef (메시지 행의 room_no를 roomId 문자열로 되돌릴 때), byNo 자체로 동기화 */
+    private final Long2ObjectOpenHashMap<RoomRef> byNo = new Long2ObjectOpenHashMap<>();
+
+    public RoomRegistry(ChatRoomRepository chatRoomRepository,
+                        UserRepository userRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.userRepository = userRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** roomId 문자열로 방 조회 (없으면 등록) */
+    public RoomRef resolve(String roomId) {
+        RoomRef ref = byKey.get(roomId);
+        if (ref != null) {
+            return ref;
+        }
+        String[] uids = roomId.split(SEPARATOR, -1);
+        if (uids.length != 2 || uids[0].isEmpty() || uids[1].isEmpty())
+            throw new IllegalArgumentException("invalid room format: " + roomId);
+
+        String key = canonicalKey(uids[0], uids[1]);
+        ref = byKey.get(key);
+        if (ref == null) {
+            ref = register(chatRoomRepository.findByRoomKey(key).orElseGet(() -> create(key)));
+        }
+        byKey.putIfAbsent(roomId, ref);
+        return ref;
+    }
+
+    /** 이미 등록된 방만 조회 (DB 조회/등록 없음: I/O 스레드에서 client가 보낸 roomId를 볼 때) */
+    public Optional<RoomRef> find(String roomId) {
+        return Optional.ofNullable(byKey.get(roomId));
+    }
+
+    /** 숫자 방 ID로 방 조회 */
+    public RoomRef byNo(long roomNo) {
+        RoomRef ref;
+        synchronized (byNo) {
+            ref = byNo.get(roomNo);
+        }
+        if (ref != null) {
+            return ref;
+        }
+        return register(chatRoomRepository.findById(roomNo)
+                .orElseThrow(() -> new IllegalArgumentException("room not found: " + roomNo)));
+    }
+
+    /** 정렬된 "A__B" (uid 문자열 비교 순서, index.html의 [a, b].sort()와 같은 순서) */
+    public static String canonicalKey(String uidA, String uidB) {
+        return uidA.compareTo(uidB) <= 0 ? uidA + SEPARATOR + uidB : uidB + SEPARATOR + uidA;
+    }
+
+    private RoomRef register(ChatRoom room) {
+        RoomRef ref = RoomRef.of(room);
+        RoomRef existing = byKey.putIfAbsent(ref.key(), ref);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (byNo) {
+            byNo.put(ref.no(), ref);
+        }
+        return ref;
+    }
+
+    /** 호출한 쪽 트랜잭션과 분리해서 등록 (유니크 충돌이 나도 바깥 트랜잭션은 롤백되지 않음) */
+    private ChatRoom create(String key) {
+        String[] uids = key.split(SEPARATOR);
+        Map<String, Long> userIds = userRepository.findByUidIn(List.of(uids[0], uids[1])).stream()
+                .collect(Collectors.toMap(User::getUid, User::getId, (a, b) -> a));
+        for (String uid : uids) {
+            if (!userIds.containsKey(uid))
+                throw new IllegalArgumentException("user not found: " + uid);
+        }
+        try {
+            return requiresNew.execute(status -> chatRoomRepository.save(ChatRoom.builder()
+                    .roomKey(key)
+                    .firstUid(uids[0])
+                    .firstUserId(userIds.get(uids[0]))
+                    .secondUid(uids[1])
+                    .secondUserId(userIds.get(uids[1]))
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // 다른 요청(또는 다른 노드)이 먼저 등록한 경우
+            return chatRoomRepository.findByRoomKey(key).orElseThrow(() -> e);
+        }
+    }
+}
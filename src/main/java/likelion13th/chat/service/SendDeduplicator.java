@@ -0,0 +1,132 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.DedupProperties;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * (방, 보낸 사람, clientMessageId) → 처음 저장된 응답, window 동안만
+ * - 고정 크기 배열 + 키 해시로 정한 두 칸 중 하나 (잠금 없음, 칸 단위 CAS)
+ * - 자리가 없으면 두 칸 중 먼저 만료될 항목을 덮어씀 → 메모리는 capacity로 고정
+ * 놓친 중복(덮어써진 항목, 다른 노드, 재시작)은 DB 유니크 제약에서 걸러지고 countDatabaseHit()으로 집계
+ */
+@Component
+public class SendDeduplicator {
+
+    private static final int WAYS = 2;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+
+    public SendDeduplicator(DedupProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.windowNanos = properties.getWindow().toNanos();
+        int capacity = Integer.highestOneBit(Math.max(WAYS, properties.getCapacity() - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    private record Entry(long roomNo, String senderUid, String clientMessageId,
+                         ChatMessageResponse response, long expiresAt) {
+
+        boolean matches(long roomNo, String senderUid, String clientMessageId) {
+            return this.roomNo == roomNo && this.clientMessageId.equals(clientMessageId)
+                    && this.senderUid.equals(senderUid);
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    /** window 안에 같은 요청이 저장된 적 있으면 그 응답 */
+    public Optional<ChatMessageResponse> find(long roomNo, String senderUid, String clientMessageId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        int base = indexOf(roomNo, senderUid, clientMessageId);
+        for (int probe = 0; probe < WAYS; probe++) {
+            Entry entry = slots.get((base + probe) & mask);
+            if (entry != null && !entry.isExpired(now) && entry.matches(roomNo, senderUid, clientMessageId)) {
+                cacheHits.increment();
+                return Optional.of(entry.response());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void remember(long roomNo, String senderUid, String clientMessageId, ChatMessageResponse response) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        Entry fresh = new Entry(roomNo, senderUid, clientMessageId, response, now + windowNanos);
+        int base = indexOf(roomNo, senderUid, clientMessageId);
+        int victim = base & mask;
+        long victimExpiry = Long.MAX_VALUE;
+        for (int probe = 0; probe < WAYS; probe++) {
+            int i = (base + probe) & mask;
+            Entry current = slots.get(i);
+            if (current == null || current.isExpired(now) || current.matches(roomNo, senderUid, clientMessageId)) {
+                if (slots.compareAndSet(i, current, fresh)) {
+                    return;
+                }
+                continue;
+            }
+            if (current.expiresAt() - now < victimExpiry) {
+                victimExpiry = current.expiresAt() - now;
+                victim = i;
+            }
+        }
+        // 빈 칸이 없으면 먼저 만료될 항목 자리에 (동시에 다른 스레드가 써도 둘 중 하나만 남을 뿐 틀린 응답은 없음)
+        slots.set(victim, fresh);
+    }
+
+    /** 저장되지 못한 메시지(messageId)를 응답으로 기억하는 항목만 지움 (그 사이 다른 응답으로 바뀌었으면 그대로) */
+    public void forget(long roomNo, String senderUid, String clientMessageId, long messageId) {
+        if (!enabled) {
+            return;
+        }
+        int base = indexOf(roomNo, senderUid, clientMessageId);
+        for (int probe = 0; probe < WAYS; probe++) {
+            int i = (base + probe) & mask;
+            Entry entry = slots.get(i);
+            if (entry != null && entry.matches(roomNo, senderUid, clientMessageId)
+                    && entry.response().getId() == messageId) {
+                slots.compareAndSet(i, entry, null);
+            }
+        }
+    }
+
+    /** 캐시를 지나쳤지만 DB 유니크 제약에서 걸린 중복 */
+    public void countDatabaseHit() {
+        databaseHits.increment();
+    }
+
+    private static int indexOf(long roomNo, String senderUid, String clientMessageId) {
+        int h = Long.hashCode(roomNo);
+        h = 31 * h + senderUid.hashCode();
+        h = 31 * h + clientMessageId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // ===== 지표 =====
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getDatabaseHits() {
+        return databaseHits.sum();
+    }
+}
@@ -0,0 +1,7 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.dto.event.ChatMessageResponse;
+
+/** send 결과: duplicate면 이미 저장/브로드캐스트된 메시지의 원래 응답 (다시 브로드캐스트하지 않음) */
+public record SendResult(ChatMessageResponse message, boolean duplicate) {
+}
@@ -0,0 +1,53 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
+import likelion13th.chat.repository.ChatMessageRepository;
+import likelion13th.chat.storage.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 기본 모드: 메시지마다 save() 한 번 = INSERT 한 번 + 커밋 한 번
+ * 샤드가 여러 개면 샤드별 IDENTITY가 겹치지 않도록 ID를 MessageIdAllocator에서 받아 방 샤드에 INSERT
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "chat.persistence", name = "mode", havingValue = "sync", matchIfMissing = true)
+public class SyncChatMessageWriter implements ChatMessageWriter {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageJdbcRepository jdbcRepository;
+    private final MessageIdAllocator idAllocator;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public ChatMessage write(ChatMessage message) {
+        if (!shardRouter.isSharded()) {
+            return chatMessageRepository.save(message);
+        }
+        Instant now = Instant.now();
+        ChatMessage assigned = message.toBuilder()
+                .id(idAllocator.nextId())
+                .createdAt(now)
+                .updatedAt(now)
+                .version(0L)
+                .build();
+        shardRouter.runInRoom(assigned.getRoomNo(), () -> jdbcRepository.insertAll(List.of(assigned)));
+        return assigned;
+    }
+
+    @Override
+    public void awaitFlushed() {
+        // 이미 커밋된 상태이므로 기다릴 것이 없음
+    }
+
+    @Override
+    public void awaitFlushed(long messageId) {
+        // 이미 커밋된 상태이므로 기다릴 것이 없음
+    }
+}
@@ -0,0 +1,7 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.domain.ChatMessage;
+
+/** write-behind가 저장하지 못하고 버린 메시지: 이미 브로드캐스트/캐시/색인됐으므로 삭제로 되돌려야 함 */
+public record UnsavedMessageEvent(ChatMessage message) {
+}
@@ -0,0 +1,52 @@
+package likelion13th.chat.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import likelion13th.chat.domain.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * User 엔티티 변경 시 UserDirectory 캐시를 맞춰주는 JPA 엔티티 리스너
+ * (Spring Boot가 Hibernate에 SpringBeanContainer를 설정하므로 빈 주입이 가능)
+ * 리스너는 EntityManagerFactory 생성 중에 만들어지므로, UserRepository → EMF 순환을 피하려고 지연 조회
+ * Post* 콜백은 flush 때(커밋 전) 불리므로 캐시는 커밋된 뒤에 바꿈 (롤백된 이름/삭제가 캐시에 남지 않도록)
+ * 값은 콜백 시점에 복사해 둠 (커밋 전에 엔티티가 다시 바뀌면 그 변경의 콜백이 따로 옴)
+ */
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final ObjectProvider<UserDirectory> userDirectory;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(User user) {
+        String uid = user.getUid();
+        String displayName = user.getDisplayName();
+        afterCommit(() -> userDirectory.getObject().put(uid, displayName));
+    }
+
+    @PostRemove
+    public void onRemoved(User user) {
+        String uid = user.getUid();
+        afterCommit(() -> userDirectory.getObject().evict(uid));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
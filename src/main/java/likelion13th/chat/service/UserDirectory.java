@@ -0,0 +1,141 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.UserDirectoryProperties;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * uid → displayName 메모리 캐시
+ * 메시지를 응답으로 변환할 때마다 users 테이블을 조회하지 않도록 함
+ * - 크기 제한: uid 해시로 나눈 STRIPES개 구간마다 LRU (잠금도 구간별이라 서로 다른 uid끼리는 경쟁하지 않음)
+ * - 무효화: User 엔티티 저장/수정/삭제가 커밋되면 UserChangeListener가 put/evict 호출
+ * - 버전: 변경마다 stamp를 올리고, DB 조회 결과는 조회 전에 읽은 stamp로 넣음
+ *   → 조회하는 사이에 들어온 put/evict를 옛 값으로 덮어쓰지 않음
+ * - 없는 uid도 negativeTtl 동안 캐시 (같은 uid로 반복 조회해도 DB를 다시 치지 않음)
+ * - 일괄 조회: resolveNames()는 캐시에 없는 uid들을 한 번의 IN 쿼리로 가져옴
+ */
+@Component
+public class UserDirectory {
+
+    public static final String UNKNOWN = "Unknown";
+
+    private static final int STRIPES = 16;
+
+    private final UserRepository userRepository;
+    private final long negativeTtlNanos;
+    private final List<Map<String, Entry>> stripes = new ArrayList<>(STRIPES);
+    private final AtomicLong stamps = new AtomicLong();
+
+    /** name == null: 없는 사용자 (expiresAt까지만 유효) */
+    private record Entry(String name, long stamp, long expiresAt) {
+    }
+
+    public UserDirectory(UserRepository userRepository, UserDirectoryProperties properties) {
+        this.userRepository = userRepository;
+        this.negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        int perStripe = Math.max(1, properties.getMaxSize() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            // accessOrder=true → get()할 때마다 뒤로 이동, 가장 앞의 항목이 LRU
+            stripes.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > perStripe;
+                }
+            });
+        }
+    }
+
+    /** 한 명의 이름 조회 (캐시에 없으면 DB 한 번 조회 후 캐시) */
+    public Optional<String> findDisplayName(String uid) {
+        Entry cached = get(uid);
+        if (cached != null) {
+            return Optional.ofNullable(cached.name());
+        }
+        long stamp = stamps.get();
+        Optional<String> name = userRepository.findByUid(uid).map(User::getDisplayName);
+        load(uid, name.orElse(null), stamp);
+        return name;
+    }
+
+    /** 이름이 없으면 "Unknown" */
+    public String displayNameOf(String uid) {
+        return findDisplayName(uid).orElse(UNKNOWN);
+    }
+
+    /** 여러 uid를 한 번에 변환 (없는 uid는 결과에 없음). 캐시 미스가 있어도 쿼리는 최대 한 번 */
+    public Map<String, String> resolveNames(Collection<String> uids) {
+        Map<String, String> result = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (String uid : uids) {
+            Entry cached = get(uid);
+            if (cached == null) {
+                misses.add(uid);
+            } else if (cached.name() != null) {
+                result.put(uid, cached.name());
+            }
+        }
+        if (!misses.isEmpty()) {
+            long stamp = stamps.get();
+            for (User u : userRepository.findByUidIn(misses)) {
+                load(u.getUid(), u.getDisplayName(), stamp);
+                result.put(u.getUid(), u.getDisplayName());
+                misses.remove(u.getUid());
+            }
+            misses.forEach(uid -> load(uid, null, stamp));
+        }
+        return result;
+    }
+
+    public void put(String uid, String displayName) {
+        store(uid, new Entry(displayName, stamps.incrementAndGet(), Long.MAX_VALUE));
+    }
+
+    /** 삭제된 사용자: 지우는 대신 "없음"으로 덮어씀 (진행 중인 조회가 옛 이름을 다시 넣지 못하게) */
+    public void evict(String uid) {
+        store(uid, new Entry(null, stamps.incrementAndGet(), System.nanoTime() + negativeTtlNanos));
+    }
+
+    /** DB 조회 결과: stamp 이후에 들어온 변경이 있으면 버림 */
+    private void load(String uid, String name, long stamp) {
+        long expiresAt = name != null ? Long.MAX_VALUE : System.nanoTime() + negativeTtlNanos;
+        Map<String, Entry> stripe = stripeOf(uid);
+        synchronized (stripe) {
+            Entry current = stripe.get(uid);
+            if (current == null || current.stamp() < stamp || expired(current)) {
+                stripe.put(uid, new Entry(name, stamp, expiresAt));
+            }
+        }
+    }
+
+    private void store(String uid, Entry entry) {
+        Map<String, Entry> stripe = stripeOf(uid);
+        synchronized (stripe) {
+            stripe.put(uid, entry);
+        }
+    }
+
+    private Entry get(String uid) {
+        Map<String, Entry> stripe = stripeOf(uid);
+        synchronized (stripe) {
+            Entry entry = stripe.get(uid);
+            if (entry != null && expired(entry)) {
+                stripe.remove(uid);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private static boolean expired(Entry entry) {
+        return entry.expiresAt() != Long.MAX_VALUE && System.nanoTime() - entry.expiresAt() > 0;
+    }
+
+    private Map<String, Entry> stripeOf(String uid) {
+        int h = uid.hashCode();
+        return stripes.get((h ^ (h >>> 16)) & (STRIPES - 1));
+    }
+}
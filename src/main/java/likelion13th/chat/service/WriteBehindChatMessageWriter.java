@@ -0,0 +1,409 @@
+package likelion13th.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import likelion13th.chat.config.PersistenceProperties;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
+import likelion13th.chat.storage.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * write-behind 모드: send 요청 스레드는 ID 할당 + 큐 적재만 하고 바로 반환
+ * 전용 flusher 스레드가 큐에서 최대 maxBatchSize 개(또는 maxLinger 동안 모인 만큼)를 꺼내
+ * 한 트랜잭션의 JDBC batch INSERT로 반영 (샤드가 여러 개면 방 샤드별로 나눠서)
+ * 종료 시(stop)에는 큐에 남은 메시지를 모두 저장한 뒤 내려감
+ * journal.enabled면 반환 전에 로컬 저널(WriteBehindJournal)에도 기록하고, 시작 시 저널에 남은 메시지 중
+ * DB에 없는 것을 먼저 저장한 뒤 flusher를 띄움 (프로세스가 죽어도 이미 브로드캐스트한 메시지를 잃지 않음)
+ * 메시지마다 순번(seq)을 매기고 "seq 이하는 모두 반영됨" 워터마크로 awaitFlushed를 판단
+ * DB 장애 중 무한 재시도는 flusher 스레드만 함: awaitFlushed를 부른 요청 스레드는 flush-timeout까지만 기다림
+ * clientMessageId가 있으면 큐에 넣기 전에 대기 중인 메시지와 DB를 확인해서 재전송이면 DuplicateKeyException
+ * (INSERT에서야 걸리면 이미 브로드캐스트된 메시지가 조용히 사라지므로)
+ * 그래도 저장하지 못한 메시지(다른 노드와 경합한 재전송, 그 밖의 무결성 오류)는 UnsavedMessageEvent로 되돌림
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "chat.persistence", name = "mode", havingValue = "write-behind")
+public class WriteBehindChatMessageWriter implements ChatMessageWriter, SmartLifecycle {
+
+    private final MessageIdAllocator idAllocator;
+    private final ChatMessageJdbcRepository jdbcRepository;
+    private final ShardRouter shardRouter;
+    private final PersistenceProperties.WriteBehind props;
+    private final BlockingQueue<Pending> queue;
+    /** null이면 저널 없이 메모리에만 */
+    private final WriteBehindJournal journal;
+    private final ApplicationEventPublisher eventPublisher;
+    /** 큐에 있거나 저장 중인 메시지의 (방, 보낸 사람, clientMessageId) → seq (저장이 끝나면 지움) */
+    private final Map<ClientKey, Long> pendingClientIds = new ConcurrentHashMap<>();
+    /** 큐에 있거나 저장 중인 메시지 ID → seq (awaitFlushed(messageId)가 그 메시지만 기다리도록) */
+    private final Map<Long, Long> pendingIds = new ConcurrentHashMap<>();
+
+    /** 마지막으로 매긴 seq (inFlight에 넣은 뒤에 올림) */
+    private volatile long lastSeq;
+    private final Object seqLock = new Object();
+    /** 순번을 받았지만 아직 INSERT가 끝나지 않은 seq */
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private final Object flushedMonitor = new Object();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindChatMessageWriter(MessageIdAllocator idAllocator,
+                                        ChatMessageJdbcRepository jdbcRepository,
+                                        ShardRouter shardRouter,
+                                        PersistenceProperties properties,
+                                        ObjectMapper objectMapper,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.idAllocator = idAllocator;
+        this.jdbcRepository = jdbcRepository;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.props = properties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(props.getQueueCapacity());
+        if (props.getJournal().isEnabled()) {
+            this.journal = new WriteBehindJournal(props.getJournal(), objectMapper);
+        } else {
+            this.journal = null;
+            log.warn("write-behind 저널 꺼짐: 프로세스가 비정상 종료되면 DB에 반영되지 않은 메시지는 유실됩니다.");
+        }
+    }
+
+    /** 큐 한 칸: 메시지와 그 순번 */
+    private record Pending(long seq, ChatMessage message) {
+    }
+
+    private record ClientKey(long roomNo, String senderUid, String clientMessageId) {
+
+        static ClientKey of(ChatMessage message) {
+            return new ClientKey(message.getRoomNo(), message.getSenderUid(), message.getClientMessageId());
+        }
+    }
+
+    @Override
+    public ChatMessage write(ChatMessage message) {
+        Instant now = Instant.now();
+        ChatMessage assigned = message.toBuilder()
+                .id(idAllocator.nextId())
+                .createdAt(now)
+                .updatedAt(now)
+                .version(0L)
+                .build();
+
+        Pending entry = new Pending(nextSeq(), assigned);
+        pendingIds.put(assigned.getId(), entry.seq());
+        if (assigned.getClientMessageId() != null) {
+            reserveClientId(entry);
+        }
+        if (!enqueue(entry)) {
+            switch (props.getOverflow()) {
+                case CALLER_RUNS -> {
+                    // 호출한 스레드에서 바로 저장 (커밋되므로 저널에 남길 필요 없음)
+                    // 실패하면 아직 브로드캐스트 전이므로 되돌릴 것 없이 호출한 쪽으로 예외
+                    try {
+                        shardRouter.onShard(shardRouter.shardOf(assigned.getRoomNo()), () -> {
+                            jdbcRepository.insertAll(List.of(assigned));
+                            return null;
+                        });
+                    } finally {
+                        markFlushed(List.of(entry));
+                    }
+                    return assigned;
+                }
+                case BLOCK, REJECT -> {
+                    markFlushed(List.of(entry));
+                    throw new IllegalStateException("메시지 저장 대기열이 가득 찼습니다.");
+                }
+            }
+        }
+        if (journal != null) {
+            // 큐에 넣은 뒤에 기록: 거절된 메시지가 재시작 후 되살아나지 않도록
+            // (그 사이 flusher가 먼저 저장해도 복구 시 DB에 있는 ID는 건너뜀)
+            journal.append(entry.seq(), assigned);
+        }
+        return assigned;
+    }
+
+    /**
+     * 같은 clientMessageId가 큐에 있거나 이미 저장됐으면 거절 (ChatService가 원래 메시지를 찾아 돌려줌)
+     * 먼저 자리를 잡고 DB를 보므로 같은 노드의 동시 재전송도 하나만 통과
+     */
+    private void reserveClientId(Pending entry) {
+        ChatMessage message = entry.message();
+        ClientKey key = ClientKey.of(message);
+        boolean duplicate = pendingClientIds.putIfAbsent(key, entry.seq()) != null;
+        if (!duplicate) {
+            try {
+                duplicate = shardRouter.inRoom(key.roomNo(), () -> jdbcRepository.existsByClientMessageId(
+                        key.roomNo(), key.senderUid(), key.clientMessageId()));
+            } catch (RuntimeException e) {
+                markFlushed(List.of(entry));
+                throw e;
+            }
+        }
+        if (duplicate) {
+            markFlushed(List.of(entry));
+            throw new DuplicateKeyException("이미 저장(또는 저장 예약)된 메시지입니다: " + ChatMessage.CLIENT_ID_CONSTRAINT
+                    + " (roomNo=" + key.roomNo() + ", clientMessageId=" + key.clientMessageId() + ")");
+        }
+    }
+
+    private long nextSeq() {
+        synchronized (seqLock) {
+            long seq = lastSeq + 1;
+            inFlight.add(seq);
+            lastSeq = seq;
+            return seq;
+        }
+    }
+
+    /** 이 값 이하의 seq는 모두 DB에 반영됨 (lastSeq를 먼저 읽어야 그 사이 매긴 seq를 놓치지 않음) */
+    private long flushedThrough() {
+        long last = lastSeq;
+        Iterator<Long> oldest = inFlight.iterator();
+        return oldest.hasNext() ? Math.min(last, oldest.next() - 1) : last;
+    }
+
+    private boolean enqueue(Pending message) {
+        if (props.getOverflow() != PersistenceProperties.Overflow.BLOCK) {
+            return queue.offer(message);
+        }
+        try {
+            return queue.offer(message, props.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 호출 시점까지 write()된 메시지만 기다림 (그 뒤에 계속 들어오는 메시지 때문에 늘어지지 않음)
+     * 저장은 flusher에 맡기고 워터마크만 기다림: DB 장애 중에도 flush-timeout 뒤에는 돌아옴
+     */
+    @Override
+    public void awaitFlushed() {
+        long target = lastSeq;
+        awaitUntil(() -> flushedThrough() >= target, "seq=" + target);
+    }
+
+    /** 그 메시지가 아직 큐에 있거나 저장 중일 때만 그 메시지의 저장을 기다림 (다른 방/메시지는 기다리지 않음) */
+    @Override
+    public void awaitFlushed(long messageId) {
+        Long seq = pendingIds.get(messageId);
+        if (seq == null) {
+            return;
+        }
+        awaitUntil(() -> !inFlight.contains(seq), "id=" + messageId);
+    }
+
+    private void awaitUntil(BooleanSupplier flushed, String target) {
+        if (flushed.getAsBoolean()) {
+            return;
+        }
+        long deadline = System.nanoTime() + props.getFlushTimeout().toNanos();
+        synchronized (flushedMonitor) {
+            while (!flushed.getAsBoolean()) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    log.warn("write-behind flush 대기 시간 초과 ({}, flushed={})", target, flushedThrough());
+                    return;
+                }
+                try {
+                    flushedMonitor.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(props.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + props.getMaxLinger().toNanos();
+                while (batch.size() < props.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stop()에서 깨운 경우: 모아둔 배치를 저장하고 루프 조건에서 남은 큐를 계속 비움
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        if (!shardRouter.isSharded()) {
+            flushShard(0, batch);
+            return;
+        }
+        Map<Integer, List<Pending>> byShard = batch.stream()
+                .collect(Collectors.groupingBy(p -> shardRouter.shardOf(p.message().getRoomNo())));
+        byShard.forEach(this::flushShard);
+    }
+
+    /** 실패 시 잠깐 쉬었다가 재시도 (DB 일시 장애 동안 메시지를 버리지 않기 위함, flusher/시작 시 복구에서만 호출) */
+    private void flushShard(int shard, List<Pending> batch) {
+        List<ChatMessage> messages = batch.stream().map(Pending::message).toList();
+        long backoffMs = 50;
+        while (true) {
+            try {
+                shardRouter.onShard(shard, () -> {
+                    jdbcRepository.insertAll(messages);
+                    return null;
+                });
+                markFlushed(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() == 1) {
+                    discard(batch.get(0).message(), e);
+                    markFlushed(batch);
+                    return;
+                }
+                // 저장할 수 없는 행이 섞인 배치: 한 건씩 다시 저장 (그 행만 버림)
+                batch.forEach(message -> flushShard(shard, List.of(message)));
+                return;
+            } catch (RuntimeException e) {
+                log.error("write-behind 배치 저장 실패 (shard={}, size={}), {}ms 후 재시도", shard, batch.size(), backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ignored) {
+                    // 종료 중이라도 이미 ID를 나눠준 메시지는 끝까지 저장 시도
+                }
+                backoffMs = Math.min(backoffMs * 2, 5_000);
+            }
+        }
+    }
+
+    /**
+     * 다시 시도해도 저장되지 않는 메시지: 이미 브로드캐스트됐으므로 삭제 이벤트로 되돌림
+     * 재전송 중복은 큐에 넣기 전에 걸러지므로 여기 오는 것은 다른 노드가 같은 재전송을 먼저 저장한 경우뿐
+     */
+    private void discard(ChatMessage message, DataIntegrityViolationException e) {
+        if (ChatMessageJdbcRepository.isClientMessageIdConflict(e)) {
+            log.warn("다른 노드가 먼저 저장한 재전송, 삭제로 되돌림 (id={}, roomNo={}, clientMessageId={})",
+                    message.getId(), message.getRoomNo(), message.getClientMessageId());
+        } else {
+            log.error("저장할 수 없는 메시지, 삭제로 되돌림 (id={}, roomNo={})", message.getId(), message.getRoomNo(), e);
+        }
+        eventPublisher.publishEvent(new UnsavedMessageEvent(message));
+    }
+
+    private void markFlushed(List<Pending> batch) {
+        for (Pending entry : batch) {
+            inFlight.remove(entry.seq());
+            pendingIds.remove(entry.message().getId(), entry.seq());
+            if (entry.message().getClientMessageId() != null) {
+                pendingClientIds.remove(ClientKey.of(entry.message()), entry.seq());
+            }
+        }
+        synchronized (flushedMonitor) {
+            flushedMonitor.notifyAll();
+        }
+        if (journal != null) {
+            journal.release(flushedThrough());
+        }
+    }
+
+    /** 이전 실행의 저널에 남은 메시지 중 DB에 없는 것만 저장 */
+    private void replayJournal() {
+        List<ChatMessage> left = journal.recover();
+        if (!left.isEmpty()) {
+            Map<Integer, List<ChatMessage>> byShard = left.stream()
+                    .collect(Collectors.groupingBy(m -> shardRouter.shardOf(m.getRoomNo())));
+            int restored = 0;
+            for (Map.Entry<Integer, List<ChatMessage>> shard : byShard.entrySet()) {
+                List<ChatMessage> messages = shard.getValue();
+                for (int from = 0; from < messages.size(); from += props.getMaxBatchSize()) {
+                    List<ChatMessage> chunk = messages.subList(from, Math.min(from + props.getMaxBatchSize(), messages.size()));
+                    List<Long> existing = shardRouter.onShard(shard.getKey(), () ->
+                            jdbcRepository.findExistingIds(chunk.stream().map(ChatMessage::getId).toList()));
+                    List<Pending> missing = chunk.stream()
+                            .filter(m -> !existing.contains(m.getId()))
+                            .map(m -> new Pending(0, m))
+                            .toList();
+                    if (!missing.isEmpty()) {
+                        flushShard(shard.getKey(), missing);
+                        restored += missing.size();
+                    }
+                }
+            }
+            log.info("write-behind 저널 복구: {}건 중 DB에 없던 {}건 저장", left.size(), restored);
+        }
+        journal.open();
+    }
+
+    // ===== SmartLifecycle: 애플리케이션 시작/종료에 맞춰 flusher 스레드 관리 =====
+
+    /** 웹 서버보다 먼저 시작하므로 저널 복구가 끝난 뒤에 새 메시지를 받음 */
+    @Override
+    public void start() {
+        if (journal != null) {
+            replayJournal();
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(props.getFlushTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("종료 시점에 저장되지 않은 메시지 {}건{}", queue.size(), journal != null ? " (다음 시작 시 저널에서 복구)" : "");
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /** 웹 서버가 요청 수신을 멈춘 뒤에 마지막으로 큐를 비우도록 늦게 정지 */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
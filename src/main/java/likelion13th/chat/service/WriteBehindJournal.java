@@ -0,0 +1,242 @@
+package likelion13th.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import likelion13th.chat.config.PersistenceProperties;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.MessageStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * write-behind 저널: 큐에 넣은 메시지를 반환 전에 로컬 파일에도 추가 (NDJSON, 한 줄에 Entry 하나)
+ * - {directory}/{번호}.journal 세그먼트에 이어 쓰고, segmentSize를 넘으면 새 세그먼트로
+ * - fsync=true면 append()가 디스크까지 내린 뒤 반환 (동시에 append한 요청들은 한 번의 force로 묶임)
+ * - release(): 들어 있는 메시지가 모두 DB에 반영된 세그먼트는 삭제, 현재 세그먼트는 비움
+ * - recover(): 시작 시 남아 있는 세그먼트의 메시지 (DB에 이미 있는 것도 섞여 있을 수 있음)
+ * 파일 순서와 seq 순서는 다를 수 있음 (세그먼트별로 가장 큰 seq만 추적)
+ */
+final class WriteBehindJournal {
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    /** 닫힌 세그먼트 (오래된 순, this로 동기화) */
+    private final Deque<Segment> closed = new ArrayDeque<>();
+    private FileChannel active;
+    private Path activePath;
+    private long activeIndex;
+    private long activeSize;
+    private long activeMaxSeq;
+    /** 지금까지 쓴 줄 수 / 디스크까지 내린 줄 수 (group commit 판단용) */
+    private long appended;
+    private long forced;
+    private final Object forceLock = new Object();
+
+    WriteBehindJournal(PersistenceProperties.Journal properties, ObjectMapper objectMapper) {
+        this.directory = properties.getDirectory();
+        this.segmentSize = properties.getSegmentSize().toBytes();
+        this.fsync = properties.isFsync();
+        this.reader = objectMapper.readerFor(Entry.class);
+        this.writer = objectMapper.writerFor(Entry.class);
+    }
+
+    record Segment(Path path, long maxSeq) {
+    }
+
+    /** 이전 실행이 남긴 메시지 (open 전에 한 번), 끝이 잘린 마지막 줄은 무시 */
+    List<ChatMessage> recover() {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (Path path : segmentFiles()) {
+            try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        messages.add(reader.<Entry>readValue(line).toEntity());
+                    } catch (IOException e) {
+                        // fsync 전에 죽어서 반만 쓰인 줄: 반환된 적 없는 메시지이므로 버림
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("write-behind 저널 읽기 실패: " + path, e);
+            }
+        }
+        return messages;
+    }
+
+    /** recover()한 메시지를 DB에 모두 반영한 뒤 호출: 이전 세그먼트를 지우고 새 세그먼트를 엶 */
+    synchronized void open() {
+        try {
+            Files.createDirectories(directory);
+            for (Path path : segmentFiles()) {
+                activeIndex = Math.max(activeIndex, indexOf(path));
+                Files.delete(path);
+            }
+            openSegment(activeIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("write-behind 저널 열기 실패: " + directory, e);
+        }
+    }
+
+    void append(long seq, ChatMessage message) {
+        ByteBuffer line;
+        try {
+            line = ByteBuffer.wrap((writer.writeValueAsString(Entry.of(seq, message)) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long target;
+        synchronized (this) {
+            try {
+                if (activeSize > 0 && activeSize + line.remaining() > segmentSize) {
+                    rotate();
+                }
+                activeSize += line.remaining();
+                while (line.hasRemaining()) {
+                    active.write(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("write-behind 저널 쓰기 실패: " + activePath, e);
+            }
+            activeMaxSeq = Math.max(activeMaxSeq, seq);
+            target = ++appended;
+        }
+        if (fsync) {
+            force(target);
+        }
+    }
+
+    /** target번째 줄까지 디스크에 내려가 있도록: 다른 스레드의 force가 이미 덮었으면 바로 반환 */
+    private void force(long target) {
+        synchronized (forceLock) {
+            if (forced >= target) {
+                return;
+            }
+            long upTo;
+            FileChannel channel;
+            synchronized (this) {
+                upTo = appended;
+                channel = active;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // 그 사이 rotate(): 닫기 전에 force 했음
+            } catch (IOException e) {
+                throw new UncheckedIOException("write-behind 저널 fsync 실패: " + activePath, e);
+            }
+            forced = upTo;
+        }
+    }
+
+    /** seq가 flushedThrough 이하인 메시지는 모두 DB에 반영됨 */
+    synchronized void release(long flushedThrough) {
+        try {
+            while (!closed.isEmpty() && closed.peekFirst().maxSeq() <= flushedThrough) {
+                Files.deleteIfExists(closed.pollFirst().path());
+            }
+            if (activeSize > 0 && activeMaxSeq <= flushedThrough && active.isOpen()) {
+                active.truncate(0);
+                activeSize = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("write-behind 저널 정리 실패: " + directory, e);
+        }
+    }
+
+    synchronized void close() {
+        if (active == null) {
+            return;
+        }
+        try {
+            active.force(false);
+            active.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** this 잠금 안에서 호출 */
+    private void rotate() throws IOException {
+        if (fsync) {
+            active.force(false);
+        }
+        active.close();
+        closed.addLast(new Segment(activePath, activeMaxSeq));
+        openSegment(activeIndex + 1);
+    }
+
+    private void openSegment(long index) throws IOException {
+        activeIndex = index;
+        activePath = directory.resolve(String.format("%020d%s", index, SUFFIX));
+        active = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        activeSize = 0;
+        activeMaxSeq = 0;
+    }
+
+    private List<Path> segmentFiles() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long indexOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /** 저널 한 줄: 배치 INSERT에 필요한 값 전부 (updatedAt = createdAt, version = 0) */
+    record Entry(long seq, long id, long roomNo, String senderUid, String content, String clientMessageId,
+                 MessageStatus status, Instant createdAt) {
+
+        static Entry of(long seq, ChatMessage m) {
+            return new Entry(seq, m.getId(), m.getRoomNo(), m.getSenderUid(), m.getContent(),
+                    m.getClientMessageId(), m.getStatus(), m.getCreatedAt());
+        }
+
+        ChatMessage toEntity() {
+            return ChatMessage.builder()
+                    .id(id)
+                    .roomNo(roomNo)
+                    .senderUid(senderUid)
+                    .content(content)
+                    .clientMessageId(clientMessageId)
+                    .status(status)
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .version(0L)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package likelion13th.chat.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import likelion13th.chat.config.BrokerProperties;
+import likelion13th.chat.config.StorageProperties;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.repository.ChatMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * hot → cold 압축 (chat.storage.archive.enabled=true)
+ * 샤드마다 오래된 메시지가 있는 방을 찾아, 방마다
+ * 1. createdAt이 cutoff보다 오래된 메시지를 id 순으로 segmentSize개씩 읽어 세그먼트로 추가
+ *    (append는 세그먼트 파일과 방 디렉터리를 fsync한 뒤에 돌아옴)
+ * 2. 방금 읽은 메시지(ID 목록 그대로)를 hot 테이블에서 삭제
+ * ID는 커밋 순서와 다를 수 있으므로 "여기까지 옮김" 같은 ID 경계를 두지 않음
+ * (나중에 커밋된 작은 ID도 다음 실행에서 따로 옮겨짐)
+ * 1과 2 사이에 멈추면 다음 실행이 같은 메시지를 다시 읽지만, 이미 세그먼트에 있는 ID는 다시 쓰지 않음
+ * 세그먼트는 노드 로컬 디스크에 쓰므로 broker.mode=simple(단일 노드)에서만 켤 수 있음
+ * (여러 노드가 같은 hot 테이블을 각자 압축하면 노드마다 옛 내역의 일부만 보게 됨)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "chat.storage.archive", name = "enabled", havingValue = "true")
+public class ArchiveCompactor {
+
+    /** 한 번에 처리할 최대 방 수 (샤드마다) */
+    private static final int ROOMS_PER_RUN = 1_000;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ShardRouter shardRouter;
+    private final MessageArchive archive;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration age;
+    private final int segmentSize;
+
+    private final LongAdder archived = new LongAdder();
+
+    public ArchiveCompactor(ChatMessageRepository chatMessageRepository,
+                            ShardRouter shardRouter,
+                            MessageArchive archive,
+                            TransactionTemplate transactionTemplate,
+                            StorageProperties properties,
+                            BrokerProperties brokerProperties,
+                            MeterRegistry registry) {
+        if (brokerProperties.getMode() != BrokerProperties.Mode.SIMPLE) {
+            throw new IllegalStateException("chat.storage.archive는 노드 로컬 디스크에 세그먼트를 쓰므로 "
+                    + "broker.mode=simple(단일 노드)에서만 켤 수 있습니다. (현재 " + brokerProperties.getMode() + ")");
+        }
+        this.chatMessageRepository = chatMessageRepository;
+        this.shardRouter = shardRouter;
+        this.archive = archive;
+        this.transactionTemplate = transactionTemplate;
+        this.age = properties.getArchive().getAge();
+        this.segmentSize = properties.getArchive().getSegmentSize();
+        FunctionCounter.builder("chat.storage.archived", archived, LongAdder::sum)
+                .description("messages moved from the hot table to cold segments").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.storage.archive.compact-interval:1h}")
+    public void compact() {
+        Instant cutoff = Instant.now().minus(age);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            List<Long> rooms = shardRouter.onShard(shard, () ->
+                    chatMessageRepository.findRoomNosWithMessagesBefore(cutoff, Limit.of(ROOMS_PER_RUN)));
+            for (long roomNo : rooms) {
+                try {
+                    compactRoom(roomNo, cutoff);
+                } catch (RuntimeException e) {
+                    log.warn("cold 압축 실패 (roomNo={})", roomNo, e);
+                }
+            }
+        }
+    }
+
+    void compactRoom(long roomNo, Instant cutoff) {
+        while (true) {
+            List<ChatMessage> old = shardRouter.inRoom(roomNo, () ->
+                    chatMessageRepository.findByRoomNoAndCreatedAtBeforeOrderByIdAsc(roomNo, cutoff, Limit.of(segmentSize)));
+            if (old.isEmpty()) {
+                return;
+            }
+            archive.append(roomNo, old);
+            List<Long> ids = old.stream().map(ChatMessage::getId).toList();
+            shardRouter.runInRoom(roomNo, () -> transactionTemplate.executeWithoutResult(status ->
+                    chatMessageRepository.deleteArchived(roomNo, ids)));
+            archived.add(old.size());
+            if (old.size() < segmentSize) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package likelion13th.chat.storage;
+
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.MessageStatus;
+
+import java.time.Instant;
+
+/** cold 세그먼트의 한 줄 (방 번호는 세그먼트 위치로 알 수 있으므로 저장하지 않음) */
+record ArchivedMessage(long id, String senderUid, String content, MessageStatus status,
+                       Instant createdAt, Instant updatedAt, long version) {
+
+    static ArchivedMessage of(ChatMessage m) {
+        return new ArchivedMessage(m.getId(), m.getSenderUid(), m.getContent(), m.getStatus(),
+                m.getCreatedAt(), m.getUpdatedAt(), m.getVersion() == null ? 0 : m.getVersion());
+    }
+
+    ChatMessage toEntity(long roomNo) {
+        return ChatMessage.builder()
+                .id(id)
+                .roomNo(roomNo)
+                .senderUid(senderUid)
+                .content(content)
+                .status(status)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .version(version)
+                .build();
+    }
+}
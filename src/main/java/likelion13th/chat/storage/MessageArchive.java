@@ -0,0 +1,256 @@
+package likelion13th.chat.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import likelion13th.chat.config.StorageProperties;
+import likelion13th.chat.domain.ChatMessage;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * cold 저장소: 방별 append-only 세그먼트 파일 (NDJSON, 한 줄에 ArchivedMessage 하나)
+ * - {directory}/room-{roomNo}/{firstId}-{lastId}.ndjson, 세그먼트 안은 id 오름차순
+ * - 한 번 쓴 세그먼트는 고치지 않음 (임시 파일에 쓰고 원자적으로 이름 변경)
+ * - append가 돌아오면 파일 내용과 이름 변경이 디스크에 내려간 상태 (그 뒤에 hot에서 지워도 잃지 않음)
+ * - 방별 세그먼트 목록은 처음 조회할 때 디렉터리에서 읽어 메모리에 둠 (firstId 순)
+ * ID는 커밋 순서와 다를 수 있어서, 나중에 옮겨진 세그먼트의 id 구간이 앞 세그먼트와 겹칠 수 있음
+ * (같은 ID는 두 번 들어가지 않음) → 조회는 세그먼트 순서가 아니라 id로 합침
+ * 노드 로컬 디스크이므로 단일 노드(broker.mode=simple)에서만 사용 (ArchiveCompactor 참고)
+ * 여기 있는 메시지는 읽기 전용 (수정/삭제/읽음 처리는 hot 테이블에 남은 메시지에만 적용)
+ */
+@Component
+public class MessageArchive {
+
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    /** roomNo → id 오름차순 세그먼트 목록 */
+    private final Map<Long, List<Segment>> segments = new ConcurrentHashMap<>();
+
+    public MessageArchive(StorageProperties properties, ObjectMapper objectMapper) {
+        this.directory = properties.getArchive().getDirectory();
+        this.reader = objectMapper.readerFor(ArchivedMessage.class);
+        this.writer = objectMapper.writerFor(ArchivedMessage.class);
+    }
+
+    record Segment(long firstId, long lastId, Path path) {
+    }
+
+    /**
+     * 이 방에서 cold로 옮겨진 가장 큰 메시지 ID (없으면 0)
+     * 이보다 큰 ID는 cold에 없다는 뜻일 뿐, 이보다 작은 ID가 모두 cold에 있다는 뜻은 아님
+     */
+    public long lastArchivedId(long roomNo) {
+        return segmentsOf(roomNo).stream().mapToLong(Segment::lastId).max().orElse(0);
+    }
+
+    public boolean hasAny(long roomNo) {
+        return !segmentsOf(roomNo).isEmpty();
+    }
+
+    /** 모든 방을 통틀어 가장 큰 메시지 ID (ID 할당기 복구용) */
+    public long maxArchivedId() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> rooms = Files.list(directory)) {
+            return rooms.map(Path::getFileName)
+                    .map(Path::toString)
+                    .filter(name -> name.startsWith("room-"))
+                    .mapToLong(name -> lastArchivedId(Long.parseLong(name.substring("room-".length()))))
+                    .max()
+                    .orElse(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * id 오름차순 메시지를 새 세그먼트로 추가
+     * 이미 세그먼트에 있는 ID는 건너뜀 (압축이 hot 삭제 전에 멈췄다가 같은 메시지를 다시 옮기는 경우)
+     * 구간이 겹치는 세그먼트만 읽으므로 보통은 파일을 열지 않음
+     */
+    public synchronized void append(long roomNo, List<ChatMessage> ascending) {
+        if (ascending.isEmpty()) {
+            return;
+        }
+        List<Segment> list = segmentsOf(roomNo);
+        long from = ascending.get(0).getId();
+        long to = ascending.get(ascending.size() - 1).getId();
+        Set<Long> existing = new HashSet<>();
+        for (Segment segment : list) {
+            if (segment.firstId() <= to && segment.lastId() >= from) {
+                read(segment).forEach(row -> existing.add(row.id()));
+            }
+        }
+        List<ChatMessage> fresh = ascending.stream().filter(m -> !existing.contains(m.getId())).toList();
+        if (fresh.isEmpty()) {
+            return;
+        }
+        long firstId = fresh.get(0).getId();
+        long lastId = fresh.get(fresh.size() - 1).getId();
+        Path roomDir = roomDir(roomNo);
+        Path target = roomDir.resolve(String.format("%020d-%020d%s", firstId, lastId, SUFFIX));
+        try {
+            if (!Files.isDirectory(roomDir)) {
+                Files.createDirectories(roomDir);
+                fsyncDirectory(directory);
+            }
+            Path tmp = Files.createTempFile(roomDir, "segment-", ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (ChatMessage m : fresh) {
+                    out.write(writer.writeValueAsString(ArchivedMessage.of(m)));
+                    out.newLine();
+                }
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            // 이름 변경은 디렉터리 항목이므로 디렉터리도 내려야 크래시 뒤에 세그먼트가 남음
+            fsyncDirectory(roomDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cold 세그먼트 쓰기 실패: " + target, e);
+        }
+        int index = 0;
+        while (index < list.size() && list.get(index).firstId() <= firstId) {
+            index++;
+        }
+        list.add(index, new Segment(firstId, lastId, target));
+    }
+
+    /**
+     * before(없으면 끝)보다 작은 id 중 최신 limit개, id 오름차순
+     * lastId가 큰 세그먼트부터 읽고, 이미 모은 limit개가 다음 세그먼트의 lastId보다 모두 크면 멈춤
+     */
+    public List<ChatMessage> readBefore(long roomNo, Long before, int limit) {
+        List<Segment> byLastDesc = new ArrayList<>(segmentsOf(roomNo));
+        byLastDesc.sort(Comparator.comparingLong(Segment::lastId).reversed());
+        TreeMap<Long, ChatMessage> newest = new TreeMap<>();
+        for (Segment segment : byLastDesc) {
+            if (newest.size() >= limit && newest.firstKey() > segment.lastId()) {
+                break;
+            }
+            if (before != null && segment.firstId() >= before) {
+                continue;
+            }
+            for (ArchivedMessage row : read(segment)) {
+                if (before == null || row.id() < before) {
+                    newest.put(row.id(), row.toEntity(roomNo));
+                    if (newest.size() > limit) {
+                        newest.pollFirstEntry();
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(newest.values());
+    }
+
+    /**
+     * after보다 큰 id 중 limit개, id 오름차순
+     * firstId가 작은 세그먼트부터 읽고, 이미 모은 limit개가 다음 세그먼트의 firstId보다 모두 작으면 멈춤
+     */
+    public List<ChatMessage> readAfter(long roomNo, long after, int limit) {
+        TreeMap<Long, ChatMessage> oldest = new TreeMap<>();
+        for (Segment segment : segmentsOf(roomNo)) {
+            if (oldest.size() >= limit && oldest.lastKey() < segment.firstId()) {
+                break;
+            }
+            if (segment.lastId() <= after) {
+                continue;
+            }
+            for (ArchivedMessage row : read(segment)) {
+                if (row.id() > after) {
+                    oldest.put(row.id(), row.toEntity(roomNo));
+                    if (oldest.size() > limit) {
+                        oldest.pollLastEntry();
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(oldest.values());
+    }
+
+    /**
+     * 방의 cold 메시지 전체를 세그먼트 순서대로 (세그먼트 하나씩만 메모리에 올림)
+     * 세그먼트 구간이 겹치면(늦게 커밋돼 나중에 옮겨진 메시지) 전체 id 순서와는 조금 다를 수 있음
+     */
+    public void forEach(long roomNo, Consumer<ChatMessage> action) {
+        for (Segment segment : segmentsOf(roomNo)) {
+            read(segment).forEach(row -> action.accept(row.toEntity(roomNo)));
+        }
+    }
+
+    private List<Segment> segmentsOf(long roomNo) {
+        return segments.computeIfAbsent(roomNo, this::scan);
+    }
+
+    private List<Segment> scan(long roomNo) {
+        List<Segment> found = new ArrayList<>();
+        Path roomDir = roomDir(roomNo);
+        if (Files.isDirectory(roomDir)) {
+            try (Stream<Path> files = Files.list(roomDir)) {
+                files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                        .sorted()
+                        .forEach(path -> {
+                            String name = path.getFileName().toString();
+                            String[] range = name.substring(0, name.length() - SUFFIX.length()).split("-");
+                            found.add(new Segment(Long.parseLong(range[0]), Long.parseLong(range[1]), path));
+                        });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new CopyOnWriteArrayList<>(found);
+    }
+
+    private List<ArchivedMessage> read(Segment segment) {
+        List<ArchivedMessage> rows = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(segment.path(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(reader.readValue(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("cold 세그먼트 읽기 실패: " + segment.path(), e);
+        }
+        return rows;
+    }
+
+    private static void fsyncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private Path roomDir(long roomNo) {
+        return directory.resolve("room-" + roomNo);
+    }
+}
@@ -0,0 +1,30 @@
+package likelion13th.chat.storage;
+
+/**
+ * 현재 스레드가 사용할 샤드 번호 (ShardRoutingDataSource가 커넥션을 고를 때 읽음)
+ * 직접 쓰지 않고 ShardRouter.inRoom / onShard로만 바꿈, 설정하지 않으면 샤드 0 (전역 테이블)
+ */
+final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer get() {
+        return CURRENT.get();
+    }
+
+    static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package likelion13th.chat.storage;
+
+import jakarta.persistence.EntityManagerFactory;
+import likelion13th.chat.config.StorageProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.relational.SchemaManager;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * 방 → 샤드 라우팅
+ * - 샤드 = hash(roomNo) mod 샤드 수 (roomNo는 chat_room에 고정되므로 재시작/노드와 관계없이 같은 샤드)
+ * - inRoom/onShard 안에서 시작한 트랜잭션(또는 트랜잭션 없는 리포지토리 호출)은 그 샤드의 커넥션을 씀
+ *   사용자/방/ID 블록 같은 전역 테이블은 이 블록 밖(= 샤드 0)에서만 접근해야 함
+ * - 샤드가 하나뿐이면 모든 호출이 그대로 실행됨 (라우팅 DataSource도 만들어지지 않음)
+ * ddl-auto가 create/create-drop이면 추가 샤드에도 같은 스키마를 만듦 (그 밖에는 외부에서 관리)
+ * 샤드 수를 바꾸면 거의 모든 방의 샤드가 바뀜 (mod 해시, 재배치 기능 없음)
+ * → 기존 데이터가 있으면 직접 옮겨야 하고, 시작할 때 각 샤드의 방 일부를 확인해서 다른 샤드 소속이면 실패
+ *   (샤드를 줄인 경우 빠진 샤드의 데이터는 여기서 알 수 없음)
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    /** 시작 시 샤드마다 확인할 방 수 */
+    private static final int LAYOUT_SAMPLE = 100;
+
+    private final int shardCount;
+
+    public ShardRouter(StorageProperties properties,
+                       EntityManagerFactory entityManagerFactory,
+                       HibernateProperties hibernateProperties,
+                       JdbcTemplate jdbcTemplate) {
+        this.shardCount = 1 + properties.getShards().size();
+        if (shardCount > 1) {
+            createSchemas(entityManagerFactory, hibernateProperties.getDdlAuto());
+            verifyLayout(jdbcTemplate);
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardOf(long roomNo) {
+        return Math.floorMod(Long.hashCode(mix(roomNo)), shardCount);
+    }
+
+    public <T> T inRoom(long roomNo, Supplier<T> action) {
+        return onShard(shardOf(roomNo), action);
+    }
+
+    public void runInRoom(long roomNo, Runnable action) {
+        onShard(shardOf(roomNo), () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = ShardContext.get();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /** 전역 테이블(샤드 0) 접근: 방 샤드 안에서 호출돼도 샤드 0으로 */
+    public <T> T global(Supplier<T> action) {
+        return onShard(0, action);
+    }
+
+    /** 샤드를 차례로 조회해서 처음 나온 결과 (방을 모르는 메시지 ID 조회용) */
+    public <T> Optional<T> findInAnyShard(IntFunction<Optional<T>> lookup) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            Optional<T> found = onShard(target, () -> lookup.apply(target));
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void createSchemas(EntityManagerFactory entityManagerFactory, String ddlAuto) {
+        if (!"create".equals(ddlAuto) && !"create-drop".equals(ddlAuto)) {
+            log.info("ddl-auto={}: 샤드 1~{}의 스키마는 직접 준비해야 합니다.", ddlAuto, shardCount - 1);
+            return;
+        }
+        SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getSchemaManager();
+        for (int shard = 1; shard < shardCount; shard++) {
+            onShard(shard, () -> {
+                schemaManager.dropMappedObjects(false);
+                schemaManager.exportMappedObjects(false);
+                return null;
+            });
+        }
+        log.info("chat.storage: 샤드 {}개 (샤드 1~{} 스키마 생성)", shardCount, shardCount - 1);
+    }
+
+    /** 저장된 방이 지금 샤드 수로 계산한 샤드에 있는지 (샤드 수가 바뀌었는데 데이터를 옮기지 않았으면 실패) */
+    private void verifyLayout(JdbcTemplate jdbcTemplate) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            List<Long> roomNos = onShard(shard, () -> jdbcTemplate.queryForList(
+                    "SELECT DISTINCT room_no FROM chat_message LIMIT " + LAYOUT_SAMPLE, Long.class));
+            for (long roomNo : roomNos) {
+                if (shardOf(roomNo) != target) {
+                    throw new IllegalStateException("샤드 " + target + "에 샤드 " + shardOf(roomNo) + " 소속 방(roomNo="
+                            + roomNo + ")이 있습니다. 샤드 수(" + shardCount + ")가 바뀌었다면 메시지를 먼저 옮겨야 합니다.");
+                }
+            }
+        }
+    }
+
+    /** murmur3 fmix64: 연속된 roomNo도 샤드에 고르게 퍼지도록 */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,56 @@
+package likelion13th.chat.storage;
+
+import likelion13th.chat.config.StorageProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * chat.storage.shards가 있을 때만: spring.datasource(샤드 0) + 추가 샤드들을 하나의 라우팅 DataSource로
+ * - JPA/JdbcTemplate/트랜잭션 매니저는 지금처럼 DataSource 하나만 보고, 커넥션을 얻는 순간의 ShardContext로 샤드가 정해짐
+ * - LazyConnectionDataSourceProxy: 트랜잭션 시작이 아니라 첫 SQL 때 커넥션을 얻으므로
+ *   ShardRouter.inRoom 안에서 시작한 트랜잭션은 그 방의 샤드를 씀
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "chat.storage.shards[0]", name = "url")
+public class ShardedDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, StorageProperties storageProperties) {
+        Map<Object, Object> targets = new HashMap<>();
+        DataSource main = properties.initializeDataSourceBuilder().build();
+        targets.put(0, main);
+        List<StorageProperties.Shard> shards = storageProperties.getShards();
+        for (int i = 0; i < shards.size(); i++) {
+            StorageProperties.Shard shard = shards.get(i);
+            targets.put(i + 1, DataSourceBuilder.create()
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build());
+        }
+
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return ShardContext.current();
+            }
+        };
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(main);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,72 @@
+package likelion13th.chat.storage;
+
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.repository.ChatMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * 내역 조회: 방의 샤드(hot 테이블) + cold 세그먼트
+ * - hot만으로 limit을 채울 수 있고 그 결과가 cold의 가장 큰 ID(lastArchivedId) 위에 있으면 cold는 열지 않음
+ *   → 최근 메시지 조회는 전체 데이터 크기와 관계없이 작은 hot 테이블의 (roomNo, id) 인덱스만 탐색
+ * - 모자라면 cold에서도 읽고 id로 합침 (압축 도중 양쪽에 같은 id가 있어도 한 번만)
+ * ID가 커밋 순서대로가 아니라서 hot에도 lastArchivedId보다 작은 ID가 있을 수 있음
+ * → cold를 건너뛰는 판단은 "lastArchivedId보다 큰 ID는 cold에 없다"만 씀
+ * 결과는 모두 id 오름차순
+ */
+@Component
+@RequiredArgsConstructor
+public class TieredHistoryStore {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ShardRouter shardRouter;
+    private final MessageArchive archive;
+
+    /** 가장 최근 limit개 */
+    public List<ChatMessage> recent(long roomNo, int limit) {
+        return before(roomNo, null, limit);
+    }
+
+    /** before(없으면 끝)보다 오래된 최신 limit개 */
+    public List<ChatMessage> before(long roomNo, Long before, int limit) {
+        List<ChatMessage> hot = new ArrayList<>(shardRouter.inRoom(roomNo, () -> before != null
+                ? chatMessageRepository.findByRoomNoAndIdLessThanOrderByIdDesc(roomNo, before, Limit.of(limit))
+                : chatMessageRepository.findByRoomNoOrderByIdDesc(roomNo, Limit.of(limit))));
+        Collections.reverse(hot);
+        long lastArchived = archive.lastArchivedId(roomNo);
+        if (lastArchived == 0 || (hot.size() == limit && hot.get(0).getId() > lastArchived)) {
+            return hot;
+        }
+        TreeMap<Long, ChatMessage> merged = new TreeMap<>();
+        archive.readBefore(roomNo, before, limit).forEach(m -> merged.put(m.getId(), m));
+        hot.forEach(m -> merged.put(m.getId(), m));
+        List<ChatMessage> all = new ArrayList<>(merged.values());
+        return new ArrayList<>(all.subList(Math.max(0, all.size() - limit), all.size()));
+    }
+
+    /** after보다 새로운 limit개 */
+    public List<ChatMessage> after(long roomNo, long after, int limit) {
+        List<ChatMessage> hot = shardRouter.inRoom(roomNo, () ->
+                chatMessageRepository.findByRoomNoAndIdGreaterThanOrderByIdAsc(roomNo, after, Limit.of(limit)));
+        // cold의 모든 ID가 after 이하일 때만 hot으로 충분
+        if (after >= archive.lastArchivedId(roomNo)) {
+            return hot;
+        }
+        TreeMap<Long, ChatMessage> merged = new TreeMap<>();
+        archive.readAfter(roomNo, after, limit).forEach(m -> merged.put(m.getId(), m));
+        hot.forEach(m -> merged.put(m.getId(), m));
+        List<ChatMessage> all = new ArrayList<>(merged.values());
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    /** 방 전체에 cold 메시지가 하나도 없는지 (최근 메시지 캐시의 "방 전체가 창 안" 판단용) */
+    public boolean hasArchived(long roomNo) {
+        return archive.hasAny(roomNo);
+    }
+}
@@ -0,0 +1,205 @@
+package likelion13th.chat.transport;
+
+import likelion13th.chat.config.TransportProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 세션별 outbound 대기 프레임 추적 + 느린 구독자 처리 (chat.transport.slow-consumer.*)
+ * - pending = clientOutboundChannel에 들어온 프레임 수 - 실제 소켓에 쓴 프레임 수
+ *   (outbound 실행기 대기열 + Spring ConcurrentWebSocketSessionDecorator 버퍼 + 전송 중인 프레임)
+ * - 소켓 쓰기는 원래 세션을 감싼 TrackingSession에서 셈 (WebSocketTransportRegistration 데코레이터로 설치)
+ * - pending이 maxPendingFrames 이상이면 MESSAGE 프레임에 대해 DROP(버림) 또는 DISCONNECT(세션 종료)
+ *   CONNECTED/RECEIPT/ERROR/하트비트는 버리지 않음
+ * 세션 수만큼 미터를 만들지 않고, 전체 합/최댓값/한도 초과 세션 수로 집계 (ChatMeterBinder)
+ */
+@Slf4j
+@Component
+public class SlowConsumerGuard implements ExecutorChannelInterceptor {
+
+    private final TransportProperties.SlowConsumer props;
+    private final Map<String, Tracked> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    public SlowConsumerGuard(TransportProperties properties) {
+        this.props = properties.getSlowConsumer();
+    }
+
+    /** WebSocketTransportRegistration.addDecoratorFactory 용 */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                Tracked tracked = new Tracked(session);
+                sessions.put(session.getId(), tracked);
+                super.afterConnectionEstablished(new TrackingSession(session, tracked));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // ===== clientOutboundChannel =====
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        Tracked tracked = sessionId == null ? null : sessions.get(sessionId);
+        if (tracked == null) {
+            return message;
+        }
+        if (tracked.pending.get() >= props.getMaxPendingFrames()
+                && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+            dropped.increment();
+            if (props.getStrategy() == TransportProperties.Strategy.DISCONNECT) {
+                disconnect(tracked);
+            }
+            return null;
+        }
+        tracked.pending.incrementAndGet();
+        return message;
+    }
+
+    /** 뒤쪽 인터셉터가 버렸거나 실행기가 거절해서 핸들러까지 가지 못한 경우 */
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent || ex != null) {
+            written(message);
+        }
+    }
+
+    /** 핸들러가 소켓에 쓰지 못하고 끝난 경우 (세션이 이미 닫힘 등) */
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null) {
+            written(message);
+        }
+    }
+
+    private void written(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        Tracked tracked = sessionId == null ? null : sessions.get(sessionId);
+        if (tracked != null) {
+            tracked.written();
+        }
+    }
+
+    /**
+     * 느린 소켓 쓰기가 끝나기를 기다리지 않도록 별도 가상 스레드에서 닫음
+     * (닫히면 afterConnectionClosed → DISCONNECT 처리는 평소 연결 종료와 같음)
+     */
+    private void disconnect(Tracked tracked) {
+        if (!tracked.closing.compareAndSet(false, true)) {
+            return;
+        }
+        disconnected.increment();
+        log.warn("느린 구독자 연결 종료 (session={}, pending={})", tracked.session.getId(), tracked.pending.get());
+        Thread.ofVirtual().name("ws-slow-consumer-close").start(() -> {
+            try {
+                tracked.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("느린 구독자 세션 종료 실패 (session={})", tracked.session.getId(), e);
+            }
+        });
+    }
+
+    // ===== 지표 =====
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getTotalPending() {
+        long total = 0;
+        for (Tracked tracked : sessions.values()) {
+            total += tracked.pending.get();
+        }
+        return total;
+    }
+
+    public int getMaxPending() {
+        int max = 0;
+        for (Tracked tracked : sessions.values()) {
+            max = Math.max(max, tracked.pending.get());
+        }
+        return max;
+    }
+
+    /** pending이 한도 이상인 세션 수 */
+    public int getSlowSessionCount() {
+        int count = 0;
+        for (Tracked tracked : sessions.values()) {
+            if (tracked.pending.get() >= props.getMaxPendingFrames()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getDisconnected() {
+        return disconnected.sum();
+    }
+
+    private static final class Tracked {
+        final WebSocketSession session;
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicBoolean closing = new AtomicBoolean();
+
+        Tracked(WebSocketSession session) {
+            this.session = session;
+        }
+
+        /** ERROR 프레임처럼 채널을 거치지 않고 바로 쓰인 프레임 때문에 음수가 되지 않도록 0에서 멈춤 */
+        void written() {
+            pending.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        }
+    }
+
+    /** 소켓에 실제로 쓴 프레임 수를 세는 세션 (SubProtocolWebSocketHandler가 이 세션을 다시 감쌈) */
+    private static final class TrackingSession extends WebSocketSessionDecorator {
+        private final Tracked tracked;
+
+        TrackingSession(WebSocketSession session, Tracked tracked) {
+            super(session);
+            this.tracked = tracked;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                tracked.written();
+            }
+        }
+    }
+}
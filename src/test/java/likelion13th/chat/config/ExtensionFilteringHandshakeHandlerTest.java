@@ -0,0 +1,51 @@
+package likelion13th.chat.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * permessage-deflate 협상: 기본 설정에서 /ws-native는 수락하고, SockJS 엔드포인트(/ws)의 웹소켓 전송은 빼고 협상
+ * (두 엔드포인트의 처리량/프레임 크기 비교는 jmh EndpointTransportBenchmark)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ExtensionFilteringHandshakeHandlerTest {
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void nativeEndpointNegotiatesPerMessageDeflate() throws Exception {
+        assertThat(negotiatedExtensions("/ws-native")).contains(ExtensionFilteringHandshakeHandler.PER_MESSAGE_DEFLATE);
+    }
+
+    @Test
+    void sockJsEndpointDoesNotNegotiatePerMessageDeflate() throws Exception {
+        // SockJS 엔드포인트의 raw 웹소켓 경로 ({path}/websocket)
+        assertThat(negotiatedExtensions("/ws/websocket")).doesNotContain(ExtensionFilteringHandshakeHandler.PER_MESSAGE_DEFLATE);
+    }
+
+    private List<String> negotiatedExtensions(String path) throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.setSecWebSocketExtensions(List.of(new WebSocketExtension(ExtensionFilteringHandshakeHandler.PER_MESSAGE_DEFLATE)));
+        WebSocketSession session = new StandardWebSocketClient()
+                .execute(new AbstractWebSocketHandler() {}, headers, URI.create("ws://localhost:" + port + path))
+                .get(10, TimeUnit.SECONDS);
+        try {
+            return session.getExtensions().stream().map(WebSocketExtension::getName).toList();
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package likelion13th.chat.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 여러 노드(relay/fanout)에서는 노드 전용/JVM 전용 접속자 테이블로 시작하지 않음
+ * (공유 저장소 기반 PresenceRegistry 빈을 직접 등록해야 함)
+ */
+class PresenceConfigTest {
+
+    private final PresenceConfig config = new PresenceConfig();
+
+    @Test
+    void localBackendOnlyOnASingleNode() {
+        assertThat(config.presenceRegistry(presence(PresenceProperties.Backend.LOCAL), broker(BrokerProperties.Mode.SIMPLE)))
+                .isNotNull();
+        assertThatThrownBy(() -> config.presenceRegistry(presence(PresenceProperties.Backend.LOCAL),
+                broker(BrokerProperties.Mode.RELAY))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> config.presenceRegistry(presence(PresenceProperties.Backend.LOCAL),
+                broker(BrokerProperties.Mode.FANOUT))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void inMemoryBackendOnlyWithAnInMemoryCluster() {
+        BrokerProperties inMemoryCluster = broker(BrokerProperties.Mode.FANOUT);
+        inMemoryCluster.setClusterTransport(BrokerProperties.ClusterTransport.IN_MEMORY);
+        assertThat(config.presenceRegistry(presence(PresenceProperties.Backend.IN_MEMORY), inMemoryCluster)).isNotNull();
+
+        assertThatThrownBy(() -> config.presenceRegistry(presence(PresenceProperties.Backend.IN_MEMORY),
+                broker(BrokerProperties.Mode.FANOUT))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> config.presenceRegistry(presence(PresenceProperties.Backend.IN_MEMORY),
+                broker(BrokerProperties.Mode.RELAY))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void sharedBackendNeedsARegistryBean() {
+        assertThatThrownBy(() -> config.presenceRegistry(presence(PresenceProperties.Backend.SHARED),
+                broker(BrokerProperties.Mode.RELAY))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static PresenceProperties presence(PresenceProperties.Backend backend) {
+        PresenceProperties properties = new PresenceProperties();
+        properties.setBackend(backend);
+        return properties;
+    }
+
+    private static BrokerProperties broker(BrokerProperties.Mode mode) {
+        BrokerProperties properties = new BrokerProperties();
+        properties.setMode(mode);
+        return properties;
+    }
+}
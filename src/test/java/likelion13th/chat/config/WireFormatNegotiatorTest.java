@@ -0,0 +1,118 @@
+package likelion13th.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+import likelion13th.chat.service.BroadcastPayloadEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static likelion13th.chat.dto.event.SampleMessages.sampleResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CBOR 협상: 네이티브 웹소켓으로 붙어 CONNECT에 content-type: application/cbor를 실은 세션만 변환되고, 나머지는 JSON 그대로
+ * (실제 바이너리 프레임으로 나가는지는 WireFormatNegotiatorWebSocketTest)
+ * 브로드캐스트 프레임 하나는 CBOR 세션이 여럿이어도 한 번만 변환 (인코딩/디코딩 처리량은 jmh WireFormatBenchmark)
+ */
+class WireFormatNegotiatorTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final WireFormatNegotiator negotiator = new WireFormatNegotiator(objectMapper);
+    private final BroadcastPayloadEncoder encoder = new BroadcastPayloadEncoder(objectMapper);
+
+    @Test
+    void onlyCborSessionsReceiveCbor() throws Exception {
+        negotiator.inboundInterceptor().preSend(connect("cbor-session", true), null);
+        negotiator.inboundInterceptor().preSend(connect("json-session", false), null);
+
+        byte[] json = encoder.encode(sampleResponse());
+        ChannelInterceptor outbound = negotiator.outboundInterceptor();
+        Message<?> toCbor = outbound.preSend(delivery(json, "cbor-session"), null);
+        Message<?> toJson = outbound.preSend(delivery(json, "json-session"), null);
+
+        byte[] cbor = (byte[]) toCbor.getPayload();
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(toCbor);
+        assertThat(headers.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        assertThat(headers.getFirstNativeHeader(WireFormatNegotiator.FORMAT_HEADER)).isEqualTo("cbor");
+        assertThat(new CBORMapper().readTree(cbor)).isEqualTo(objectMapper.readTree(json));
+        assertThat(toJson.getPayload()).isSameAs(json);
+
+        assertThat(cbor.length).isLessThan(json.length);
+    }
+
+    @Test
+    void sockJsSessionsStayOnJson() {
+        // SockJS는 텍스트 프레임만 보낼 수 있으므로 CBOR를 요청해도 무시
+        negotiator.inboundInterceptor().preSend(connect("sockjs-session", true, false), null);
+
+        byte[] json = encoder.encode(sampleResponse());
+        assertThat(negotiator.outboundInterceptor().preSend(delivery(json, "sockjs-session"), null).getPayload()).isSameAs(json);
+    }
+
+    @Test
+    void framesShareOneConversionAcrossCborSessions() {
+        negotiator.inboundInterceptor().preSend(connect("cbor-1", true), null);
+        negotiator.inboundInterceptor().preSend(connect("cbor-2", true), null);
+        ChannelInterceptor outbound = negotiator.outboundInterceptor();
+
+        // 로컬 브로커가 구독자마다 복사한 메시지들은 같은 CborSlot을 가짐
+        Message<byte[]> broadcast = encoder.toMessage(encoder.encode(sampleResponse()));
+        Object first = outbound.preSend(delivery(broadcast, "cbor-1"), null).getPayload();
+        assertThat(outbound.preSend(delivery(broadcast, "cbor-2"), null).getPayload()).isSameAs(first);
+
+        // 같은 바이트라도 다른 프레임이면 따로 변환 (전역 캐시 없음)
+        Message<byte[]> another = encoder.toMessage(broadcast.getPayload());
+        assertThat(outbound.preSend(delivery(another, "cbor-1"), null).getPayload()).isNotSameAs(first).isEqualTo(first);
+    }
+
+    @Test
+    void disconnectFallsBackToJson() {
+        negotiator.inboundInterceptor().preSend(connect("s1", true), null);
+        SimpMessageHeaderAccessor disconnect = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        disconnect.setSessionId("s1");
+        negotiator.inboundInterceptor().preSend(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), null);
+
+        byte[] json = encoder.encode(sampleResponse());
+        assertThat(negotiator.outboundInterceptor().preSend(delivery(json, "s1"), null).getPayload()).isSameAs(json);
+    }
+
+    private static Message<byte[]> connect(String sessionId, boolean cbor) {
+        return connect(sessionId, cbor, true);
+    }
+
+    private static Message<byte[]> connect(String sessionId, boolean cbor, boolean nativeWebSocket) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        accessor.setSessionId(sessionId);
+        Map<String, Object> attributes = new HashMap<>();
+        if (nativeWebSocket) {
+            attributes.put(WireFormatNegotiator.NATIVE_WEBSOCKET_ATTRIBUTE, Boolean.TRUE);
+        }
+        accessor.setSessionAttributes(attributes);
+        if (cbor) {
+            accessor.setContentType(WireFormatNegotiator.APPLICATION_CBOR);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<byte[]> delivery(byte[] json, String sessionId) {
+        return delivery(encoder.toMessage(json), sessionId);
+    }
+
+    /** SimpleBroker가 구독자마다 만드는 MESSAGE (원본 헤더를 복사하고 payload 배열은 공유) */
+    private static Message<byte[]> delivery(Message<byte[]> broadcast, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.copyHeadersIfAbsent(broadcast.getHeaders());
+        return MessageBuilder.createMessage(broadcast.getPayload(), accessor.getMessageHeaders());
+    }
+}
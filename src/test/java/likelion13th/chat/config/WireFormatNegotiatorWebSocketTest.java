@@ -0,0 +1,120 @@
+package likelion13th.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+import likelion13th.chat.service.BroadcastPayloadEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 실제 웹소켓 연결로 CBOR 협상 확인
+ * - /ws-native에서 CBOR를 고른 세션: 바이너리 프레임 + content-type: application/octet-stream + chat-format: cbor
+ * - SockJS 엔드포인트(/ws)의 웹소켓 전송: CBOR를 요청해도 JSON 텍스트 프레임
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WireFormatNegotiatorWebSocketTest {
+
+    private static final String DESTINATION = "/topic/wire-format-test";
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    SimpMessagingTemplate brokerMessagingTemplate;
+    @Autowired
+    BroadcastPayloadEncoder encoder;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void nativeWebSocketSessionReceivesBinaryCborFrames() throws Exception {
+        byte[] json = encoder.encode(Map.of("content", "안녕하세요", "messageId", 42));
+
+        WebSocketMessage<?> frame = receiveBroadcast("/ws-native", json);
+
+        assertThat(frame).isInstanceOf(BinaryMessage.class);
+        Message<byte[]> message = decode(frame);
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(message);
+        assertThat(headers.getCommand()).isEqualTo(StompCommand.MESSAGE);
+        assertThat(headers.getFirstNativeHeader("content-type")).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM_VALUE);
+        assertThat(headers.getFirstNativeHeader(WireFormatNegotiator.FORMAT_HEADER)).isEqualTo("cbor");
+        assertThat(new CBORMapper().readTree(message.getPayload())).isEqualTo(objectMapper.readTree(json));
+    }
+
+    @Test
+    void sockJsWebSocketTransportStaysOnJson() throws Exception {
+        byte[] json = encoder.encode(Map.of("content", "안녕하세요", "messageId", 42));
+
+        // SockJS 엔드포인트의 raw 웹소켓 경로 ({path}/websocket)
+        WebSocketMessage<?> frame = receiveBroadcast("/ws/websocket", json);
+
+        assertThat(frame).isInstanceOf(TextMessage.class);
+        Message<byte[]> message = decode(frame);
+        assertThat(StompHeaderAccessor.wrap(message).getFirstNativeHeader("content-type")).startsWith("application/json");
+        assertThat(objectMapper.readTree(message.getPayload())).isEqualTo(objectMapper.readTree(json));
+    }
+
+    /** CBOR로 CONNECT/SUBSCRIBE 한 뒤, 구독이 등록될 때까지 브로드캐스트를 다시 보내며 첫 MESSAGE 프레임을 받음 */
+    private WebSocketMessage<?> receiveBroadcast(String path, byte[] json) throws Exception {
+        BlockingQueue<WebSocketMessage<?>> frames = new LinkedBlockingQueue<>();
+        WebSocketSession session = new StandardWebSocketClient()
+                .execute(new AbstractWebSocketHandler() {
+                    @Override
+                    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) {
+                        frames.add(message);
+                    }
+                }, "ws://localhost:" + port + path)
+                .get(10, TimeUnit.SECONDS);
+        try {
+            session.sendMessage(new TextMessage("CONNECT\naccept-version:1.2\nhost:localhost\n"
+                    + "content-type:application/cbor\n\n\0"));
+            WebSocketMessage<?> connected = frames.poll(10, TimeUnit.SECONDS);
+            assertThat(connected).isNotNull();
+            assertThat(StompHeaderAccessor.wrap(decode(connected)).getCommand()).isEqualTo(StompCommand.CONNECTED);
+
+            session.sendMessage(new TextMessage("SUBSCRIBE\nid:sub-0\ndestination:" + DESTINATION + "\n\n\0"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                brokerMessagingTemplate.send(DESTINATION, encoder.toMessage(json));
+                WebSocketMessage<?> frame = frames.poll(200, TimeUnit.MILLISECONDS);
+                if (frame != null) {
+                    return frame;
+                }
+            }
+            throw new AssertionError("MESSAGE 프레임을 받지 못함: " + path);
+        } finally {
+            session.close();
+        }
+    }
+
+    private static Message<byte[]> decode(WebSocketMessage<?> frame) {
+        ByteBuffer bytes = frame instanceof BinaryMessage binary
+                ? binary.getPayload().duplicate()
+                : ByteBuffer.wrap(((TextMessage) frame).asBytes());
+        List<Message<byte[]>> messages = new StompDecoder().decode(bytes);
+        assertThat(messages).hasSize(1);
+        return messages.get(0);
+    }
+}
@@ -0,0 +1,32 @@
+package likelion13th.chat.dto.event;
+
+import likelion13th.chat.domain.MessageStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 직렬화 크기/비용을 재는 테스트와 jmh 벤치마크가 함께 쓰는 실제 크기의 메시지
+ * (uid는 UUID, 한글 이름/본문)
+ */
+public final class SampleMessages {
+
+    private SampleMessages() {
+    }
+
+    public static ChatMessageResponse sampleResponse() {
+        String alice = UUID.randomUUID().toString();
+        String bob = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        return ChatMessageResponse.builder()
+                .id(123_456L)
+                .roomId(alice + "__" + bob)
+                .senderUid(alice)
+                .senderName("최성민")
+                .content("오늘 저녁에 회의 끝나고 잠깐 통화 가능할까요?")
+                .status(MessageStatus.SENT)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package likelion13th.chat.ephemeral;
+
+import likelion13th.chat.config.EphemeralProperties;
+import likelion13th.chat.dto.command.EphemeralCommand;
+import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.service.RoomBroadcaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/** 방 신호: 세션 종료 시 끄기, sweep이 버린 슬롯 다시 만들기 (전송은 RoomBroadcaster mock으로 확인) */
+class EphemeralEventServiceTest {
+
+    private static final String ROOM = "alice__bob";
+
+    private RoomBroadcaster broadcaster;
+    private EphemeralEventService service;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = mock(RoomBroadcaster.class);
+        EphemeralProperties properties = new EphemeralProperties();
+        properties.setMinInterval(Duration.ZERO);
+        properties.setIdleTimeout(Duration.ZERO);
+        service = new EphemeralEventService(broadcaster, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void sessionCloseTurnsPresenceOffOnce() {
+        service.signal(ROOM, "alice", presence(true));
+
+        service.sessionClosed(ROOM, "alice");
+        service.sessionClosed(ROOM, "alice");
+
+        assertThat(sent()).extracting(WsEvent::getActive).containsExactly(true, false);
+    }
+
+    @Test
+    void signalAfterSweepDroppedTheSlotStillGoesOut() {
+        service.signal(ROOM, "alice", presence(false));
+        service.sweep();
+        assertThat(service.getActiveSlots()).isZero();
+
+        service.signal(ROOM, "alice", presence(true));
+
+        assertThat(sent()).extracting(WsEvent::getActive).containsExactly(false, true);
+        assertThat(service.getActiveSlots()).isEqualTo(1);
+    }
+
+    private static EphemeralCommand presence(boolean active) {
+        return EphemeralCommand.builder().type("presence").active(active).build();
+    }
+
+    /** 방 신호로 나간 이벤트들 */
+    private List<WsEvent> sent() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster, atLeast(0)).signal(eq(ROOM), events.capture());
+        return events.getAllValues().stream().map(WsEvent.class::cast).toList();
+    }
+}
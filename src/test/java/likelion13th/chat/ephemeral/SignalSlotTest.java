@@ -0,0 +1,64 @@
+package likelion13th.chat.ephemeral;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalSlotTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long INTERVAL = 300 * MS;
+
+    private static final SignalSlot.Signal TYPING = new SignalSlot.Signal(true, null);
+    private static final SignalSlot.Signal STOPPED = SignalSlot.Signal.INACTIVE;
+
+    @Test
+    void firstSignalGoesOutImmediatelyAndRepeatsAreDropped() {
+        SignalSlot slot = new SignalSlot();
+
+        assertThat(slot.offer(TYPING, 0, INTERVAL)).isEqualTo(SignalSlot.SEND_NOW);
+        // 입력 중 keepalive: 간격이 지나도 같은 값이면 다시 보내지 않음
+        assertThat(slot.offer(TYPING, 100 * MS, INTERVAL)).isEqualTo(SignalSlot.DROP);
+        assertThat(slot.offer(TYPING, 1_000 * MS, INTERVAL)).isEqualTo(SignalSlot.DROP);
+    }
+
+    @Test
+    void changesWithinIntervalAreDeferredAndOnlyLastValueIsSent() {
+        SignalSlot slot = new SignalSlot();
+        SignalSlot.Signal first = new SignalSlot.Signal(null, 10L);
+
+        assertThat(slot.offer(first, 0, INTERVAL)).isEqualTo(SignalSlot.SEND_NOW);
+        assertThat(slot.offer(new SignalSlot.Signal(null, 11L), 100 * MS, INTERVAL)).isEqualTo(200 * MS);
+        // 예약이 걸린 동안 온 값은 예약된 flush가 가져감
+        assertThat(slot.offer(new SignalSlot.Signal(null, 12L), 150 * MS, INTERVAL)).isEqualTo(SignalSlot.DROP);
+
+        assertThat(slot.flush(300 * MS)).isEqualTo(new SignalSlot.Signal(null, 12L));
+        // 방금 보냈으므로 다음 변경은 다시 간격만큼 기다림
+        assertThat(slot.offer(new SignalSlot.Signal(null, 13L), 400 * MS, INTERVAL)).isEqualTo(200 * MS);
+    }
+
+    @Test
+    void roundTripWithinIntervalSendsNothing() {
+        SignalSlot slot = new SignalSlot();
+
+        slot.offer(TYPING, 0, INTERVAL);
+        assertThat(slot.offer(STOPPED, 50 * MS, INTERVAL)).isPositive();
+        slot.offer(TYPING, 100 * MS, INTERVAL);
+
+        assertThat(slot.flush(300 * MS)).isNull();
+    }
+
+    @Test
+    void staleTypingExpiresWithoutWaitingForInterval() {
+        SignalSlot slot = new SignalSlot();
+        long timeout = 5_000 * MS;
+
+        slot.offer(TYPING, 0, INTERVAL);
+        assertThat(slot.expire(4_000 * MS, timeout)).isNull();
+        assertThat(slot.isIdle(10_000 * MS, timeout)).isFalse();
+
+        assertThat(slot.expire(5_000 * MS, timeout)).isEqualTo(STOPPED);
+        assertThat(slot.expire(6_000 * MS, timeout)).isNull();
+        assertThat(slot.isIdle(10_000 * MS, timeout)).isTrue();
+    }
+}
@@ -0,0 +1,85 @@
+package likelion13th.chat.presence;
+
+import likelion13th.chat.service.ActiveUserService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 접속자: 세션 단위 기록(여러 탭), TTL 만료, heartbeat로 연장
+ * 시계를 직접 움직여서 확인
+ */
+class PresenceRegistryTest {
+
+    private static final long ROOM = 1;
+    private static final long OTHER_ROOM = 2;
+    private static final long ALICE = 10;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final PresenceTable table = new PresenceTable();
+    private final PresenceRegistry registry = new TablePresenceRegistry(table, Duration.ofSeconds(90), now::get);
+    private final ActiveUserService activeUserService = new ActiveUserService(registry);
+
+    @Test
+    void userStaysActiveUntilTheLastSessionCloses() {
+        activeUserService.userJoined(ROOM, ALICE, "tab-1");
+        activeUserService.userJoined(ROOM, ALICE, "tab-2");
+        assertThat(activeUserService.activeSessionCount()).isEqualTo(2);
+
+        // 다른 탭이 남아 있으면 마지막 세션이 아님 (입력 중/접속 상태를 끄지 않음)
+        assertThat(activeUserService.sessionClosed("tab-1")).isFalse();
+        assertThat(activeUserService.isActive(ROOM, ALICE)).isTrue();
+
+        assertThat(activeUserService.sessionClosed("tab-2")).isTrue();
+        assertThat(activeUserService.isActive(ROOM, ALICE)).isFalse();
+        // 마지막 세션이 빠지면 방 항목도 사라짐
+        assertThat(activeUserService.activeRoomCount()).isZero();
+        // 이미 닫힌 세션을 다시 닫아도 영향 없음
+        activeUserService.sessionClosed("tab-2");
+    }
+
+    @Test
+    void sessionMovingToAnotherRoomLeavesThePreviousOne() {
+        activeUserService.userJoined(ROOM, ALICE, "tab-1");
+        activeUserService.userJoined(OTHER_ROOM, ALICE, "tab-1");
+
+        assertThat(activeUserService.isActive(ROOM, ALICE)).isFalse();
+        assertThat(activeUserService.isActive(OTHER_ROOM, ALICE)).isTrue();
+        assertThat(activeUserService.getUsersInRoom(OTHER_ROOM)).containsExactly(ALICE);
+    }
+
+    @Test
+    void sessionWithoutHeartbeatExpiresAfterTtl() {
+        // 다른 노드가 죽어서 연결 종료 이벤트가 오지 않은 세션
+        registry.join(ROOM, ALICE, "orphan");
+
+        now.addAndGet(Duration.ofSeconds(89).toMillis());
+        assertThat(registry.isPresent(ROOM, ALICE)).isTrue();
+
+        now.addAndGet(Duration.ofSeconds(2).toMillis());
+        assertThat(registry.isPresent(ROOM, ALICE)).isFalse();
+        assertThat(registry.usersIn(ROOM)).isEmpty();
+
+        registry.expireStale();
+        assertThat(registry.sessionCount()).isZero();
+        assertThat(registry.roomCount()).isZero();
+    }
+
+    @Test
+    void heartbeatExtendsLocalSessionsButDoesNotReviveLeftOnes() {
+        activeUserService.userJoined(ROOM, ALICE, "tab-1");
+
+        for (int i = 0; i < 5; i++) {
+            now.addAndGet(Duration.ofSeconds(60).toMillis());
+            activeUserService.heartbeat();
+        }
+        assertThat(activeUserService.isActive(ROOM, ALICE)).isTrue();
+
+        activeUserService.sessionClosed("tab-1");
+        registry.heartbeat(ROOM, ALICE, "tab-1");
+        assertThat(activeUserService.isActive(ROOM, ALICE)).isFalse();
+    }
+}
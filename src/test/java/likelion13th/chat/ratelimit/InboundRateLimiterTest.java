@@ -0,0 +1,184 @@
+package likelion13th.chat.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import likelion13th.chat.config.RateLimitProperties;
+import likelion13th.chat.service.RoomRef;
+import likelion13th.chat.service.RoomRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 유량 제한 인터셉터
+ * - 방 버킷은 명령 payload의 roomId 기준 (세션이 입장한 방과 달라도), 등록된 방에만
+ * - 방 한도로 거절되면 세션 토큰을 돌려줌
+ * - QUEUE: 지연된 명령은 채널로 다시 보내고, 다시 온 명령은 검사하지 않음, 세션 대기열이 차면 거절
+ */
+class InboundRateLimiterTest {
+
+    private static final String ROOM_A = "alice__bob";
+    private static final String ROOM_B = "alice__carol";
+
+    private final RateLimitProperties props = new RateLimitProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    /** QUEUE 모드에서 다시 보낸 명령 */
+    private final List<Message<?>> resent = new CopyOnWriteArrayList<>();
+    private final MessageChannel channel = (message, timeout) -> resent.add(message);
+    private final RoomRegistry roomRegistry = rooms();
+    private InboundRateLimiter limiter;
+
+    @AfterEach
+    void tearDown() {
+        limiter.destroy();
+    }
+
+    @Test
+    void roomBucketFollowsThePayloadRoomNotTheEnteredOne() {
+        limit("send", null, limit(0.001, 1));
+        limiter = new InboundRateLimiter(props, registry, roomRegistry);
+
+        // 둘 다 ROOM_A에 입장해 있지만 s1은 ROOM_B로 보냄
+        assertThat(limiter.preSend(send("s1", ROOM_A, ROOM_B), channel)).isNotNull();
+        assertThat(limiter.preSend(send("s2", ROOM_A, ROOM_A), channel)).isNotNull();
+        // "B__A"로 보내도 같은 방
+        assertThatThrownBy(() -> limiter.preSend(send("s3", null, "bob__alice"), channel))
+                .isInstanceOf(MessageDeliveryException.class)
+                .hasMessageContaining("(room)");
+        assertThat(registry.counter("chat.ratelimit.throttled",
+                "command", "send", "scope", "room", "outcome", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownRoomsGetNoRoomBucket() {
+        limit("send", null, limit(0.001, 1));
+        limiter = new InboundRateLimiter(props, registry, roomRegistry);
+
+        // 등록되지 않은 roomId마다 버킷이 생기지 않음 (방 한도 없이 통과, 컨트롤러에서 방 확인)
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.preSend(send("s1", null, "mallory__x" + i), channel)).isNotNull();
+            assertThat(limiter.preSend(send("s1", null, "mallory__x" + i), channel)).isNotNull();
+        }
+    }
+
+    @Test
+    void roomRejectionRefundsTheSessionToken() {
+        limit("send", limit(0.001, 1), limit(0.001, 1));
+        limiter = new InboundRateLimiter(props, registry, roomRegistry);
+
+        assertThat(limiter.preSend(send("s1", null, ROOM_A), channel)).isNotNull();
+        assertThatThrownBy(() -> limiter.preSend(send("s2", null, ROOM_A), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+        // s2의 세션 토큰은 돌려받았으므로 다른 방으로는 바로 보낼 수 있음
+        assertThat(limiter.preSend(send("s2", null, ROOM_B), channel)).isNotNull();
+    }
+
+    @Test
+    void queueModeResendsDelayedCommandsOnce() throws InterruptedException {
+        props.setOverflow(RateLimitProperties.Overflow.QUEUE);
+        limit("send", limit(20, 1), null); // 50ms마다 토큰 하나
+        limiter = new InboundRateLimiter(props, registry, roomRegistry);
+
+        Message<byte[]> first = send("s1", null, ROOM_A);
+        Message<byte[]> second = send("s1", null, ROOM_A);
+        assertThat(limiter.preSend(first, channel)).isSameAs(first);
+        assertThat(limiter.preSend(second, channel)).isNull();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (resent.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(resent).hasSize(1);
+        Message<?> delayed = resent.get(0);
+        assertThat(delayed.getPayload()).isSameAs(second.getPayload());
+        assertThat(delayed.getHeaders()).containsKey(InboundRateLimiter.ADMITTED_HEADER);
+        // 다시 온 명령은 토큰을 또 쓰지 않고 그대로 통과
+        assertThat(limiter.preSend(delayed, channel)).isSameAs(delayed);
+    }
+
+    @Test
+    void queueModeRejectsWhenTheSessionQueueIsFull() {
+        props.setOverflow(RateLimitProperties.Overflow.QUEUE);
+        props.setQueueCapacity(1);
+        props.setMaxQueueDelay(Duration.ofSeconds(30));
+        limit("send", limit(1, 1), null);
+        limiter = new InboundRateLimiter(props, registry, roomRegistry);
+
+        assertThat(limiter.preSend(send("s1", null, ROOM_A), channel)).isNotNull();
+        assertThat(limiter.preSend(send("s1", null, ROOM_A), channel)).isNull();
+        assertThatThrownBy(() -> limiter.preSend(send("s1", null, ROOM_A), channel))
+                .isInstanceOf(MessageDeliveryException.class)
+                .hasMessageContaining("(session)");
+        // 다른 세션의 대기열은 따로
+        assertThat(limiter.preSend(send("s2", null, ROOM_A), channel)).isNotNull();
+        assertThat(registry.find("chat.ratelimit.queued").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void queueModeRejectsCommandsThatWouldWaitTooLong() {
+        props.setOverflow(RateLimitProperties.Overflow.QUEUE);
+        props.setMaxQueueDelay(Duration.ofMillis(100));
+        limit("send", limit(1, 1), null);
+        limiter = new InboundRateLimiter(props, registry, roomRegistry);
+
+        assertThat(limiter.preSend(send("s1", null, ROOM_A), channel)).isNotNull();
+        assertThatThrownBy(() -> limiter.preSend(send("s1", null, ROOM_A), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    /** ROOM_A, ROOM_B만 등록된 방 */
+    private static RoomRegistry rooms() {
+        RoomRegistry rooms = mock(RoomRegistry.class);
+        when(rooms.find(anyString())).thenReturn(Optional.empty());
+        when(rooms.find(ROOM_A)).thenReturn(Optional.of(new RoomRef(1L, ROOM_A, "alice", 10L, "bob", 20L)));
+        when(rooms.find(ROOM_B)).thenReturn(Optional.of(new RoomRef(2L, ROOM_B, "alice", 10L, "carol", 30L)));
+        return rooms;
+    }
+
+    private void limit(String command, RateLimitProperties.Limit session, RateLimitProperties.Limit room) {
+        RateLimitProperties.Command limits = new RateLimitProperties.Command();
+        limits.setSession(session);
+        limits.setRoom(room);
+        props.getCommands().put(command, limits);
+    }
+
+    private static RateLimitProperties.Limit limit(double rate, int burst) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRate(rate);
+        limit.setBurst(burst);
+        return limit;
+    }
+
+    /** enteredRoom: /app/enter 때 세션 속성에 저장된 방 (null이면 입장 전) */
+    private static Message<byte[]> send(String sessionId, String enteredRoom, String roomId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination("/app/send");
+        Map<String, Object> attrs = new HashMap<>();
+        if (enteredRoom != null) {
+            attrs.put("roomId", enteredRoom);
+        }
+        accessor.setSessionAttributes(attrs);
+        byte[] payload = ("{\"roomId\":\"" + roomId + "\",\"content\":\"hi\"}").getBytes(StandardCharsets.UTF_8);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
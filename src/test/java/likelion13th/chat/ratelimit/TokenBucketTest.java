@@ -0,0 +1,47 @@
+package likelion13th.chat.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRejectsWithoutWait() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+
+        assertThat(bucket.acquire(now, 0)).isZero();
+        assertThat(bucket.acquire(now, 0)).isZero();
+        assertThat(bucket.acquire(now, 0)).isZero();
+        assertThat(bucket.acquire(now, 0)).isEqualTo(-1);
+
+        // 0.1초마다 토큰 하나
+        assertThat(bucket.acquire(now + SECOND / 10, 0)).isZero();
+    }
+
+    @Test
+    void reservesFutureTokensWithinMaxWait() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 1, now);
+
+        assertThat(bucket.acquire(now, SECOND)).isZero();
+        assertThat(bucket.acquire(now, SECOND)).isEqualTo(SECOND / 10);
+        assertThat(bucket.acquire(now, SECOND)).isEqualTo(2 * SECOND / 10);
+        assertThat(bucket.acquire(now, SECOND / 10)).isEqualTo(-1);
+    }
+
+    @Test
+    void refundReturnsToken() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(1, 1, now);
+
+        assertThat(bucket.acquire(now, 0)).isZero();
+        assertThat(bucket.isIdle(now)).isFalse();
+        bucket.refund();
+        assertThat(bucket.isIdle(now)).isTrue();
+        assertThat(bucket.acquire(now, 0)).isZero();
+    }
+}
@@ -0,0 +1,177 @@
+package likelion13th.chat.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoomSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsKoreanAndLatinTermsNewestFirst() {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 10);
+        index.apply(List.of(
+                add(1, "오늘 점심 뭐 먹을까?"),
+                add(2, "Spring Boot 설정 공유해요"),
+                add(3, "점심은 김밥"),
+                add(4, "밥 먹자"),
+                add(5, "가나 나다")));
+
+        assertThat(ids(index, "점심")).containsExactly(3L, 1L);
+        assertThat(ids(index, "spring 설정")).containsExactly(2L);
+        assertThat(ids(index, "밥")).containsExactly(4L, 3L);
+        // "가나"와 "나다" bigram은 둘 다 있지만 "가나다"라는 문자열은 없음
+        assertThat(ids(index, "가나")).containsExactly(5L);
+        assertThat(ids(index, "가나다")).isEmpty();
+    }
+
+    @Test
+    void editsReplaceAndDeletesRemoveOlderVersions() {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 10);
+        index.apply(List.of(add(1, "회의는 3시"), add(2, "회의 자료")));
+        index.apply(List.of(add(1, "약속은 4시"), delete(2)));
+
+        assertThat(ids(index, "회의")).isEmpty();
+        assertThat(ids(index, "약속")).containsExactly(1L);
+        assertThat(index.liveCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pagesWithBeforeCursorAcrossSegments() {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 100);
+        for (long id = 1; id <= 30; id++) {
+            index.apply(List.of(add(id, "hello " + id)));
+        }
+        List<Long> all = new ArrayList<>();
+        long before = Long.MAX_VALUE;
+        while (true) {
+            List<StoredDoc> page = index.search(SearchTokenizer.queryTerms("hello"), d -> true, before, 7);
+            page.forEach(d -> all.add(d.id()));
+            if (page.size() < 7) {
+                break;
+            }
+            before = page.get(page.size() - 1).id();
+        }
+        assertThat(all).hasSize(30).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    void reopensFromDiskAndMergesSegments() {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 3);
+        for (long id = 1; id <= 10; id++) {
+            index.apply(List.of(add(id, "메시지 " + id)));
+        }
+        index.apply(List.of(delete(5), add(6, "수정됨")));
+        assertThat(index.segmentCount()).isLessThanOrEqualTo(4);
+
+        RoomSearchIndex reopened = RoomSearchIndex.open(dir, 3);
+        assertThat(reopened.maxId()).isEqualTo(10);
+        assertThat(ids(reopened, "메시지")).containsExactly(10L, 9L, 8L, 7L, 4L, 3L, 2L, 1L);
+        assertThat(ids(reopened, "수정")).containsExactly(6L);
+    }
+
+    @Test
+    void tieredMergeLeavesLargerSegmentsAlone() throws IOException {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 3);
+        for (long id = 1; id <= 8; id++) {
+            index.apply(List.of(add(id, "메시지 " + id)));
+        }
+        // 1+1 → 2, 2+1+1 → 4, ... 비슷한 크기끼리 합쳐져 8개짜리 하나
+        assertThat(index.segmentCount()).isEqualTo(1);
+        Set<Path> large = files();
+
+        for (long id = 9; id <= 11; id++) {
+            index.apply(List.of(add(id, "메시지 " + id)));
+        }
+        // 8, 2, 1: 작은 세그먼트끼리만 합쳐지고 8개짜리 파일은 다시 쓰지 않음
+        assertThat(index.segmentCount()).isEqualTo(3);
+        assertThat(files()).containsAll(large);
+        assertThat(ids(index, "메시지")).hasSize(11).first().isEqualTo(11L);
+    }
+
+    @Test
+    void reopenDropsSourcesOfAnInterruptedMerge() throws IOException {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 3);
+        index.apply(List.of(add(1, "하나")));
+        index.apply(List.of(add(2, "둘"), delete(1)));
+        Path backup = Files.createDirectory(dir.resolve("backup"));
+        for (Path file : files()) {
+            Files.copy(file, backup.resolve(file.getFileName()));
+        }
+        index.apply(List.of(add(3, "셋")));
+        assertThat(index.segmentCount()).isEqualTo(1);
+
+        // 병합 결과를 쓰고 원본을 지우기 전에 멈춘 것처럼 원본을 되살림
+        try (Stream<Path> copies = Files.list(backup)) {
+            for (Path copy : copies.toList()) {
+                Files.move(copy, dir.resolve(copy.getFileName()));
+            }
+        }
+        Files.delete(backup);
+
+        RoomSearchIndex reopened = RoomSearchIndex.open(dir, 3);
+        assertThat(reopened.segmentCount()).isEqualTo(1);
+        assertThat(files()).hasSize(1);
+        assertThat(reopened.liveCount()).isEqualTo(2);
+        assertThat(ids(reopened, "하나")).isEmpty();
+        assertThat(ids(reopened, "셋")).containsExactly(3L);
+    }
+
+    @Test
+    void unreadableSegmentsResetTheIndex() throws IOException {
+        RoomSearchIndex previous = RoomSearchIndex.open(dir, 10);
+        previous.apply(List.of(add(1, "하나")));
+        previous.close();
+        // 읽을 수 있는 세그먼트를 연 뒤에 읽을 수 없는 파일을 만나도 모두 닫고 비움
+        Files.write(dir.resolve("99999999999999999999-99999999999999999999.seg"), new byte[]{1, 2, 3});
+
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 10);
+
+        assertThat(index.maxId()).isZero();
+        assertThat(index.segmentCount()).isZero();
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void closedIndexRejectsChanges() {
+        RoomSearchIndex index = RoomSearchIndex.open(dir, 10);
+        index.close();
+
+        assertThatThrownBy(() -> index.apply(List.of(add(1, "늦은 변경")))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> ids(index, "변경")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private Set<Path> files() throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(path -> path.getFileName().toString().endsWith(".seg")).collect(Collectors.toSet());
+        }
+    }
+
+    private static List<Long> ids(RoomSearchIndex index, String query) {
+        List<String> runs = SearchTokenizer.queryRuns(query);
+        return index.search(SearchTokenizer.queryTerms(query), d -> SearchTokenizer.matches(d.content(), runs),
+                Long.MAX_VALUE, 100).stream().map(StoredDoc::id).toList();
+    }
+
+    private static RoomSearchIndex.Change add(long id, String content) {
+        return new RoomSearchIndex.Change(id, "u", content, Instant.EPOCH);
+    }
+
+    private static RoomSearchIndex.Change delete(long id) {
+        return new RoomSearchIndex.Change(id, null, null, null);
+    }
+}
@@ -0,0 +1,52 @@
+package likelion13th.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static likelion13th.chat.dto.event.SampleMessages.sampleResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 브로드캐스트 한 번당 인코딩 할당량 측정
+ * 바이트로 바로 쓰는 경로가 String을 거치는 경로보다 적게 할당해야 함
+ * (ThreadMXBean이 스레드별 할당량을 지원하는 HotSpot 계열 JVM 기준)
+ */
+class BroadcastPayloadEncoderAllocationTest {
+
+    private static final int ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BroadcastPayloadEncoder encoder = new BroadcastPayloadEncoder(objectMapper);
+
+    @Test
+    void encodingDirectlyToBytesAllocatesLessThanViaString() throws Exception {
+        ChatMessageResponse response = sampleResponse();
+
+        long viaBytes = allocatedPerCall(() -> encoder.encode(response));
+        long viaString = allocatedPerCall(() -> objectMapper.writeValueAsString(response).getBytes(StandardCharsets.UTF_8));
+
+        assertThat(viaBytes).isLessThan(viaString);
+    }
+
+    private interface Encoding {
+        Object run() throws Exception;
+    }
+
+    private static long allocatedPerCall(Encoding encoding) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < ITERATIONS; i++) {
+            encoding.run(); // JIT 워밍업
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            encoding.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+}
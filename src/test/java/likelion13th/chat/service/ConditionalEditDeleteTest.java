@@ -0,0 +1,156 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.controller.ChatController;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.dto.command.DeleteMessageCommand;
+import likelion13th.chat.dto.command.EditMessageCommand;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
+import likelion13th.chat.repository.ChatMessageRepository;
+import likelion13th.chat.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * 조건부 수정/삭제(editIfUnread/deleteIfUnread)와 0건일 때의 원인 구분
+ * - 본인 + 아직 READ가 아님: 한 문장으로 반영 (수정은 SENT로 되돌리고 version 증가)
+ * - 0건: NOT_FOUND(없음/다른 방) / NOT_OWNER / ALREADY_READ → 요청한 세션에만 error 이벤트
+ */
+@SpringBootTest
+class ConditionalEditDeleteTest {
+
+    private static final AtomicLong IDS = new AtomicLong(9_200_000L);
+
+    @Autowired
+    ChatService chatService;
+    @Autowired
+    ChatController chatController;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ChatMessageRepository chatMessageRepository;
+    @Autowired
+    ChatMessageJdbcRepository jdbcRepository;
+    @Autowired
+    RoomRegistry roomRegistry;
+
+    private String alice;
+    private String bob;
+    private String roomId;
+    private long roomNo;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("alice");
+        bob = user("bob");
+        roomId = RoomRegistry.canonicalKey(alice, bob);
+        roomNo = roomRegistry.resolve(roomId).no();
+    }
+
+    @Test
+    void editsOwnUnreadMessageInPlace() {
+        long id = insert(roomNo, alice, MessageStatus.DELIVERED);
+
+        ChatMessageResponse res = chatService.edit(new EditMessageCommand(id, alice, "edited", roomId));
+
+        assertThat(res.getContent()).isEqualTo("edited");
+        assertThat(res.getStatus()).isEqualTo(MessageStatus.SENT);
+        ChatMessage saved = chatMessageRepository.findById(id).orElseThrow();
+        assertThat(saved.getContent()).isEqualTo("edited");
+        assertThat(saved.getStatus()).isEqualTo(MessageStatus.SENT);
+        assertThat(saved.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void editWithoutRoomIdFindsTheRoom() {
+        long id = insert(roomNo, alice, MessageStatus.SENT);
+
+        assertThat(chatService.edit(new EditMessageCommand(id, alice, "edited", null)).getRoomId()).isEqualTo(roomId);
+    }
+
+    @Test
+    void editConflictsAreMappedToTheirReason() {
+        long read = insert(roomNo, alice, MessageStatus.READ);
+        long bobs = insert(roomNo, bob, MessageStatus.SENT);
+        String otherRoom = RoomRegistry.canonicalKey(alice, user("carol"));
+
+        assertThat(editConflict(read, alice, roomId)).isEqualTo(MessageConflictException.Reason.ALREADY_READ);
+        assertThat(editConflict(bobs, alice, roomId)).isEqualTo(MessageConflictException.Reason.NOT_OWNER);
+        assertThat(editConflict(IDS.incrementAndGet(), alice, roomId)).isEqualTo(MessageConflictException.Reason.NOT_FOUND);
+        // 다른 방 ID로 보낸 요청은 그 방에 없는 메시지
+        assertThat(editConflict(read, alice, otherRoom)).isEqualTo(MessageConflictException.Reason.NOT_FOUND);
+        // 실패한 수정은 아무것도 바꾸지 않음
+        assertThat(chatMessageRepository.findById(read)).map(ChatMessage::getContent).contains("message-" + read);
+    }
+
+    @Test
+    void deletesOnlyOwnUnreadMessages() {
+        long unread = insert(roomNo, alice, MessageStatus.SENT);
+        long read = insert(roomNo, alice, MessageStatus.READ);
+        long bobs = insert(roomNo, bob, MessageStatus.SENT);
+
+        assertThat(chatService.delete(new DeleteMessageCommand(unread, alice, roomId)).getRoomId()).isEqualTo(roomId);
+        assertThat(chatMessageRepository.findById(unread)).isEmpty();
+
+        assertThat(deleteConflict(read, alice)).isEqualTo(MessageConflictException.Reason.ALREADY_READ);
+        assertThat(deleteConflict(bobs, alice)).isEqualTo(MessageConflictException.Reason.NOT_OWNER);
+        assertThat(deleteConflict(unread, alice)).isEqualTo(MessageConflictException.Reason.NOT_FOUND);
+        assertThat(chatMessageRepository.findById(read)).isPresent();
+        assertThat(chatMessageRepository.findById(bobs)).isPresent();
+    }
+
+    @Test
+    void conflictBecomesAnErrorEventForTheRequester() {
+        long read = insert(roomNo, alice, MessageStatus.READ);
+        MessageConflictException e = catchThrowableOfType(
+                () -> chatService.delete(new DeleteMessageCommand(read, alice, roomId)), MessageConflictException.class);
+
+        WsEvent event = chatController.conflict(e);
+
+        assertThat(event.getType()).isEqualTo("error");
+        assertThat(event.getCode()).isEqualTo("ALREADY_READ");
+        assertThat(event.getMessageId()).isEqualTo(read);
+    }
+
+    private MessageConflictException.Reason editConflict(long id, String editorUid, String roomId) {
+        return catchThrowableOfType(() -> chatService.edit(new EditMessageCommand(id, editorUid, "x", roomId)),
+                MessageConflictException.class).getReason();
+    }
+
+    private MessageConflictException.Reason deleteConflict(long id, String requesterUid) {
+        return catchThrowableOfType(() -> chatService.delete(new DeleteMessageCommand(id, requesterUid, roomId)),
+                MessageConflictException.class).getReason();
+    }
+
+    private String user(String name) {
+        return userRepository.save(User.builder().key("edit").displayName(name).build()).getUid();
+    }
+
+    private long insert(long roomNo, String senderUid, MessageStatus status) {
+        long id = IDS.incrementAndGet();
+        Instant now = Instant.now();
+        jdbcRepository.insertAll(List.of(ChatMessage.builder()
+                .id(id)
+                .roomNo(roomNo)
+                .senderUid(senderUid)
+                .content("message-" + id)
+                .status(status)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(0L)
+                .build()));
+        return id;
+    }
+}
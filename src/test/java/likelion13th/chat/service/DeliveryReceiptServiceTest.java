@@ -0,0 +1,130 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.dto.command.AckCommand;
+import likelion13th.chat.dto.event.WsEvent;
+import likelion13th.chat.repository.ChatMessageRepository;
+import likelion13th.chat.storage.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 수신 확인: (방, 수신자)마다 ack를 모아 UPDATE 한 번, 바뀐 행이 있을 때만 이벤트 하나
+ * ack ID는 방의 가장 큰 메시지 ID로 자르고, 반영에 실패하면 다음 주기에 다시 시도
+ */
+class DeliveryReceiptServiceTest {
+
+    private static final RoomRef ROOM = new RoomRef(1L, "alice__bob", "alice", 10L, "bob", 20L);
+
+    private ChatMessageRepository repository;
+    private RoomBroadcaster broadcaster;
+    private RecentMessageCache cache;
+    private DeliveryReceiptService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ChatMessageRepository.class);
+        broadcaster = mock(RoomBroadcaster.class);
+        cache = mock(RecentMessageCache.class);
+        RoomRegistry roomRegistry = mock(RoomRegistry.class);
+        when(roomRegistry.resolve(ROOM.key())).thenReturn(ROOM);
+        when(roomRegistry.byNo(ROOM.no())).thenReturn(ROOM);
+        ShardRouter shardRouter = mock(ShardRouter.class);
+        when(shardRouter.onShard(anyInt(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(1)).get());
+        when(repository.findMaxIdByRoomNo(ROOM.no())).thenReturn(100L);
+
+        service = new DeliveryReceiptService(repository, mock(ChatMessageWriter.class), roomRegistry, broadcaster,
+                cache, mock(PlatformTransactionManager.class), shardRouter);
+    }
+
+    @Test
+    void coalescesAcksIntoOneUpdateAndOneEvent() {
+        when(repository.markDelivered(anyLong(), anyString(), anyLong(), any(), any(), any())).thenReturn(3);
+        service.acknowledge(ack(5));
+        service.acknowledge(ack(9));
+        service.acknowledge(ack(7));
+
+        service.flush();
+
+        verify(repository, times(1)).markDelivered(eq(ROOM.no()), eq("bob"), eq(9L),
+                eq(MessageStatus.SENT), eq(MessageStatus.DELIVERED), any());
+        assertThat(deliveredEvent().getMessageId()).isEqualTo(9L);
+        verify(cache).markedDelivered(eq(ROOM.no()), eq("bob"), eq(9L), any());
+        assertThat(service.getAcks()).isEqualTo(3);
+        assertThat(service.getUpdates()).isEqualTo(1);
+        assertThat(service.getPendingRecipients()).isZero();
+    }
+
+    @Test
+    void clampsTheAckToTheRoomsLatestMessage() {
+        when(repository.markDelivered(anyLong(), anyString(), anyLong(), any(), any(), any())).thenReturn(1);
+        service.acknowledge(ack(Long.MAX_VALUE));
+
+        service.flush();
+
+        verify(repository).markDelivered(eq(ROOM.no()), eq("bob"), eq(100L), any(), any(), any());
+        assertThat(deliveredEvent().getMessageId()).isEqualTo(100L);
+    }
+
+    @Test
+    void requeuesAcksWhenTheUpdateFails() {
+        when(repository.markDelivered(anyLong(), anyString(), anyLong(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("shard down"))
+                .thenReturn(2);
+        service.acknowledge(ack(5));
+
+        service.flush();
+        verify(broadcaster, never()).broadcast(anyString(), any());
+        assertThat(service.getPendingRecipients()).isEqualTo(1);
+
+        // 그 사이 들어온 더 큰 ack와 합쳐져서 한 번에 반영
+        service.acknowledge(ack(8));
+        service.flush();
+        verify(repository).markDelivered(eq(ROOM.no()), eq("bob"), eq(8L), any(), any(), any());
+        assertThat(deliveredEvent().getMessageId()).isEqualTo(8L);
+        assertThat(service.getPendingRecipients()).isZero();
+    }
+
+    @Test
+    void noChangedRowsMeansNoEvent() {
+        when(repository.markDelivered(anyLong(), anyString(), anyLong(), any(), any(), any())).thenReturn(0);
+        service.acknowledge(ack(5));
+
+        service.flush();
+
+        verify(broadcaster, never()).broadcast(anyString(), any());
+        verify(cache, never()).markedDelivered(anyLong(), anyString(), anyLong(), any());
+        assertThat(service.getDelivered()).isZero();
+    }
+
+    private static AckCommand ack(long messageId) {
+        return new AckCommand(ROOM.key(), "bob", messageId);
+    }
+
+    /** 방으로 나간 delivered 이벤트 (정확히 하나) */
+    private WsEvent deliveredEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster).broadcast(eq(ROOM.key()), event.capture());
+        WsEvent delivered = (WsEvent) event.getValue();
+        assertThat(delivered.getType()).isEqualTo("delivered");
+        assertThat(delivered.getRecipientUid()).isEqualTo("bob");
+        return delivered;
+    }
+}
@@ -0,0 +1,121 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.BrokerProperties;
+import likelion13th.chat.config.HistoryProperties;
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 최근 메시지 캐시: 창 범위 안의 조회만 적중하고, send/edit/delete/읽음 처리 후에도 DB와 같은 결과를 내야 함
+ */
+class RecentMessageCacheTest {
+
+    private static final long ROOM = 1L;
+    private static final String ALICE = "alice";
+    private static final String BOB = "bob";
+
+    @Test
+    void servesRecentAndKeysetRequestsInsideTheWindow() {
+        RecentMessageCache cache = cache(5);
+        cache.load(ROOM, cache.generation(ROOM), messages(11, 15), false);
+
+        assertThat(ids(cache.find(ROOM, null, null, 3).orElseThrow())).containsExactly(13L, 14L, 15L);
+        assertThat(ids(cache.find(ROOM, 14L, null, 2).orElseThrow())).containsExactly(12L, 13L);
+        assertThat(ids(cache.find(ROOM, null, 12L, 10).orElseThrow())).containsExactly(13L, 14L, 15L);
+
+        // 창보다 오래된 구간이 필요하면 DB로
+        assertThat(cache.find(ROOM, 13L, null, 5)).isEmpty();
+        assertThat(cache.find(ROOM, null, 5L, 10)).isEmpty();
+        assertThat(cache.find(ROOM, null, null, 6)).isEmpty();
+        assertThat(cache.getHits()).isEqualTo(3);
+        assertThat(cache.getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    void smallRoomIsServedEntirely() {
+        RecentMessageCache cache = cache(5);
+        cache.load(ROOM, cache.generation(ROOM), messages(1, 2), true);
+
+        assertThat(ids(cache.find(ROOM, null, null, 50).orElseThrow())).containsExactly(1L, 2L);
+        assertThat(cache.find(ROOM, 1L, null, 50).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void followsSendEditDeleteAndRead() {
+        RecentMessageCache cache = cache(3);
+        cache.load(ROOM, cache.generation(ROOM), messages(1, 3), true);
+
+        cache.added(ROOM, message(4, ALICE, "new"));              // 1 밀려남
+        cache.replaced(ROOM, message(3, ALICE, "edited"));
+        cache.removed(ROOM, 2);
+        cache.markedRead(ROOM, BOB, 4, Instant.now());
+
+        List<ChatMessageResponse> window = cache.find(ROOM, null, null, 2).orElseThrow();
+        assertThat(ids(window)).containsExactly(3L, 4L);
+        assertThat(window.get(0).getContent()).isEqualTo("edited");
+        assertThat(window).allMatch(m -> m.getStatus() == MessageStatus.READ);
+        // 삭제로 창이 limit보다 작아졌고 방 전체도 아니므로 DB로
+        assertThat(cache.find(ROOM, null, null, 3)).isEmpty();
+    }
+
+    @Test
+    void discardsLoadRacingWithAChange() {
+        RecentMessageCache cache = cache(5);
+        long generation = cache.generation(ROOM);
+        cache.added(ROOM, message(3, ALICE, "sent while loading"));
+        cache.load(ROOM, generation, messages(1, 2), true);
+
+        assertThat(cache.find(ROOM, null, null, 1)).isEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedRoomOfTheSameStripe() {
+        HistoryProperties props = new HistoryProperties();
+        props.getCache().setWindowSize(5);
+        props.getCache().setMaxRooms(2 * 16); // 구간(16개)마다 2개
+        RecentMessageCache cache = new RecentMessageCache(props, new BrokerProperties());
+        // 1, 17, 33은 같은 구간, 2는 다른 구간
+        cache.load(1L, cache.generation(1L), messages(1, 2), true);
+        cache.load(17L, cache.generation(17L), messages(3, 4), true);
+        cache.load(2L, cache.generation(2L), messages(7, 8), true);
+        cache.find(1L, null, null, 1);
+        cache.load(33L, cache.generation(33L), messages(5, 6), true);
+
+        assertThat(cache.find(1L, null, null, 1)).isPresent();
+        assertThat(cache.find(17L, null, null, 1)).isEmpty();
+        assertThat(cache.find(2L, null, null, 1)).isPresent();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getRoomCount()).isEqualTo(3);
+    }
+
+    private static RecentMessageCache cache(int windowSize) {
+        HistoryProperties props = new HistoryProperties();
+        props.getCache().setWindowSize(windowSize);
+        return new RecentMessageCache(props, new BrokerProperties());
+    }
+
+    private static List<ChatMessageResponse> messages(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId).mapToObj(id -> message(id, ALICE, "m" + id)).toList();
+    }
+
+    private static ChatMessageResponse message(long id, String senderUid, String content) {
+        return ChatMessageResponse.builder()
+                .id(id)
+                .roomId("a__b")
+                .senderUid(senderUid)
+                .content(content)
+                .status(MessageStatus.SENT)
+                .build();
+    }
+
+    private static List<Long> ids(List<ChatMessageResponse> messages) {
+        return messages.stream().map(ChatMessageResponse::getId).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.BrokerProperties;
+import likelion13th.chat.config.ResumeProperties;
+import likelion13th.chat.dto.event.ResumeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 방 이벤트 로그: 방별 seq가 이어지고, 로그 안의 구간만 이어받고, 벗어나면 reset
+ */
+class RoomEventLogTest {
+
+    private static final String ROOM = "alice__bob";
+    private static final String ALICE = "alice";
+    private static final String BOB = "bob";
+
+    @Test
+    void assignsConsecutiveSeqPerRoomInSendOrder() {
+        RoomEventLog log = log(10, 10);
+        List<Long> sent = new ArrayList<>();
+
+        append(log, ROOM, "{\"n\":1}", sent);
+        append(log, ROOM, "{\"n\":2}", sent);
+        append(log, "carol__dave", "{\"n\":1}", sent);
+        append(log, ROOM, "{\"n\":3}", sent);
+
+        assertThat(sent).containsExactly(1L, 2L, 1L, 3L);
+    }
+
+    @Test
+    void replaysOnlyFramesAfterTheGivenSeq() {
+        RoomEventLog log = log(10, 10);
+        String epoch = firstContact(log);
+        for (int i = 1; i <= 5; i++) {
+            log.append(ROOM, json("{\"n\":" + i + "}"), new String[]{ALICE}, seq -> { });
+        }
+
+        RoomEventLog.Replay replay = log.since(ROOM, epoch, 3L, ALICE);
+
+        assertThat(replay.response().isResumed()).isTrue();
+        assertThat(replay.response().getSeq()).isEqualTo(5);
+        assertThat(replay.response().getFrames()).extracting(ResumeResponse.Frame::seq).containsExactly(4L, 5L);
+        assertThat(replay.response().getFrames()).extracting(ResumeResponse.Frame::payload)
+                .containsExactly("{\"n\":4}", "{\"n\":5}");
+        // 내가 보낸 메시지만 놓쳤으면 읽음 처리를 다시 할 필요 없음
+        assertThat(replay.unreadMessages()).isFalse();
+        assertThat(log.since(ROOM, epoch, 3L, BOB).unreadMessages()).isTrue();
+
+        RoomEventLog.Replay upToDate = log.since(ROOM, epoch, 5L, ALICE);
+        assertThat(upToDate.response().isResumed()).isTrue();
+        assertThat(upToDate.response().getFrames()).isEmpty();
+    }
+
+    @Test
+    void resetsWhenSeqFellOutOfTheRingOrEpochDiffers() {
+        RoomEventLog log = log(3, 10);
+        String epoch = firstContact(log);
+        for (int i = 1; i <= 5; i++) {
+            log.append(ROOM, json("{}"), null, seq -> { });
+        }
+
+        // 3개만 보관: 2 이후(3, 4, 5)는 이어받을 수 있고 1 이후는 2가 밀려나서 불가
+        assertThat(log.since(ROOM, epoch, 2L, ALICE).response().isResumed()).isTrue();
+        RoomEventLog.Replay tooOld = log.since(ROOM, epoch, 1L, ALICE);
+        assertThat(tooOld.response().isResumed()).isFalse();
+        assertThat(tooOld.response().getSeq()).isEqualTo(5);
+        assertThat(tooOld.unreadMessages()).isTrue();
+
+        assertThat(log.since(ROOM, "other-node", 4L, ALICE).response().isResumed()).isFalse();
+        assertThat(log.since(ROOM, epoch, 9L, ALICE).response().isResumed()).isFalse();
+        assertThat(log.getResets()).isEqualTo(4); // firstContact 포함
+    }
+
+    @Test
+    void recreatedRoomLogContinuesAfterEvictedSeq() {
+        RoomEventLog log = log(10, 1);
+        List<Long> sent = new ArrayList<>();
+        append(log, ROOM, "{}", sent);
+        append(log, ROOM, "{}", sent);
+        String epoch = log.since(ROOM, null, null, ALICE).response().getEpoch();
+
+        // 방 수 상한 1: 다른 방이 쓰이면 ROOM의 로그는 제거됨
+        append(log, "carol__dave", "{}", sent);
+        assertThat(log.getEvictions()).isEqualTo(1);
+
+        // 제거 전에 끝까지 받은 클라이언트는 놓친 게 없으므로 그대로 이어받음
+        assertThat(log.since(ROOM, epoch, 2L, ALICE).response().isResumed()).isTrue();
+        append(log, ROOM, "{}", sent);
+        assertThat(sent.get(sent.size() - 1)).isGreaterThan(2L);
+    }
+
+    @Test
+    void disabledInRelayMode() {
+        BrokerProperties broker = new BrokerProperties();
+        broker.setMode(BrokerProperties.Mode.RELAY);
+        RoomEventLog log = new RoomEventLog(new ResumeProperties(), broker);
+
+        assertThat(log.isEnabled()).isFalse();
+        assertThat(log.since(ROOM, null, 1L, ALICE).response().isResumed()).isFalse();
+    }
+
+    private static RoomEventLog log(int framesPerRoom, int maxRooms) {
+        ResumeProperties props = new ResumeProperties();
+        props.setFramesPerRoom(framesPerRoom);
+        props.setMaxRooms(maxRooms);
+        return new RoomEventLog(props, new BrokerProperties());
+    }
+
+    /** 처음 접속: reset 응답에서 epoch를 받음 */
+    private static String firstContact(RoomEventLog log) {
+        return log.since(ROOM, null, null, ALICE).response().getEpoch();
+    }
+
+    private static void append(RoomEventLog log, String roomId, String payload, List<Long> sent) {
+        log.append(roomId, json(payload), null, sent::add);
+    }
+
+    private static byte[] json(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.DedupProperties;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** 재전송 중복 캐시: 같은 (방, 보낸 사람, clientMessageId)만 window 동안 적중, 용량을 넘으면 덮어씀 */
+class SendDeduplicatorTest {
+
+    @Test
+    void matchesOnlyTheSameRoomSenderAndClientId() {
+        SendDeduplicator dedup = dedup(Duration.ofMinutes(1), 16);
+        ChatMessageResponse original = ChatMessageResponse.builder().id(7L).content("hi").build();
+        dedup.remember(1L, "alice", "c-1", original);
+
+        assertThat(dedup.find(1L, "alice", "c-1")).containsSame(original);
+        assertThat(dedup.find(1L, "bob", "c-1")).isEmpty();
+        assertThat(dedup.find(2L, "alice", "c-1")).isEmpty();
+        assertThat(dedup.find(1L, "alice", "c-2")).isEmpty();
+        assertThat(dedup.getCacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void forgetsAfterTheWindow() {
+        SendDeduplicator dedup = dedup(Duration.ZERO, 16);
+        dedup.remember(1L, "alice", "c-1", ChatMessageResponse.builder().id(7L).build());
+
+        assertThat(dedup.find(1L, "alice", "c-1")).isEmpty();
+    }
+
+    @Test
+    void forgetsOnlyTheUnsavedResponse() {
+        SendDeduplicator dedup = dedup(Duration.ofMinutes(1), 16);
+        dedup.remember(1L, "alice", "c-1", ChatMessageResponse.builder().id(7L).build());
+
+        dedup.forget(1L, "alice", "c-1", 8L);
+        assertThat(dedup.find(1L, "alice", "c-1")).isPresent();
+        dedup.forget(1L, "alice", "c-1", 7L);
+        assertThat(dedup.find(1L, "alice", "c-1")).isEmpty();
+    }
+
+    @Test
+    void staysBoundedWhenFull() {
+        SendDeduplicator dedup = dedup(Duration.ofMinutes(1), 4);
+        for (int i = 0; i < 1_000; i++) {
+            dedup.remember(1L, "alice", "c-" + i, ChatMessageResponse.builder().id((long) i).build());
+        }
+        // 최근 항목은 남아 있고, 오래된 항목 대부분은 밀려남 (그 재전송은 DB 유니크 제약이 막음)
+        assertThat(dedup.find(1L, "alice", "c-999")).isPresent();
+        long remembered = IntStream.range(0, 1_000)
+                .filter(i -> dedup.find(1L, "alice", "c-" + i).isPresent())
+                .count();
+        assertThat(remembered).isLessThanOrEqualTo(4);
+    }
+
+    private static SendDeduplicator dedup(Duration window, int capacity) {
+        DedupProperties properties = new DedupProperties();
+        properties.setWindow(window);
+        properties.setCapacity(capacity);
+        return new SendDeduplicator(properties);
+    }
+}
@@ -0,0 +1,136 @@
+package likelion13th.chat.service;
+
+import likelion13th.chat.config.UserDirectoryProperties;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * uid → 이름 캐시: 크기 제한(LRU), 조회 중에 들어온 변경을 옛 값으로 덮어쓰지 않음(stamp),
+ * 없는 uid는 negativeTtl 동안만 캐시, 엔티티 변경은 커밋된 뒤에만 반영
+ */
+class UserDirectoryTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void staysWithinMaxSize() {
+        when(userRepository.findByUid(anyString())).thenAnswer(inv -> Optional.of(user(inv.getArgument(0), "name")));
+        // 구간(16개)마다 한 명씩만 남음
+        UserDirectory directory = directory(16, Duration.ofMinutes(1));
+        for (int i = 0; i < 100; i++) {
+            directory.findDisplayName("u" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            directory.findDisplayName("u" + i);
+        }
+
+        // 두 번째 조회에서 캐시에 남아 있던 것은 많아야 16명
+        verify(userRepository, atLeast(100 + 84)).findByUid(anyString());
+    }
+
+    @Test
+    void lookupDoesNotOverwriteAChangeThatArrivedMeanwhile() {
+        UserDirectory directory = directory(1_000, Duration.ofMinutes(1));
+        // DB에서 옛 이름을 읽는 사이에 이름 변경이 커밋됨
+        when(userRepository.findByUid("alice")).thenAnswer(inv -> {
+            directory.put("alice", "Alice (new)");
+            return Optional.of(user("alice", "Alice (old)"));
+        });
+
+        assertThat(directory.findDisplayName("alice")).contains("Alice (old)");
+        assertThat(directory.findDisplayName("alice")).contains("Alice (new)");
+        verify(userRepository, times(1)).findByUid("alice");
+    }
+
+    @Test
+    void batchLookupDoesNotResurrectADeletedUser() {
+        UserDirectory directory = directory(1_000, Duration.ofMinutes(1));
+        when(userRepository.findByUidIn(List.of("bob"))).thenAnswer(inv -> {
+            directory.evict("bob");
+            return List.of(user("bob", "Bob"));
+        });
+
+        directory.resolveNames(List.of("bob"));
+        assertThat(directory.resolveNames(List.of("bob"))).isEmpty();
+    }
+
+    @Test
+    void missingUsersAreCachedOnlyForTheNegativeTtl() throws Exception {
+        when(userRepository.findByUid("ghost")).thenReturn(Optional.empty());
+        UserDirectory longTtl = directory(1_000, Duration.ofMinutes(1));
+        assertThat(longTtl.findDisplayName("ghost")).isEmpty();
+        assertThat(longTtl.findDisplayName("ghost")).isEmpty();
+        verify(userRepository, times(1)).findByUid("ghost");
+
+        UserDirectory shortTtl = directory(1_000, Duration.ofMillis(1));
+        assertThat(shortTtl.findDisplayName("ghost")).isEmpty();
+        Thread.sleep(20);
+        // 만료 뒤에는 다시 DB를 봄 (다른 노드에서 가입한 사용자)
+        when(userRepository.findByUid("ghost")).thenReturn(Optional.of(user("ghost", "Ghost")));
+        assertThat(shortTtl.findDisplayName("ghost")).contains("Ghost");
+    }
+
+    @Test
+    void entityChangesReachTheCacheOnlyAfterCommit() {
+        when(userRepository.findByUid("carol")).thenReturn(Optional.of(user("carol", "Carol")));
+        UserDirectory directory = directory(1_000, Duration.ofMinutes(1));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<UserDirectory> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(directory);
+        UserChangeListener listener = new UserChangeListener(provider);
+        assertThat(directory.findDisplayName("carol")).contains("Carol");
+
+        // 롤백된 이름 변경은 캐시에 남지 않음
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onSaved(user("carol", "Carol (rolled back)"));
+        assertThat(directory.findDisplayName("carol")).contains("Carol");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(directory.findDisplayName("carol")).contains("Carol");
+
+        // 커밋된 변경은 반영
+        TransactionSynchronizationManager.initSynchronization();
+        listener.onSaved(user("carol", "Carol (committed)"));
+        assertThat(directory.findDisplayName("carol")).contains("Carol");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(directory.findDisplayName("carol")).contains("Carol (committed)");
+        verify(userRepository, times(1)).findByUid("carol");
+    }
+
+    private UserDirectory directory(int maxSize, Duration negativeTtl) {
+        UserDirectoryProperties properties = new UserDirectoryProperties();
+        properties.setMaxSize(maxSize);
+        properties.setNegativeTtl(negativeTtl);
+        return new UserDirectory(userRepository, properties);
+    }
+
+    private static User user(String uid, String displayName) {
+        return User.builder().uid(uid).key(uid).displayName(displayName).build();
+    }
+}
@@ -0,0 +1,370 @@
+package likelion13th.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import likelion13th.chat.config.PersistenceProperties;
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.MessageStatus;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
+import likelion13th.chat.storage.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * write-behind: 큐가 찼을 때의 처리, 배치 저장, 호출 시점 기준 awaitFlushed, 저널 복구,
+ * 큐에 넣기 전의 재전송 확인과 저장하지 못한 메시지 되돌리기
+ * DB 대신 insertAll을 기록하는 mock을 씀 (start() 전에는 flusher가 없어 큐가 그대로 남음)
+ */
+class WriteBehindChatMessageWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final AtomicLong ids = new AtomicLong();
+    /** insertAll이 받은 배치들 */
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    private MessageIdAllocator idAllocator;
+    private ChatMessageJdbcRepository jdbcRepository;
+    private ShardRouter shardRouter;
+    private ApplicationEventPublisher eventPublisher;
+    private PersistenceProperties properties;
+    private WriteBehindChatMessageWriter writer;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        idAllocator = mock(MessageIdAllocator.class);
+        when(idAllocator.nextId()).thenAnswer(inv -> ids.incrementAndGet());
+        jdbcRepository = mock(ChatMessageJdbcRepository.class);
+        doAnswer(inv -> {
+            List<ChatMessage> messages = inv.getArgument(0);
+            batches.add(messages.stream().map(ChatMessage::getId).toList());
+            return null;
+        }).when(jdbcRepository).insertAll(anyList());
+        when(jdbcRepository.findExistingIds(anyList())).thenReturn(List.of());
+        shardRouter = mock(ShardRouter.class);
+        when(shardRouter.onShard(anyInt(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(1)).get());
+        when(shardRouter.inRoom(anyLong(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(1)).get());
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        properties = new PersistenceProperties();
+        properties.setMode(PersistenceProperties.Mode.WRITE_BEHIND);
+        properties.getWriteBehind().setMaxLinger(Duration.ZERO);
+        properties.getWriteBehind().getJournal().setDirectory(journalDir);
+        properties.getWriteBehind().getJournal().setFsync(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null && writer.isRunning()) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void rejectPolicyFailsFastWhenQueueIsFull() {
+        properties.getWriteBehind().setQueueCapacity(2);
+        properties.getWriteBehind().setOverflow(PersistenceProperties.Overflow.REJECT);
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        writer = newWriter();
+
+        writer.write(message("1"));
+        writer.write(message("2"));
+        assertThatThrownBy(() -> writer.write(message("3"))).isInstanceOf(IllegalStateException.class);
+
+        // 거절된 메시지는 기다릴 대상이 아님: 큐에 있던 두 건만 한 배치로 저장
+        writer.start();
+        writer.awaitFlushed();
+        assertThat(batches).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void blockPolicyGivesUpAfterOfferTimeout() {
+        properties.getWriteBehind().setQueueCapacity(1);
+        properties.getWriteBehind().setOverflow(PersistenceProperties.Overflow.BLOCK);
+        properties.getWriteBehind().setOfferTimeout(Duration.ofMillis(50));
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        writer = newWriter();
+
+        writer.write(message("1"));
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> writer.write(message("2"))).isInstanceOf(IllegalStateException.class);
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void callerRunsPolicyInsertsOnTheCallingThread() {
+        properties.getWriteBehind().setQueueCapacity(1);
+        properties.getWriteBehind().setOverflow(PersistenceProperties.Overflow.CALLER_RUNS);
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        writer = newWriter();
+
+        writer.write(message("1"));
+        ChatMessage overflowed = writer.write(message("2"));
+
+        assertThat(overflowed.getId()).isEqualTo(2L);
+        assertThat(batches).containsExactly(List.of(2L));
+    }
+
+    @Test
+    void flusherSplitsQueuedMessagesIntoMaxSizedBatches() throws InterruptedException {
+        properties.getWriteBehind().setMaxBatchSize(3);
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        writer = newWriter();
+        for (int i = 0; i < 7; i++) {
+            writer.write(message("m" + i));
+        }
+
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (batches.stream().mapToInt(List::size).sum() < 7 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(batches).containsExactly(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L), List.of(7L));
+    }
+
+    @Test
+    void awaitFlushedGivesUpAfterTheFlushTimeoutWhileTheDatabaseIsDown() {
+        properties.getWriteBehind().setFlushTimeout(Duration.ofMillis(100));
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        List<String> inserters = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            inserters.add(Thread.currentThread().getName());
+            throw new IllegalStateException("database down");
+        }).when(jdbcRepository).insertAll(anyList());
+        writer = newWriter();
+        writer.start();
+        writer.write(message("m"));
+
+        long started = System.nanoTime();
+        writer.awaitFlushed();
+        writer.awaitFlushed(1L);
+
+        // 재시도는 flusher만: 호출한 스레드는 저장하지 않고 flush-timeout 뒤에 돌아옴
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        assertThat(inserters).isNotEmpty().allMatch("chat-write-behind"::equals);
+    }
+
+    @Test
+    void awaitFlushedForOneMessageWaitsOnlyForThatMessage() throws Exception {
+        properties.getWriteBehind().setFlushTimeout(Duration.ofSeconds(30));
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<ChatMessage> messages = inv.getArgument(0);
+            if (messages.get(0).getContent().equals("blocked")) {
+                release.await();
+            }
+            batches.add(messages.stream().map(ChatMessage::getId).toList());
+            return null;
+        }).when(jdbcRepository).insertAll(anyList());
+        writer = newWriter();
+        writer.start();
+        writer.write(message("saved"));
+        writer.awaitFlushed(1L);
+        assertThat(batches).containsExactly(List.of(1L));
+        writer.write(message("blocked"));
+
+        // 저장이 멈춘 다른 메시지나 모르는 ID는 기다리지 않음
+        long started = System.nanoTime();
+        writer.awaitFlushed(1L);
+        writer.awaitFlushed(999L);
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(1));
+
+        Thread waiter = new Thread(() -> writer.awaitFlushed(2L));
+        waiter.start();
+        waiter.join(100);
+        assertThat(waiter.isAlive()).isTrue();
+        release.countDown();
+        waiter.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(waiter.isAlive()).isFalse();
+        assertThat(batches).containsExactly(List.of(1L), List.of(2L));
+    }
+
+    @Test
+    void awaitFlushedDoesNotWaitForMessagesWrittenAfterTheCall() throws Exception {
+        properties.getWriteBehind().setFlushTimeout(Duration.ofSeconds(30));
+        CountDownLatch firstEntered = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseLater = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<ChatMessage> messages = inv.getArgument(0);
+            if (messages.get(0).getContent().equals("first")) {
+                firstEntered.countDown();
+                releaseFirst.await();
+            } else {
+                releaseLater.await();
+            }
+            batches.add(messages.stream().map(ChatMessage::getId).toList());
+            return null;
+        }).when(jdbcRepository).insertAll(anyList());
+        writer = newWriter();
+        writer.start();
+
+        writer.write(message("first"));
+        assertThat(firstEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread waiter = new Thread(writer::awaitFlushed);
+        waiter.start();
+        while (waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        // 호출 뒤에 들어온 메시지는 저장이 멈춰 있어도 기다리지 않아야 함
+        writer.write(message("later"));
+        releaseFirst.countDown();
+
+        waiter.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(waiter.isAlive()).isFalse();
+        assertThat(batches).containsExactly(List.of(1L));
+        releaseLater.countDown();
+    }
+
+    @Test
+    void resendIsRejectedBeforeItIsQueued() {
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        writer = newWriter();
+
+        writer.write(resend("c-1"));
+        // 원래 메시지가 아직 큐에 있음: DB를 보기 전에 거절
+        assertThatThrownBy(() -> writer.write(resend("c-1"))).isInstanceOf(DuplicateKeyException.class);
+        verify(jdbcRepository, times(1)).existsByClientMessageId(1L, "alice", "c-1");
+
+        writer.start();
+        writer.awaitFlushed();
+        assertThat(batches).containsExactly(List.of(1L));
+
+        // 저장된 뒤에는 DB에서 확인
+        when(jdbcRepository.existsByClientMessageId(1L, "alice", "c-1")).thenReturn(true);
+        assertThatThrownBy(() -> writer.write(resend("c-1"))).isInstanceOf(DuplicateKeyException.class);
+        writer.awaitFlushed();
+        assertThat(batches).containsExactly(List.of(1L));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void unsavableMessageIsUndoneInsteadOfDroppedSilently() {
+        properties.getWriteBehind().getJournal().setEnabled(false);
+        doAnswer(inv -> {
+            List<ChatMessage> messages = inv.getArgument(0);
+            if (messages.stream().anyMatch(m -> m.getContent().equals("bad"))) {
+                throw new DataIntegrityViolationException("value too long for column content");
+            }
+            batches.add(messages.stream().map(ChatMessage::getId).toList());
+            return null;
+        }).when(jdbcRepository).insertAll(anyList());
+        writer = newWriter();
+        writer.write(message("good"));
+        writer.write(message("bad"));
+
+        writer.start();
+        writer.awaitFlushed();
+
+        // 배치를 한 건씩 나눠 다시 저장: 저장할 수 있는 메시지는 남고, 나머지는 이벤트로 되돌림
+        assertThat(batches).containsExactly(List.of(1L));
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(((UnsavedMessageEvent) event.getValue()).message().getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void clientMessageIdConflictIsRecognizedByConstraintName() {
+        assertThat(ChatMessageJdbcRepository.isClientMessageIdConflict(new DuplicateKeyException(
+                "Duplicate entry 'x' for key 'chat_message.UK_CHAT_MESSAGE_CLIENT_ID'"))).isTrue();
+        assertThat(ChatMessageJdbcRepository.isClientMessageIdConflict(new DataIntegrityViolationException(
+                "NULL not allowed for column \"CONTENT\""))).isFalse();
+    }
+
+    @Test
+    void replaysJournaledMessagesMissingFromTheDatabaseOnStart() {
+        WriteBehindJournal journal = new WriteBehindJournal(properties.getWriteBehind().getJournal(), objectMapper);
+        journal.open();
+        for (long id = 1; id <= 3; id++) {
+            journal.append(id, message("m" + id).toBuilder()
+                    .id(id)
+                    .createdAt(Instant.now())
+                    .build());
+        }
+        // 프로세스가 죽은 상황: close() 없이 그대로 다음 실행으로
+        when(jdbcRepository.findExistingIds(anyList())).thenReturn(List.of(2L));
+
+        writer = newWriter();
+        writer.start();
+
+        assertThat(batches).containsExactly(List.of(1L, 3L));
+        // 복구한 세그먼트는 지워짐: 다시 시작해도 같은 메시지를 또 저장하지 않음
+        writer.stop();
+        batches.clear();
+        writer = newWriter();
+        writer.start();
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void journalDropsSegmentsOnceEverythingInThemIsFlushed() {
+        properties.getWriteBehind().getJournal().setSegmentSize(DataSize.ofBytes(200));
+        WriteBehindJournal journal = new WriteBehindJournal(properties.getWriteBehind().getJournal(), objectMapper);
+        journal.open();
+        for (long seq = 1; seq <= 5; seq++) {
+            journal.append(seq, message("m" + seq).toBuilder().id(seq).createdAt(Instant.now()).build());
+        }
+
+        journal.release(3);
+        List<Long> left = new ArrayList<>(journal.recover().stream().map(ChatMessage::getId).toList());
+        assertThat(left).contains(4L, 5L).doesNotContain(1L);
+
+        journal.release(5);
+        assertThat(journal.recover()).isEmpty();
+        journal.close();
+    }
+
+    private WriteBehindChatMessageWriter newWriter() {
+        return new WriteBehindChatMessageWriter(idAllocator, jdbcRepository, shardRouter, properties, objectMapper,
+                eventPublisher);
+    }
+
+    private static ChatMessage resend(String clientMessageId) {
+        return message("resent").toBuilder().clientMessageId(clientMessageId).build();
+    }
+
+    private static ChatMessage message(String content) {
+        return ChatMessage.builder()
+                .roomNo(1L)
+                .senderUid("alice")
+                .content(content)
+                .status(MessageStatus.SENT)
+                .build();
+    }
+}
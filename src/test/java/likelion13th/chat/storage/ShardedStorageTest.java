@@ -0,0 +1,162 @@
+package likelion13th.chat.storage;
+
+import likelion13th.chat.domain.ChatMessage;
+import likelion13th.chat.domain.User;
+import likelion13th.chat.dto.command.EditMessageCommand;
+import likelion13th.chat.dto.command.SendMessageCommand;
+import likelion13th.chat.dto.event.ChatMessageResponse;
+import likelion13th.chat.repository.ChatMessageJdbcRepository;
+import likelion13th.chat.repository.ChatMessageRepository;
+import likelion13th.chat.repository.UserRepository;
+import likelion13th.chat.service.ChatService;
+import likelion13th.chat.service.MessageConflictException;
+import likelion13th.chat.service.RoomRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 샤드 3개(spring.datasource + 추가 H2 2개) + cold 세그먼트
+ * - 방마다 메시지가 그 방의 샤드에만 저장되고 ID는 샤드를 통틀어 겹치지 않음
+ * - 압축 후 hot 테이블이 비어도 내역/페이지네이션은 그대로, 이후 새 메시지와도 이어서 조회됨
+ * - 더 큰 ID가 cold로 간 뒤에 커밋된 작은 ID도 지워지지 않고 다음 압축에서 옮겨짐
+ */
+@SpringBootTest
+class ShardedStorageTest {
+
+    private static final int ROOMS = 12;
+    private static final int MESSAGES_PER_ROOM = 5;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", () -> h2Url("shard0"));
+        for (int shard = 0; shard < 2; shard++) {
+            String url = h2Url("shard" + (shard + 1));
+            registry.add("chat.storage.shards[" + shard + "].url", () -> url);
+            registry.add("chat.storage.shards[" + shard + "].username", () -> "sa");
+            registry.add("chat.storage.shards[" + shard + "].password", () -> "");
+        }
+        String directory = Files.createTempDirectory("chat-archive").toString();
+        registry.add("chat.storage.archive.enabled", () -> "true");
+        registry.add("chat.storage.archive.age", () -> "0s");
+        registry.add("chat.storage.archive.directory", () -> directory);
+        registry.add("chat.storage.archive.segment-size", () -> "3");
+        registry.add("chat.history.cache.enabled", () -> "false");
+    }
+
+    private static String h2Url(String name) {
+        return "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false";
+    }
+
+    @Autowired
+    ChatService chatService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ChatMessageRepository chatMessageRepository;
+    @Autowired
+    ChatMessageJdbcRepository jdbcRepository;
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    RoomRegistry roomRegistry;
+    @Autowired
+    ArchiveCompactor archiveCompactor;
+
+    @Test
+    void roomsAreSpreadAcrossShardsAndSurviveCompaction() {
+        String me = userRepository.save(User.builder().key("shard").displayName("me").build()).getUid();
+        List<String> rooms = new ArrayList<>();
+        Map<Integer, Integer> expectedPerShard = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < ROOMS; i++) {
+            String other = userRepository.save(User.builder().key("shard").displayName("other-" + i).build()).getUid();
+            String roomId = RoomRegistry.canonicalKey(me, other);
+            rooms.add(roomId);
+            for (int m = 0; m < MESSAGES_PER_ROOM; m++) {
+                ids.add(chatService.send(new SendMessageCommand(roomId, me, "msg-" + m, null)).message().getId());
+            }
+            expectedPerShard.merge(shardRouter.shardOf(roomRegistry.resolve(roomId).no()), MESSAGES_PER_ROOM, Integer::sum);
+        }
+
+        assertThat(ids).hasSize(ROOMS * MESSAGES_PER_ROOM);
+        assertThat(expectedPerShard).hasSizeGreaterThan(1);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long rows = shardRouter.onShard(shard, () -> chatMessageRepository.count());
+            assertThat(rows).isEqualTo(expectedPerShard.getOrDefault(shard, 0).longValue());
+        }
+
+        String roomId = rooms.get(0);
+        List<ChatMessageResponse> before = chatService.fetchRecent(roomId, 50);
+        assertThat(before).extracting(ChatMessageResponse::getContent)
+                .containsExactly("msg-0", "msg-1", "msg-2", "msg-3", "msg-4");
+
+        archiveCompactor.compact();
+
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            assertThat(shardRouter.onShard(shard, () -> chatMessageRepository.count())).isZero();
+        }
+        // 전부 cold로 옮겨져도 같은 결과, 페이지 경계가 세그먼트 경계(3개)와 달라도 이어짐
+        assertThat(chatService.fetchRecent(roomId, 50)).extracting(ChatMessageResponse::getId)
+                .containsExactlyElementsOf(before.stream().map(ChatMessageResponse::getId).toList());
+        List<ChatMessageResponse> page = chatService.fetchHistory(roomId, before.get(4).getId(), null, 2);
+        assertThat(page).extracting(ChatMessageResponse::getContent).containsExactly("msg-2", "msg-3");
+        assertThat(chatService.fetchHistory(roomId, null, before.get(1).getId(), 2))
+                .extracting(ChatMessageResponse::getContent).containsExactly("msg-2", "msg-3");
+
+        // 새 메시지는 hot에, 조회는 cold + hot을 합쳐서
+        chatService.send(new SendMessageCommand(roomId, me, "fresh", null));
+        assertThat(chatService.fetchRecent(roomId, 3)).extracting(ChatMessageResponse::getContent)
+                .containsExactly("msg-3", "msg-4", "fresh");
+
+        // cold 메시지는 읽기 전용
+        assertThatThrownBy(() -> chatService.edit(new EditMessageCommand(before.get(0).getId(), me, "edited", roomId)))
+                .isInstanceOf(MessageConflictException.class);
+    }
+
+    @Test
+    void lateCommittedLowerIdIsArchivedNotDropped() {
+        String me = userRepository.save(User.builder().key("shard").displayName("late-me").build()).getUid();
+        String other = userRepository.save(User.builder().key("shard").displayName("late-other").build()).getUid();
+        String roomId = RoomRegistry.canonicalKey(me, other);
+        long roomNo = roomRegistry.resolve(roomId).no();
+        long firstId = chatService.send(new SendMessageCommand(roomId, me, "m0", null)).message().getId();
+        long lateId = chatService.send(new SendMessageCommand(roomId, me, "late", null)).message().getId();
+        chatService.send(new SendMessageCommand(roomId, me, "m2", null));
+
+        // "late"가 아직 커밋되지 않은 것처럼 hot에서 빼두고 압축 (m0, m2만 cold로)
+        ChatMessage late = shardRouter.inRoom(roomNo, () -> chatMessageRepository.findById(lateId)).orElseThrow();
+        shardRouter.runInRoom(roomNo, () -> chatMessageRepository.deleteById(lateId));
+        archiveCompactor.compact();
+
+        // 더 큰 ID(m2)가 cold로 간 뒤에 커밋됨: hot + cold를 합쳐서 id 순으로 보임
+        shardRouter.runInRoom(roomNo, () -> jdbcRepository.insertAll(List.of(late)));
+        assertThat(chatService.fetchRecent(roomId, 50)).extracting(ChatMessageResponse::getContent)
+                .containsExactly("m0", "late", "m2");
+        assertThat(chatService.fetchHistory(roomId, null, firstId, 1)).extracting(ChatMessageResponse::getContent)
+                .containsExactly("late");
+
+        // 다음 압축에서 세그먼트에 쓰인 뒤에만 hot에서 지워짐
+        archiveCompactor.compact();
+        assertThat(shardRouter.inRoom(roomNo, () -> chatMessageRepository.findById(lateId))).isEmpty();
+        assertThat(chatService.fetchRecent(roomId, 50)).extracting(ChatMessageResponse::getContent)
+                .containsExactly("m0", "late", "m2");
+        assertThat(chatService.fetchHistory(roomId, null, firstId, 2)).extracting(ChatMessageResponse::getContent)
+                .containsExactly("late", "m2");
+    }
+}
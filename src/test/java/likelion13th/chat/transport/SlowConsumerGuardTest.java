@@ -0,0 +1,115 @@
+package likelion13th.chat.transport;
+
+import likelion13th.chat.config.TransportProperties;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 느린 구독자: 한도 이상이면 MESSAGE만 버리거나(DROP) 세션을 닫고(DISCONNECT),
+ * 소켓에 썼거나 전달에 실패한 프레임만큼 pending이 다시 0으로 돌아와야 함
+ */
+class SlowConsumerGuardTest {
+
+    private static final String SESSION = "s1";
+
+    private final TransportProperties properties = new TransportProperties();
+    private final WebSocketSession socket = mock(WebSocketSession.class);
+
+    @Test
+    void dropStrategyDiscardsBroadcastsButKeepsTheSession() throws Exception {
+        properties.getSlowConsumer().setMaxPendingFrames(2);
+        SlowConsumerGuard guard = new SlowConsumerGuard(properties);
+        connect(guard);
+
+        assertThat(guard.preSend(frame(SimpMessageType.MESSAGE), null)).isNotNull();
+        assertThat(guard.preSend(frame(SimpMessageType.MESSAGE), null)).isNotNull();
+        assertThat(guard.preSend(frame(SimpMessageType.MESSAGE), null)).isNull();
+        // 브로드캐스트가 아닌 프레임은 한도와 상관없이 보냄
+        assertThat(guard.preSend(frame(SimpMessageType.CONNECT_ACK), null)).isNotNull();
+
+        assertThat(guard.getDropped()).isEqualTo(1);
+        assertThat(guard.getDisconnected()).isZero();
+        assertThat(guard.getSlowSessionCount()).isEqualTo(1);
+        verify(socket, never()).close(any());
+    }
+
+    @Test
+    void disconnectStrategyClosesTheSessionOnce() throws Exception {
+        properties.getSlowConsumer().setMaxPendingFrames(1);
+        properties.getSlowConsumer().setStrategy(TransportProperties.Strategy.DISCONNECT);
+        SlowConsumerGuard guard = new SlowConsumerGuard(properties);
+        connect(guard);
+
+        assertThat(guard.preSend(frame(SimpMessageType.MESSAGE), null)).isNotNull();
+        assertThat(guard.preSend(frame(SimpMessageType.MESSAGE), null)).isNull();
+        assertThat(guard.preSend(frame(SimpMessageType.MESSAGE), null)).isNull();
+
+        assertThat(guard.getDropped()).isEqualTo(2);
+        assertThat(guard.getDisconnected()).isEqualTo(1);
+        verify(socket, timeout(5_000).times(1)).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void pendingReturnsToZeroAfterWritesAndFailures() throws Exception {
+        SlowConsumerGuard guard = new SlowConsumerGuard(properties);
+        WebSocketSession tracking = connect(guard);
+
+        for (int i = 0; i < 4; i++) {
+            guard.preSend(frame(SimpMessageType.MESSAGE), null);
+        }
+        assertThat(guard.getTotalPending()).isEqualTo(4);
+
+        // 소켓에 씀
+        tracking.sendMessage(new TextMessage("frame"));
+        // 쓰다가 실패해도 더 이상 대기 중이 아님
+        doThrow(new IOException("broken pipe")).when(socket).sendMessage(any());
+        assertThatThrownBy(() -> tracking.sendMessage(new TextMessage("frame"))).isInstanceOf(IOException.class);
+        // 뒤쪽 인터셉터/실행기가 받지 않음
+        guard.afterSendCompletion(frame(SimpMessageType.MESSAGE), null, false, null);
+        // 핸들러가 예외로 끝남
+        guard.afterMessageHandled(frame(SimpMessageType.MESSAGE), null, null, new IllegalStateException("closed"));
+        assertThat(guard.getTotalPending()).isZero();
+
+        // 채널을 거치지 않고 바로 쓰인 프레임(ERROR 등)이 있어도 음수로 내려가지 않음
+        tracking.sendMessage(new TextMessage("error"));
+        assertThat(guard.getMaxPending()).isZero();
+    }
+
+    /** 데코레이터를 거쳐 연결을 맺고, 안쪽 핸들러가 받은(프레임 쓰기를 세는) 세션을 돌려줌 */
+    private WebSocketSession connect(SlowConsumerGuard guard) throws Exception {
+        when(socket.getId()).thenReturn(SESSION);
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        guard.decorate(handler).afterConnectionEstablished(socket);
+
+        ArgumentCaptor<WebSocketSession> tracking = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(tracking.capture());
+        assertThat(guard.getSessionCount()).isEqualTo(1);
+        return tracking.getValue();
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(SESSION);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}